@@ -121,10 +121,12 @@ import rx.Observable;
 import rx.Observable.OnSubscribe;
 import rx.Subscriber;
 import rx.Subscription;
+import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action0;
 import rx.functions.Action1;
 import rx.functions.Func1;
 import rx.schedulers.Schedulers;
+import rx.subscriptions.Subscriptions;
 
 public class CacheListActivity extends AbstractListActivity implements FilteredActivity, LoaderManager.LoaderCallbacks<SearchResult> {
 
@@ -565,7 +567,18 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
     public void onResume() {
         super.onResume();
 
-        resumeSubscription = geoDirHandler.start(GeoDirHandler.UPDATE_GEODATA | GeoDirHandler.UPDATE_DIRECTION | GeoDirHandler.LOW_POWER, 250, TimeUnit.MILLISECONDS);
+        // the list counts are maintained by the database, update the list selector when caches are stored or moved
+        final Subscription listCountsSubscription = DataStore.getListCountsChangedObservable()
+                .debounce(500, TimeUnit.MILLISECONDS)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Action1<Void>() {
+                    @Override
+                    public void call(final Void ignored) {
+                        refreshSpinnerAdapter();
+                    }
+                });
+        resumeSubscription = Subscriptions.from(geoDirHandler.start(GeoDirHandler.UPDATE_GEODATA | GeoDirHandler.UPDATE_DIRECTION | GeoDirHandler.LOW_POWER, 250, TimeUnit.MILLISECONDS),
+                listCountsSubscription);
 
         adapter.setSelectMode(false);
         setAdapterCurrentCoordinates(true);
@@ -1807,6 +1820,10 @@ public class CacheListActivity extends AbstractListActivity implements FilteredA
             updateTitle();
             showFooterMoreCaches();
         }
+        if (arg0 instanceof AbstractSearchLoader && ((AbstractSearchLoader) arg0).isLoading()) {
+            // partial result of a search on several connectors, wait for the others
+            return;
+        }
         showProgress(false);
         hideLoading();
         invalidateOptionsMenuCompatible();
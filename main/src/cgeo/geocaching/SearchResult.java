@@ -11,6 +11,7 @@ import cgeo.geocaching.gcvote.GCVote;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.AndroidRxUtils;
+import cgeo.geocaching.utils.Log;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -20,7 +21,6 @@ import org.eclipse.jdt.annotation.Nullable;
 import rx.Observable;
 import rx.functions.Func0;
 import rx.functions.Func1;
-import rx.functions.Func2;
 
 import android.os.Parcel;
 import android.os.Parcelable;
@@ -32,6 +32,8 @@ import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public class SearchResult implements Parcelable {
 
@@ -46,6 +48,9 @@ public class SearchResult implements Parcelable {
      */
     private int totalCountGC = 0;
 
+    /** Time to wait for a single connector when searching for cache lists, not counting the time spent on a captcha. */
+    public static final long CONNECTOR_DEADLINE_SECONDS = 25;
+
     final public static Parcelable.Creator<SearchResult> CREATOR = new Parcelable.Creator<SearchResult>() {
         @Override
         public SearchResult createFromParcel(final Parcel in) {
@@ -308,15 +313,57 @@ public class SearchResult implements Parcelable {
     }
 
     /**
-     * execute the given connector request in parallel on all active connectors
+     * Execute the given connector request in parallel on all active connectors, and emit the result of every connector
+     * as soon as it is available, so that partial results can be shown while slower connectors are still working.
+     * A connector failing or not answering within the deadline is skipped. After unsubscribing, the results of
+     * requests still running are dropped.
      *
      * @param connectors
      *            connectors to be considered in request
      * @param func
      *            connector request
+     * @param deadline
+     *            maximum time to wait for a single connector
+     */
+    public static <C extends IConnector> Observable<SearchResult> parallelActive(final Collection<C> connectors, final Func1<C, SearchResult> func,
+                                                                               final long deadline, final TimeUnit unit) {
+        return parallelActive(connectors, func, deadline, unit, null);
+    }
+
+    /**
+     * Like {@link #parallelActive(Collection, Func1, long, TimeUnit)}, but a connector missing the deadline is asked
+     * for the part of its result which is already available instead of being skipped.
+     *
+     * @param partialResult
+     *            part of the result of a connector available at the deadline, or {@code null} to skip the connector
      */
-    public static <C extends IConnector> SearchResult parallelCombineActive(final Collection<C> connectors,
-                                                                            final Func1<C, SearchResult> func) {
+    public static <C extends IConnector> Observable<SearchResult> parallelActive(final Collection<C> connectors, final Func1<C, SearchResult> func,
+                                                                               final long deadline, final TimeUnit unit, @Nullable final Func1<C, SearchResult> partialResult) {
+        return parallelActive(connectors, func, Observable.timer(deadline, unit), partialResult);
+    }
+
+    /**
+     * Like {@link #parallelActive(Collection, Func1, long, TimeUnit, Func1)}, but the deadline of a connector is
+     * reached when the given observable, subscribed to for each connector, emits its first item.
+     *
+     * @param deadline
+     *            observable emitting when a single connector has run out of time
+     */
+    public static <C extends IConnector, D> Observable<SearchResult> parallelActive(final Collection<C> connectors, final Func1<C, SearchResult> func,
+                                                                                  final Observable<D> deadline, @Nullable final Func1<C, SearchResult> partialResult) {
+        final Func0<Observable<D>> connectorDeadline = new Func0<Observable<D>>() {
+            @Override
+            public Observable<D> call() {
+                return deadline;
+            }
+        };
+        // a connector emits a single result, the deadline does not apply anymore afterwards
+        final Func1<SearchResult, Observable<D>> noDeadlineAfterResult = new Func1<SearchResult, Observable<D>>() {
+            @Override
+            public Observable<D> call(final SearchResult result) {
+                return Observable.never();
+            }
+        };
         return Observable.from(connectors).flatMap(new Func1<C, Observable<SearchResult>>() {
             @Override
             public Observable<SearchResult> call(final C connector) {
@@ -326,17 +373,23 @@ public class SearchResult implements Parcelable {
                 return Observable.defer(new Func0<Observable<SearchResult>>() {
                     @Override
                     public Observable<SearchResult> call() {
-                        return Observable.just(func.call(connector));
+                        final SearchResult result = func.call(connector);
+                        return result != null ? Observable.just(result) : Observable.<SearchResult>empty();
                     }
-                }).subscribeOn(AndroidRxUtils.networkScheduler);
-            }
-        }).reduce(new SearchResult(), new Func2<SearchResult, SearchResult, SearchResult>() {
-            @Override
-            public SearchResult call(final SearchResult searchResult, final SearchResult searchResult2) {
-                searchResult.addSearchResult(searchResult2);
-                return searchResult;
+                }).subscribeOn(AndroidRxUtils.networkScheduler).timeout(connectorDeadline, noDeadlineAfterResult).onErrorResumeNext(new Func1<Throwable, Observable<SearchResult>>() {
+                    @Override
+                    public Observable<SearchResult> call(final Throwable throwable) {
+                        if (throwable instanceof TimeoutException && partialResult != null) {
+                            Log.w("SearchResult.parallelActive: keeping the partial result of " + connector.getName());
+                            final SearchResult partial = partialResult.call(connector);
+                            return partial != null ? Observable.just(partial) : Observable.<SearchResult>empty();
+                        }
+                        Log.w("SearchResult.parallelActive: skipping " + connector.getName(), throwable);
+                        return Observable.empty();
+                    }
+                });
             }
-        }).toBlocking().first();
+        });
     }
 
 }
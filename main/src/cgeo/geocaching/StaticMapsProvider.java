@@ -8,14 +8,15 @@ import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.network.Network;
 import cgeo.geocaching.network.Parameters;
 import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.storage.ImageStore;
 import cgeo.geocaching.storage.LocalStorage;
 import cgeo.geocaching.utils.AndroidRxUtils;
-import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.Log;
 
 import okhttp3.Response;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
 import rx.Completable;
 import rx.functions.Func0;
 
@@ -52,8 +53,9 @@ public final class StaticMapsProvider {
         // utility class
     }
 
-    private static File getMapFile(final String geocode, final String prefix, final boolean createDirs) {
-        return LocalStorage.getStorageFile(geocode, MAP_FILENAME_PREFIX + prefix, false, createDirs);
+    @Nullable
+    private static File getMapFile(final String geocode, final String prefix) {
+        return ImageStore.getFile(geocode, MAP_FILENAME_PREFIX + prefix, false);
     }
 
     private static Completable checkDownloadPermission(final Completable ifPermitted) {
@@ -110,12 +112,11 @@ public final class StaticMapsProvider {
                         }
                         return Completable.complete();
                     }
-                    final File file = getMapFile(geocode, prefix, true);
-                    if (LocalStorage.saveEntityToFile(httpResponse, file)) {
+                    if (ImageStore.save(geocode, MAP_FILENAME_PREFIX + prefix, false, httpResponse.body().byteStream())) {
                         // Delete image if it has no contents
-                        final long fileSize = file.length();
-                        if (fileSize < MIN_MAP_IMAGE_BYTES) {
-                            FileUtils.deleteIgnoringFailure(file);
+                        final File file = getMapFile(geocode, prefix);
+                        if (file != null && file.length() < MIN_MAP_IMAGE_BYTES) {
+                            ImageStore.remove(geocode, MAP_FILENAME_PREFIX + prefix, false);
                         }
                     }
                 } catch (final Exception ignored) {
@@ -157,9 +158,11 @@ public final class StaticMapsProvider {
      * Deletes and download all Waypoints static maps.
      */
     private static Completable refreshAllWpStaticMaps(final Geocache cache, final int width, final int height) {
+        // maps of waypoints which do not exist anymore are released when the cache is removed
         LocalStorage.deleteFilesWithPrefix(cache.getGeocode(), MAP_FILENAME_PREFIX + WAYPOINT_PREFIX);
         final List<Completable> downloaders = new LinkedList<>();
         for (final Waypoint waypoint : cache.getWaypoints()) {
+            removeWpStaticMaps(waypoint, cache.getGeocode());
             downloaders.add(storeWaypointStaticMap(cache.getGeocode(), width, height, waypoint));
         }
         return checkDownloadPermission(Completable.merge(downloaders));
@@ -252,10 +255,7 @@ public final class StaticMapsProvider {
         final int waypointId = waypoint.getId();
         final int waypointMapHash = waypoint.getStaticMapsHashcode();
         for (int level = 1; level <= MAPS_LEVEL_MAX; level++) {
-            final File mapFile = getMapFile(geocode, WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + '_' + level, false);
-            if (!FileUtils.delete(mapFile)) {
-                Log.e("StaticMapsProvider.removeWpStaticMaps failed for " + mapFile.getAbsolutePath());
-            }
+            ImageStore.remove(geocode, MAP_FILENAME_PREFIX + WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + '_' + level, false);
         }
     }
 
@@ -270,8 +270,7 @@ public final class StaticMapsProvider {
             return false;
         }
         for (int level = 1; level <= MAPS_LEVEL_MAX; level++) {
-            final File mapFile = getMapFile(geocode, String.valueOf(level), false);
-            if (mapFile.exists()) {
+            if (getMapFile(geocode, String.valueOf(level)) != null) {
                 return true;
             }
         }
@@ -287,8 +286,7 @@ public final class StaticMapsProvider {
         final int waypointId = waypoint.getId();
         final int waypointMapHash = waypoint.getStaticMapsHashcode();
         for (int level = 1; level <= MAPS_LEVEL_MAX; level++) {
-            final File mapFile = getMapFile(geocode, WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + "_" + level, false);
-            if (mapFile.exists()) {
+            if (getMapFile(geocode, WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + "_" + level) != null) {
                 return true;
             }
         }
@@ -304,9 +302,7 @@ public final class StaticMapsProvider {
         final int waypointId = waypoint.getId();
         final int waypointMapHash = waypoint.getStaticMapsHashcode();
         for (int level = 1; level <= MAPS_LEVEL_MAX; level++) {
-            final File mapFile = getMapFile(geocode, WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + "_" + level, false);
-            final boolean mapExists = mapFile.exists();
-            if (!mapExists) {
+            if (getMapFile(geocode, WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + "_" + level) == null) {
                 return false;
             }
         }
@@ -314,22 +310,22 @@ public final class StaticMapsProvider {
     }
 
     public static Bitmap getPreviewMap(final Geocache cache) {
-        return decodeFile(getMapFile(cache.getGeocode(), PREFIX_PREVIEW, false));
+        return decodeFile(getMapFile(cache.getGeocode(), PREFIX_PREVIEW));
     }
 
     public static Bitmap getWaypointMap(final String geocode, final Waypoint waypoint, final int level) {
         final int waypointId = waypoint.getId();
         final int waypointMapHash = waypoint.getStaticMapsHashcode();
-        return decodeFile(getMapFile(geocode, WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + "_" + level, false));
+        return decodeFile(getMapFile(geocode, WAYPOINT_PREFIX + waypointId + "_" + waypointMapHash + "_" + level));
     }
 
     public static Bitmap getCacheMap(final String geocode, final int level) {
-        return decodeFile(getMapFile(geocode, String.valueOf(level), false));
+        return decodeFile(getMapFile(geocode, String.valueOf(level)));
     }
 
-    private static Bitmap decodeFile(final File mapFile) {
+    private static Bitmap decodeFile(@Nullable final File mapFile) {
         // avoid exception in system log, if we got nothing back from Google.
-        if (mapFile.exists()) {
+        if (mapFile != null) {
             return BitmapFactory.decodeFile(mapFile.getPath());
         }
         return null;
@@ -1,6 +1,8 @@
 package cgeo.geocaching.command;
 
+import cgeo.geocaching.list.AbstractList;
 import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.storage.DataStore;
 
 import org.eclipse.jdt.annotation.NonNull;
 
@@ -27,4 +29,13 @@ public abstract class AbstractCachesCommand extends AbstractCommand {
         return caches;
     }
 
+    /**
+     * Check whether the caches of this command are exactly the caches on the given list. The list can then be changed
+     * as a whole, without going through the caches.
+     */
+    protected boolean isWholeList(final int listId) {
+        final AbstractList list = AbstractList.getListById(listId);
+        return list != null && list.isConcrete() && DataStore.isWholeList(caches, listId);
+    }
+
 }
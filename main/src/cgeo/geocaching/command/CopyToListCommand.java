@@ -45,7 +45,11 @@ public abstract class CopyToListCommand extends AbstractCachesCommand {
 
     @Override
     protected void doCommand() {
-        DataStore.addToList(getCaches(), targetListId);
+        if (isWholeList(sourceListId)) {
+            DataStore.copyAllToList(sourceListId, targetListId);
+        } else {
+            DataStore.addToList(getCaches(), targetListId);
+        }
     }
 
     @Override
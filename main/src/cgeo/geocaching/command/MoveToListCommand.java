@@ -46,7 +46,11 @@ public abstract class MoveToListCommand extends AbstractCachesCommand {
 
     @Override
     protected void doCommand() {
-        DataStore.moveToList(getCaches(), currentListId, newListId);
+        if (isWholeList(currentListId)) {
+            DataStore.moveAllToList(currentListId, newListId);
+        } else {
+            DataStore.moveToList(getCaches(), currentListId, newListId);
+        }
     }
 
     @Override
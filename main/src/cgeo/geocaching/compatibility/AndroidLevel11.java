@@ -1,6 +1,7 @@
 package cgeo.geocaching.compatibility;
 
 import android.annotation.TargetApi;
+import android.database.sqlite.SQLiteDatabase;
 import android.os.Build;
 import android.widget.TextView;
 
@@ -12,4 +13,9 @@ public class AndroidLevel11 implements AndroidLevel11Interface {
         textView.setTextIsSelectable(selectable);
     }
 
+    @Override
+    public boolean enableWriteAheadLogging(final SQLiteDatabase database) {
+        return database.enableWriteAheadLogging();
+    }
+
 }
@@ -1,5 +1,6 @@
 package cgeo.geocaching.compatibility;
 
+import android.database.sqlite.SQLiteDatabase;
 import android.widget.TextView;
 
 public class AndroidLevel11Emulation implements AndroidLevel11Interface {
@@ -9,4 +10,10 @@ public class AndroidLevel11Emulation implements AndroidLevel11Interface {
         // do nothing
     }
 
+    @Override
+    public boolean enableWriteAheadLogging(final SQLiteDatabase database) {
+        // write ahead logging is not available
+        return false;
+    }
+
 }
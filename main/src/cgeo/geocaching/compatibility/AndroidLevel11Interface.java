@@ -1,9 +1,12 @@
 package cgeo.geocaching.compatibility;
 
+import android.database.sqlite.SQLiteDatabase;
 import android.widget.TextView;
 
 public interface AndroidLevel11Interface {
 
     void setTextIsSelectable(TextView textView, boolean selectable);
 
+    boolean enableWriteAheadLogging(SQLiteDatabase database);
+
 }
@@ -4,6 +4,7 @@ import org.eclipse.jdt.annotation.NonNull;
 
 import android.app.Activity;
 import android.content.res.Resources;
+import android.database.sqlite.SQLiteDatabase;
 import android.graphics.Point;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
@@ -43,6 +44,15 @@ public final class Compatibility {
         LEVEL_11.setTextIsSelectable(textView, selectable);
     }
 
+    /**
+     * Enable write ahead logging and a pool of read connections for the given database, if supported.
+     *
+     * @return {@code true} if write ahead logging is enabled
+     */
+    public static boolean enableWriteAheadLogging(final SQLiteDatabase database) {
+        return LEVEL_11.enableWriteAheadLogging(database);
+    }
+
     @SuppressWarnings("deprecation")
     // the non replacement method is only available on level 21, therefore we ignore this deprecation
     public static Drawable getDrawable(final Resources resources, final int markerId) {
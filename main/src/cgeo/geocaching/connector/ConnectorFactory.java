@@ -26,6 +26,7 @@ import cgeo.geocaching.connector.trackable.UnknownTrackableConnector;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Trackable;
+import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.RxUtils;
@@ -36,6 +37,7 @@ import org.eclipse.jdt.annotation.Nullable;
 import rx.Observable;
 import rx.functions.Func0;
 import rx.functions.Func1;
+import rx.functions.Func2;
 import rx.schedulers.Schedulers;
 
 import java.util.ArrayList;
@@ -43,6 +45,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 public final class ConnectorFactory {
     @NonNull public static final UnknownConnector UNKNOWN_CONNECTOR = new UnknownConnector();
@@ -107,6 +110,9 @@ public final class ConnectorFactory {
     @NonNull
     private static final Collection<ISearchByFinder> SEARCH_BY_FINDER_CONNECTORS = getMatchingConnectors(ISearchByFinder.class);
 
+    /** Time to wait for a single connector when searching the map viewport, shorter than for lists as the map moves on. */
+    private static final long VIEWPORT_DEADLINE_SECONDS = 15;
+
     private ConnectorFactory() {
         // utility class
     }
@@ -260,11 +266,39 @@ public final class ConnectorFactory {
     /** @see ISearchByViewPort#searchByViewport */
     @NonNull
     public static SearchResult searchByViewport(final @NonNull Viewport viewport, @NonNull final MapTokens tokens) {
-        return SearchResult.parallelCombineActive(searchByViewPortConns, new Func1<ISearchByViewPort, SearchResult>() {
+        return searchByViewportIncrementally(viewport, tokens).reduce(new SearchResult(), new Func2<SearchResult, SearchResult, SearchResult>() {
+            @Override
+            public SearchResult call(final SearchResult searchResult, final SearchResult connectorResult) {
+                searchResult.addSearchResult(connectorResult);
+                return searchResult;
+            }
+        }).toBlocking().first();
+    }
+
+    /**
+     * Search the viewport on all active connectors, emitting the result of every connector as soon as it is available.
+     * For a connector missing the deadline, the caches it has already parsed into the CacheCache are used.
+     *
+     * @see ISearchByViewPort#searchByViewport
+     */
+    @NonNull
+    public static Observable<SearchResult> searchByViewportIncrementally(final @NonNull Viewport viewport, @NonNull final MapTokens tokens) {
+        return SearchResult.parallelActive(searchByViewPortConns, new Func1<ISearchByViewPort, SearchResult>() {
             @Override
             public SearchResult call(final ISearchByViewPort connector) {
                 return connector.searchByViewport(viewport, tokens);
             }
+        }, VIEWPORT_DEADLINE_SECONDS, TimeUnit.SECONDS, new Func1<ISearchByViewPort, SearchResult>() {
+            @Override
+            public SearchResult call(final ISearchByViewPort connector) {
+                final SearchResult partial = new SearchResult();
+                for (final String geocode : DataStore.loadCachedInViewport(viewport, Settings.getCacheType()).getGeocodes()) {
+                    if (getConnector(geocode) == connector) {
+                        partial.addGeocode(geocode);
+                    }
+                }
+                return partial;
+            }
         });
     }
 
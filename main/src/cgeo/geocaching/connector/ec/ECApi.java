@@ -16,7 +16,7 @@ import cgeo.geocaching.network.Parameters;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.JsonUtils;
 import cgeo.geocaching.utils.Log;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
+import cgeo.geocaching.utils.ThreadLocalDateFormat;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import okhttp3.Response;
@@ -45,7 +45,7 @@ final class ECApi {
     private static final ECLogin ecLogin = ECLogin.getInstance();
 
     @NonNull
-    private static final SynchronizedDateFormat LOG_DATE_FORMAT = new SynchronizedDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ", TimeZone.getTimeZone("UTC"), Locale.US);
+    private static final ThreadLocalDateFormat LOG_DATE_FORMAT = new ThreadLocalDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ", TimeZone.getTimeZone("UTC"), Locale.US);
 
     private ECApi() {
         // utility class with static methods
@@ -195,8 +195,12 @@ public final class GCConstants {
     // Pages with such title seem to be returned with a 200 code instead of 404
     final static String STRING_404_FILE_NOT_FOUND = "<title>404 - File Not Found</title>";
 
-    /** Number of logs to retrieve from GC.com */
+    /** Number of logs to retrieve from GC.com per logbook page */
     final static int NUMBER_OF_LOGS = 35;
+    /** Maximum number of logbook pages to retrieve for a cache */
+    final static int MAX_LOGBOOK_PAGES = 60;
+    /** Maximum number of logbook pages to retrieve when a cache is stored or refreshed */
+    final static int MAX_REFRESH_LOGBOOK_PAGES = 6;
     /** Maximum number of chars for personal note. **/
     public final static int PERSONAL_NOTE_MAX_CHARS = 500;
 
@@ -0,0 +1,235 @@
+package cgeo.geocaching.connector.gc;
+
+import cgeo.geocaching.enumerations.LogType;
+import cgeo.geocaching.models.Image;
+import cgeo.geocaching.models.LogEntry;
+import cgeo.geocaching.utils.JsonUtils;
+import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.TextUtils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import rx.functions.Action1;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader of the JSON logbook pages of geocaching.com ({@code seek/geocache.logbook}).
+ *
+ * The log entries are read token by token and handed over one at a time, so that neither the document nor all the
+ * entries of a page are kept in memory.
+ */
+final class GCLogbookReader {
+
+    /**
+     * Summary of a logbook page, available once the page has been read completely.
+     */
+    static final class Page {
+        /** {@code false} if the server reported an error */
+        final boolean success;
+        /** number of entries in the page, including the ones which could not be parsed */
+        final int entries;
+        /** total number of pages of the logbook, or 0 if unknown */
+        final int totalPages;
+
+        Page(final boolean success, final int entries, final int totalPages) {
+            this.success = success;
+            this.entries = entries;
+            this.totalPages = totalPages;
+        }
+    }
+
+    private GCLogbookReader() {
+        // utility class
+    }
+
+    /**
+     * Read a logbook page. The stream is not closed.
+     *
+     * @param markAsFriendsLog
+     *            {@code true} if the page contains friends or own logs
+     * @param consumer
+     *            the consumer of the log entries, called while the page is read
+     */
+    @NonNull
+    static Page read(@NonNull final InputStream input, final boolean markAsFriendsLog, @NonNull final Action1<LogEntry> consumer) throws IOException {
+        final JsonParser parser = JsonUtils.reader.getFactory().createParser(input);
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("logbook is not a JSON object");
+            }
+            String status = null;
+            int entries = 0;
+            int totalPages = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                final JsonToken value = parser.nextToken();
+                if ("status".equals(field)) {
+                    status = parser.getValueAsString();
+                } else if ("data".equals(field) && value == JsonToken.START_ARRAY && (status == null || isSuccess(status))) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        final LogEntry entry = readEntry(parser, markAsFriendsLog);
+                        if (entry != null) {
+                            consumer.call(entry);
+                        }
+                        entries++;
+                    }
+                } else if ("pageInfo".equals(field) && value == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        final String pageField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("totalPages".equals(pageField)) {
+                            totalPages = parser.getValueAsInt(0);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!isSuccess(status)) {
+                Log.e("GCLogbookReader.read: status is " + StringUtils.defaultString(status, "[absent]"));
+                return new Page(false, entries, totalPages);
+            }
+            return new Page(true, entries, totalPages);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static boolean isSuccess(@Nullable final String status) {
+        return "success".equals(status);
+    }
+
+    /**
+     * Read the log entry object the parser is positioned at.
+     *
+     * @return the entry, or {@code null} if its date cannot be parsed
+     */
+    @Nullable
+    private static LogEntry readEntry(@NonNull final JsonParser parser, final boolean markAsFriendsLog) throws IOException {
+        // FIXME: use the "LogType" field instead of the "LogTypeImage" one.
+        String logIconNameExt = ".gif";
+        String visited = null;
+        String latLon = "";
+        String logText = "";
+        String userName = "";
+        int found = 0;
+        final List<Image> images = new ArrayList<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            switch (field) {
+                case "LogTypeImage":
+                    logIconNameExt = text(parser, ".gif");
+                    break;
+                case "Visited":
+                    visited = text(parser, null);
+                    break;
+                case "LatLonString":
+                    latLon = text(parser, "");
+                    break;
+                case "LogText":
+                    logText = text(parser, "");
+                    break;
+                case "UserName":
+                    userName = text(parser, "");
+                    break;
+                case "GeocacheFindCount":
+                    found = parser.getValueAsInt(0);
+                    break;
+                case "Images":
+                    if (value == JsonToken.START_ARRAY) {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            images.add(readImage(parser));
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        final long date;
+        try {
+            if (visited == null) {
+                throw new ParseException("missing log date", 0);
+            }
+            date = GCLogin.parseGcCustomDate(visited).getTime();
+        } catch (final ParseException e) {
+            Log.e("GCLogbookReader.readEntry: failed to parse log date", e);
+            return null;
+        }
+
+        final String logIconName = logIconNameExt.substring(0, Math.max(0, logIconNameExt.length() - 4));
+        // TODO: we should update our log data structure to be able to record
+        // proper coordinates, and make them clickable. In the meantime, it is
+        // better to integrate those coordinates into the text rather than not
+        // display them at all.
+        final String text = (StringUtils.isEmpty(latLon) ? "" : (latLon + "<br/><br/>")) + TextUtils.removeControlCharacters(logText);
+        final LogEntry.Builder logDoneBuilder = new LogEntry.Builder()
+                .setAuthor(TextUtils.removeControlCharacters(userName))
+                .setDate(date)
+                .setLogType(LogType.getByIconName(logIconName))
+                .setLog(text)
+                .setFound(found)
+                .setFriend(markAsFriendsLog);
+        for (final Image image : images) {
+            logDoneBuilder.addLogImage(image);
+        }
+        return logDoneBuilder.build();
+    }
+
+    @NonNull
+    private static Image readImage(@NonNull final JsonParser parser) throws IOException {
+        String fileName = "";
+        String name = "";
+        String description = "";
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "FileName":
+                    fileName = text(parser, "");
+                    break;
+                case "Name":
+                    name = text(parser, "");
+                    break;
+                case "Descr":
+                    description = text(parser, "");
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+        return new Image.Builder()
+                .setUrl("https://imgcdn.geocaching.com/cache/log/large/" + fileName)
+                .setTitle(TextUtils.removeControlCharacters(name))
+                .setDescription(description)
+                .build();
+    }
+
+    /**
+     * @return the scalar value the parser is positioned at as text, or the default for {@code null} and structures
+     */
+    private static String text(@NonNull final JsonParser parser, @Nullable final String defaultValue) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return defaultValue;
+        }
+        return token == JsonToken.VALUE_NULL ? defaultValue : parser.getValueAsString(defaultValue);
+    }
+}
@@ -10,6 +10,7 @@ import cgeo.geocaching.network.Network;
 import cgeo.geocaching.network.Parameters;
 import cgeo.geocaching.settings.Credentials;
 import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.utils.DateCodec;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MatcherWrapper;
 import cgeo.geocaching.utils.TextUtils;
@@ -27,7 +28,6 @@ import rx.functions.Func1;
 import android.graphics.drawable.Drawable;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.Locale;
@@ -348,7 +348,7 @@ public class GCLogin extends AbstractLogin {
     }
 
     public static Date parseGcCustomDate(final String input, final String format) throws ParseException {
-        return new SimpleDateFormat(format, Locale.ENGLISH).parse(input.trim());
+        return DateCodec.parse(input.trim(), format, Locale.ENGLISH);
     }
 
     static Date parseGcCustomDate(final String input) throws ParseException {
@@ -356,7 +356,7 @@ public class GCLogin extends AbstractLogin {
     }
 
     static String formatGcCustomDate(final int year, final int month, final int day) {
-        return new SimpleDateFormat(Settings.getGcCustomDate(), Locale.ENGLISH).format(new GregorianCalendar(year, month - 1, day).getTime());
+        return DateCodec.format(new GregorianCalendar(year, month - 1, day).getTime(), Settings.getGcCustomDate(), Locale.ENGLISH);
     }
 
     /**
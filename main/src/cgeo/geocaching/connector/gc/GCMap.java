@@ -20,6 +20,7 @@ import cgeo.geocaching.utils.Formatter;
 import cgeo.geocaching.utils.JsonUtils;
 import cgeo.geocaching.utils.LeastRecentlyUsedMap;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.Metrics;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
@@ -46,6 +47,10 @@ import java.util.Set;
 public class GCMap {
     private static Viewport lastSearchViewport = null;
 
+    private static final Metrics.Timer TILE_FETCH_TIMER = Metrics.timer("gc.tile.fetch");
+    private static final Metrics.Timer TILE_PARSE_TIMER = Metrics.timer("gc.tile.parse");
+    private static final Metrics.Counter TILE_CACHE_HITS = Metrics.counter("gc.tile.cached");
+
     private GCMap() {
         // utility class
     }
@@ -119,6 +124,7 @@ public class GCMap {
     public static SearchResult parseMapJSON(final String data, final Tile tile, final Bitmap bitmap, final LivemapStrategy strategy) {
         final SearchResult searchResult = new SearchResult();
 
+        final long start = TILE_PARSE_TIMER.start();
         try {
 
             final LeastRecentlyUsedMap<String, String> nameCache = new LeastRecentlyUsedMap.LruCache<>(2000); // JSON id, cache name
@@ -220,6 +226,8 @@ public class GCMap {
 
         } catch (RuntimeException | ParserException | IOException e) {
             Log.e("GCMap.parseMapJSON", e);
+        } finally {
+            TILE_PARSE_TIMER.stop(start);
         }
 
         return searchResult;
@@ -281,7 +289,9 @@ public class GCMap {
             }
 
             for (final Tile tile : tiles) {
-                if (!Tile.cache.contains(tile)) {
+                if (Tile.cache.contains(tile)) {
+                    TILE_CACHE_HITS.inc();
+                } else {
                     final Parameters params = new Parameters(
                             "x", String.valueOf(tile.getX()),
                             "y", String.valueOf(tile.getY()),
@@ -305,6 +315,8 @@ public class GCMap {
                     // The PNG must be requested first, otherwise the following request would always return with 204 - No Content
                     final Single<Bitmap> bitmapObs = Tile.requestMapTile(params).onErrorResumeNext(Single.<Bitmap>just(null));
                     final Single<String> dataObs = Tile.requestMapInfo(GCConstants.URL_MAP_INFO, params, GCConstants.URL_LIVE_MAP).onErrorResumeNext(Single.just(""));
+                    // includes the parsing, which is also measured on its own
+                    final long start = TILE_FETCH_TIMER.start();
                     try {
                         Single.zip(bitmapObs, dataObs, new Func2<Bitmap, String, Void>() {
                             @Override
@@ -337,6 +349,8 @@ public class GCMap {
                         }).toBlocking().value();
                     } catch (final Exception e) {
                         Log.e("GCMap.searchByViewPort: connection error");
+                    } finally {
+                        TILE_FETCH_TIMER.stop(start);
                     }
                 }
             }
@@ -34,14 +34,14 @@ import cgeo.geocaching.utils.CancellableHandler;
 import cgeo.geocaching.utils.JsonUtils;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MatcherWrapper;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
+import cgeo.geocaching.utils.Metrics;
 import cgeo.geocaching.utils.TextUtils;
+import cgeo.geocaching.utils.ThreadLocalDateFormat;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -55,7 +55,6 @@ import org.jsoup.select.Elements;
 import android.net.Uri;
 import android.text.Html;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.text.Collator;
 import java.text.ParseException;
@@ -77,19 +76,31 @@ import rx.Observable.OnSubscribe;
 import rx.Subscriber;
 import rx.functions.Action1;
 import rx.functions.Func0;
-import rx.functions.Func2;
 import rx.schedulers.Schedulers;
 
 public final class GCParser {
     @NonNull
-    private final static SynchronizedDateFormat DATE_TB_IN_1 = new SynchronizedDateFormat("EEEEE, dd MMMMM yyyy", Locale.ENGLISH); // Saturday, 28 March 2009
+    private final static ThreadLocalDateFormat DATE_TB_IN_1 = new ThreadLocalDateFormat("EEEEE, dd MMMMM yyyy", Locale.ENGLISH); // Saturday, 28 March 2009
 
     @NonNull
-    private final static SynchronizedDateFormat DATE_TB_IN_2 = new SynchronizedDateFormat("EEEEE, MMMMM dd, yyyy", Locale.ENGLISH); // Saturday, March 28, 2009
+    private final static ThreadLocalDateFormat DATE_TB_IN_2 = new ThreadLocalDateFormat("EEEEE, MMMMM dd, yyyy", Locale.ENGLISH); // Saturday, March 28, 2009
 
     @NonNull
     private final static ImmutablePair<StatusCode, Geocache> UNKNOWN_PARSE_ERROR = ImmutablePair.of(StatusCode.UNKNOWN_ERROR, null);
 
+    /** Number of logs written to the database in a single transaction while the logbook is downloaded. */
+    private static final int LOG_BATCH_SIZE = 100;
+
+    private static final Metrics.Timer SAVE_LOGBOOK_TIMER = Metrics.timer("gc.logbook.save");
+    /** Locks serializing the saving of logbooks, selected by the geocode. */
+    private static final Object[] LOGBOOK_LOCKS = new Object[16];
+
+    static {
+        for (int i = 0; i < LOGBOOK_LOCKS.length; i++) {
+            LOGBOOK_LOCKS[i] = new Object();
+        }
+    }
+
     private GCParser() {
         // Utility class
     }
@@ -400,7 +411,7 @@ public final class GCParser {
         final SearchResult result = new SearchResult(parsed.left);
         if (parsed.left == StatusCode.NO_ERROR) {
             result.addAndPutInCache(Collections.singletonList(parsed.right));
-            DataStore.saveLogs(parsed.right.getGeocode(), getLogs(parseUserToken(page), Logs.ALL).toBlocking().toIterable());
+            saveLogbook(parsed.right.getGeocode(), parseUserToken(page), Collections.<LogEntry>emptyList());
         }
         return result;
     }
@@ -1794,86 +1805,118 @@ public final class GCParser {
             return Observable.empty();
         }
 
-        return Observable.defer(new Func0<Observable<LogEntry>>() {
+        return Observable.create(new OnSubscribe<LogEntry>() {
             @Override
-            public Observable<LogEntry> call() {
-                final Parameters params = new Parameters(
-                        "tkn", userToken,
-                        "idx", "1",
-                        "num", String.valueOf(GCConstants.NUMBER_OF_LOGS),
-                        "decrypt", "false"); // fetch encrypted logs as such
-                if (logType != Logs.ALL) {
-                    params.add(logType.getParamName(), Boolean.toString(Boolean.TRUE));
-                }
-                try {
-                    final InputStream responseStream =
-                            Network.getResponseStream(Network.getRequest("https://www.geocaching.com/seek/geocache.logbook", params));
-                    return parseLogs(logType != Logs.ALL, responseStream);
-                } catch (final Exception e) {
-                    Log.e("unable to read logs", e);
-                    return Observable.empty();
-                }
+            public void call(final Subscriber<? super LogEntry> subscriber) {
+                readLogbook(userToken, logType, GCConstants.MAX_LOGBOOK_PAGES, new Action1<LogEntry>() {
+                    @Override
+                    public void call(final LogEntry logEntry) {
+                        subscriber.onNext(logEntry);
+                    }
+                });
+                subscriber.onCompleted();
             }
         }).subscribeOn(AndroidRxUtils.networkScheduler);
     }
 
-    private static Observable<LogEntry> parseLogs(final boolean markAsFriendsLog, final InputStream responseStream) {
-        return Observable.create(new OnSubscribe<LogEntry>() {
-            @Override
-            public void call(final Subscriber<? super LogEntry> subscriber) {
-                try {
-                    final ObjectNode resp = (ObjectNode) JsonUtils.reader.readTree(responseStream);
-                    if (!resp.path("status").asText().equals("success")) {
-                        Log.e("GCParser.loadLogsFromDetails: status is " + resp.path("status").asText("[absent]"));
-                        subscriber.onCompleted();
-                        return;
-                    }
+    /**
+     * Read a logbook page by page, handing the logs over to the consumer while they are parsed.
+     *
+     * @param userToken
+     *            the user token extracted from the web page
+     * @param logType
+     *            the logType to request
+     * @param maxPages
+     *            the maximum number of pages to read
+     * @param consumer
+     *            the consumer of the logs, called on the calling thread
+     * @return {@code true} if the logbook has been read completely
+     */
+    private static boolean readLogbook(final String userToken, final Logs logType, final int maxPages, final Action1<LogEntry> consumer) {
+        if (userToken.isEmpty()) {
+            Log.e("GCParser.loadLogsFromDetails: unable to extract userToken");
+            return false;
+        }
 
-                    final ArrayNode data = (ArrayNode) resp.get("data");
-                    for (final JsonNode entry: data) {
-                        // FIXME: use the "LogType" field instead of the "LogTypeImage" one.
-                        final String logIconNameExt = entry.path("LogTypeImage").asText(".gif");
-                        final String logIconName = logIconNameExt.substring(0, logIconNameExt.length() - 4);
-
-                        final long date;
-                        try {
-                            date = GCLogin.parseGcCustomDate(entry.get("Visited").asText()).getTime();
-                        } catch (ParseException | NullPointerException e) {
-                            Log.e("GCParser.loadLogsFromDetails: failed to parse log date", e);
-                            continue;
-                        }
+        for (int pageIndex = 1; pageIndex <= maxPages; pageIndex++) {
+            final Parameters params = new Parameters(
+                    "tkn", userToken,
+                    "idx", String.valueOf(pageIndex),
+                    "num", String.valueOf(GCConstants.NUMBER_OF_LOGS),
+                    "decrypt", "false"); // fetch encrypted logs as such
+            if (logType != Logs.ALL) {
+                params.add(logType.getParamName(), Boolean.toString(Boolean.TRUE));
+            }
+            final InputStream responseStream = Network.getResponseStream(Network.getRequest("https://www.geocaching.com/seek/geocache.logbook", params));
+            if (responseStream == null) {
+                Log.e("GCParser.loadLogsFromDetails: unable to read logs");
+                return false;
+            }
+            final GCLogbookReader.Page page;
+            try {
+                page = GCLogbookReader.read(responseStream, logType != Logs.ALL, consumer);
+            } catch (final Exception e) {
+                Log.w("GCParser.loadLogsFromDetails: Failed to parse cache logs", e);
+                return false;
+            } finally {
+                IOUtils.closeQuietly(responseStream);
+            }
+            if (!page.success) {
+                return false;
+            }
+            // the number of pages is unknown (0) if it could not be read, then only a short page ends the logbook
+            if (page.entries < GCConstants.NUMBER_OF_LOGS || (page.totalPages > 0 && pageIndex >= page.totalPages)) {
+                return true;
+            }
+        }
+        Log.i("GCParser.loadLogsFromDetails: logbook truncated after " + maxPages + " pages");
+        return false;
+    }
 
-                        // TODO: we should update our log data structure to be able to record
-                        // proper coordinates, and make them clickable. In the meantime, it is
-                        // better to integrate those coordinates into the text rather than not
-                        // display them at all.
-                        final String latLon = entry.path("LatLonString").asText();
-                        final String logText = (StringUtils.isEmpty(latLon) ? "" : (latLon + "<br/><br/>")) + TextUtils.removeControlCharacters(entry.path("LogText").asText());
-                        final LogEntry.Builder logDoneBuilder = new LogEntry.Builder()
-                                .setAuthor(TextUtils.removeControlCharacters(entry.path("UserName").asText()))
-                                .setDate(date)
-                                .setLogType(LogType.getByIconName(logIconName))
-                                .setLog(logText)
-                                .setFound(entry.path("GeocacheFindCount").asInt())
-                                .setFriend(markAsFriendsLog);
-
-                        final ArrayNode images = (ArrayNode) entry.get("Images");
-                        for (final JsonNode image: images) {
-                            final String url = "https://imgcdn.geocaching.com/cache/log/large/" + image.path("FileName").asText();
-                            final String title = TextUtils.removeControlCharacters(image.path("Name").asText());
-                            final String description = image.path("Descr").asText();
-                            final Image logImage = new Image.Builder().setUrl(url).setTitle(title).setDescription(description).build();
-                            logDoneBuilder.addLogImage(logImage);
-                        }
+    /**
+     * Store the logbook of a cache while it is downloaded, in batches of {@link #LOG_BATCH_SIZE} logs. Logs which are
+     * also among the given special logs are marked as friends logs, the remaining special logs are added at the end.
+     * At most {@link GCConstants#MAX_REFRESH_LOGBOOK_PAGES} pages are read, and stored logs missing from the logbook
+     * are only deleted if the logbook could be read completely. Logbooks of the same cache are never saved
+     * concurrently, as each run would delete the logs saved by the other one.
+     *
+     * @param specialLogs
+     *            the friends and own logs, already marked as friends logs
+     */
+    private static void saveLogbook(final String geocode, final String userToken, final List<LogEntry> specialLogs) {
+        synchronized (LOGBOOK_LOCKS[(geocode.hashCode() & Integer.MAX_VALUE) % LOGBOOK_LOCKS.length]) {
+            saveLogbookLocked(geocode, userToken, specialLogs);
+        }
+    }
 
-                        subscriber.onNext(logDoneBuilder.build());
-                    }
-                } catch (final IOException e) {
-                    Log.w("GCParser.loadLogsFromDetails: Failed to parse cache logs", e);
+    private static void saveLogbookLocked(final String geocode, final String userToken, final List<LogEntry> specialLogs) {
+        final long start = SAVE_LOGBOOK_TIMER.start();
+        final DataStore.LogBatchWriter writer = new DataStore.LogBatchWriter(geocode);
+        final List<LogEntry> unmatchedSpecialLogs = new ArrayList<>(specialLogs);
+        final List<LogEntry> batch = new ArrayList<>(LOG_BATCH_SIZE);
+        final boolean complete = readLogbook(userToken, Logs.ALL, GCConstants.MAX_REFRESH_LOGBOOK_PAGES, new Action1<LogEntry>() {
+            @Override
+            public void call(final LogEntry logEntry) {
+                // LogEntry.hashCode() is not consistent with equals(), therefore a list is used
+                final int specialIndex = unmatchedSpecialLogs.indexOf(logEntry);
+                if (specialIndex >= 0) {
+                    unmatchedSpecialLogs.remove(specialIndex);
+                    batch.add(logEntry.buildUpon().setFriend(true).build());
+                } else {
+                    batch.add(logEntry);
+                }
+                if (batch.size() >= LOG_BATCH_SIZE) {
+                    writer.save(batch);
+                    batch.clear();
                 }
-                subscriber.onCompleted();
             }
         });
+        batch.addAll(unmatchedSpecialLogs);
+        writer.save(batch);
+        if (complete) {
+            writer.removeObsoleteLogs();
+        }
+        SAVE_LOGBOOK_TIMER.stop(start);
     }
 
     @NonNull
@@ -1993,33 +2036,26 @@ public final class GCParser {
     }
 
     private static void getExtraOnlineInfo(@NonNull final Geocache cache, final String page, final CancellableHandler handler) {
-        // This method starts the page parsing for logs in the background, as well as retrieve the friends and own logs
-        // if requested. It merges them and stores them in the background, while the rating is retrieved if needed and
-        // stored. Then we wait for the log merging and saving to be completed before returning.
+        // This method retrieves the friends and own logs if requested, and then stores the logbook in batches while it
+        // is downloaded page by page, marking the friends and own logs. This happens in the background, while the
+        // rating is retrieved if needed and stored. Then we wait for the whole logbook to be saved before returning,
+        // so that the cache is never shown with a partial logbook.
         if (CancellableHandler.isCancelled(handler)) {
             return;
         }
 
         CancellableHandler.sendLoadProgressDetail(handler, R.string.cache_dialog_loading_details_status_logs);
         final String userToken = parseUserToken(page);
-        final Observable<LogEntry> logs = getLogs(userToken, Logs.ALL);
         final Observable<LogEntry> ownLogs = getLogs(userToken, Logs.OWN).cache();
         final Observable<LogEntry> specialLogs = Settings.isFriendLogsWanted() ?
                 Observable.merge(getLogs(userToken, Logs.FRIENDS), ownLogs) : Observable.<LogEntry>empty();
-        final Observable<List<LogEntry>> mergedLogs = Observable.zip(logs.toList(), specialLogs.toList(),
-                new Func2<List<LogEntry>, List<LogEntry>, List<LogEntry>>() {
-                    @Override
-                    public List<LogEntry> call(final List<LogEntry> logEntries, final List<LogEntry> specialLogEntries) {
-                        mergeFriendsLogs(logEntries, specialLogEntries);
-                        return logEntries;
-                    }
-                }).cache();
-        mergedLogs.subscribe(new Action1<List<LogEntry>>() {
-                                 @Override
-                                 public void call(final List<LogEntry> logEntries) {
-                                     DataStore.saveLogs(cache.getGeocode(), logEntries);
-                                 }
-                             });
+        final Observable<List<LogEntry>> savedLogbook = specialLogs.toList().doOnNext(new Action1<List<LogEntry>>() {
+            @Override
+            public void call(final List<LogEntry> specialLogEntries) {
+                saveLogbook(cache.getGeocode(), userToken, specialLogEntries);
+            }
+        }).subscribeOn(AndroidRxUtils.networkScheduler).cache();
+        savedLogbook.subscribe();
         if (cache.isFound() && cache.getVisitedDate() == 0) {
             ownLogs.subscribe(new Action1<LogEntry>() {
                 @Override
@@ -2041,29 +2077,8 @@ public final class GCParser {
             }
         }
 
-        // Wait for completion of logs parsing, retrieving and merging
-        mergedLogs.toCompletable().await();
-    }
-
-    /**
-     * Merge log entries and mark them as friends logs (personal and friends) to identify
-     * them on friends/personal logs tab.
-     *
-     * @param mergedLogs
-     *            the list to merge logs with
-     * @param logsToMerge
-     *            the list of logs to merge
-     */
-    private static void mergeFriendsLogs(final List<LogEntry> mergedLogs, final Iterable<LogEntry> logsToMerge) {
-        for (final LogEntry log : logsToMerge) {
-            if (mergedLogs.contains(log)) {
-                final LogEntry friendLog = mergedLogs.get(mergedLogs.indexOf(log));
-                final LogEntry updatedFriendLog = friendLog.buildUpon().setFriend(true).build();
-                mergedLogs.set(mergedLogs.indexOf(log), updatedFriendLog);
-            } else {
-                mergedLogs.add(log);
-            }
-        }
+        // Wait for the logbook to be saved
+        savedLogbook.toCompletable().await();
     }
 
     static boolean uploadModifiedCoordinates(@NonNull final Geocache cache, final Geopoint wpt) {
@@ -3,6 +3,7 @@ package cgeo.geocaching.connector.gc;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.utils.Metrics;
 
 import android.graphics.Bitmap;
 
@@ -25,11 +26,22 @@ final class IconDecoder {
     private static final int CT_VIRTUAL = 11;
     private static final int CT_LETTERBOX = 12;
 
+    private static final Metrics.Timer DECODE_TIMER = Metrics.timer("gc.icon.decode");
+
     private IconDecoder() {
         throw new IllegalStateException("utility class");
     }
 
     static boolean parseMapPNG(final Geocache cache, final Bitmap bitmap, final UTFGridPosition xy, final int zoomlevel) {
+        final long start = DECODE_TIMER.start();
+        try {
+            return decode(cache, bitmap, xy, zoomlevel);
+        } finally {
+            DECODE_TIMER.stop(start);
+        }
+    }
+
+    private static boolean decode(final Geocache cache, final Bitmap bitmap, final UTFGridPosition xy, final int zoomlevel) {
         final int topX = xy.getX() * 4;
         final int topY = xy.getY() * 4;
         final int bitmapWidth = bitmap.getWidth();
@@ -31,9 +31,10 @@ import cgeo.geocaching.network.OAuthTokens;
 import cgeo.geocaching.network.Parameters;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.utils.DateCodec;
 import cgeo.geocaching.utils.JsonUtils;
 import cgeo.geocaching.utils.Log;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
+import cgeo.geocaching.utils.ThreadLocalDateFormat;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -58,7 +59,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
-import java.util.regex.Pattern;
 
 /**
  * Client for the OpenCaching API (Okapi).
@@ -72,8 +72,7 @@ final class OkapiClient {
     private static final String PARAMETER_LOGCOUNT_KEY = "lpc";
     private static final char SEPARATOR = '|';
     private static final String SEPARATOR_STRING = Character.toString(SEPARATOR);
-    private static final SynchronizedDateFormat LOG_DATE_FORMAT = new SynchronizedDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ", TimeZone.getTimeZone("UTC"), Locale.US);
-    private static final SynchronizedDateFormat ISO8601DATEFORMAT = new SynchronizedDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.getDefault());
+    private static final ThreadLocalDateFormat LOG_DATE_FORMAT = new ThreadLocalDateFormat("yyyy-MM-dd HH:mm:ss.SSSZ", TimeZone.getTimeZone("UTC"), Locale.US);
 
     private static final String CACHE_ATTRNAMES = "attrnames";
     private static final String CACHE_ATTR_ACODES = "attr_acodes";
@@ -143,8 +142,6 @@ final class OkapiClient {
     private static final String METHOD_SEARCH_NEAREST = "services/caches/search/nearest";
     private static final String METHOD_RETRIEVE_CACHES = "services/caches/geocaches";
 
-    private static final Pattern PATTERN_TIMEZONE = Pattern.compile("([+-][01][0-9]):([03])0");
-
     private OkapiClient() {
         // utility class
     }
@@ -645,9 +642,8 @@ final class OkapiClient {
 
     @Nullable
     private static Date parseDate(final String date) {
-        final String strippedDate = PATTERN_TIMEZONE.matcher(date).replaceAll("$1$20");
         try {
-            return ISO8601DATEFORMAT.parse(strippedDate);
+            return DateCodec.parseIsoDateTime(date, TimeZone.getDefault());
         } catch (final ParseException e) {
             Log.e("OkapiClient.parseDate", e);
         }
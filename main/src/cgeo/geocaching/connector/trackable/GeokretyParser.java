@@ -4,7 +4,9 @@ import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.R;
 import cgeo.geocaching.models.Trackable;
 import cgeo.geocaching.utils.Log;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
+import cgeo.geocaching.utils.SaxReaders;
+import cgeo.geocaching.utils.ThreadLocalDateFormat;
+import cgeo.geocaching.utils.XmlElementNames;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.ImmutablePair;
@@ -13,7 +15,6 @@ import org.eclipse.jdt.annotation.Nullable;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
@@ -24,28 +25,70 @@ import java.io.StringReader;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
 public class GeokretyParser {
 
     private GeokretyParser() {
         // Utility class
     }
 
+    /**
+     * Localized texts of the parsed trackables, resolved once per document instead of once per trackable.
+     */
+    static final class Texts {
+        @NonNull private final String ownerFormat;
+        @NonNull private final String[] typeNames;
+
+        Texts(@NonNull final String ownerFormat, @NonNull final String[] typeNames) {
+            this.ownerFormat = ownerFormat;
+            this.typeNames = typeNames;
+        }
+
+        @NonNull
+        static Texts fromResources() {
+            final CgeoApplication app = CgeoApplication.getInstance();
+            return new Texts(app.getString(R.string.init_geokrety_userid), new String[] {
+                    app.getString(R.string.geokret_type_traditional),
+                    app.getString(R.string.geokret_type_book_or_media),
+                    app.getString(R.string.geokret_type_human),
+                    app.getString(R.string.geokret_type_coin),
+                    app.getString(R.string.geokret_type_post)
+            });
+        }
+
+        @NonNull
+        String owner(@NonNull final String ownerId) {
+            return String.format(ownerFormat, ownerId);
+        }
+
+        @Nullable
+        String type(final int type) {
+            return type >= 0 && type < typeNames.length ? typeNames[type] : null;
+        }
+    }
+
     static class GeokretyHandler extends DefaultHandler {
-        private static final SynchronizedDateFormat DATE_FORMAT = new SynchronizedDateFormat("yyyy-MM-dd kk:mm:ss", TimeZone.getTimeZone("UTC"), Locale.US);
+        private static final ThreadLocalDateFormat DATE_FORMAT = new ThreadLocalDateFormat("yyyy-MM-dd kk:mm:ss", TimeZone.getTimeZone("UTC"), Locale.US);
+
+        private enum Element {
+            GEOKRET, NAME, DESCRIPTION, OWNER, TYPE, DATECREATED, DISTANCETRAVELLED, IMAGE, STATE, MISSING, WAYPOINT, OTHER
+        }
+
+        private static final XmlElementNames<Element> ELEMENTS = new XmlElementNames<>(Element.class, Element.OTHER);
+
+        @NonNull private final Texts texts;
         private final List<Trackable> trackables = new ArrayList<>();
         private Trackable trackable;
         private boolean isMessage = false;
         private String content;
 
+        GeokretyHandler(@NonNull final Texts texts) {
+            this.texts = texts;
+        }
+
         @NonNull
         public final List<Trackable> getTrackables() {
             return trackables;
@@ -55,125 +98,135 @@ public class GeokretyParser {
         public final void startElement(final String uri, final String localName, final String qName,
                                        final Attributes attributes) throws SAXException {
             content = "";
-            if (localName.equalsIgnoreCase("geokret")) {
-
-                trackable = new Trackable();
-                trackable.forceSetBrand(TrackableBrand.GEOKRETY);
-                trackables.add(trackable);
-                trackable.setSpottedType(Trackable.SPOTTED_OWNER);
-            }
             try {
-                if (localName.equalsIgnoreCase("geokret")) {
-                    final String kretyId = attributes.getValue("id");
-                    if (StringUtils.isNumeric(kretyId)) {
-                        trackable.setGeocode(GeokretyConnector.geocode(Integer.parseInt(kretyId)));
-                    }
-                    final String distance = attributes.getValue("dist");
-                    if (StringUtils.isNotBlank(distance)) {
-                        trackable.setDistance(Float.parseFloat(distance));
-                    }
-                    final String trackingcode = attributes.getValue("nr");
-                    if (StringUtils.isNotBlank(trackingcode)) {
-                        trackable.setTrackingcode(trackingcode);
-                    }
-                    final String kretyType = attributes.getValue("type");
-                    if (StringUtils.isNotBlank(kretyType)) {
-                        trackable.setType(getType(Integer.parseInt(kretyType)));
-                    }
-                    final String kretyState = attributes.getValue("state");
-                    if (StringUtils.isNotBlank(kretyState)) {
-                        trackable.setSpottedType(getSpottedType(Integer.parseInt(kretyState)));
-                    }
-                    final String waypointCode = attributes.getValue("waypoint");
-                    if (StringUtils.isNotBlank(waypointCode)) {
-                        trackable.setSpottedName(waypointCode);
-                    }
-                    final String imageName = attributes.getValue("image");
-                    if (StringUtils.isNotBlank(imageName)) {
-                        trackable.setImage("http://geokrety.org/obrazki/" + imageName);
-                    }
-                    final String ownerId = attributes.getValue("owner_id");
-                    if (StringUtils.isNotBlank(ownerId)) {
-                        trackable.setOwner(CgeoApplication.getInstance().getString(R.string.init_geokrety_userid, ownerId));
-                    }
-                    final String missing = attributes.getValue("missing");
-                    if (StringUtils.isNotBlank(missing)) {
-                        trackable.setMissing("1".equalsIgnoreCase(missing));
-                    }
-                }
-                if (localName.equalsIgnoreCase("owner")) {
-                    final String ownerId = attributes.getValue("id");
-                    if (StringUtils.isNotBlank(ownerId)) {
-                        trackable.setOwner(CgeoApplication.getInstance().getString(R.string.init_geokrety_userid, ownerId));
-                    }
-                }
-                if (localName.equalsIgnoreCase("type")) {
-                    final String kretyType = attributes.getValue("id");
-                    if (StringUtils.isNotBlank(kretyType)) {
-                        trackable.setType(getType(Integer.parseInt(kretyType)));
-                    }
-                }
-                if (localName.equalsIgnoreCase("description")) {
-                    isMessage = true;
+                switch (ELEMENTS.get(localName)) {
+                    case GEOKRET:
+                        trackable = new Trackable();
+                        trackable.forceSetBrand(TrackableBrand.GEOKRETY);
+                        trackables.add(trackable);
+                        trackable.setSpottedType(Trackable.SPOTTED_OWNER);
+                        startGeokret(attributes);
+                        break;
+                    case OWNER:
+                        final String ownerId = attributes.getValue("id");
+                        if (StringUtils.isNotBlank(ownerId)) {
+                            trackable.setOwner(texts.owner(ownerId));
+                        }
+                        break;
+                    case TYPE:
+                        final String kretyType = attributes.getValue("id");
+                        if (StringUtils.isNotBlank(kretyType)) {
+                            trackable.setType(texts.type(Integer.parseInt(kretyType)));
+                        }
+                        break;
+                    case DESCRIPTION:
+                        isMessage = true;
+                        break;
+                    // TODO: latitude/longitude of the "position" element could be parsed, but trackable doesn't support it, yet...
+                    default:
+                        break;
                 }
-                // TODO: latitude/longitude could be parsed, but trackable doesn't support it, yet...
-                //if (localName.equalsIgnoreCase("position")) {
-                //final String latitude = attributes.getValue("latitude");
-                //if (StringUtils.isNotBlank(latitude) {
-                //    trackable.setLatitude(latitude);
-                //}
-                //final String longitude = attributes.getValue("longitude");
-                //if (StringUtils.isNotBlank(longitude) {
-                //    trackable.setLongitude(longitude);
-                //}
-                //}
             } catch (final NumberFormatException e) {
                 Log.e("Parsing GeoKret", e);
             }
         }
 
+        private void startGeokret(final Attributes attributes) {
+            final String kretyId = attributes.getValue("id");
+            if (StringUtils.isNumeric(kretyId)) {
+                trackable.setGeocode(GeokretyConnector.geocode(Integer.parseInt(kretyId)));
+            }
+            final String distance = attributes.getValue("dist");
+            if (StringUtils.isNotBlank(distance)) {
+                trackable.setDistance(Float.parseFloat(distance));
+            }
+            final String trackingcode = attributes.getValue("nr");
+            if (StringUtils.isNotBlank(trackingcode)) {
+                trackable.setTrackingcode(trackingcode);
+            }
+            final String kretyType = attributes.getValue("type");
+            if (StringUtils.isNotBlank(kretyType)) {
+                trackable.setType(texts.type(Integer.parseInt(kretyType)));
+            }
+            final String kretyState = attributes.getValue("state");
+            if (StringUtils.isNotBlank(kretyState)) {
+                trackable.setSpottedType(getSpottedType(Integer.parseInt(kretyState)));
+            }
+            final String waypointCode = attributes.getValue("waypoint");
+            if (StringUtils.isNotBlank(waypointCode)) {
+                trackable.setSpottedName(waypointCode);
+            }
+            final String imageName = attributes.getValue("image");
+            if (StringUtils.isNotBlank(imageName)) {
+                trackable.setImage("http://geokrety.org/obrazki/" + imageName);
+            }
+            final String ownerId = attributes.getValue("owner_id");
+            if (StringUtils.isNotBlank(ownerId)) {
+                trackable.setOwner(texts.owner(ownerId));
+            }
+            final String missing = attributes.getValue("missing");
+            if (StringUtils.isNotBlank(missing)) {
+                trackable.setMissing("1".equalsIgnoreCase(missing));
+            }
+        }
+
         @Override
         public final void endElement(final String uri, final String localName, final String qName)
                 throws SAXException {
             try {
-                if (localName.equalsIgnoreCase("geokret")) {
-                    if (StringUtils.isNotEmpty(content)) {
-                        trackable.setName(content);
-                    }
+                switch (ELEMENTS.get(localName)) {
+                    case GEOKRET:
+                        if (StringUtils.isNotEmpty(content)) {
+                            trackable.setName(content);
+                        }
 
-                    // This is a special case. Deal it at the end of the "geokret" parsing (xml close)
-                    if (trackable.getSpottedType() == Trackable.SPOTTED_TRAVELLING && trackable.getDistance() == 0) {
-                        trackable.setSpottedType(Trackable.SPOTTED_OWNER);
-                    }
-                }
-                if (localName.equalsIgnoreCase("name")) {
-                    trackable.setName(content);
-                }
-                if (localName.equalsIgnoreCase("description")) {
-                    trackable.setDetails(content);
-                    isMessage = false;
-                }
-                if (localName.equalsIgnoreCase("owner")) {
-                    trackable.setOwner(content);
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("datecreated")) {
-                    final Date date = DATE_FORMAT.parse(content);
-                    trackable.setReleased(date);
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("distancetravelled")) {
-                    trackable.setDistance(Float.parseFloat(content));
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("image")) {
-                    trackable.setImage("http://geokrety.org/obrazki/" + content);
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("state")) {
-                    trackable.setSpottedType(getSpottedType(Integer.parseInt(content)));
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("missing")) {
-                    trackable.setMissing("1".equalsIgnoreCase(content));
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("waypoint")) {
-                    trackable.setSpottedName(content);
+                        // This is a special case. Deal it at the end of the "geokret" parsing (xml close)
+                        if (trackable.getSpottedType() == Trackable.SPOTTED_TRAVELLING && trackable.getDistance() == 0) {
+                            trackable.setSpottedType(Trackable.SPOTTED_OWNER);
+                        }
+                        break;
+                    case NAME:
+                        trackable.setName(content);
+                        break;
+                    case DESCRIPTION:
+                        trackable.setDetails(content);
+                        isMessage = false;
+                        break;
+                    case OWNER:
+                        trackable.setOwner(content);
+                        break;
+                    case DATECREATED:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setReleased(DATE_FORMAT.parse(content));
+                        }
+                        break;
+                    case DISTANCETRAVELLED:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setDistance(Float.parseFloat(content));
+                        }
+                        break;
+                    case IMAGE:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setImage("http://geokrety.org/obrazki/" + content);
+                        }
+                        break;
+                    case STATE:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setSpottedType(getSpottedType(Integer.parseInt(content)));
+                        }
+                        break;
+                    case MISSING:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setMissing("1".equalsIgnoreCase(content));
+                        }
+                        break;
+                    case WAYPOINT:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setSpottedName(content);
+                        }
+                        break;
+                    default:
+                        break;
                 }
             } catch (final ParseException | NumberFormatException e) {
                 Log.e("Parsing GeoKret", e);
@@ -214,21 +267,19 @@ public class GeokretyParser {
     @NonNull
     public static List<Trackable> parse(final InputSource page) {
         if (page != null) {
-            try {
-                // Create a new instance of the SAX parser
-                final SAXParserFactory saxPF = SAXParserFactory.newInstance();
-                final SAXParser saxP = saxPF.newSAXParser();
-                final XMLReader xmlR = saxP.getXMLReader();
-
-                // Create the Handler to handle each of the XML tags.
-                final GeokretyHandler gkXMLHandler = new GeokretyHandler();
-                xmlR.setContentHandler(gkXMLHandler);
-                xmlR.parse(page);
-
-                return gkXMLHandler.getTrackables();
-            } catch (final SAXException | IOException | ParserConfigurationException e) {
-                Log.w("Cannot parse GeoKrety", e);
-            }
+            return parse(page, Texts.fromResources());
+        }
+        return Collections.emptyList();
+    }
+
+    @NonNull
+    static List<Trackable> parse(@NonNull final InputSource page, @NonNull final Texts texts) {
+        try {
+            final GeokretyHandler gkXMLHandler = new GeokretyHandler(texts);
+            SaxReaders.parse(page, gkXMLHandler);
+            return gkXMLHandler.getTrackables();
+        } catch (final SAXException | IOException e) {
+            Log.w("Cannot parse GeoKrety", e);
         }
         return Collections.emptyList();
     }
@@ -294,23 +345,6 @@ public class GeokretyParser {
         }
     }
 
-    @Nullable
-    protected static String getType(final int type) {
-        switch (type) {
-            case 0:
-                return CgeoApplication.getInstance().getString(R.string.geokret_type_traditional);
-            case 1:
-                return CgeoApplication.getInstance().getString(R.string.geokret_type_book_or_media);
-            case 2:
-                return CgeoApplication.getInstance().getString(R.string.geokret_type_human);
-            case 3:
-                return CgeoApplication.getInstance().getString(R.string.geokret_type_coin);
-            case 4:
-                return CgeoApplication.getInstance().getString(R.string.geokret_type_post);
-        }
-        return null;
-    }
-
     @Nullable
     public static ImmutablePair<Integer, List<String>> parseResponse(final String page) {
         if (null != page) {
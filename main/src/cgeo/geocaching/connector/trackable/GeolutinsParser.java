@@ -4,13 +4,14 @@ import cgeo.geocaching.enumerations.LogType;
 import cgeo.geocaching.models.LogEntry;
 import cgeo.geocaching.models.Trackable;
 import cgeo.geocaching.utils.Log;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
+import cgeo.geocaching.utils.SaxReaders;
+import cgeo.geocaching.utils.ThreadLocalDateFormat;
+import cgeo.geocaching.utils.XmlElementNames;
 
 import org.apache.commons.lang3.StringUtils;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
-import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 
 import android.support.annotation.NonNull;
@@ -19,15 +20,10 @@ import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.TimeZone;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
 public class GeolutinsParser {
 
     private GeolutinsParser() {
@@ -35,7 +31,14 @@ public class GeolutinsParser {
     }
 
     static class GeolutinsHandler extends DefaultHandler {
-        private static final SynchronizedDateFormat DATE_FORMAT = new SynchronizedDateFormat("dd/MM/yyyy", TimeZone.getTimeZone("UTC"), Locale.US);
+        private static final ThreadLocalDateFormat DATE_FORMAT = new ThreadLocalDateFormat("dd/MM/yyyy", TimeZone.getTimeZone("UTC"), Locale.US);
+
+        private enum Element {
+            GEOLUTIN, GEOLUTIN_ID, NOM, DESCRIPTION, ESPRIT_NOM, DATE_NAISSANCE, DISTANCE_PARCOURUE, APPARITION_DISPARITION,
+            DATE_APPARITION_DISPARITION, COMMENTAIRES, TYPE, OTHER
+        }
+
+        private static final XmlElementNames<Element> ELEMENTS = new XmlElementNames<>(Element.class, Element.OTHER);
 
         private final List<Trackable> trackables = new ArrayList<>();
         private Trackable trackable;
@@ -55,18 +58,22 @@ public class GeolutinsParser {
         public final void startElement(final String uri, final String localName, final String qName,
                                        final Attributes attributes) throws SAXException {
             content = "";
-            if (localName.equalsIgnoreCase("geolutin")) {
-                trackable = new Trackable();
-                trackable.forceSetBrand(TrackableBrand.GEOLUTINS);
-                trackables.add(trackable);
-                trackable.setSpottedType(Trackable.SPOTTED_OWNER);
-            }
-            if (localName.equalsIgnoreCase("apparition_disparition")) {
-                logEntryBuilder = new LogEntry.Builder();
-                isInApparition = true;
-            }
-            if (localName.equalsIgnoreCase("description")) {
-                isMultiline = true;
+            switch (ELEMENTS.get(localName)) {
+                case GEOLUTIN:
+                    trackable = new Trackable();
+                    trackable.forceSetBrand(TrackableBrand.GEOLUTINS);
+                    trackables.add(trackable);
+                    trackable.setSpottedType(Trackable.SPOTTED_OWNER);
+                    break;
+                case APPARITION_DISPARITION:
+                    logEntryBuilder = new LogEntry.Builder();
+                    isInApparition = true;
+                    break;
+                case DESCRIPTION:
+                    isMultiline = true;
+                    break;
+                default:
+                    break;
             }
         }
 
@@ -74,70 +81,80 @@ public class GeolutinsParser {
         public final void endElement(final String uri, final String localName, final String qName)
                 throws SAXException {
             try {
-                if (localName.equalsIgnoreCase("geolutin_id")) {
-                    trackable.setGeocode(content);
-                }
-                if (localName.equalsIgnoreCase("nom")) {
-                    trackable.setName(content);
-                }
-                if (localName.equalsIgnoreCase("description")) {
-                    trackable.setDetails(content);
-                    isMultiline = false;
-                }
-                if (localName.equalsIgnoreCase("esprit_nom")) {
-                    if (isInApparition) {
-                        logEntryBuilder.setAuthor(content);
-                    } else {
-                        trackable.setOwner(content);
-                    }
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("date_naissance")) {
-                    final Date date = DATE_FORMAT.parse(content);
-                    trackable.setReleased(date);
-                }
-                if (StringUtils.isNotBlank(content) && localName.equalsIgnoreCase("distance_parcourue")) {
-                    trackable.setDistance(Float.parseFloat(content));
-                }
-                if (localName.equalsIgnoreCase("date_apparition_disparition")) {
-                    logEntryBuilder.setDate(DATE_FORMAT.parse(content).getTime());
-                }
-                if (localName.equalsIgnoreCase("commentaires")) {
-                    logEntryBuilder.setLog(content);
-                }
-                if (localName.equalsIgnoreCase("type")) {
-                    logEntryBuilder.setLogType(getLogType(content));
-                }
-
-                if (localName.equalsIgnoreCase("geolutin")) {
-                    trackable.setLogs(logsEntries);
-
-                    // manage spotted field
-                    if (!logsEntries.isEmpty()) {
-                        // retrieve the first logEntry
-                        final LogEntry lastLog = logsEntries.get(0);
-                        if (lastLog.getType() == LogType.PLACED_IT) {
-                            // it's in a cache
-                            trackable.setSpottedType(Trackable.SPOTTED_CACHE);
-                            trackable.setSpottedName(lastLog.cacheName);
-                        } else if (lastLog.getType() == LogType.RETRIEVED_IT) {
-                            trackable.setSpottedName(lastLog.author);
-                            // it's in someone hands
-                            trackable.setSpottedType(Trackable.SPOTTED_USER);
-                            trackable.setSpottedName(lastLog.author);
+                switch (ELEMENTS.get(localName)) {
+                    case GEOLUTIN_ID:
+                        trackable.setGeocode(content);
+                        break;
+                    case NOM:
+                        trackable.setName(content);
+                        break;
+                    case DESCRIPTION:
+                        trackable.setDetails(content);
+                        isMultiline = false;
+                        break;
+                    case ESPRIT_NOM:
+                        if (isInApparition) {
+                            logEntryBuilder.setAuthor(content);
                         } else {
-                            Log.e("GeolutinsHandler.endElement unknown logtype:" + lastLog.getType());
+                            trackable.setOwner(content);
                         }
-                    }
-                }
-                if (localName.equalsIgnoreCase("apparition_disparition")) {
-                    isInApparition = false;
-                    logsEntries.add(logEntryBuilder.build());
+                        break;
+                    case DATE_NAISSANCE:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setReleased(DATE_FORMAT.parse(content));
+                        }
+                        break;
+                    case DISTANCE_PARCOURUE:
+                        if (StringUtils.isNotBlank(content)) {
+                            trackable.setDistance(Float.parseFloat(content));
+                        }
+                        break;
+                    case DATE_APPARITION_DISPARITION:
+                        logEntryBuilder.setDate(DATE_FORMAT.parse(content).getTime());
+                        break;
+                    case COMMENTAIRES:
+                        logEntryBuilder.setLog(content);
+                        break;
+                    case TYPE:
+                        logEntryBuilder.setLogType(getLogType(content));
+                        break;
+                    case GEOLUTIN:
+                        endGeolutin();
+                        break;
+                    case APPARITION_DISPARITION:
+                        isInApparition = false;
+                        logsEntries.add(logEntryBuilder.build());
+                        break;
+                    default:
+                        break;
                 }
             } catch (final ParseException | NumberFormatException e) {
                 Log.e("Parsing GeoLutins", e);
             }
         }
 
+        private void endGeolutin() {
+            trackable.setLogs(logsEntries);
+
+            // manage spotted field
+            if (!logsEntries.isEmpty()) {
+                // retrieve the first logEntry
+                final LogEntry lastLog = logsEntries.get(0);
+                if (lastLog.getType() == LogType.PLACED_IT) {
+                    // it's in a cache
+                    trackable.setSpottedType(Trackable.SPOTTED_CACHE);
+                    trackable.setSpottedName(lastLog.cacheName);
+                } else if (lastLog.getType() == LogType.RETRIEVED_IT) {
+                    trackable.setSpottedName(lastLog.author);
+                    // it's in someone hands
+                    trackable.setSpottedType(Trackable.SPOTTED_USER);
+                    trackable.setSpottedName(lastLog.author);
+                } else {
+                    Log.e("GeolutinsHandler.endElement unknown logtype:" + lastLog.getType());
+                }
+            }
+        }
+
         @Override
         public final void characters(final char[] ch, final int start, final int length)
                 throws SAXException {
@@ -168,18 +185,10 @@ public class GeolutinsParser {
     public static List<Trackable> parse(final InputSource page) {
         if (page != null) {
             try {
-                // Create a new instance of the SAX parser
-                final SAXParserFactory saxPF = SAXParserFactory.newInstance();
-                final SAXParser saxP = saxPF.newSAXParser();
-                final XMLReader xmlR = saxP.getXMLReader();
-
-                // Create the Handler to handle each of the XML tags.
                 final GeolutinsHandler glXMLHandler = new GeolutinsHandler();
-                xmlR.setContentHandler(glXMLHandler);
-                xmlR.parse(page);
-
+                SaxReaders.parse(page, glXMLHandler);
                 return glXMLHandler.getTrackables();
-            } catch (final SAXException | IOException | ParserConfigurationException e) {
+            } catch (final SAXException | IOException e) {
                 Log.w("Cannot parse GeoLutins", e);
             }
         }
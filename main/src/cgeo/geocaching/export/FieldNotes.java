@@ -3,57 +3,102 @@ package cgeo.geocaching.export;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.LogEntry;
 import cgeo.geocaching.storage.LocalStorage;
+import cgeo.geocaching.utils.DateCodec;
 import cgeo.geocaching.utils.FileUtils;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
+import cgeo.geocaching.utils.Log;
 
+import org.apache.commons.lang3.CharEncoding;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Date;
-import java.util.Locale;
 import java.util.TimeZone;
 
 /**
  * Field Notes are simple plain text files, but poorly documented. Syntax:<br>
  * {@code GCxxxxx,yyyy-mm-ddThh:mm:ssZ,Found it,"logtext"}
+ *
+ * Field notes are either collected in memory or written straight to a file while being added.
  */
 class FieldNotes {
 
-    private static final SynchronizedDateFormat FIELD_NOTE_DATE_FORMAT = new SynchronizedDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", TimeZone.getTimeZone("UTC"), Locale.US);
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
 
     private int size = 0;
-    private final StringBuilder buffer = new StringBuilder();
+    private final StringWriter content;
+    private final PrintWriter writer;
 
-    void add(final Geocache cache, final LogEntry log) {
-        size++;
-        buffer.append(cache.getGeocode())
-                .append(',')
-                .append(FIELD_NOTE_DATE_FORMAT.format(new Date(log.date)))
-                .append(',')
-                .append(StringUtils.capitalize(log.getType().type))
-                .append(",\"")
-                .append(StringUtils.replaceChars(log.log, '"', '\''))
-                .append("\"\n");
+    /**
+     * Collect field notes in memory, see {@link #getContent()}.
+     */
+    FieldNotes() {
+        content = new StringWriter();
+        writer = new PrintWriter(content);
     }
 
-    public String getContent() {
-        return buffer.toString();
+    private FieldNotes(final Writer output) {
+        content = null;
+        writer = new PrintWriter(output);
     }
 
-    File writeToDirectory(final File exportLocation, final String fileName) {
+    /**
+     * Create field notes written to a file in UTF-16, as expected by geocaching.com. The file must be closed with
+     * {@link #close()}.
+     *
+     * @return the field notes, or {@code null} if the file cannot be created
+     */
+    static FieldNotes createFile(final File exportLocation, final String fileName) {
         if (!LocalStorage.isExternalStorageAvailable()) {
             return null;
         }
 
         FileUtils.mkdirs(exportLocation);
 
-        final File exportFile = new File(exportLocation.toString() + '/' + fileName);
-
-        if (!FileUtils.writeFileUTF16(exportFile, getContent())) {
+        final File exportFile = new File(exportLocation, fileName);
+        try {
+            return new FieldNotes(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(exportFile), CharEncoding.UTF_16)));
+        } catch (final IOException e) {
+            Log.e("FieldNotes.createFile", e);
             return null;
         }
+    }
+
+    void add(final Geocache cache, final LogEntry log) {
+        size++;
+        writer.append(cache.getGeocode())
+                .append(',')
+                .append(DateCodec.formatIsoDateTime(new Date(log.date), UTC))
+                .append('Z')
+                .append(',')
+                .append(StringUtils.capitalize(log.getType().type))
+                .append(",\"")
+                .append(StringUtils.replaceChars(log.log, '"', '\''))
+                .append("\"\n");
+    }
+
+    /**
+     * @return the field notes collected in memory
+     */
+    public String getContent() {
+        writer.flush();
+        return content.toString();
+    }
 
-        return exportFile;
+    /**
+     * Finish writing the field notes.
+     *
+     * @return {@code true} if all field notes were written successfully
+     */
+    boolean close() {
+        writer.close();
+        return !writer.checkError();
     }
 
     public int size() {
@@ -32,9 +32,15 @@ import android.widget.TextView;
 
 import java.io.File;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import butterknife.ButterKnife;
 
@@ -132,38 +138,59 @@ public class FieldnoteExport extends AbstractExport {
 
         @Override
         protected Boolean doInBackgroundInternal(final Geocache[] caches) {
+            // group the caches with offline logs by connector, and load all their logs at once
+            final Map<IConnector, List<Geocache>> cachesByConnector = new HashMap<>();
+            final Set<String> geocodes = new HashSet<>();
+            for (final Geocache cache : caches) {
+                if (cache.isLogOffline()) {
+                    final IConnector connector = ConnectorFactory.getConnector(cache);
+                    List<Geocache> connectorCaches = cachesByConnector.get(connector);
+                    if (connectorCaches == null) {
+                        connectorCaches = new ArrayList<>();
+                        cachesByConnector.put(connector, connectorCaches);
+                    }
+                    connectorCaches.add(cache);
+                    geocodes.add(cache.getGeocode());
+                }
+            }
+            final Map<String, LogEntry> logs = DataStore.loadLogsOffline(geocodes, onlyNew ? Settings.getFieldnoteExportDate() : Long.MIN_VALUE);
+
             // export field notes separately for each connector, so the file can be uploaded to the respective site afterwards
             for (final IConnector connector : ConnectorFactory.getConnectors()) {
                 if (connector instanceof FieldNotesCapability) {
-                    exportFieldNotes((FieldNotesCapability) connector, caches);
+                    final List<Geocache> connectorCaches = cachesByConnector.get(connector);
+                    exportFieldNotes((FieldNotesCapability) connector, connectorCaches != null ? connectorCaches : Collections.<Geocache> emptyList(), logs);
                 }
             }
             return true;
         }
 
-        private boolean exportFieldNotes(final FieldNotesCapability connector, final Geocache[] caches) {
-            final FieldNotes fieldNotes = new FieldNotes();
+        private boolean exportFieldNotes(final FieldNotesCapability connector, final List<Geocache> caches, final Map<String, LogEntry> logs) {
+            final FieldNotes fieldNotes = FieldNotes.createFile(exportLocation, fileName);
+            if (fieldNotes == null) {
+                return false;
+            }
             try {
                 int i = 0;
                 for (final Geocache cache : caches) {
-                    if (ConnectorFactory.getConnector(cache).equals(connector) && cache.isLogOffline()) {
-                        final LogEntry log = DataStore.loadLogOffline(cache.getGeocode());
-                        if (log != null && (!onlyNew || log.date > Settings.getFieldnoteExportDate())) {
-                            fieldNotes.add(cache, log);
-                        }
+                    final LogEntry log = logs.get(cache.getGeocode());
+                    if (log != null) {
+                        fieldNotes.add(cache, log);
                     }
                     publishProgress(++i);
                 }
             } catch (final Exception e) {
                 Log.e("FieldnoteExport.ExportTask generation", e);
+                fieldNotes.close();
                 return false;
             }
             fieldNotesCount += fieldNotes.size();
 
-            exportFile = fieldNotes.writeToDirectory(exportLocation, fileName);
-            if (exportFile == null) {
+            if (!fieldNotes.close()) {
+                Log.e("FieldnoteExport.ExportTask: cannot write " + fileName);
                 return false;
             }
+            exportFile = new File(exportLocation, fileName);
 
             if (upload) {
                 publishProgress(STATUS_UPLOAD);
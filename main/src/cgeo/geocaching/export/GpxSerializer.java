@@ -8,8 +8,8 @@ import cgeo.geocaching.models.LogEntry;
 import cgeo.geocaching.models.Trackable;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.storage.DataStore;
+import cgeo.geocaching.utils.DateCodec;
 import cgeo.geocaching.utils.Log;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
 import cgeo.geocaching.utils.TextUtils;
 import cgeo.geocaching.utils.XmlUtils;
 import cgeo.org.kxml2.io.KXmlSerializer;
@@ -26,16 +26,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
 import java.util.Set;
+import java.util.TimeZone;
 
 public final class GpxSerializer {
 
-
-
-
-    private static final SynchronizedDateFormat dateFormatZ = new SynchronizedDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
-
     private static final String PREFIX_XSI = "xsi";
     private static final String NS_XSI = "http://www.w3.org/2001/XMLSchema-instance";
 
@@ -120,7 +115,7 @@ public final class GpxSerializer {
 
             final Date hiddenDate = cache.getHiddenDate();
             if (hiddenDate != null) {
-                XmlUtils.simpleText(gpx, NS_GPX, "time", dateFormatZ.format(hiddenDate));
+                XmlUtils.simpleText(gpx, NS_GPX, "time", formatDate(hiddenDate));
             }
 
             XmlUtils.multipleTexts(gpx, NS_GPX,
@@ -199,6 +194,13 @@ public final class GpxSerializer {
         return boolFlag ? "true" : "false";
     }
 
+    /**
+     * @return the local time with a "Z" suffix, like in the GPX files of geocaching.com (see {@link cgeo.geocaching.files.GPXParser})
+     */
+    private static String formatDate(@NonNull final Date date) {
+        return DateCodec.formatIsoDateTime(date, TimeZone.getDefault()) + 'Z';
+    }
+
     private void writeWaypoints(@NonNull final Geocache cache) throws IOException {
         final List<Waypoint> waypoints = cache.getWaypoints();
         final List<Waypoint> ownWaypoints = new ArrayList<>(waypoints.size());
@@ -285,7 +287,7 @@ public final class GpxSerializer {
             gpx.attribute("", "id", Integer.toString(log.id));
 
             XmlUtils.multipleTexts(gpx, NS_GROUNDSPEAK,
-                    "date", dateFormatZ.format(new Date(log.date)),
+                    "date", formatDate(new Date(log.date)),
                     "type", log.getType().type);
 
             gpx.startTag(NS_GROUNDSPEAK, "finder");
@@ -3,6 +3,8 @@ package cgeo.geocaching.files;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.utils.CancellableHandler;
 
+import org.eclipse.jdt.annotation.NonNull;
+
 import android.os.Handler;
 
 import java.io.IOException;
@@ -16,14 +18,23 @@ abstract class AbstractImportGpxThread extends AbstractImportThread {
 
     @Override
     protected Collection<Geocache> doImport() throws IOException, ParserException {
+        // start with the parser of the detected version, GPX 1.0 if unknown
+        final boolean gpx11 = getGpxVersion() == GpxVersion.GPX_1_1;
         try {
-            // try to parse cache file as GPX 10
-            return doImport(new GPX10Parser(listId));
+            return doImport(gpx11 ? new GPX11Parser(listId) : new GPX10Parser(listId));
         } catch (final ParserException ignored) {
-            // didn't work -> lets try GPX11
-            return doImport(new GPX11Parser(listId));
+            // didn't work -> lets try the other version, in case the detection was wrong
+            return doImport(gpx11 ? new GPX10Parser(listId) : new GPX11Parser(listId));
         }
     }
 
+    /**
+     * @return the version of the GPX content, or {@link GpxVersion#UNKNOWN} to try the parsers of all versions
+     */
+    @NonNull
+    protected GpxVersion getGpxVersion() throws IOException {
+        return GpxVersion.UNKNOWN;
+    }
+
     protected abstract Collection<Geocache> doImport(GPXParser parser) throws IOException, ParserException;
 }
\ No newline at end of file
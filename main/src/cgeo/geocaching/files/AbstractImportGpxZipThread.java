@@ -6,6 +6,7 @@ import cgeo.geocaching.utils.CancellableHandler;
 
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.NonNull;
 
 import android.os.Handler;
 import android.text.Html;
@@ -70,6 +71,29 @@ abstract class AbstractImportGpxZipThread extends AbstractImportGpxThread {
         return caches;
     }
 
+    /**
+     * Detect the version from the first GPX file in the archive. Only the start of the archive is read.
+     */
+    @Override
+    @NonNull
+    protected GpxVersion getGpxVersion() throws IOException {
+        final InputStream stream = getInputStream();
+        if (stream == null) {
+            return GpxVersion.UNKNOWN;
+        }
+        final ZipArchiveInputStream zis = new ZipArchiveInputStream(new BufferedInputStream(stream), ENCODING);
+        try {
+            for (ZipEntry zipEntry = zis.getNextZipEntry(); zipEntry != null; zipEntry = zis.getNextZipEntry()) {
+                if (StringUtils.endsWithIgnoreCase(zipEntry.getName(), GPXImporter.GPX_FILE_EXTENSION) && !StringUtils.endsWithIgnoreCase(zipEntry.getName(), GPXImporter.WAYPOINTS_FILE_SUFFIX_AND_EXTENSION)) {
+                    return FileTypeDetector.detect(zis).gpxVersion;
+                }
+            }
+            return GpxVersion.UNKNOWN;
+        } finally {
+            zis.close();
+        }
+    }
+
     @Override
     protected String getSourceDisplayName() {
         return Html.fromHtml(gpxFileName).toString();
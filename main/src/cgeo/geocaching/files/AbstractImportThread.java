@@ -9,6 +9,7 @@ import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.utils.CancellableHandler;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.Metrics;
 
 import android.os.Handler;
 
@@ -17,6 +18,10 @@ import java.util.Collection;
 import java.util.concurrent.CancellationException;
 
 abstract class AbstractImportThread extends Thread {
+    private static final Metrics.Timer IMPORT_TIMER = Metrics.timer("gpx.import");
+    private static final Metrics.Timer STATIC_MAPS_TIMER = Metrics.timer("gpx.import.staticMaps");
+    private static final Metrics.Counter IMPORTED_CACHES = Metrics.counter("gpx.import.caches");
+
     final int listId;
     final Handler importStepHandler;
     final CancellableHandler progressHandler;
@@ -31,7 +36,14 @@ abstract class AbstractImportThread extends Thread {
     public void run() {
         try {
             importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_START));
-            final Collection<Geocache> caches = doImport();
+            final long start = IMPORT_TIMER.start();
+            final Collection<Geocache> caches;
+            try {
+                caches = doImport();
+            } finally {
+                IMPORT_TIMER.stop(start);
+            }
+            IMPORTED_CACHES.add(caches.size());
             Log.i("Imported successfully " + caches.size() + " caches.");
 
             final SearchResult search = new SearchResult(caches);
@@ -39,7 +51,9 @@ abstract class AbstractImportThread extends Thread {
 
             if (Settings.isStoreOfflineMaps() || Settings.isStoreOfflineWpMaps()) {
                 importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_STORE_STATIC_MAPS, R.string.gpx_import_store_static_maps, search.getCount(), getSourceDisplayName()));
+                final long mapsStart = STATIC_MAPS_TIMER.start();
                 final boolean finishedWithoutCancel = importStaticMaps(search);
+                STATIC_MAPS_TIMER.stop(mapsStart);
                 // Skip last message if static maps where canceled
                 if (!finishedWithoutCancel) {
                     return;
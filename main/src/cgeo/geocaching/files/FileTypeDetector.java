@@ -1,22 +1,68 @@
 package cgeo.geocaching.files;
 
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.TextUtils;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.CharEncoding;
-import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jdt.annotation.NonNull;
 
 import android.content.ContentResolver;
 import android.net.Uri;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.zip.GZIPInputStream;
 
+/**
+ * Detection of the type of an imported file from the first bytes of its content.
+ *
+ * Only a bounded prefix of the content is read, so that the detection does not depend on the line structure of the
+ * file. Archives are recognized by their magic bytes, GPX and LOC files by their root element, also in UTF-16 with byte
+ * order mark. The content of GZIP compressed files is detected by decompressing the prefix.
+ */
 public class FileTypeDetector {
 
+    /** number of bytes read from the start of the content */
+    static final int PREFIX_LENGTH = 8192;
+
+    private static final byte[] ZIP_MAGIC = { 'P', 'K', 3, 4 };
+    private static final byte[] GZIP_MAGIC = { (byte) 0x1f, (byte) 0x8b };
+    private static final byte[] UTF8_BOM = { (byte) 0xef, (byte) 0xbb, (byte) 0xbf };
+    private static final byte[] UTF16LE_BOM = { (byte) 0xff, (byte) 0xfe };
+    private static final byte[] UTF16BE_BOM = { (byte) 0xfe, (byte) 0xff };
+
+    private static final byte[] GPX_ROOT = "<gpx".getBytes(TextUtils.CHARSET_ASCII);
+    private static final byte[] LOC_ROOT = "<loc".getBytes(TextUtils.CHARSET_ASCII);
+    private static final byte[] XMLNS = "xmlns".getBytes(TextUtils.CHARSET_ASCII);
+    private static final byte[] GPX_1_0_NAMESPACE = "topografix.com/GPX/1/0".getBytes(TextUtils.CHARSET_ASCII);
+    private static final byte[] GPX_1_1_NAMESPACE = "topografix.com/GPX/1/1".getBytes(TextUtils.CHARSET_ASCII);
+
+    /** decodes UTF-16 in the byte order given by the byte order mark */
+    private static final Charset CHARSET_UTF16 = Charset.forName("UTF-16");
+
+    /**
+     * Result of a detection.
+     */
+    public static final class Detection {
+        @NonNull public final FileType type;
+        /** version of a GPX file, or {@link GpxVersion#UNKNOWN} if not a GPX file or without GPX namespace */
+        @NonNull public final GpxVersion gpxVersion;
+        /** {@code true} if the detected GPX or LOC content is GZIP compressed */
+        public final boolean gzip;
+
+        Detection(@NonNull final FileType type, @NonNull final GpxVersion gpxVersion, final boolean gzip) {
+            this.type = type;
+            this.gpxVersion = gpxVersion;
+            this.gzip = gzip;
+        }
+    }
+
+    private static final Detection UNKNOWN = new Detection(FileType.UNKNOWN, GpxVersion.UNKNOWN, false);
+
     private final ContentResolver contentResolver;
     private final Uri uri;
 
@@ -26,52 +72,193 @@ public class FileTypeDetector {
     }
 
     public @NonNull FileType getFileType() {
+        return detect().type;
+    }
+
+    public @NonNull Detection detect() {
         InputStream is = null;
-        BufferedReader reader = null;
-        FileType type = FileType.UNKNOWN;
         try {
             is = contentResolver.openInputStream(uri);
             if (is == null) {
-                return FileType.UNKNOWN;
+                return UNKNOWN;
             }
-            reader = new BufferedReader(new InputStreamReader(is, CharEncoding.UTF_8));
-            type = detectHeader(reader);
-            reader.close();
+            return detect(is);
         } catch (final IOException e) {
             if (!uri.toString().startsWith("http")) {
                 Log.e("FileTypeDetector", e);
             }
         } finally {
-            IOUtils.closeQuietly(reader);
             IOUtils.closeQuietly(is);
         }
-        return type;
+        return UNKNOWN;
     }
 
-    private static FileType detectHeader(final BufferedReader reader)
-            throws IOException {
-        String line = reader.readLine();
-        if (isZip(line)) {
-            return FileType.ZIP;
+    /**
+     * Detect the type of the content of the stream. At most {@link #PREFIX_LENGTH} bytes are read, the stream is not
+     * closed.
+     */
+    @NonNull
+    public static Detection detect(@NonNull final InputStream stream) throws IOException {
+        final byte[] prefix = new byte[PREFIX_LENGTH];
+        final int length = IOUtils.read(stream, prefix);
+        if (startsWith(prefix, length, GZIP_MAGIC)) {
+            return detectCompressed(prefix, length);
         }
-        // scan at most 5 lines of a GPX file
-        for (int i = 0; i < 5; i++) {
-            line = StringUtils.trim(line);
-            if (StringUtils.contains(line, "<loc")) {
-                return FileType.LOC;
+        return detect(prefix, length, false);
+    }
+
+    /**
+     * Detect the type of GZIP compressed content from the decompressed part of its prefix.
+     */
+    @NonNull
+    private static Detection detectCompressed(@NonNull final byte[] compressed, final int compressedLength) {
+        final byte[] prefix = new byte[PREFIX_LENGTH];
+        int length = 0;
+        GZIPInputStream gzip = null;
+        try {
+            gzip = new GZIPInputStream(new ByteArrayInputStream(compressed, 0, compressedLength));
+            int read;
+            while (length < prefix.length && (read = gzip.read(prefix, length, prefix.length - length)) != -1) {
+                length += read;
             }
-            if (StringUtils.contains(line, "<gpx")) {
-                return FileType.GPX;
+        } catch (final EOFException ignored) {
+            // the prefix ends in the middle of the compressed content
+        } catch (final IOException e) {
+            Log.w("FileTypeDetector: invalid GZIP content", e);
+            return UNKNOWN;
+        } finally {
+            IOUtils.closeQuietly(gzip);
+        }
+        final Detection content = detect(prefix, length, true);
+        // only single GPX and LOC files are imported from GZIP files
+        return content.type == FileType.ZIP ? UNKNOWN : content;
+    }
+
+    @NonNull
+    private static Detection detect(@NonNull final byte[] prefix, final int length, final boolean gzip) {
+        if (startsWith(prefix, length, ZIP_MAGIC)) {
+            return new Detection(FileType.ZIP, GpxVersion.UNKNOWN, gzip);
+        }
+        byte[] text = prefix;
+        int textStart = 0;
+        int textLength = length;
+        if (startsWith(prefix, length, UTF8_BOM)) {
+            textStart = UTF8_BOM.length;
+        } else if (startsWith(prefix, length, UTF16LE_BOM) || startsWith(prefix, length, UTF16BE_BOM)) {
+            // the markup is searched in UTF-8 bytes
+            text = new String(prefix, 0, length, CHARSET_UTF16).getBytes(TextUtils.CHARSET_UTF8);
+            textLength = text.length;
+        }
+
+        final int gpx = indexOfRoot(text, textStart, textLength, GPX_ROOT);
+        final int loc = indexOfRoot(text, textStart, textLength, LOC_ROOT);
+        if (loc >= 0 && (gpx < 0 || loc < gpx)) {
+            return new Detection(FileType.LOC, GpxVersion.UNKNOWN, gzip);
+        }
+        if (gpx >= 0) {
+            return new Detection(FileType.GPX, getGpxVersion(text, gpx, textLength), gzip);
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Get the version from the default namespace declared by the {@code xmlns} attribute of the root tag. Other
+     * attributes, like the schema location, may mention the namespaces of other versions.
+     */
+    @NonNull
+    private static GpxVersion getGpxVersion(@NonNull final byte[] text, final int gpxRoot, final int length) {
+        int rootEnd = gpxRoot;
+        while (rootEnd < length && text[rootEnd] != '>') {
+            rootEnd++;
+        }
+        int position = indexOf(text, gpxRoot, rootEnd, XMLNS);
+        while (position >= 0) {
+            final int equals = skipWhitespace(text, position + XMLNS.length, rootEnd);
+            if (isWhitespace(text[position - 1]) && equals < rootEnd && text[equals] == '=') {
+                final int valueStart = skipWhitespace(text, equals + 1, rootEnd);
+                if (valueStart >= rootEnd || (text[valueStart] != '"' && text[valueStart] != '\'')) {
+                    return GpxVersion.UNKNOWN;
+                }
+                int valueEnd = valueStart + 1;
+                while (valueEnd < rootEnd && text[valueEnd] != text[valueStart]) {
+                    valueEnd++;
+                }
+                if (indexOf(text, valueStart, valueEnd, GPX_1_0_NAMESPACE) >= 0) {
+                    return GpxVersion.GPX_1_0;
+                }
+                if (indexOf(text, valueStart, valueEnd, GPX_1_1_NAMESPACE) >= 0) {
+                    return GpxVersion.GPX_1_1;
+                }
+                return GpxVersion.UNKNOWN;
+            }
+            position = indexOf(text, position + 1, rootEnd, XMLNS);
+        }
+        return GpxVersion.UNKNOWN;
+    }
+
+    /**
+     * Wrap the stream into a decompressing stream if it contains GZIP compressed data.
+     */
+    @NonNull
+    public static InputStream decompressIfNeeded(@NonNull final InputStream stream) throws IOException {
+        final InputStream buffered = stream.markSupported() ? stream : new BufferedInputStream(stream);
+        buffered.mark(GZIP_MAGIC.length);
+        final byte[] magic = new byte[GZIP_MAGIC.length];
+        final int length = IOUtils.read(buffered, magic);
+        buffered.reset();
+        return startsWith(magic, length, GZIP_MAGIC) ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    /**
+     * Find the start of an element with the given start, followed by white space or the end of the tag.
+     */
+    private static int indexOfRoot(@NonNull final byte[] data, final int from, final int to, @NonNull final byte[] element) {
+        int position = indexOf(data, from, to, element);
+        while (position >= 0) {
+            final int next = position + element.length;
+            if (next < to) {
+                final byte c = data[next];
+                if (isWhitespace(c) || c == '>' || c == '/') {
+                    return position;
+                }
+            }
+            position = indexOf(data, position + 1, to, element);
+        }
+        return -1;
+    }
+
+    private static boolean isWhitespace(final byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static int skipWhitespace(@NonNull final byte[] data, final int from, final int to) {
+        int position = from;
+        while (position < to && isWhitespace(data[position])) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int indexOf(@NonNull final byte[] data, final int from, final int to, @NonNull final byte[] pattern) {
+        final int last = to - pattern.length;
+        for (int position = from; position <= last; position++) {
+            if (regionMatches(data, position, pattern)) {
+                return position;
             }
-            line = reader.readLine();
         }
-        return FileType.UNKNOWN;
+        return -1;
     }
 
-    private static boolean isZip(final String line) {
-        return StringUtils.length(line) >= 4
-                && StringUtils.startsWith(line, "PK") && line.charAt(2) == 3
-                && line.charAt(3) == 4;
+    private static boolean startsWith(@NonNull final byte[] data, final int length, @NonNull final byte[] pattern) {
+        return length >= pattern.length && regionMatches(data, 0, pattern);
     }
 
+    private static boolean regionMatches(@NonNull final byte[] data, final int offset, @NonNull final byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (data[offset + i] != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -85,9 +85,9 @@ public class GPXImporter {
         final ContentResolver contentResolver = fromActivity.getContentResolver();
 
         Log.i("importGPX: " + uri + ", mimetype=" + mimeType);
+        final FileTypeDetector.Detection detection = new FileTypeDetector(uri, contentResolver).detect();
         @NonNull
-        FileType fileType = new FileTypeDetector(uri, contentResolver)
-                .getFileType();
+        FileType fileType = detection.type;
 
         if (fileType == FileType.UNKNOWN) {
             fileType = getFileTypeFromPathName(pathName);
@@ -100,7 +100,7 @@ public class GPXImporter {
         }
 
         final AbstractImportThread importer = getImporterFromFileType(uri, contentResolver,
-                fileType);
+                fileType, detection.gpxVersion);
 
         if (importer != null) {
             importer.start();
@@ -133,13 +133,13 @@ public class GPXImporter {
     }
 
     private AbstractImportThread getImporterFromFileType(final Uri uri,
-            final ContentResolver contentResolver, final FileType fileType) {
+            final ContentResolver contentResolver, final FileType fileType, final GpxVersion gpxVersion) {
         switch (fileType) {
         case ZIP:
             return new ImportGpxZipAttachmentThread(uri, contentResolver,
                     listId, importStepHandler, progressHandler);
         case GPX:
-            return new ImportGpxAttachmentThread(uri, contentResolver, listId,
+            return new ImportGpxAttachmentThread(uri, contentResolver, gpxVersion, listId,
                     importStepHandler, progressHandler);
         case LOC:
             return new ImportLocAttachmentThread(uri, contentResolver, listId,
@@ -14,7 +14,6 @@ import cgeo.geocaching.connector.tc.TerraCachingLogType;
 import cgeo.geocaching.connector.tc.TerraCachingType;
 import cgeo.geocaching.enumerations.CacheSize;
 import cgeo.geocaching.enumerations.CacheType;
-import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.LoadFlags.LoadFlag;
 import cgeo.geocaching.enumerations.LoadFlags.RemoveFlag;
 import cgeo.geocaching.enumerations.LoadFlags.SaveFlag;
@@ -23,10 +22,11 @@ import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.utils.CancellableHandler;
+import cgeo.geocaching.utils.DateCodec;
 import cgeo.geocaching.utils.HtmlUtils;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MatcherWrapper;
-import cgeo.geocaching.utils.SynchronizedDateFormat;
+import cgeo.geocaching.utils.Metrics;
 
 import org.apache.commons.lang3.CharEncoding;
 import org.apache.commons.lang3.StringUtils;
@@ -51,17 +51,22 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.TimeZone;
 import java.util.regex.Pattern;
 
 public abstract class GPXParser extends FileParser {
 
-    private static final SynchronizedDateFormat formatSimple = new SynchronizedDateFormat("yyyy-MM-dd'T'HH:mm:ss", Locale.US); // 2010-04-20T07:00:00
-    private static final SynchronizedDateFormat formatSimpleZ = new SynchronizedDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US); // 2010-04-20T07:00:00Z
-    private static final SynchronizedDateFormat formatTimezone = new SynchronizedDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.US); // 2010-04-20T01:01:03-04:00
+    private static final Metrics.Timer PARSE_TIMER = Metrics.timer("gpx.parse");
+    private static final Metrics.Timer STORE_TIMER = Metrics.timer("gpx.store");
+    private static final Metrics.Timer LOAD_TIMER = Metrics.timer("gpx.load");
+    private static final Metrics.Timer WAYPOINTS_TIMER = Metrics.timer("gpx.waypoints");
 
     /**
      * Attention: case sensitive geocode pattern to avoid matching normal words in the name or description of the cache.
@@ -94,8 +99,6 @@ public abstract class GPXParser extends FileParser {
      */
     private static final String CGEO_NS = "http://www.cgeo.org/wptext/1/0";
 
-    private static final Pattern PATTERN_MILLISECONDS = Pattern.compile("\\.\\d{3,7}");
-
     private int listId = StoredList.STANDARD_LIST_ID;
     final protected String namespace;
     final private String version;
@@ -119,6 +122,14 @@ public abstract class GPXParser extends FileParser {
      * Parser result. Maps geocode to cache.
      */
     private final Set<String> result = new HashSet<>(100);
+    /**
+     * Additional waypoints of stored caches, by geocode of the cache. They are saved together at the end of the file.
+     */
+    private final Map<String, List<Waypoint>> pendingWaypoints = new LinkedHashMap<>();
+    /**
+     * Geocodes of stored caches by the parent cache codes of waypoints, as long as the import runs.
+     */
+    private final Map<String, String> parentGeocodes = new HashMap<>();
     private ProgressInputStream progressStream;
     /**
      * URL contained in the header of the GPX file. Used to guess where the file is coming from.
@@ -276,18 +287,17 @@ public abstract class GPXParser extends FileParser {
         version = versionIn;
     }
 
+    /**
+     * Parse dates like 2010-04-20T07:00:00, 2010-04-20T07:00:00Z or 2010-04-20T01:01:03.103-04:00. Fractional seconds
+     * are ignored.
+     */
     static Date parseDate(final String inputUntrimmed) throws ParseException {
-        // remove milliseconds to reduce number of needed patterns
-        final MatcherWrapper matcher = new MatcherWrapper(PATTERN_MILLISECONDS, inputUntrimmed.trim());
-        final String input = matcher.replaceFirst("");
-        if (input.contains("Z")) {
-            return formatSimpleZ.parse(input);
-        }
-        if (StringUtils.countMatches(input, ":") == 3) {
-            final String removeColon = input.substring(0, input.length() - 3) + input.substring(input.length() - 2);
-            return formatTimezone.parse(removeColon);
+        final String input = inputUntrimmed.trim();
+        // geocaching.com exports local times with a "Z" suffix, therefore it does not denote UTC here
+        if (StringUtils.endsWith(input, "Z")) {
+            return DateCodec.parseIsoDateTime(input.substring(0, input.length() - 1), TimeZone.getDefault());
         }
-        return formatSimple.parse(input);
+        return DateCodec.parseIsoDateTime(input, TimeZone.getDefault());
     }
 
     @Override
@@ -369,11 +379,13 @@ public abstract class GPXParser extends FileParser {
 
                     // finally store the cache in the database
                     result.add(geocode);
+                    final long start = STORE_TIMER.start();
                     DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
                     DataStore.saveLogs(cache.getGeocode(), logs);
 
                     // avoid the cachecache using lots of memory for caches which the user did not actually look at
                     DataStore.removeCache(geocode, EnumSet.of(RemoveFlag.CACHE));
+                    STORE_TIMER.stop(start);
                     showProgressMessage(progressHandler, progressStream.getProgress());
                 } else if (StringUtils.isNotBlank(cache.getName())
  && (StringUtils.containsIgnoreCase(type, "waypoint") || terraChildWaypoint)) {
@@ -403,28 +415,29 @@ public abstract class GPXParser extends FileParser {
                         cache.setShortDescription("");
                     }
 
-                    final Geocache cacheForWaypoint = findParentCache();
-                    if (cacheForWaypoint != null) {
+                    final String geocodeForWaypoint = findParentGeocode();
+                    if (geocodeForWaypoint != null) {
                         final Waypoint waypoint = new Waypoint(cache.getShortDescription(), WaypointType.fromGPXString(sym), false);
                         if (wptUserDefined) {
                             waypoint.setUserDefined();
                         }
                         waypoint.setId(-1);
-                        waypoint.setGeocode(parentCacheCode);
-                        waypoint.setPrefix(cacheForWaypoint.getWaypointPrefix(cache.getName()));
+                        waypoint.setGeocode(geocodeForWaypoint);
+                        waypoint.setPrefix(ConnectorFactory.getConnector(geocodeForWaypoint).getWaypointPrefix(cache.getName()));
                         waypoint.setLookup("---");
                         // there is no lookup code in gpx file
                         waypoint.setCoords(cache.getCoords());
                         waypoint.setNote(cache.getDescription());
                         waypoint.setVisited(wptVisited);
-                        final List<Waypoint> mergedWayPoints = new ArrayList<>();
-                        mergedWayPoints.addAll(cacheForWaypoint.getWaypoints());
 
+                        // merge with the previous waypoints of the same cache in this file, the stored ones are merged on saving
                         final List<Waypoint> newPoints = new ArrayList<>();
                         newPoints.add(waypoint);
-                        Waypoint.mergeWayPoints(newPoints, mergedWayPoints, true);
-                        cacheForWaypoint.setWaypoints(newPoints, false);
-                        DataStore.saveCache(cacheForWaypoint, EnumSet.of(SaveFlag.DB));
+                        final List<Waypoint> previousPoints = pendingWaypoints.get(geocodeForWaypoint);
+                        if (previousPoints != null) {
+                            Waypoint.mergeWayPoints(newPoints, previousPoints, true);
+                        }
+                        pendingWaypoints.put(geocodeForWaypoint, newPoints);
                         showProgressMessage(progressHandler, progressStream.getProgress());
                     }
                 }
@@ -863,8 +876,21 @@ public abstract class GPXParser extends FileParser {
         try {
             progressStream = new ProgressInputStream(stream);
             final BufferedReader reader = new BufferedReader(new InputStreamReader(progressStream, CharEncoding.UTF_8));
-            Xml.parse(new InvalidXMLCharacterFilterReader(reader), root.getContentHandler());
-            return DataStore.loadCaches(result, EnumSet.of(LoadFlag.DB_MINIMAL));
+            // includes storing the caches, which is also measured on its own
+            final long parseStart = PARSE_TIMER.start();
+            try {
+                Xml.parse(new InvalidXMLCharacterFilterReader(reader), root.getContentHandler());
+            } finally {
+                // also keep the waypoints read before a parser error, like the caches
+                savePendingWaypoints();
+                PARSE_TIMER.stop(parseStart);
+            }
+            final long loadStart = LOAD_TIMER.start();
+            try {
+                return DataStore.loadCaches(result, EnumSet.of(LoadFlag.DB_MINIMAL));
+            } finally {
+                LOAD_TIMER.stop(loadStart);
+            }
         } catch (final SAXException e) {
             throw new ParserException("Cannot parse .gpx file as GPX " + version + ": could not parse XML", e);
         }
@@ -1269,20 +1295,37 @@ public abstract class GPXParser extends FileParser {
         return valid;
     }
 
+    /**
+     * Get the geocode of the stored cache of the current waypoint, without loading the cache.
+     */
     @Nullable
-    private Geocache findParentCache() {
+    private String findParentGeocode() {
         if (StringUtils.isBlank(parentCacheCode)) {
             return null;
         }
-        // first match by geocode only
-        Geocache cacheForWaypoint = DataStore.loadCache(parentCacheCode, LoadFlags.LOAD_CACHE_OR_DB);
-        if (cacheForWaypoint == null) {
-            // then match by title
-            final String geocode = DataStore.getGeocodeForTitle(parentCacheCode);
-            if (StringUtils.isNotBlank(geocode)) {
-                cacheForWaypoint = DataStore.loadCache(geocode, LoadFlags.LOAD_CACHE_OR_DB);
-            }
+        final String knownGeocode = parentGeocodes.get(parentCacheCode);
+        if (knownGeocode != null) {
+            return knownGeocode;
+        }
+        // first match by geocode only, then match by title
+        final String parentGeocode = StringUtils.upperCase(parentCacheCode);
+        final boolean stored = result.contains(parentGeocode) || DataStore.isCacheStored(parentGeocode);
+        final String geocode = stored ? parentGeocode : DataStore.getGeocodeForTitle(parentCacheCode);
+        // the parent may still be imported later on, so only found geocodes are remembered
+        if (StringUtils.isNotBlank(geocode)) {
+            parentGeocodes.put(parentCacheCode, geocode);
+            return geocode;
+        }
+        return null;
+    }
+
+    private void savePendingWaypoints() {
+        if (pendingWaypoints.isEmpty()) {
+            return;
         }
-        return cacheForWaypoint;
+        final long start = WAYPOINTS_TIMER.start();
+        DataStore.saveAdditionalWaypoints(pendingWaypoints);
+        pendingWaypoints.clear();
+        WAYPOINTS_TIMER.stop(start);
     }
 }
@@ -0,0 +1,7 @@
+package cgeo.geocaching.files;
+
+public enum GpxVersion {
+    UNKNOWN,
+    GPX_1_0,
+    GPX_1_1
+}
@@ -6,6 +6,7 @@ import cgeo.geocaching.network.Network;
 import cgeo.geocaching.utils.CancellableHandler;
 import cgeo.geocaching.utils.Log;
 
+import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 
 import android.content.ContentResolver;
@@ -17,26 +18,45 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.zip.GZIPInputStream;
 
 public class ImportGpxAttachmentThread extends AbstractImportGpxThread {
     private final Uri uri;
     private final ContentResolver contentResolver;
+    @NonNull private final GpxVersion gpxVersion;
 
     public ImportGpxAttachmentThread(final Uri uri, final ContentResolver contentResolver, final int listId, final Handler importStepHandler, final CancellableHandler progressHandler) {
+        this(uri, contentResolver, GpxVersion.UNKNOWN, listId, importStepHandler, progressHandler);
+    }
+
+    /**
+     * @param gpxVersion
+     *            the version detected by the {@link FileTypeDetector}, to not open the attachment again
+     */
+    public ImportGpxAttachmentThread(final Uri uri, final ContentResolver contentResolver, @NonNull final GpxVersion gpxVersion, final int listId, final Handler importStepHandler, final CancellableHandler progressHandler) {
         super(listId, importStepHandler, progressHandler);
         this.uri = uri;
         this.contentResolver = contentResolver;
+        this.gpxVersion = gpxVersion;
+    }
+
+    @Override
+    @NonNull
+    protected GpxVersion getGpxVersion() {
+        return gpxVersion;
     }
 
     @Override
     protected Collection<Geocache> doImport(final GPXParser parser) throws IOException, ParserException {
         Log.i("Import GPX from uri: " + uri);
-        final InputStream inputStream = getStream();
-        if (inputStream == null) {
+        final InputStream rawStream = getStream();
+        if (rawStream == null) {
             return Collections.emptyList();
         }
-        int streamSize = inputStream.available();
-        if (streamSize == 0) {
+        int streamSize = rawStream.available();
+        final InputStream inputStream = FileTypeDetector.decompressIfNeeded(rawStream);
+        if (streamSize == 0 || inputStream instanceof GZIPInputStream) {
+            // the progress is reported for the decompressed content
             streamSize = -1;
         }
         importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches, streamSize));
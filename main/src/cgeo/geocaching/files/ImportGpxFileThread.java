@@ -5,10 +5,15 @@ import cgeo.geocaching.R;
 import cgeo.geocaching.utils.CancellableHandler;
 import cgeo.geocaching.utils.Log;
 
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jdt.annotation.NonNull;
+
 import android.os.Handler;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 
 class ImportGpxFileThread extends AbstractImportGpxThread {
@@ -37,6 +42,17 @@ class ImportGpxFileThread extends AbstractImportGpxThread {
         return caches;
     }
 
+    @Override
+    @NonNull
+    protected GpxVersion getGpxVersion() throws IOException {
+        final InputStream stream = new FileInputStream(cacheFile);
+        try {
+            return FileTypeDetector.detect(stream).gpxVersion;
+        } finally {
+            IOUtils.closeQuietly(stream);
+        }
+    }
+
     @Override
     protected String getSourceDisplayName() {
         return cacheFile.getName();
@@ -4,6 +4,8 @@ import cgeo.geocaching.network.Network;
 import cgeo.geocaching.utils.CancellableHandler;
 import cgeo.geocaching.utils.Log;
 
+import org.eclipse.jdt.annotation.NonNull;
+
 import android.content.ContentResolver;
 import android.net.Uri;
 import android.os.Handler;
@@ -23,6 +25,16 @@ class ImportGpxZipAttachmentThread extends AbstractImportGpxZipThread {
         Log.i("Import zipped GPX from uri: " + uri);
     }
 
+    @Override
+    @NonNull
+    protected GpxVersion getGpxVersion() throws IOException {
+        // don't download the archive twice
+        if (uri.toString().startsWith("http")) {
+            return GpxVersion.UNKNOWN;
+        }
+        return super.getGpxVersion();
+    }
+
     @Override
     protected InputStream getInputStream() throws IOException {
         try {
@@ -14,6 +14,7 @@ import org.apache.commons.io.IOUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Collection;
+import java.util.Collections;
 
 class ImportLocAttachmentThread extends AbstractImportThread {
     private final Uri uri;
@@ -30,9 +31,12 @@ class ImportLocAttachmentThread extends AbstractImportThread {
         Log.i("Import LOC from uri: " + uri);
         importStepHandler.sendMessage(importStepHandler.obtainMessage(GPXImporter.IMPORT_STEP_READ_FILE, R.string.gpx_import_loading_caches, -1));
         final InputStream is = contentResolver.openInputStream(uri);
+        if (is == null) {
+            return Collections.emptyList();
+        }
         final LocParser parser = new LocParser(listId);
         try {
-            return parser.parse(is, progressHandler);
+            return parser.parse(FileTypeDetector.decompressIfNeeded(is), progressHandler);
         } finally {
             IOUtils.closeQuietly(is);
         }
@@ -1,7 +1,5 @@
 package cgeo.geocaching.files;
 
-import org.apache.commons.lang3.StringUtils;
-
 import java.io.FilterReader;
 import java.io.IOException;
 import java.io.Reader;
@@ -9,81 +7,239 @@ import java.io.Reader;
 /**
  * Filter reader which can filter out invalid XML characters and character references.
  *
+ * The input is scanned once by a state machine. Numeric character references are evaluated while they are read, also
+ * if they are split over several reads of the underlying reader, and are removed if they reference an invalid
+ * character. Valid references are passed on unchanged, as the XML parser needs to resolve them itself.
  */
 public class InvalidXMLCharacterFilterReader extends FilterReader
 {
 
+    private static final int BUFFER_SIZE = 8192;
+
+    /** longest checked character reference, "&#x" followed by 8 digits and ";" */
+    private static final int MAX_REFERENCE_LENGTH = 12;
+
+    /** value of references beyond the Unicode range */
+    private static final int OUT_OF_RANGE = Character.MAX_CODE_POINT + 1;
+
+    private enum State {
+        /** outside of a character reference */
+        TEXT,
+        /** after "&" */
+        AMPERSAND,
+        /** after "&#" */
+        HASH,
+        /** after "&#" and decimal digits */
+        DECIMAL,
+        /** after "&#x" */
+        HEX
+    }
+
+    /** input read from the underlying reader, but not yet filtered */
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+
+    /** start of a possible character reference, kept until it is known whether to drop it */
+    private final char[] reference = new char[MAX_REFERENCE_LENGTH];
+    private int referenceLength = 0;
+    /** position of the next character of {@link #reference} to pass on, or -1 if the reference is still read */
+    private int flushPosition = -1;
+    private int referenceValue = 0;
+    private State state = State.TEXT;
+
+    private final char[] singleChar = new char[1];
+
     public InvalidXMLCharacterFilterReader(final Reader in) {
         super(in);
     }
 
     /**
-     * Every overload of {@link Reader#read()} method delegates to this one so
-     * it is enough to override only this one. <br />
-     * To skip invalid characters this method shifts only valid chars to left
-     * and returns decreased value of the original read method. So after last
-     * valid character there will be some unused chars in the buffer.
+     * Read valid characters into the given buffer. Less characters than requested are returned if the underlying reader
+     * would have to be read again, to not block while valid characters are available.
      *
      * @return Number of read valid characters or {@code -1} if end of the
      *         underling reader was reached.
      */
     @Override
     public int read(final char[] cbuf, final int off, final int len) throws IOException {
-        final int read = super.read(cbuf, off, len);
-        // check for end
-        if (read == -1) {
-            return -1;
+        if (len == 0) {
+            return 0;
         }
-        // target position
-        int pos = off - 1;
-
-        int entityStart = -1;
-        for (int readPos = off; readPos < off + read; readPos++) {
-            boolean useChar = true;
-            switch (cbuf[readPos]) {
-                case '&':
-                    pos++;
-                    entityStart = readPos;
+        final int end = off + len;
+        int pos = off;
+        while (pos < end) {
+            // pass on the characters of an aborted or valid reference first
+            if (flushPosition >= 0) {
+                while (flushPosition < referenceLength && pos < end) {
+                    cbuf[pos++] = reference[flushPosition++];
+                }
+                if (flushPosition < referenceLength) {
                     break;
-                case ';':
-                    pos++;
-                    if (entityStart >= 0) {
-                        final int entityLength = readPos - entityStart + 1;
-                        if (entityLength <= 5) {
-                            final String entity = new String(cbuf, entityStart, entityLength);
-                            if (StringUtils.startsWith(entity, "&#")) {
-                                final String numberString = StringUtils.substringBetween(entity, "&#", ";");
-                                final int value;
-                                if (StringUtils.startsWith(numberString, "x")) {
-                                    value = Integer.parseInt(numberString.substring(1), 16);
-                                }
-                                else {
-                                    value = Integer.parseInt(numberString);
-                                }
-                                if (!isValidXMLChar((char) value)) {
-                                    pos -= entityLength;
-                                    useChar = false;
-                                }
-                            }
-                        }
+                }
+                flushPosition = -1;
+                referenceLength = 0;
+                continue;
+            }
+
+            if (bufferPosition == bufferLength) {
+                if (pos > off) {
+                    break;
+                }
+                final int read = in.read(buffer, 0, BUFFER_SIZE);
+                if (read == -1) {
+                    if (referenceLength == 0) {
+                        return -1;
+                    }
+                    // an unterminated reference is no reference
+                    state = State.TEXT;
+                    flushPosition = 0;
+                    continue;
+                }
+                bufferPosition = 0;
+                bufferLength = read;
+                continue;
+            }
+
+            final char c = buffer[bufferPosition++];
+            switch (state) {
+                case TEXT:
+                    if (c == '&') {
+                        startReference(c, State.AMPERSAND);
+                    } else if (isValidXMLChar(c)) {
+                        cbuf[pos++] = c;
                     }
                     break;
-                default:
-                    if (isValidXMLChar(cbuf[readPos])) {
-                        pos++;
+                case AMPERSAND:
+                    if (c == '#') {
+                        continueReference(c, State.HASH, 0);
                     } else {
-                        continue;
+                        abortReference();
                     }
+                    break;
+                case HASH:
+                    if (c == 'x' || c == 'X') {
+                        continueReference(c, State.HEX, 0);
+                    } else if (c >= '0' && c <= '9') {
+                        continueReference(c, State.DECIMAL, c - '0');
+                    } else {
+                        abortReference();
+                    }
+                    break;
+                case DECIMAL:
+                case HEX:
+                    continueNumber(c);
+                    break;
+                default:
+                    break;
+            }
+        }
+        return pos - off;
+    }
+
+    private void startReference(final char c, final State nextState) {
+        reference[0] = c;
+        referenceLength = 1;
+        state = nextState;
+    }
+
+    private void continueReference(final char c, final State nextState, final int value) {
+        reference[referenceLength++] = c;
+        referenceValue = value;
+        state = nextState;
+    }
+
+    /**
+     * Continue a reference after its first digit, or after "&#x".
+     */
+    private void continueNumber(final char c) {
+        final int radix = state == State.HEX ? 16 : 10;
+        final boolean hasDigits = state == State.DECIMAL || referenceLength > 3;
+        if (c == ';' && hasDigits) {
+            if (isValidXMLCodePoint(referenceValue)) {
+                reference[referenceLength++] = c;
+                flushPosition = 0;
+            } else {
+                // drop the reference
+                referenceLength = 0;
             }
-            // copy, and skip unwanted characters
-            if (pos < readPos && useChar) {
-                cbuf[pos] = cbuf[readPos];
+            state = State.TEXT;
+            return;
+        }
+        // only ASCII digits, Character.digit() also accepts other scripts
+        final int digit = c < 0x80 ? Character.digit(c, radix) : -1;
+        if (digit >= 0 && referenceLength < MAX_REFERENCE_LENGTH - 1) {
+            continueReference(c, state, Math.min(referenceValue * radix + digit, OUT_OF_RANGE));
+        } else {
+            abortReference();
+        }
+    }
+
+    /**
+     * Pass on the characters read so far as text, and scan the current character again.
+     */
+    private void abortReference() {
+        bufferPosition--;
+        state = State.TEXT;
+        flushPosition = 0;
+    }
+
+    /**
+     * {@link FilterReader#read()} would bypass the filter.
+     */
+    @Override
+    public int read() throws IOException {
+        return read(singleChar, 0, 1) == -1 ? -1 : singleChar[0];
+    }
+
+    /**
+     * {@link FilterReader#skip(long)} would bypass the filter.
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        if (n < 0L) {
+            throw new IllegalArgumentException("skip value is negative");
+        }
+        final char[] skipped = new char[(int) Math.min(n, BUFFER_SIZE)];
+        long remaining = n;
+        while (remaining > 0) {
+            final int read = read(skipped, 0, (int) Math.min(remaining, skipped.length));
+            if (read == -1) {
+                break;
             }
+            remaining -= read;
         }
-        return pos - off + 1;
+        return n - remaining;
     }
 
+    @Override
+    public boolean ready() throws IOException {
+        return bufferPosition < bufferLength || flushPosition >= 0 || in.ready();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void mark(final int readAheadLimit) throws IOException {
+        throw new IOException("mark() not supported");
+    }
+
+    @Override
+    public void reset() throws IOException {
+        throw new IOException("reset() not supported");
+    }
+
+    /**
+     * Surrogates are accepted, as the characters of a pair are checked one by one.
+     */
     private static boolean isValidXMLChar(final char c) {
-        return c == 0x9 || c == 0xA || c == 0xD || (c >= 0x20 && c <= 0xD7FF) || (c >= 0xE000 && c <= 0xFFFD);
+        return c >= 0x20 ? c <= 0xFFFD : c == 0x9 || c == 0xA || c == 0xD;
+    }
+
+    private static boolean isValidXMLCodePoint(final int codePoint) {
+        return codePoint == 0x9 || codePoint == 0xA || codePoint == 0xD || (codePoint >= 0x20 && codePoint <= 0xD7FF) || (codePoint >= 0xE000 && codePoint <= 0xFFFD) || (codePoint >= 0x10000 && codePoint <= Character.MAX_CODE_POINT);
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package cgeo.geocaching.loaders;
 
 import cgeo.geocaching.CacheListActivity;
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.connector.IConnector;
 import cgeo.geocaching.connector.gc.GCConstants;
 import cgeo.geocaching.connector.gc.RecaptchaHandler;
 import cgeo.geocaching.network.Network;
@@ -10,12 +11,19 @@ import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.TextUtils;
 
 import org.apache.commons.lang3.StringUtils;
+import rx.Observable;
+import rx.functions.Action1;
+import rx.functions.Func1;
+import rx.subjects.BehaviorSubject;
 
 import android.content.Context;
 import android.os.Handler;
+import android.os.Looper;
 import android.support.v4.content.AsyncTaskLoader;
 
+import java.util.Collection;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 public abstract class AbstractSearchLoader extends AsyncTaskLoader<SearchResult> implements RecaptchaReceiver {
 
@@ -42,7 +50,19 @@ public abstract class AbstractSearchLoader extends AsyncTaskLoader<SearchResult>
     private String recaptchaKey = null;
     private String recaptchaText = null;
     private SearchResult search;
-    private boolean loading;
+    private volatile boolean loading;
+    /**
+     * Number of resets of the loader. A search stops waiting for the connectors once the loader has been reset after
+     * the search started, the requests already running are left to finish and their results are dropped.
+     */
+    private final BehaviorSubject<Integer> resets = BehaviorSubject.create(0);
+    private volatile int resetsAtStart;
+    /**
+     * Whether a connector is waiting for the user to solve a captcha. The deadline of the connectors is suspended in the
+     * meantime and starts again once the user has answered.
+     */
+    private final BehaviorSubject<Boolean> waitingForUser = BehaviorSubject.create(false);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private final CountDownLatch latch = new CountDownLatch(1);
     private CacheListActivity.AfterLoadAction afterLoadAction = CacheListActivity.AfterLoadAction.NO_ACTION;
 
@@ -52,12 +72,69 @@ public abstract class AbstractSearchLoader extends AsyncTaskLoader<SearchResult>
 
     public abstract SearchResult runSearch();
 
+    /**
+     * @return {@code true} while the search is running, in which case a delivered result is only partial
+     */
     public boolean isLoading() {
         return loading;
     }
 
+    /**
+     * Execute the given connector request in parallel on all active connectors. Whenever a connector has answered,
+     * the results found so far are delivered as partial result, so that they can be shown while slower connectors are
+     * still working.
+     *
+     * @see SearchResult#parallelActive(Collection, Func1, Observable, Func1)
+     */
+    protected <C extends IConnector> SearchResult parallelCombineActive(final Collection<C> connectors, final Func1<C, SearchResult> func) {
+        return parallelCombineActive(connectors, func, SearchResult.CONNECTOR_DEADLINE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param deadline
+     *            maximum time to wait for a single connector, not counting the time the user needs to solve a captcha
+     */
+    <C extends IConnector> SearchResult parallelCombineActive(final Collection<C> connectors, final Func1<C, SearchResult> func, final long deadline, final TimeUnit unit) {
+        final SearchResult combined = new SearchResult();
+        final Observable<Long> connectorDeadline = waitingForUser.switchMap(new Func1<Boolean, Observable<Long>>() {
+            @Override
+            public Observable<Long> call(final Boolean waiting) {
+                return waiting ? Observable.<Long>never() : Observable.timer(deadline, unit);
+            }
+        });
+        final Observable<SearchResult> results = SearchResult.parallelActive(connectors, func, connectorDeadline, null);
+        // the subject replays the current number of resets, so that a reset before the subscription is not missed
+        final Observable<Integer> resetSinceStart = resets.filter(new Func1<Integer, Boolean>() {
+            @Override
+            public Boolean call(final Integer count) {
+                return count != resetsAtStart;
+            }
+        });
+        results.takeUntil(resetSinceStart).toBlocking().forEach(new Action1<SearchResult>() {
+            @Override
+            public void call(final SearchResult result) {
+                combined.addSearchResult(result);
+                deliverPartialResult(new SearchResult(combined));
+            }
+        });
+        return combined;
+    }
+
+    private void deliverPartialResult(final SearchResult partial) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                // once the search is over, the complete result is delivered anyway
+                if (loading && isStarted()) {
+                    deliverResult(partial);
+                }
+            }
+        });
+    }
+
     @Override
     public SearchResult loadInBackground() {
+        resetsAtStart = resets.getValue();
         loading = true;
         try {
             if (search == null) {
@@ -94,10 +171,13 @@ public abstract class AbstractSearchLoader extends AsyncTaskLoader<SearchResult>
 
     @Override
     public void waitForUser() {
+        waitingForUser.onNext(true);
         try {
             latch.await();
         } catch (final InterruptedException ignored) {
             Log.w("searchThread is not waiting for user…");
+        } finally {
+            waitingForUser.onNext(false);
         }
     }
 
@@ -138,6 +218,7 @@ public abstract class AbstractSearchLoader extends AsyncTaskLoader<SearchResult>
 
     @Override
     public void reset() {
+        resets.onNext(resets.getValue() + 1);
         super.reset();
         search = null;
     }
@@ -21,7 +21,7 @@ public class CoordsGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
-        return SearchResult.parallelCombineActive(ConnectorFactory.getSearchByCenterConnectors(),
+        return parallelCombineActive(ConnectorFactory.getSearchByCenterConnectors(),
                 new Func1<ISearchByCenter, SearchResult>() {
                     @Override
                     public SearchResult call(final ISearchByCenter connector) {
@@ -20,7 +20,7 @@ public class FinderGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
-        return SearchResult.parallelCombineActive(ConnectorFactory.getSearchByFinderConnectors(),
+        return parallelCombineActive(ConnectorFactory.getSearchByFinderConnectors(),
                 new Func1<ISearchByFinder, SearchResult>() {
                     @Override
                     public SearchResult call(final ISearchByFinder connector) {
@@ -20,7 +20,7 @@ public class KeywordGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
-        return SearchResult.parallelCombineActive(ConnectorFactory.getSearchByKeywordConnectors(),
+        return parallelCombineActive(ConnectorFactory.getSearchByKeywordConnectors(),
                 new Func1<ISearchByKeyword, SearchResult>() {
                     @Override
                     public SearchResult call(final ISearchByKeyword connector) {
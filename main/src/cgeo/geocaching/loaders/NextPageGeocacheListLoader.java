@@ -19,7 +19,7 @@ public class NextPageGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
-        return SearchResult.parallelCombineActive(ConnectorFactory.getSearchByNextPageConnectors(),
+        return parallelCombineActive(ConnectorFactory.getSearchByNextPageConnectors(),
                 new Func1<ISearchByNextPage, SearchResult>() {
                     @Override
                     public SearchResult call(final ISearchByNextPage connector) {
@@ -20,7 +20,7 @@ public class OwnerGeocacheListLoader extends AbstractSearchLoader {
 
     @Override
     public SearchResult runSearch() {
-        return SearchResult.parallelCombineActive(ConnectorFactory.getSearchByOwnerConnectors(),
+        return parallelCombineActive(ConnectorFactory.getSearchByOwnerConnectors(),
                 new Func1<ISearchByOwner, SearchResult>() {
                     @Override
                     public SearchResult call(final ISearchByOwner connector) {
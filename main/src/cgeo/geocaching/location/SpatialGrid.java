@@ -0,0 +1,119 @@
+package cgeo.geocaching.location;
+
+import cgeo.geocaching.models.ICoordinates;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index dividing the coordinate space into square cells of a fixed size (in degrees). Looking up the items of
+ * a viewport only touches the cells overlapping the viewport, and the cells themselves can be used to group nearby
+ * items.
+ *
+ * Items without coordinates are ignored. This class is not thread safe.
+ */
+public final class SpatialGrid<T extends ICoordinates> {
+
+    private final double cellSize;
+    private final Map<Long, List<T>> cells = new HashMap<>();
+    private int size = 0;
+
+    /**
+     * @param cellSize
+     *            the width and height of a cell in degrees
+     */
+    public SpatialGrid(final double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("cellSize must be > 0");
+        }
+        this.cellSize = cellSize;
+    }
+
+    public void add(@NonNull final T item) {
+        final Geopoint coords = item.getCoords();
+        if (coords == null) {
+            return;
+        }
+        final Long key = cellKey(cellIndex(coords.getLatitude()), cellIndex(coords.getLongitude()));
+        List<T> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(item);
+        size++;
+    }
+
+    public void addAll(@NonNull final Collection<? extends T> items) {
+        for (final T item : items) {
+            add(item);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the non empty cells of the grid, each containing the items located in that cell
+     */
+    @NonNull
+    public Collection<List<T>> getCells() {
+        return cells.values();
+    }
+
+    /**
+     * Get all items located in the given viewport.
+     *
+     * @param viewport
+     *            the area to look at
+     * @return a new list of items inside the viewport
+     */
+    @NonNull
+    public List<T> getInViewport(@NonNull final Viewport viewport) {
+        final List<T> result = new ArrayList<>();
+        final int latMin = cellIndex(viewport.getLatitudeMin());
+        final int latMax = cellIndex(viewport.getLatitudeMax());
+        final int lonMin = cellIndex(viewport.getLongitudeMin());
+        final int lonMax = cellIndex(viewport.getLongitudeMax());
+        final long coveredCells = ((long) latMax - latMin + 1) * ((long) lonMax - lonMin + 1);
+
+        if (coveredCells > cells.size()) {
+            // the viewport covers more cells than are filled, so checking every filled cell is cheaper
+            for (final List<T> cell : cells.values()) {
+                addContained(cell, viewport, result);
+            }
+            return result;
+        }
+        for (int lat = latMin; lat <= latMax; lat++) {
+            for (int lon = lonMin; lon <= lonMax; lon++) {
+                final List<T> cell = cells.get(cellKey(lat, lon));
+                if (cell != null) {
+                    addContained(cell, viewport, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static <T extends ICoordinates> void addContained(final List<T> cell, final Viewport viewport, final List<T> result) {
+        for (final T item : cell) {
+            if (viewport.contains(item)) {
+                result.add(item);
+            }
+        }
+    }
+
+    private int cellIndex(final double degrees) {
+        return (int) Math.floor(degrees / cellSize);
+    }
+
+    private static Long cellKey(final int latIndex, final int lonIndex) {
+        return ((long) latIndex << 32) | (lonIndex & 0xffffffffL);
+    }
+}
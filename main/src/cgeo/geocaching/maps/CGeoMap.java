@@ -65,6 +65,7 @@ import cgeo.geocaching.enumerations.LoadFlags.RemoveFlag;
 import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.SpatialGrid;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.interfaces.CachesOverlayItemImpl;
 import cgeo.geocaching.maps.interfaces.GeoPointImpl;
@@ -91,10 +92,14 @@ import cgeo.geocaching.utils.Formatter;
 import cgeo.geocaching.utils.LeastRecentlyUsedSet;
 import cgeo.geocaching.utils.Log;
 import cgeo.geocaching.utils.MapUtils;
+import cgeo.geocaching.utils.Metrics;
+import rx.Observable;
 import rx.Subscription;
 import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.functions.Func1;
 import rx.schedulers.Schedulers;
+import rx.subjects.BehaviorSubject;
 import rx.subscriptions.Subscriptions;
 
 /**
@@ -153,6 +158,11 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
     // status data
     /** Last search result used for displaying header */
     private SearchResult lastSearchResult = null;
+    /**
+     * Whether the map is paused. Downloads stop waiting for the connectors when the map is left, the subject replays
+     * the current state so that a download started after leaving the map does not wait either.
+     */
+    private final BehaviorSubject<Boolean> paused = BehaviorSubject.create(false);
     private MapTokens tokens = null;
     private boolean noMapTokenShowed = false;
     // map status data
@@ -193,6 +203,16 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
      * if live map is enabled, this is the minimum zoom level, independent of the stored setting
      */
     private static final int MIN_LIVEMAP_ZOOM = 12;
+    /**
+     * caches are grouped into clusters if more than this number of caches is to be displayed at a zoom level up to
+     * {@link #CLUSTER_MAX_ZOOM}
+     */
+    private static final int CLUSTER_MIN_CACHES = 200;
+    private static final int CLUSTER_MAX_ZOOM = 13;
+    /** minimum number of caches in a grid cell to replace them by a cluster */
+    private static final int CLUSTER_MIN_SIZE = 5;
+    /** width and height of the grid cells used for clustering, in pixels */
+    private static final int CLUSTER_CELL_PIXELS = 64;
     // Thread pooling
     private static final BlockingQueue<Runnable> displayQueue = new ArrayBlockingQueue<>(1);
     private static final ThreadPoolExecutor displayExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, displayQueue, new ThreadPoolExecutor.DiscardOldestPolicy());
@@ -512,6 +532,12 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
         mapView.clearOverlays();
 
         overlayCaches = mapView.createAddMapOverlay(mapView.getContext(), Compatibility.getDrawable(getResources(), R.drawable.marker));
+        overlayCaches.setClusterTapAction(new Action1<Viewport>() {
+            @Override
+            public void call(final Viewport viewport) {
+                zoomToCluster(viewport);
+            }
+        });
 
 
         overlayPositionAndScale = mapView.createAddPositionAndScaleOverlay(coordsIntent, geocodeIntent);
@@ -595,6 +621,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
     @Override
     public void onResume() {
         super.onResume();
+        paused.onNext(false);
         resumeSubscription = Subscriptions.from(geoDirUpdate.start(GeoDirHandler.UPDATE_GEODIR), startTimer());
 
         final List<String> toRefresh;
@@ -625,6 +652,7 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
     @Override
     public void onPause() {
         resumeSubscription.unsubscribe();
+        paused.onNext(true);
         savePrefs();
 
         mapView.destroyDrawingCache();
@@ -1231,8 +1259,10 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
 
     private static class LoadRunnable extends DoRunnable {
 
+        private static final Metrics.Timer TIMER = Metrics.timer("map.load");
+
         public LoadRunnable(@NonNull final CGeoMap map) {
-            super(map);
+            super(map, TIMER);
         }
 
         @Override
@@ -1318,8 +1348,10 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
 
     private static class DownloadRunnable extends DoRunnable {
 
+        private static final Metrics.Timer TIMER = Metrics.timer("map.download");
+
         public DownloadRunnable(final CGeoMap map) {
-            super(map);
+            super(map, TIMER);
         }
 
         @Override
@@ -1341,37 +1373,54 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
                     }
                 }
             }
-            final SearchResult searchResult = ConnectorFactory.searchByViewport(mapView.getViewport().resize(0.8), tokens);
+            // show the caches of every connector as soon as they are available, and stop waiting when the map is left
+            final SearchResult searchResult = new SearchResult();
+            final Observable<Boolean> mapLeft = paused.filter(new Func1<Boolean, Boolean>() {
+                @Override
+                public Boolean call(final Boolean isPaused) {
+                    return isPaused;
+                }
+            });
+            ConnectorFactory.searchByViewportIncrementally(mapView.getViewport().resize(0.8), tokens).takeUntil(mapLeft).toBlocking().forEach(new Action1<SearchResult>() {
+                @Override
+                public void call(final SearchResult connectorResult) {
+                    searchResult.addSearchResult(connectorResult);
+                    showDownloadedCaches(connectorResult);
+                }
+            });
             downloaded = true;
-
-            final Set<Geocache> result = searchResult.getCachesFromSearchResult(LoadFlags.LOAD_CACHE_OR_DB);
-            filter(result);
-            // update the caches
-            // first remove filtered out
-            final Set<String> filteredCodes = searchResult.getFilteredGeocodes();
-            Log.d("Filtering out " + filteredCodes.size() + " caches: " + filteredCodes.toString());
-            caches.removeAll(DataStore.loadCaches(filteredCodes, LoadFlags.LOAD_CACHE_ONLY));
-            DataStore.removeCaches(filteredCodes, EnumSet.of(RemoveFlag.CACHE));
-            // new collection type needs to remove first to refresh
-            caches.removeAll(result);
-            caches.addAll(result);
             lastSearchResult = searchResult;
-
-            //render
-            displayExecutor.execute(new DisplayRunnable(this));
-
         } finally {
             showProgressHandler.sendEmptyMessage(HIDE_PROGRESS); // hide progress
         }
     }
 
+    private void showDownloadedCaches(final SearchResult searchResult) {
+        final Set<Geocache> result = searchResult.getCachesFromSearchResult(LoadFlags.LOAD_CACHE_OR_DB);
+        filter(result);
+        // update the caches
+        // first remove filtered out
+        final Set<String> filteredCodes = searchResult.getFilteredGeocodes();
+        Log.d("Filtering out " + filteredCodes.size() + " caches: " + filteredCodes.toString());
+        caches.removeAll(DataStore.loadCaches(filteredCodes, LoadFlags.LOAD_CACHE_ONLY));
+        DataStore.removeCaches(filteredCodes, EnumSet.of(RemoveFlag.CACHE));
+        // new collection type needs to remove first to refresh
+        caches.removeAll(result);
+        caches.addAll(result);
+
+        //render
+        displayExecutor.execute(new DisplayRunnable(this));
+    }
+
     /**
      * Thread to Display (down)loaded caches. Started by {@link LoadRunnable} and {@link DownloadRunnable}
      */
     private static class DisplayRunnable extends DoRunnable {
 
+        private static final Metrics.Timer TIMER = Metrics.timer("map.display");
+
         public DisplayRunnable(@NonNull final CGeoMap map) {
-            super(map);
+            super(map, TIMER);
         }
 
         @Override
@@ -1402,12 +1451,17 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
                         itemsToDisplay.add(getWaypointItem(waypoint));
                     }
                 }
-                for (final Geocache cache : cachesToDisplay) {
+                final int zoom = mapView.getMapZoomLevel();
+                if (mapMode != MapMode.SINGLE && zoom <= CLUSTER_MAX_ZOOM && cachesToDisplay.size() > CLUSTER_MIN_CACHES) {
+                    addClusteredCacheItems(cachesToDisplay, zoom, itemsToDisplay);
+                } else {
+                    for (final Geocache cache : cachesToDisplay) {
 
-                    if (cache == null || cache.getCoords() == null) {
-                        continue;
+                        if (cache == null || cache.getCoords() == null) {
+                            continue;
+                        }
+                        itemsToDisplay.add(getCacheItem(cache));
                     }
-                    itemsToDisplay.add(getCacheItem(cache));
                 }
             }
             // don't add other waypoints to overlayCaches if just one point should be displayed
@@ -1422,6 +1476,29 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
         }
     }
 
+    /**
+     * Group the caches into grid cells of roughly {@link #CLUSTER_CELL_PIXELS} at the current zoom level, and show
+     * crowded cells as a single cluster marker. This keeps the number of markers to be drawn small when zoomed out.
+     */
+    private void addClusteredCacheItems(final List<Geocache> cachesToDisplay, final int zoom, final List<CachesOverlayItemImpl> itemsToDisplay) {
+        final double cellDegrees = CLUSTER_CELL_PIXELS * 360.0 / (256L << zoom);
+        final SpatialGrid<Geocache> grid = new SpatialGrid<>(cellDegrees);
+        for (final Geocache cache : cachesToDisplay) {
+            if (cache != null) {
+                grid.add(cache);
+            }
+        }
+        for (final List<Geocache> cell : grid.getCells()) {
+            if (cell.size() >= CLUSTER_MIN_SIZE) {
+                itemsToDisplay.add(getClusterItem(new CacheCluster(cell)));
+            } else {
+                for (final Geocache cache : cell) {
+                    itemsToDisplay.add(getCacheItem(cache));
+                }
+            }
+        }
+    }
+
     private void displayPoint(final Geopoint coords) {
         final Waypoint waypoint = new Waypoint("some place", waypointTypeIntent != null ? waypointTypeIntent : WaypointType.WAYPOINT, false);
         waypoint.setCoords(coords);
@@ -1441,16 +1518,23 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
     private static abstract class DoRunnable implements Runnable {
 
         private final WeakReference<CGeoMap> mapRef;
+        @NonNull private final Metrics.Timer timer;
 
-        protected DoRunnable(@NonNull final CGeoMap map) {
+        protected DoRunnable(@NonNull final CGeoMap map, @NonNull final Metrics.Timer timer) {
             mapRef = new WeakReference<>(map);
+            this.timer = timer;
         }
 
         @Override
         final public void run() {
             final CGeoMap map = mapRef.get();
             if (map != null) {
-                runWithMap(map);
+                final long start = timer.start();
+                try {
+                    runWithMap(map);
+                } finally {
+                    timer.stop(start);
+                }
             }
         }
 
@@ -1590,6 +1674,20 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
 
     }
 
+    /**
+     * Zoom in on the caches of a tapped cluster. If they all share the same coordinates, zoom in far enough for the
+     * cluster to be dissolved.
+     */
+    private void zoomToCluster(final Viewport viewport) {
+        final MapControllerImpl mapController = mapView.getMapController();
+        mapController.animateTo(makeGeoPoint(viewport.center));
+        if (viewport.getLatitudeSpan() != 0 && viewport.getLongitudeSpan() != 0) {
+            mapController.zoomToSpan((int) (viewport.getLatitudeSpan() * 1e6), (int) (viewport.getLongitudeSpan() * 1e6));
+        } else {
+            mapController.setZoom(Math.max(mapView.getMapZoomLevel(), CLUSTER_MAX_ZOOM) + 1);
+        }
+    }
+
     // move map to view results of searchIntent
     private void centerMap(final String geocodeCenter, final SearchResult searchCenter, final Geopoint coordsCenter, final int[] mapState) {
         final MapControllerImpl mapController = mapView.getMapController();
@@ -1767,6 +1865,12 @@ public class CGeoMap extends AbstractMap implements ViewFactory {
         return item;
     }
 
+    private CachesOverlayItemImpl getClusterItem(final CacheCluster cluster) {
+        final CachesOverlayItemImpl item = mapItemFactory.getCachesOverlayItem(cluster, false);
+        item.setMarker(MapUtils.getClusterMarker(getResources(), cluster.size()));
+        return item;
+    }
+
     private CachesOverlayItemImpl getWaypointItem(final Waypoint waypoint) {
         final CachesOverlayItemImpl item = mapItemFactory.getCachesOverlayItem(waypoint, waypoint.getWaypointType().applyDistanceRule());
         item.setMarker(MapUtils.getWaypointMarker(getResources(), waypoint));
@@ -0,0 +1,87 @@
+package cgeo.geocaching.maps;
+
+import cgeo.geocaching.enumerations.WaypointType;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.models.IWaypoint;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * Map item replacing a group of nearby caches at low zoom levels. It is located at the average position of the
+ * grouped caches.
+ */
+final class CacheCluster implements IWaypoint {
+
+    static final String COORD_TYPE = "cluster";
+
+    private final Geopoint coords;
+    private final Viewport viewport;
+    private final int size;
+
+    CacheCluster(@NonNull final List<Geocache> caches) {
+        double latitude = 0;
+        double longitude = 0;
+        for (final Geocache cache : caches) {
+            final Geopoint cacheCoords = cache.getCoords();
+            latitude += cacheCoords.getLatitude();
+            longitude += cacheCoords.getLongitude();
+        }
+        size = caches.size();
+        coords = new Geopoint(latitude / size, longitude / size);
+        viewport = Viewport.containing(caches);
+    }
+
+    /**
+     * @return the number of caches in this cluster
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the smallest viewport containing all the caches of this cluster
+     */
+    @NonNull
+    Viewport getViewport() {
+        return viewport;
+    }
+
+    @Override
+    public Geopoint getCoords() {
+        return coords;
+    }
+
+    @Override
+    public String getGeocode() {
+        return StringUtils.EMPTY;
+    }
+
+    @Override
+    public String getName() {
+        return String.valueOf(size);
+    }
+
+    @Override
+    public int getId() {
+        return -1;
+    }
+
+    /**
+     * A cluster is not a waypoint of a cache, it is shown as a plain reference point wherever a type is needed.
+     */
+    @Override
+    public WaypointType getWaypointType() {
+        return WaypointType.WAYPOINT;
+    }
+
+    @Override
+    public String getCoordType() {
+        return COORD_TYPE;
+    }
+
+}
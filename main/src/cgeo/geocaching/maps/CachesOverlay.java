@@ -11,6 +11,8 @@ import cgeo.geocaching.connector.gc.GCMap;
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.SpatialGrid;
+import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.maps.interfaces.CachesOverlayItemImpl;
 import cgeo.geocaching.maps.interfaces.GeoPointImpl;
 import cgeo.geocaching.maps.interfaces.ItemizedOverlayImpl;
@@ -23,6 +25,8 @@ import cgeo.geocaching.utils.Log;
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+import rx.functions.Action1;
 
 import android.content.Context;
 import android.content.res.Resources.NotFoundException;
@@ -40,7 +44,14 @@ import java.util.List;
 
 public class CachesOverlay extends AbstractItemizedOverlay {
 
+    /**
+     * size of the grid cells used to look up the circles to be drawn. Circles are only shown at high zoom levels, where
+     * the screen covers only a few of those cells.
+     */
+    private static final double CIRCLE_GRID_CELL_SIZE = 0.01;
+
     private List<CachesOverlayItemImpl> items = new ArrayList<>();
+    private SpatialGrid<CachesOverlayItemImpl> circleItems = new SpatialGrid<>(CIRCLE_GRID_CELL_SIZE);
     private Context context = null;
     private boolean displayCircles = false;
     private final Progress progress = new Progress();
@@ -48,6 +59,8 @@ public class CachesOverlay extends AbstractItemizedOverlay {
     private PaintFlagsDrawFilter setFilter = null;
     private PaintFlagsDrawFilter removeFilter = null;
     private MapItemFactory mapItemFactory = null;
+    @Nullable
+    private Action1<Viewport> clusterTapAction = null;
 
     public CachesOverlay(final ItemizedOverlayImpl ovlImpl, final Context contextIn) {
         super(ovlImpl);
@@ -60,6 +73,13 @@ public class CachesOverlay extends AbstractItemizedOverlay {
         mapItemFactory = mapProvider.getMapItemFactory();
     }
 
+    /**
+     * Set the action showing the caches of a tapped cluster, called with the viewport containing them.
+     */
+    void setClusterTapAction(@Nullable final Action1<Viewport> clusterTapAction) {
+        this.clusterTapAction = clusterTapAction;
+    }
+
     void updateItems(final CachesOverlayItemImpl item) {
         final List<CachesOverlayItemImpl> itemsPre = new ArrayList<>();
         itemsPre.add(item);
@@ -72,14 +92,19 @@ public class CachesOverlay extends AbstractItemizedOverlay {
             return;
         }
 
+        final SpatialGrid<CachesOverlayItemImpl> circleItemsPre = new SpatialGrid<>(CIRCLE_GRID_CELL_SIZE);
         for (final CachesOverlayItemImpl item : itemsPre) {
             item.setMarker(boundCenterBottom(item.getMarker(0)));
+            if (item.applyDistanceRule()) {
+                circleItemsPre.add(item);
+            }
         }
 
         // ensure no interference between the draw and content changing routines
         getOverlayImpl().lock();
         try {
             items = new ArrayList<>(itemsPre);
+            circleItems = circleItemsPre;
 
             setLastFocusedItemIndex(-1); // to reset tap during data change
             populate();
@@ -114,7 +139,7 @@ public class CachesOverlay extends AbstractItemizedOverlay {
     }
 
     private void drawInternal(final Canvas canvas, final MapProjectionImpl projection) {
-        if (!displayCircles || items.isEmpty()) {
+        if (!displayCircles || circleItems.size() == 0) {
             return;
         }
 
@@ -129,23 +154,21 @@ public class CachesOverlay extends AbstractItemizedOverlay {
             final int radius = calculateDrawingRadius(projection);
             final Point center = new Point();
 
-            for (final CachesOverlayItemImpl item : items) {
-                if (item.applyDistanceRule()) {
-                    final Geopoint itemCoord = item.getCoord().getCoords();
-                    final GeoPointImpl itemGeo = mapItemFactory.getGeoPointBase(itemCoord);
-                    projection.toPixels(itemGeo, center);
-                    if (center.x > -radius && center.y > -radius && center.x < width + radius && center.y < height + radius) {
-                        // dashed circle around the waypoint
-                        blockedCircle.setColor(0x66BB0000);
-                        blockedCircle.setStyle(Style.STROKE);
-                        canvas.drawCircle(center.x, center.y, radius, blockedCircle);
-
-                        // filling the circle area with a transparent color
-                        blockedCircle.setColor(0x44BB0000);
-                        blockedCircle.setStyle(Style.FILL);
-                        canvas.drawCircle(center.x, center.y, radius, blockedCircle);
-                    }
-                }
+            // only look at the items whose circle may be (partially) visible
+            final Viewport visible = new Viewport(projection.fromPixels(-radius, -radius), projection.fromPixels(width + radius, height + radius));
+            for (final CachesOverlayItemImpl item : circleItems.getInViewport(visible)) {
+                final GeoPointImpl itemGeo = mapItemFactory.getGeoPointBase(item.getCoords());
+                projection.toPixels(itemGeo, center);
+
+                // dashed circle around the waypoint
+                blockedCircle.setColor(0x66BB0000);
+                blockedCircle.setStyle(Style.STROKE);
+                canvas.drawCircle(center.x, center.y, radius, blockedCircle);
+
+                // filling the circle area with a transparent color
+                blockedCircle.setColor(0x44BB0000);
+                blockedCircle.setStyle(Style.FILL);
+                canvas.drawCircle(center.x, center.y, radius, blockedCircle);
             }
             canvas.setDrawFilter(removeFilter);
         } finally {
@@ -207,8 +230,6 @@ public class CachesOverlay extends AbstractItemizedOverlay {
                 return false;
             }
 
-            progress.show(context, context.getResources().getString(R.string.map_live), context.getResources().getString(R.string.cache_dialog_loading_details), true, null);
-
             // prevent concurrent changes
             getOverlayImpl().lock();
             CachesOverlayItemImpl item = null;
@@ -225,6 +246,15 @@ public class CachesOverlay extends AbstractItemizedOverlay {
             }
 
             final IWaypoint coordinate = item.getCoord();
+            if (coordinate instanceof CacheCluster) {
+                if (clusterTapAction != null) {
+                    clusterTapAction.call(((CacheCluster) coordinate).getViewport());
+                }
+                return true;
+            }
+
+            progress.show(context, context.getResources().getString(R.string.map_live), context.getResources().getString(R.string.cache_dialog_loading_details), true, null);
+
             final String coordType = coordinate.getCoordType();
 
             if (StringUtils.equalsIgnoreCase(coordType, "cache") && StringUtils.isNotBlank(coordinate.getGeocode())) {
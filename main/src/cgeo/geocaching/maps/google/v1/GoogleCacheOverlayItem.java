@@ -1,5 +1,6 @@
 package cgeo.geocaching.maps.google.v1;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.IWaypoint;
 import cgeo.geocaching.maps.interfaces.CachesOverlayItemImpl;
 
@@ -22,6 +23,11 @@ public class GoogleCacheOverlayItem extends OverlayItem implements CachesOverlay
         return coord;
     }
 
+    @Override
+    public Geopoint getCoords() {
+        return coord.getCoords();
+    }
+
     @Override
     public boolean applyDistanceRule() {
         return applyDistanceRule;
@@ -1,12 +1,13 @@
 package cgeo.geocaching.maps.interfaces;
 
+import cgeo.geocaching.models.ICoordinates;
 import cgeo.geocaching.models.IWaypoint;
 
 /**
  * Covers the common functions of the provider-specific
  * CacheOverlayItem implementations
  */
-public interface CachesOverlayItemImpl extends OverlayItemImpl {
+public interface CachesOverlayItemImpl extends OverlayItemImpl, ICoordinates {
 
     IWaypoint getCoord();
 
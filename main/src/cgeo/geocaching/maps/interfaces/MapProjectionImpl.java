@@ -1,5 +1,7 @@
 package cgeo.geocaching.maps.interfaces;
 
+import cgeo.geocaching.location.Geopoint;
+
 import android.graphics.Point;
 
 /**
@@ -12,4 +14,9 @@ public interface MapProjectionImpl {
 
     void toPixels(GeoPointImpl leftGeo, Point left);
 
+    /**
+     * @return the coordinates of the given screen position
+     */
+    Geopoint fromPixels(int x, int y);
+
 }
@@ -1,5 +1,6 @@
 package cgeo.geocaching.maps.mapsforge;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.IWaypoint;
 import cgeo.geocaching.maps.interfaces.CachesOverlayItemImpl;
 
@@ -29,6 +30,11 @@ public class MapsforgeCacheOverlayItem extends OverlayItem implements CachesOver
         return getMarker();
     }
 
+    @Override
+    public Geopoint getCoords() {
+        return coord.getCoords();
+    }
+
     @Override
     public boolean applyDistanceRule() {
         return applyDistanceRule;
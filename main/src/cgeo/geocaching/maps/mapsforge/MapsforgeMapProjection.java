@@ -1,5 +1,6 @@
 package cgeo.geocaching.maps.mapsforge;
 
+import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.maps.interfaces.GeoPointImpl;
 import cgeo.geocaching.maps.interfaces.MapProjectionImpl;
 
@@ -21,6 +22,12 @@ public class MapsforgeMapProjection implements MapProjectionImpl {
         projection.toPixels((GeoPoint) leftGeo, left);
     }
 
+    @Override
+    public Geopoint fromPixels(final int x, final int y) {
+        final GeoPoint geoPoint = projection.fromPixels(x, y);
+        return new Geopoint(geoPoint.latitudeE6 / 1e6, geoPoint.longitudeE6 / 1e6);
+    }
+
     @Override
     public Object getImpl() {
         return projection;
@@ -4,13 +4,14 @@ import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.R;
 import cgeo.geocaching.compatibility.Compatibility;
 import cgeo.geocaching.connector.ConnectorFactory;
-import cgeo.geocaching.storage.LocalStorage;
+import cgeo.geocaching.storage.ImageStore;
 import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.CancellableHandler;
 import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.ImageUtils;
 import cgeo.geocaching.utils.ImageUtils.ContainerDrawable;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.Metrics;
 import cgeo.geocaching.utils.RxUtils.ObservableCache;
 
 import okhttp3.Response;
@@ -39,9 +40,12 @@ import android.text.Html;
 import android.widget.TextView;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -51,6 +55,9 @@ import java.util.Map;
 
 public class HtmlImage implements Html.ImageGetter {
 
+    private static final Metrics.Timer DECODE_TIMER = Metrics.timer("image.decode");
+    private static final Metrics.Counter DECODE_FAILURES = Metrics.counter("image.decode.failures");
+
     private static final String[] BLOCKED = {
             "gccounter.de",
             "gccounter.com",
@@ -200,7 +207,8 @@ public class HtmlImage implements Html.ImageGetter {
             return Observable.defer(new Func0<Observable<BitmapDrawable>>() {
                 @Override
                 public Observable<BitmapDrawable> call() {
-                    final Bitmap bitmap = loadCachedImage(FileUtils.urlToFile(url), true).left;
+                    final File file = FileUtils.urlToFile(url);
+                    final Bitmap bitmap = loadCachedImage(file, file.lastModified(), true).left;
                     return bitmap != null ? Observable.just(ImageUtils.scaleBitmapToFitDisplay(bitmap)) : Observable.<BitmapDrawable>empty();
                 }
             }).subscribeOn(AndroidRxUtils.computationScheduler);
@@ -241,16 +249,15 @@ public class HtmlImage implements Html.ImageGetter {
             }
 
             private void downloadAndSave(final Subscriber<? super BitmapDrawable> subscriber) {
-                final File file = LocalStorage.getStorageFile(pseudoGeocode, url, true, true);
                 if (url.startsWith("data:image/")) {
                     if (url.contains(";base64,")) {
-                        ImageUtils.decodeBase64ToFile(StringUtils.substringAfter(url, ";base64,"), file);
+                        saveBase64Image(url, pseudoGeocode);
                     } else {
                         Log.e("HtmlImage.getDrawable: unable to decode non-base64 inline image");
                         subscriber.onCompleted();
                         return;
                     }
-                } else if (subscriber.isUnsubscribed() || downloadOrRefreshCopy(url, file)) {
+                } else if (subscriber.isUnsubscribed() || downloadOrRefreshCopy(url, pseudoGeocode)) {
                         // The existing copy was fresh enough or we were unsubscribed earlier.
                         subscriber.onCompleted();
                         return;
@@ -293,24 +300,22 @@ public class HtmlImage implements Html.ImageGetter {
     }
 
     /**
-     * Download or refresh the copy of {@code url} in {@code file}.
+     * Download or refresh the stored copy of {@code url}.
      *
      * @param url the url of the document
-     * @param file the file to save the document in
-     * @return {@code true} if the existing file was up-to-date, {@code false} otherwise
+     * @param pseudoGeocode the geocode or the shared name the document is stored for
+     * @return {@code true} if the existing copy was up-to-date, {@code false} otherwise
      */
-    private boolean downloadOrRefreshCopy(final String url, final File file) {
+    private boolean downloadOrRefreshCopy(final String url, @NonNull final String pseudoGeocode) {
         final String absoluteURL = makeAbsoluteURL(url);
 
         if (absoluteURL != null) {
             try {
-                final Response httpResponse = Network.getRequest(absoluteURL, null, file).toBlocking().value();
+                final Response httpResponse = Network.getRequest(absoluteURL, null, ImageStore.getConditionalHeaders(url)).toBlocking().value();
                 if (httpResponse.isSuccessful()) {
-                    LocalStorage.saveEntityToFile(httpResponse, file);
+                    ImageStore.save(pseudoGeocode, url, httpResponse);
                 } else if (httpResponse.code() == 304) {
-                    if (!file.setLastModified(System.currentTimeMillis())) {
-                        makeFreshCopy(file);
-                    }
+                    ImageStore.touch(url);
                     return true;
                 }
             } catch (final Exception e) {
@@ -320,28 +325,18 @@ public class HtmlImage implements Html.ImageGetter {
         return false;
     }
 
-    /**
-     * Make a fresh copy of the file to reset its timestamp. On some storage, it is impossible
-     * to modify the modified time after the fact, in which case a brand new file must be
-     * created if we want to be able to use the time as validity hint.
-     *
-     * See Android issue 1699.
-     *
-     * @param file the file to refresh
-     */
-    private static void makeFreshCopy(final File file) {
-        final File tempFile = new File(file.getParentFile(), file.getName() + "-temp");
-        if (file.renameTo(tempFile)) {
-            LocalStorage.copy(tempFile, file);
-            FileUtils.deleteIgnoringFailure(tempFile);
-        }
-        else {
-            Log.e("Could not reset timestamp of file " + file.getAbsolutePath());
+    private static void saveBase64Image(final String url, @NonNull final String pseudoGeocode) {
+        final ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try {
+            ImageUtils.decodeBase64ToStream(StringUtils.substringAfter(url, ";base64,"), decoded);
+            ImageStore.save(pseudoGeocode, url, true, new ByteArrayInputStream(decoded.toByteArray()));
+        } catch (final IOException e) {
+            Log.e("HtmlImage.saveBase64Image: cannot decode inline image", e);
         }
     }
 
     /**
-     * Load an image from primary or secondary storage.
+     * Load an image from the image store.
      *
      * @param url the image URL
      * @param pseudoGeocode the geocode or the shared name
@@ -351,13 +346,10 @@ public class HtmlImage implements Html.ImageGetter {
     @NonNull
     private ImmutablePair<Bitmap, Boolean> loadImageFromStorage(final String url, @NonNull final String pseudoGeocode, final boolean forceKeep) {
         try {
-            final File file = LocalStorage.getStorageFile(pseudoGeocode, url, true, false);
-            final ImmutablePair<Bitmap, Boolean> image = loadCachedImage(file, forceKeep);
-            if (image.right || image.left != null) {
-                return image;
+            final ImageStore.StoredFile stored = ImageStore.get(pseudoGeocode, url, true);
+            if (stored != null) {
+                return loadCachedImage(stored.getFile(), stored.getFetched(), forceKeep);
             }
-            final File fileSec = LocalStorage.getStorageSecFile(pseudoGeocode, url, true);
-            return loadCachedImage(fileSec, forceKeep);
         } catch (final Exception e) {
             Log.w("HtmlImage.loadImageFromStorage", e);
         }
@@ -392,6 +384,7 @@ public class HtmlImage implements Html.ImageGetter {
      * Load a previously saved image.
      *
      * @param file the file on disk
+     * @param fetched the time the file was downloaded or last validated with the server
      * @param forceKeep keep the image if it is there, without checking its freshness
      * @return a pair with {@code true} in the second component if the image was there and is fresh enough or {@code false} otherwise,
      *         and the image (possibly {@code null} if the second component is {@code false} and the image
@@ -399,14 +392,14 @@ public class HtmlImage implements Html.ImageGetter {
      *         {@code true})
      */
     @NonNull
-    private ImmutablePair<Bitmap, Boolean> loadCachedImage(final File file, final boolean forceKeep) {
+    private ImmutablePair<Bitmap, Boolean> loadCachedImage(final File file, final long fetched, final boolean forceKeep) {
         // An image is considered fresh enough if the image exists and one of those conditions is true:
         //  - forceKeep is true and the image has not been modified in the last 24 hours, to avoid reloading shared images;
         //    with every refreshed cache;
         //  - forceKeep is true and userInitiatedRefresh is false, as shared images are unlikely to change at all;
         //  - userInitiatedRefresh is false and the image has not been modified in the last 24 hours.
         if (file.exists()) {
-            final boolean recentlyModified = file.lastModified() > (System.currentTimeMillis() - (24 * 60 * 60 * 1000));
+            final boolean recentlyModified = fetched > (System.currentTimeMillis() - (24 * 60 * 60 * 1000));
             final boolean freshEnough = (forceKeep && (recentlyModified || !userInitiatedRefresh)) ||
                     (recentlyModified && !userInitiatedRefresh);
             if (freshEnough && onlySave) {
@@ -415,9 +408,16 @@ public class HtmlImage implements Html.ImageGetter {
             final BitmapFactory.Options bfOptions = new BitmapFactory.Options();
             bfOptions.inTempStorage = new byte[16 * 1024];
             bfOptions.inPreferredConfig = Bitmap.Config.RGB_565;
-            setSampleSize(file, bfOptions);
-            final Bitmap image = BitmapFactory.decodeFile(file.getPath(), bfOptions);
+            final long start = DECODE_TIMER.start();
+            final Bitmap image;
+            try {
+                setSampleSize(file, bfOptions);
+                image = BitmapFactory.decodeFile(file.getPath(), bfOptions);
+            } finally {
+                DECODE_TIMER.stop(start);
+            }
             if (image == null) {
+                DECODE_FAILURES.inc();
                 Log.e("Cannot decode bitmap from " + file.getPath());
                 return ImmutablePair.of((Bitmap) null, false);
             }
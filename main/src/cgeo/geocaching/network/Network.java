@@ -1,13 +1,20 @@
 package cgeo.geocaching.network;
 
+import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.storage.LocalStorage;
+import cgeo.geocaching.utils.AndroidRxUtils;
 import cgeo.geocaching.utils.JsonUtils;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.Metrics;
 import cgeo.geocaching.utils.RxOkHttpUtils;
 import cgeo.geocaching.utils.TextUtils;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.Cache;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.FormBody;
 import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
@@ -32,6 +39,10 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
@@ -44,6 +55,30 @@ public final class Network {
 
     private static final Pattern PATTERN_PASSWORD = Pattern.compile("(?<=[\\?&])[Pp]ass(w(or)?d)?=[^&#$]+");
 
+    /** Name of the directory (below the application cache directory) holding the HTTP response cache */
+    private static final String HTTP_CACHE_DIRNAME = "http";
+
+    /**
+     * Idle connections kept for reuse. Most requests go to a few hosts only (geocaching.com and its image servers, the
+     * API of the active connectors), so this allows every network thread to keep its connection.
+     */
+    private static final int MAX_IDLE_CONNECTIONS = AndroidRxUtils.NETWORK_THREADS;
+    private static final long KEEP_ALIVE_MINUTES = 2;
+
+    /** Concurrent requests to a single host, matching the default of OkHttp */
+    private static final int MAX_REQUESTS_PER_HOST = 5;
+
+    @Nullable
+    private static final Cache HTTP_CACHE = createCache();
+    private static final ConnectionPool CONNECTION_POOL = new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES);
+
+    /** connections seen by the network interceptor, to find out whether a request reused an existing connection */
+    private static final Set<Connection> usedConnections = Collections.newSetFromMap(new WeakHashMap<Connection, Boolean>());
+    private static final Metrics.Counter networkRequests = Metrics.counter("network.requests");
+    private static final Metrics.Counter reusedConnectionRequests = Metrics.counter("network.requests.reusedConnection");
+    private static final Metrics.Counter failedRequests = Metrics.counter("network.requests.failed");
+    private static final Metrics.Timer REQUEST_TIMER = Metrics.timer("network.request");
+
     private final static OkHttpClient OK_HTTP_CLIENT = new OkHttpClient.Builder()
             .connectTimeout(30, TimeUnit.SECONDS)
             .readTimeout(30, TimeUnit.SECONDS)
@@ -51,6 +86,9 @@ public final class Network {
             .followRedirects(true)
             .followSslRedirects(true)
             .cookieJar(Cookies.cookieJar)
+            .cache(HTTP_CACHE)
+            .connectionPool(CONNECTION_POOL)
+            .dispatcher(createDispatcher())
             .addInterceptor(new HeadersInterceptor())
             .addNetworkInterceptor(new LoggingInterceptor())
             .build();
@@ -72,6 +110,86 @@ public final class Network {
         // Utility class
     }
 
+    /**
+     * Create the on-disk cache for HTTP responses. Only responses allowed to be cached by their headers (like static
+     * maps, icons or connector API lookups) will be stored there. Conditional requests built from saved headers of
+     * cache files bypass this cache.
+     *
+     * @return the cache, or {@code null} if disabled in the settings or if there is no application context (unit tests)
+     */
+    @Nullable
+    private static Cache createCache() {
+        final CgeoApplication application = CgeoApplication.getInstance();
+        if (application == null) {
+            return null;
+        }
+        final int cacheSizeMB = Settings.getHttpCacheSizeMB();
+        if (cacheSizeMB <= 0) {
+            return null;
+        }
+        return new Cache(new File(application.getCacheDir(), HTTP_CACHE_DIRNAME), cacheSizeMB * 1024L * 1024L);
+    }
+
+    /**
+     * Limit the number of concurrent requests to the number of threads of the network scheduler. More running requests
+     * would only compete for bandwidth without being consumed faster.
+     */
+    @NonNull
+    private static Dispatcher createDispatcher() {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(AndroidRxUtils.NETWORK_THREADS);
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+        return dispatcher;
+    }
+
+    /**
+     * Get statistics about the HTTP response cache and the connection reuse since the start of the application.
+     *
+     * @return a human readable multi line description
+     */
+    @NonNull
+    public static String getStatistics() {
+        final StringBuilder statistics = new StringBuilder();
+        if (HTTP_CACHE != null) {
+            final int requests = HTTP_CACHE.requestCount();
+            final int hits = HTTP_CACHE.hitCount();
+            statistics.append(String.format(Locale.US, "HTTP cache: %d requests, %d hits (%d%%), %d network, %d KB used",
+                    requests, hits, percentage(hits, requests), HTTP_CACHE.networkCount(), size(HTTP_CACHE) / 1024));
+        } else {
+            statistics.append("HTTP cache: disabled");
+        }
+        final long requests = networkRequests.get();
+        final long reused = reusedConnectionRequests.get();
+        statistics.append(String.format(Locale.US, "\nHTTP connections: %d requests, %d on reused connections (%d%%), %d open, %d idle",
+                requests, reused, percentage(reused, requests), CONNECTION_POOL.connectionCount(), CONNECTION_POOL.idleConnectionCount()));
+        return statistics.toString();
+    }
+
+    private static long percentage(final long part, final long total) {
+        return total > 0 ? part * 100 / total : 0;
+    }
+
+    private static long size(@NonNull final Cache cache) {
+        try {
+            return cache.size();
+        } catch (final IOException e) {
+            Log.w("Network.size: cannot determine HTTP cache size", e);
+            return 0;
+        }
+    }
+
+    private static void countConnectionUse(@Nullable final Connection connection) {
+        networkRequests.inc();
+        if (connection == null) {
+            return;
+        }
+        synchronized (usedConnections) {
+            if (!usedConnections.add(connection)) {
+                reusedConnectionRequests.inc();
+            }
+        }
+    }
+
     /**
      * POST HTTP request
      *
@@ -211,13 +329,16 @@ public final class Network {
         @Override
         public Response intercept(final Interceptor.Chain chain) throws IOException {
             final Request request = chain.request();
+            countConnectionUse(chain.connection());
             final String reqLogStr = request.method() + " " + hidePassword(request.url().toString());
 
             Log.d(reqLogStr);
 
             final long before = System.currentTimeMillis();
+            final long start = REQUEST_TIMER.start();
             try {
                 final Response response = chain.proceed(request);
+                REQUEST_TIMER.stop(start);
                 final String protocol = " (" + response.protocol() + ')';
                 if (response.isSuccessful()) {
                     Log.d(response.code() + formatTimeSpan(before) + reqLogStr + protocol);
@@ -226,6 +347,7 @@ public final class Network {
                 }
                 return response;
             } catch (final Exception e) {
+                failedRequests.inc();
                 Log.w("Failure" + formatTimeSpan(before) + reqLogStr + " (" + e + ")");
                 throw new IOException("Invalid response", e);
             }
@@ -60,6 +60,7 @@ public class Settings {
     private static final char HISTORY_SEPARATOR = ',';
     private static final int SHOW_WP_THRESHOLD_DEFAULT = 10;
     public static final int SHOW_WP_THRESHOLD_MAX = 50;
+    private static final String HTTP_CACHE_SIZE_DEFAULT = "20";
     private static final int MAP_SOURCE_DEFAULT = GoogleMapProvider.GOOGLE_MAP_ID.hashCode();
 
     public static final boolean HW_ACCEL_DISABLED_BY_DEFAULT =
@@ -973,6 +974,14 @@ public class Settings {
         putBoolean(R.string.pref_dbonsdcard, dbOnSDCard);
     }
 
+    public static boolean isDbCompressTexts() {
+        return getBoolean(R.string.pref_dbcompresstexts, false);
+    }
+
+    public static void setDbCompressTexts(final boolean compressTexts) {
+        putBoolean(R.string.pref_dbcompresstexts, compressTexts);
+    }
+
     public static String getGpxExportDir() {
         return getString(R.string.pref_gpxExportDir,
                 Environment.getExternalStorageDirectory().getPath() + "/gpx");
@@ -1152,6 +1161,17 @@ public class Settings {
         return getString(R.string.pref_ec_icons, "1");
     }
 
+    /**
+     * @return the maximum size of the HTTP response cache in MB, 0 if the cache is disabled
+     */
+    public static int getHttpCacheSizeMB() {
+        try {
+            return Integer.parseInt(getString(R.string.pref_http_cache_size, HTTP_CACHE_SIZE_DEFAULT));
+        } catch (final NumberFormatException e) {
+            return Integer.parseInt(HTTP_CACHE_SIZE_DEFAULT);
+        }
+    }
+
     /* Store last checksum of changelog for changelog display */
     public static long getLastChangelogChecksum() {
         return getLong(R.string.pref_changelog_last_checksum, 0);
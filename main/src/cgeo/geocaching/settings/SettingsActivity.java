@@ -144,6 +144,7 @@ public class SettingsActivity extends PreferenceActivity {
         initDefaultNavigationPreferences();
         initBackupButtons();
         initDbLocationPreference();
+        initDbCompressTextsPreference();
         initGeoDirPreferences();
         initDebugPreference();
         initForceOrientationSensorPreference();
@@ -406,6 +407,14 @@ public class SettingsActivity extends PreferenceActivity {
                         return true;
                     }
                 });
+        getPreference(R.string.pref_fakekey_metrics)
+                .setOnPreferenceClickListener(new OnPreferenceClickListener() {
+                    @Override
+                    public boolean onPreferenceClick(final Preference preference) {
+                        DebugUtils.showMetrics(SettingsActivity.this);
+                        return true;
+                    }
+                });
     }
 
     private static void initDeviceSpecificPreferences() {
@@ -432,6 +441,18 @@ public class SettingsActivity extends PreferenceActivity {
         });
     }
 
+    private void initDbCompressTextsPreference() {
+        final Preference p = getPreference(R.string.pref_dbcompresstexts);
+        p.setPersistent(false);
+        p.setOnPreferenceClickListener(new OnPreferenceClickListener() {
+            @Override
+            public boolean onPreferenceClick(final Preference preference) {
+                DataStore.recodeTexts(SettingsActivity.this);
+                return true;
+            }
+        });
+    }
+
     private void initDebugPreference() {
         final Preference p = getPreference(R.string.pref_debug);
         p.setOnPreferenceChangeListener(new OnPreferenceChangeListener() {
@@ -79,6 +79,25 @@ public class CacheCache {
         }
     }
 
+    /**
+     * Update the lists of all cached caches on a list, after the list has been moved or copied as a whole in the
+     * database.
+     *
+     * @param removeFromSource
+     *            {@code true} if the caches have been moved, {@code false} if they have been copied
+     */
+    public synchronized void changeLists(final int sourceListId, final int targetListId, final boolean removeFromSource) {
+        for (final Geocache cache : cachesCache.values()) {
+            final Set<Integer> lists = cache.getLists();
+            if (lists.contains(sourceListId)) {
+                if (removeFromSource) {
+                    lists.remove(sourceListId);
+                }
+                lists.add(targetListId);
+            }
+        }
+    }
+
     public synchronized Set<String> getInViewport(final Viewport viewport, final CacheType cacheType) {
         final Set<String> geocodes = new HashSet<>();
         for (final Geocache cache : cachesCache.values()) {
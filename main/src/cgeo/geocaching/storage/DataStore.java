@@ -4,6 +4,7 @@ import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.Intents;
 import cgeo.geocaching.R;
 import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.compatibility.Compatibility;
 import cgeo.geocaching.connector.IConnector;
 import cgeo.geocaching.connector.gc.Tile;
 import cgeo.geocaching.enumerations.CacheSize;
@@ -30,9 +31,11 @@ import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.ui.dialog.Dialogs;
 import cgeo.geocaching.utils.FileUtils;
 import cgeo.geocaching.utils.Log;
+import cgeo.geocaching.utils.Metrics;
 import cgeo.geocaching.utils.Version;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -67,6 +70,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -78,13 +82,18 @@ import java.util.regex.Pattern;
 
 import rx.Observable;
 import rx.Observable.OnSubscribe;
+import rx.Scheduler;
 import rx.Subscriber;
 import rx.android.app.AppObservable;
+import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.functions.Action2;
 import rx.functions.Func0;
 import rx.functions.Func1;
 import rx.schedulers.Schedulers;
+import rx.subjects.PublishSubject;
+import rx.subjects.Subject;
 
 public class DataStore {
 
@@ -162,6 +171,9 @@ public class DataStore {
     /** The list of fields needed for mapping. */
     private static final String[] WAYPOINT_COLUMNS = { "_id", "geocode", "updated", "type", "prefix", "lookup", "name", "latitude", "longitude", "note", "own", "visited" };
 
+    /** Prefix of a create table, index or trigger statement, up to the name of the created object. */
+    private static final Pattern SCHEMA_OBJECT_DEFINITION = Pattern.compile("^(create\\s+(?:unique\\s+)?(?:table|index|trigger)\\s+(?:if\\s+not\\s+exists\\s+)?)", Pattern.CASE_INSENSITIVE);
+
     /** Number of days (as ms) after temporarily saved caches are deleted */
     private final static long DAYS_AFTER_CACHE_IS_DELETED = 3 * 24 * 60 * 60 * 1000;
 
@@ -169,10 +181,24 @@ public class DataStore {
      * holds the column indexes of the cache table to avoid lookups
      */
     private static final CacheCache cacheCache = new CacheCache();
-    private static SQLiteDatabase database = null;
-    private static final int dbVersion = 71;
+
+    private static final Metrics.Timer QUERY_TIMER = Metrics.timer("datastore.query");
+    private static final Metrics.Timer LOAD_CACHES_TIMER = Metrics.timer("datastore.loadCaches");
+    private static final Metrics.Histogram LOAD_CACHES_COUNT = Metrics.histogram("datastore.loadCaches.caches", "caches");
+    private static final Metrics.Counter CACHE_CACHE_HITS = Metrics.counter("datastore.cacheCache.hits");
+    private static final Metrics.Timer STORE_CACHE_TIMER = Metrics.timer("datastore.storeCache");
+    private static final Metrics.Timer VIEWPORT_TIMER = Metrics.timer("datastore.loadInViewport");
+    private static volatile SQLiteDatabase database = null;
+    private static final int dbVersion = 76;
+    /** Number of rows converted per transaction when changing the storage format of texts */
+    private static final int RECODE_BATCH_SIZE = 50;
+    /** Page cache of the primary connection, about 4 MB with the default page size. */
+    private static final int DB_CACHE_SIZE_PAGES = 4000;
+    /** Memory mapped I/O limit, ignored by SQLite versions not supporting it. */
+    private static final long DB_MMAP_SIZE_BYTES = 32L * 1024 * 1024;
     public static final int customListIdOffset = 10;
     private static final @NonNull String dbName = "data";
+    private static final @NonNull String dbBackupSchema = "backup";
     private static final @NonNull String dbTableCaches = "cg_caches";
     private static final @NonNull String dbTableLists = "cg_lists";
     private static final @NonNull String dbTableCachesLists = "cg_caches_lists";
@@ -185,6 +211,10 @@ public class DataStore {
     private static final @NonNull String dbTableLogsOffline = "cg_logs_offline";
     private static final @NonNull String dbTableTrackables = "cg_trackables";
     private static final @NonNull String dbTableSearchDestinationHistory = "cg_search_destination_history";
+    private static final @NonNull String dbTableImages = "cg_images";
+    private static final @NonNull String dbTableImageRefs = "cg_imageRefs";
+    private static final @NonNull String dbTableCleanup = "cg_cleanup";
+    private static final @NonNull String dbTableListCounts = "cg_list_counts";
     private static final @NonNull String dbCreateCaches = ""
             + "create table " + dbTableCaches + " ("
             + "_id integer primary key autoincrement, "
@@ -336,6 +366,125 @@ public class DataStore {
             + "longitude double "
             + "); ";
 
+    private static final String dbCreateImages = ""
+            + "create table " + dbTableImages + " ("
+            + "hash text primary key, "
+            + "blob text not null, "
+            + "etag text, "
+            + "lastmodified text, "
+            + "fetched long not null "
+            + "); ";
+
+    private static final String dbCreateImageRefs = ""
+            + "create table " + dbTableImageRefs + " ("
+            + "geocode text not null, "
+            + "hash text not null, "
+            + "primary key (geocode, hash) "
+            + "); ";
+
+    private static final String dbCreateCleanup = ""
+            + "create table " + dbTableCleanup + " ("
+            + "_id integer primary key autoincrement, "
+            + "type integer not null, "
+            + "name text not null "
+            + "); ";
+
+    /** List id of the number of distinct caches on all concrete lists in {@link #dbTableListCounts}. */
+    private static final int LIST_COUNT_ALL_LISTS = -1;
+    /** Type of the number of all caches of a list in {@link #dbTableListCounts}. */
+    private static final String LIST_COUNT_ALL_TYPES = "";
+    /** Cache type expression used as counter key, the type of a cache may be null. */
+    private static final String LIST_COUNT_TYPE = "ifnull(type, '?')";
+
+    /**
+     * Number of caches per list, maintained by the triggers below so that lists are never counted again. The row with
+     * {@link #LIST_COUNT_ALL_TYPES} counts all caches of a list, the other rows only count the detailed caches of the
+     * given type (like the cache list does).
+     */
+    private static final String dbCreateListCounts = ""
+            + "create table " + dbTableListCounts + " ("
+            + "list_id integer not null, "
+            + "type text not null, "
+            + "count integer not null default 0, "
+            + "primary key (list_id, type)"
+            + "); ";
+
+    private static final String[] dbCreateListCountTriggers = {
+            "create trigger tr_lists_insert after insert on " + dbTableCachesLists + " begin "
+                    + addListCount("NEW.list_id", "NEW.geocode", "+")
+                    + addAllListsCount("+", "NEW.list_id >= 1 and not exists (select 1 from " + dbTableCachesLists + " where geocode = NEW.geocode and list_id >= 1 and list_id <> NEW.list_id)")
+                    + "end",
+            "create trigger tr_lists_delete after delete on " + dbTableCachesLists + " begin "
+                    + addListCount("OLD.list_id", "OLD.geocode", "-")
+                    + addAllListsCount("-", "OLD.list_id >= 1 and not exists (select 1 from " + dbTableCachesLists + " where geocode = OLD.geocode and list_id >= 1)")
+                    + "end",
+            // the geocode of a list entry is never updated
+            "create trigger tr_lists_update after update of list_id on " + dbTableCachesLists + " begin "
+                    + addListCount("OLD.list_id", "OLD.geocode", "-")
+                    + addListCount("NEW.list_id", "NEW.geocode", "+")
+                    + addAllListsCount("-", "OLD.list_id >= 1 and NEW.list_id < 1 and not exists (select 1 from " + dbTableCachesLists + " where geocode = OLD.geocode and list_id >= 1)")
+                    + addAllListsCount("+", "NEW.list_id >= 1 and OLD.list_id < 1 and not exists (select 1 from " + dbTableCachesLists + " where geocode = NEW.geocode and list_id >= 1 and list_id <> NEW.list_id)")
+                    + "end",
+            "create trigger tr_caches_insert after insert on " + dbTableCaches + " when NEW.detailed = 1 begin "
+                    + addTypeCount("NEW", "+")
+                    + "end",
+            "create trigger tr_caches_delete after delete on " + dbTableCaches + " when OLD.detailed = 1 begin "
+                    + addTypeCount("OLD", "-")
+                    + "end",
+            "create trigger tr_caches_update after update of type, detailed on " + dbTableCaches
+                    + " when ifnull(OLD.type, '?') <> ifnull(NEW.type, '?') or OLD.detailed <> NEW.detailed begin "
+                    + addTypeCount("OLD", "-")
+                    + addTypeCount("NEW", "+")
+                    + "end"
+    };
+
+    /**
+     * Trigger statements counting a list entry for its list, and for the type of its cache if it is detailed.
+     */
+    private static String addListCount(final String listId, final String geocode, final String sign) {
+        final String detailedType = "select " + LIST_COUNT_TYPE + " from " + dbTableCaches + " where geocode = " + geocode + " and detailed = 1";
+        return "insert or ignore into " + dbTableListCounts + " (list_id, type) values (" + listId + ", '" + LIST_COUNT_ALL_TYPES + "'); "
+                + "update " + dbTableListCounts + " set count = count " + sign + " 1 where list_id = " + listId + " and type = '" + LIST_COUNT_ALL_TYPES + "'; "
+                + "insert or ignore into " + dbTableListCounts + " (list_id, type) select " + listId + ", " + LIST_COUNT_TYPE + " from " + dbTableCaches + " where geocode = " + geocode + " and detailed = 1; "
+                + "update " + dbTableListCounts + " set count = count " + sign + " 1 where list_id = " + listId + " and type in (" + detailedType + "); ";
+    }
+
+    /**
+     * Trigger statement changing the number of distinct caches on all lists if the condition holds.
+     */
+    private static String addAllListsCount(final String sign, final String condition) {
+        return "update " + dbTableListCounts + " set count = count " + sign + " 1 where list_id = " + LIST_COUNT_ALL_LISTS + " and type = '" + LIST_COUNT_ALL_TYPES + "' and " + condition + "; ";
+    }
+
+    /**
+     * Trigger statements counting a cache for the type counters of all its lists, if it is detailed.
+     *
+     * @param row
+     *            {@code OLD} or {@code NEW}
+     */
+    private static String addTypeCount(final String row, final String sign) {
+        final String type = "ifnull(" + row + ".type, '?')";
+        final String lists = "select list_id from " + dbTableCachesLists + " where geocode = " + row + ".geocode";
+        return "insert or ignore into " + dbTableListCounts + " (list_id, type) select list_id, " + type + " from " + dbTableCachesLists + " where geocode = " + row + ".geocode and " + row + ".detailed = 1; "
+                + "update " + dbTableListCounts + " set count = count " + sign + " (select count(*) from " + dbTableCachesLists + " l where l.geocode = " + row + ".geocode and l.list_id = " + dbTableListCounts + ".list_id)"
+                + " where type = " + type + " and " + row + ".detailed = 1 and list_id in (" + lists + "); ";
+    }
+
+    /**
+     * Create the list counters and their triggers, and count the existing list entries.
+     */
+    private static void createListCounts(final SQLiteDatabase db) {
+        db.execSQL(dbCreateListCounts);
+        for (final String trigger : dbCreateListCountTriggers) {
+            db.execSQL(trigger);
+        }
+        db.execSQL("insert into " + dbTableListCounts + " (list_id, type, count) select list_id, '" + LIST_COUNT_ALL_TYPES + "', count(*) from " + dbTableCachesLists + " group by list_id");
+        db.execSQL("insert into " + dbTableListCounts + " (list_id, type, count) select l.list_id, " + LIST_COUNT_TYPE + ", count(*) from " + dbTableCachesLists + " l, " + dbTableCaches + " c"
+                + " where c.geocode = l.geocode and c.detailed = 1 group by l.list_id, " + LIST_COUNT_TYPE);
+        db.execSQL("insert into " + dbTableListCounts + " (list_id, type, count) select " + LIST_COUNT_ALL_LISTS + ", '" + LIST_COUNT_ALL_TYPES + "', count(distinct geocode) from " + dbTableCachesLists
+                + " where list_id >= " + StoredList.STANDARD_LIST_ID);
+    }
+
     private static final Observable<Integer> allCachesCountObservable = Observable.create(new OnSubscribe<Integer>() {
         @Override
         public void call(final Subscriber<? super Integer> subscriber) {
@@ -346,6 +495,11 @@ public class DataStore {
         }
     }).timeout(500, TimeUnit.MILLISECONDS).retry(10).subscribeOn(Schedulers.io());
 
+    /** Maximum number of geocodes in a single list membership statement. */
+    private static final int LIST_MEMBERSHIP_BATCH_SIZE = 500;
+
+    private static final Subject<Void, Void> listCountsChanged = PublishSubject.<Void> create().toSerialized();
+
     private static boolean newlyCreatedDatabase = false;
     private static boolean databaseCleaned = false;
 
@@ -359,12 +513,43 @@ public class DataStore {
                 return;
             }
             final DbHelper dbHelper = new DbHelper(new DBContext(CgeoApplication.getInstance()));
+            SQLiteDatabase db;
             try {
-                database = dbHelper.getWritableDatabase();
+                db = dbHelper.getWritableDatabase();
             } catch (final Exception e) {
                 Log.e("DataStore.init: unable to open database for R/W", e);
-                recreateDatabase(dbHelper);
+                db = recreateDatabase(dbHelper);
+            }
+            if (db != null) {
+                configureDatabase(db);
+                // publish the database only when it is configured, as it is used without synchronization
+                database = db;
+                // resume deletions interrupted by the end of the process
+                StorageJanitor.schedule();
+            }
+        }
+    }
+
+    /**
+     * Switch the database to write ahead logging, so that the map and the lists can read from a pool of connections
+     * while imports and refreshes write on the primary connection, and tune the primary connection for that mode.
+     *
+     * @param db the freshly opened database
+     */
+    private static void configureDatabase(final SQLiteDatabase db) {
+        try {
+            if (!Compatibility.enableWriteAheadLogging(db)) {
+                Log.i("DataStore.configureDatabase: write ahead logging not available");
+                return;
             }
+            // with write ahead logging, NORMAL is safe against corruption and avoids a sync on every commit
+            db.execSQL("PRAGMA synchronous = NORMAL");
+            db.execSQL("PRAGMA cache_size = " + DB_CACHE_SIZE_PAGES);
+            // mmap_size returns the resulting value, which requires a query instead of execSQL
+            final Cursor cursor = db.rawQuery("PRAGMA mmap_size = " + DB_MMAP_SIZE_BYTES, null);
+            cursor.close();
+        } catch (final Exception e) {
+            Log.w("DataStore.configureDatabase: unable to configure database", e);
         }
     }
 
@@ -373,7 +558,8 @@ public class DataStore {
      *
      * @param dbHelper dbHelper to use to reopen the database
      */
-    private static void recreateDatabase(final DbHelper dbHelper) {
+    @Nullable
+    private static SQLiteDatabase recreateDatabase(final DbHelper dbHelper) {
         final File dbPath = databasePath();
         final File corruptedPath = new File(LocalStorage.getStorage(), dbPath.getName() + ".corrupted");
         if (LocalStorage.copy(dbPath, corruptedPath)) {
@@ -382,10 +568,11 @@ public class DataStore {
             Log.e("DataStore.init: unable to rename corrupted database");
         }
         try {
-            database = dbHelper.getWritableDatabase();
+            return dbHelper.getWritableDatabase();
         } catch (final Exception f) {
             Log.e("DataStore.init: unable to recreate database and open it for R/W", f);
         }
+        return null;
     }
 
     public static synchronized void closeDb() {
@@ -404,18 +591,59 @@ public class DataStore {
         return new File(LocalStorage.getStorage(), "cgeo.sqlite");
     }
 
+    @Nullable
     public static String backupDatabaseInternal() {
+        return backupDatabaseInternal(null);
+    }
+
+    /**
+     * Create a backup of the database while it stays open for the rest of the application.
+     *
+     * The backup is written through a separate connection which attaches a fresh backup file and copies
+     * the schema and then the content table by table. The whole copy runs in a single deferred transaction of that
+     * connection, so that all tables are read from the same snapshot and the backup is consistent across tables.
+     * As the transaction only writes to the backup file, it never locks the live database for writing: with write ahead
+     * logging, neither readers nor writers on the main connection wait for the copy. As the copy is rebuilt from
+     * scratch, the backup does not contain the free pages of the live database.
+     *
+     * @param progress
+     *            notified with the number of copied tables and the total number of tables, may be null
+     * @return the path of the backup file, or null if the backup failed
+     */
+    @Nullable
+    public static String backupDatabaseInternal(@Nullable final Action2<Integer, Integer> progress) {
         if (!LocalStorage.isExternalStorageAvailable()) {
             Log.w("Database wasn't backed up: no external memory");
             return null;
         }
 
-        final File target = getBackupFileInternal();
-        closeDb();
-        final boolean backupDone = LocalStorage.copy(databasePath(), target);
         init();
+        final File target = getBackupFileInternal();
+        final File temporaryTarget = new File(target.getPath() + ".tmp");
+        FileUtils.deleteIgnoringFailure(temporaryTarget);
+
+        boolean backupDone = false;
+        SQLiteDatabase backupConnection = null;
+        try {
+            backupConnection = SQLiteDatabase.openDatabase(databasePath().getPath(), null, SQLiteDatabase.OPEN_READWRITE);
+            backupConnection.execSQL("ATTACH DATABASE " + DatabaseUtils.sqlEscapeString(temporaryTarget.getPath()) + " AS " + dbBackupSchema);
+            // if the copy fails, closing the connection rolls the transaction back
+            executeTransactionStatement(backupConnection, "BEGIN DEFERRED");
+            copyToAttachedBackup(backupConnection, progress);
+            executeTransactionStatement(backupConnection, "COMMIT");
+            // a database cannot be detached within a transaction
+            backupConnection.execSQL("DETACH DATABASE " + dbBackupSchema);
+            backupDone = true;
+        } catch (final Exception e) {
+            Log.e("DataStore.backupDatabaseInternal", e);
+        } finally {
+            if (backupConnection != null) {
+                backupConnection.close();
+            }
+        }
 
-        if (!backupDone) {
+        if (!backupDone || !FileUtils.move(temporaryTarget, target)) {
+            FileUtils.deleteIgnoringFailure(temporaryTarget);
             Log.e("Database could not be copied to " + target);
             return null;
         }
@@ -424,6 +652,67 @@ public class DataStore {
         return target.getPath();
     }
 
+    /**
+     * Execute a transaction statement directly. {@link SQLiteDatabase#beginTransaction()} takes an exclusive lock on
+     * all attached databases, and {@link SQLiteDatabase#beginTransactionNonExclusive()} (API 11) still reserves them for
+     * writing. Statements starting with BEGIN or COMMIT are turned into those by the framework, therefore the leading
+     * comment keeps it from recognizing them.
+     */
+    private static void executeTransactionStatement(@NonNull final SQLiteDatabase connection, @NonNull final String statement) {
+        connection.execSQL("/* direct */ " + statement);
+    }
+
+    /**
+     * Copy schema and content of the main database into the attached backup schema. Indices are created after the
+     * content has been copied, as filling an indexed table is much slower. Triggers are created last, as the copied
+     * content must not fire them.
+     */
+    private static void copyToAttachedBackup(@NonNull final SQLiteDatabase connection, @Nullable final Action2<Integer, Integer> progress) {
+        final List<String> tables = new ArrayList<>();
+        final List<String> tableDefinitions = new ArrayList<>();
+        final List<String> indexDefinitions = new ArrayList<>();
+        final List<String> triggerDefinitions = new ArrayList<>();
+        final Cursor cursor = connection.rawQuery("SELECT type, name, sql FROM main.sqlite_master WHERE sql IS NOT NULL AND name NOT LIKE 'sqlite_%'", null);
+        try {
+            while (cursor.moveToNext()) {
+                final String definition = SCHEMA_OBJECT_DEFINITION.matcher(cursor.getString(2)).replaceFirst("$1" + dbBackupSchema + ".");
+                if (StringUtils.equals(cursor.getString(0), "table")) {
+                    tables.add(cursor.getString(1));
+                    tableDefinitions.add(definition);
+                } else if (StringUtils.equals(cursor.getString(0), "index")) {
+                    indexDefinitions.add(definition);
+                } else if (StringUtils.equals(cursor.getString(0), "trigger")) {
+                    triggerDefinitions.add(definition);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        for (final String definition : tableDefinitions) {
+            connection.execSQL(definition);
+        }
+        for (int i = 0; i < tables.size(); i++) {
+            if (progress != null) {
+                progress.call(i, tables.size());
+            }
+            final String table = tables.get(i);
+            connection.execSQL("INSERT INTO " + dbBackupSchema + "." + table + " SELECT * FROM main." + table);
+        }
+        // keep the autoincrement counters, otherwise ids of deleted rows might be reused after a restore
+        connection.execSQL("INSERT INTO " + dbBackupSchema + ".sqlite_sequence SELECT * FROM main.sqlite_sequence");
+        for (final String definition : indexDefinitions) {
+            connection.execSQL(definition);
+        }
+        for (final String definition : triggerDefinitions) {
+            connection.execSQL(definition);
+        }
+        connection.execSQL("PRAGMA " + dbBackupSchema + ".user_version = " + dbVersion);
+        if (progress != null) {
+            progress.call(tables.size(), tables.size());
+        }
+    }
+
     /**
      * Move the database to/from external cgdata in a new thread,
      * showing a progress window
@@ -450,6 +739,7 @@ public class DataStore {
                 if (!FileUtils.delete(source)) {
                     Log.e("Original database could not be deleted during move");
                 }
+                deleteJournalFiles(source);
                 Settings.setDbOnSDCard(!Settings.isDbOnSDCard());
                 Log.i("Database was moved to " + target);
 
@@ -466,6 +756,128 @@ public class DataStore {
         });
     }
 
+    /**
+     * Switch the storage format of descriptions and logs, converting the stored texts in the background.
+     *
+     * @see TextCodec
+     */
+    public static void recodeTexts(final Activity fromActivity) {
+        final boolean compress = !Settings.isDbCompressTexts();
+        final ProgressDialog dialog = new ProgressDialog(fromActivity);
+        dialog.setTitle(fromActivity.getString(R.string.init_dbcompress_title));
+        dialog.setMessage(fromActivity.getString(R.string.init_dbcompress_running));
+        dialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
+        dialog.setCancelable(false);
+        dialog.show();
+        AppObservable.bindActivity(fromActivity, Observable.defer(new Func0<Observable<Boolean>>() {
+            @Override
+            public Observable<Boolean> call() {
+                // new texts are written in the new format while the existing ones are converted
+                Settings.setDbCompressTexts(compress);
+                try {
+                    recodeTextsInternal(compress, new Action2<Integer, Integer>() {
+                        @Override
+                        public void call(final Integer converted, final Integer total) {
+                            AndroidSchedulers.mainThread().createWorker().schedule(new Action0() {
+                                @Override
+                                public void call() {
+                                    dialog.setMax(total);
+                                    dialog.setProgress(converted);
+                                }
+                            });
+                        }
+                    });
+                    return Observable.just(true);
+                } catch (final Exception e) {
+                    Log.e("DataStore.recodeTexts", e);
+                    return Observable.just(false);
+                }
+            }
+        })).subscribeOn(Schedulers.io()).subscribe(new Action1<Boolean>() {
+            @Override
+            public void call(final Boolean success) {
+                dialog.dismiss();
+                Dialogs.message(fromActivity, R.string.init_dbcompress_title, success ? R.string.init_dbcompress_success : R.string.init_dbcompress_failed);
+            }
+        });
+    }
+
+    /**
+     * Convert the descriptions and logs of all stored caches to the given storage format. The conversion is done in
+     * batches, each in its own transaction, so that the database stays usable meanwhile. The database is vacuumed
+     * afterwards to give back the freed space.
+     *
+     * @param compress
+     *            {@code true} to compress the texts, {@code false} to store them uncompressed
+     * @param progress
+     *            called with the number of converted rows and the total number of rows after each batch
+     */
+    static void recodeTextsInternal(final boolean compress, @Nullable final Action2<Integer, Integer> progress) {
+        init();
+        final int cacheRows = (int) DatabaseUtils.queryNumEntries(database, dbTableCaches);
+        final int total = cacheRows + (int) DatabaseUtils.queryNumEntries(database, dbTableLogs);
+        final int cachesDone = recodeTable(dbTableCaches, new String[] { "description", "shortdesc" }, compress, 0, total, progress);
+        recodeTable(dbTableLogs, new String[] { "log" }, compress, cachesDone, total, progress);
+        Log.i("DataStore.recodeTexts: " + total + " rows processed, compressed: " + compress);
+        database.execSQL("VACUUM");
+    }
+
+    private static int recodeTable(final String table, final String[] columns, final boolean compress, final int done, final int total, @Nullable final Action2<Integer, Integer> progress) {
+        final String[] projection = ArrayUtils.add(columns, 0, "_id");
+        int converted = done;
+        long lastId = -1;
+        while (true) {
+            // read and write each batch in the same transaction, so that concurrent changes are not overwritten
+            database.beginTransaction();
+            try {
+                final Cursor cursor = database.query(table, projection, "_id > ?", new String[] { String.valueOf(lastId) }, null, null, "_id", String.valueOf(RECODE_BATCH_SIZE));
+                try {
+                    if (cursor.getCount() == 0) {
+                        return converted;
+                    }
+                    while (cursor.moveToNext()) {
+                        lastId = cursor.getLong(0);
+                        final ContentValues values = new ContentValues();
+                        for (int i = 0; i < columns.length; i++) {
+                            final byte[] stored = cursor.getBlob(i + 1);
+                            if (stored == null || TextCodec.isCompressed(stored) == compress) {
+                                continue;
+                            }
+                            final String text = TextCodec.decode(stored);
+                            final byte[] compressed = compress ? TextCodec.compress(text) : null;
+                            if (compressed != null) {
+                                values.put(columns[i], compressed);
+                            } else if (!compress) {
+                                values.put(columns[i], text);
+                            }
+                        }
+                        if (values.size() > 0) {
+                            database.update(table, values, "_id = ?", new String[] { String.valueOf(lastId) });
+                        }
+                        converted++;
+                    }
+                } finally {
+                    cursor.close();
+                }
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+            }
+            if (progress != null) {
+                progress.call(converted, total);
+            }
+        }
+    }
+
+    /**
+     * Delete the write ahead log and shared memory files of a closed database. They must not be combined with
+     * another database file after a restore or move.
+     */
+    private static void deleteJournalFiles(@NonNull final File dbFile) {
+        FileUtils.deleteIgnoringFailure(new File(dbFile.getPath() + "-wal"));
+        FileUtils.deleteIgnoringFailure(new File(dbFile.getPath() + "-shm"));
+    }
+
     @NonNull
     private static File databasePath(final boolean internal) {
         return new File(internal ? LocalStorage.getInternalDbDirectory() : LocalStorage.getExternalDbDirectory(), dbName);
@@ -489,6 +901,7 @@ public class DataStore {
 
         final File sourceFile = getBackupFileInternal();
         closeDb();
+        deleteJournalFiles(databasePath());
         final boolean restoreDone = LocalStorage.copy(sourceFile, databasePath());
         init();
 
@@ -546,6 +959,20 @@ public class DataStore {
             db.execSQL(dbCreateSearchDestinationHistory);
 
             createIndices(db);
+            createImageTables(db);
+            db.execSQL(dbCreateCleanup);
+            createListCounts(db);
+        }
+
+        /**
+         * Create the index of the {@link ImageStore}. The tables get their own method, as {@link #createIndices} is
+         * also used by upgrades running before those tables exist.
+         */
+        static private void createImageTables(final SQLiteDatabase db) {
+            db.execSQL(dbCreateImages);
+            db.execSQL(dbCreateImageRefs);
+            db.execSQL("create index if not exists in_images_blob on " + dbTableImages + " (blob)");
+            db.execSQL("create index if not exists in_imagerefs_hash on " + dbTableImageRefs + " (hash)");
         }
 
         static private void createIndices(final SQLiteDatabase db) {
@@ -562,9 +989,11 @@ public class DataStore {
             db.execSQL("create index if not exists in_wpts_geo_type on " + dbTableWaypoints + " (geocode, type)");
             db.execSQL("create index if not exists in_spoil_geo on " + dbTableSpoilers + " (geocode)");
             db.execSQL("create index if not exists in_logs_geo on " + dbTableLogs + " (geocode)");
+            db.execSQL("create index if not exists in_logimages_log on " + dbTableLogImages + " (log_id)");
             db.execSQL("create index if not exists in_logcount_geo on " + dbTableLogCount + " (geocode)");
             db.execSQL("create index if not exists in_logsoff_geo on " + dbTableLogsOffline + " (geocode)");
             db.execSQL("create index if not exists in_trck_geo on " + dbTableTrackables + " (geocode)");
+            db.execSQL("create index if not exists in_trck_code on " + dbTableTrackables + " (tbcode)");
             db.execSQL("create index if not exists in_lists_geo on " + dbTableCachesLists + " (geocode)");
         }
 
@@ -744,9 +1173,8 @@ public class DataStore {
 
                     if (oldVersion < 59) {
                         try {
-                            // Add new indices and remove obsolete cache files
+                            // Add new indices, obsolete cache files are removed by the upgrade to ver. 74
                             createIndices(db);
-                            removeObsoleteCacheDirectories(db);
                         } catch (final Exception e) {
                             Log.e("Failed to upgrade to ver. 59", e);
                         }
@@ -861,6 +1289,52 @@ public class DataStore {
                             Log.e("Failed to upgrade to ver. 71", e);
                         }
                     }
+                    // Logs are saved differentially, remove the log images left over by the former delete-and-insert
+                    if (oldVersion < 72) {
+                        try {
+                            createIndices(db);
+                            db.delete(dbTableLogImages, "log_id NOT IN (SELECT _id FROM " + dbTableLogs + ")", null);
+                        } catch (final Exception e) {
+                            Log.e("Failed to upgrade to ver. 72", e);
+                        }
+                    }
+                    // Introduces the content addressed image store, existing files are imported when first used
+                    if (oldVersion < 73) {
+                        try {
+                            createImageTables(db);
+                        } catch (final Exception e) {
+                            Log.e("Failed to upgrade to ver. 73", e);
+                        }
+                    }
+                    // Introduces the queue of files to delete in the background
+                    if (oldVersion < 74) {
+                        try {
+                            db.execSQL(dbCreateCleanup);
+                            if (oldVersion < 59) {
+                                // queued for the janitor, which is scheduled once the database is open
+                                removeObsoleteCacheDirectories(db);
+                            }
+                        } catch (final Exception e) {
+                            Log.e("Failed to upgrade to ver. 74", e);
+                        }
+                    }
+                    // Introduces the materialized list counters
+                    if (oldVersion < 75) {
+                        try {
+                            createListCounts(db);
+                        } catch (final Exception e) {
+                            Log.e("Failed to upgrade to ver. 75", e);
+                        }
+                    }
+                    // Indexes the trackable codes, keeping the last saved version of each identifiable trackable
+                    if (oldVersion < 76) {
+                        try {
+                            db.execSQL("delete from " + dbTableTrackables + " where tbcode <> '' and _id not in (select max(_id) from " + dbTableTrackables + " group by tbcode)");
+                            createIndices(db);
+                        } catch (final Exception e) {
+                            Log.e("Failed to upgrade to ver. 76", e);
+                        }
+                    }
                 }
 
                 db.setTransactionSuccessful();
@@ -943,6 +1417,10 @@ public class DataStore {
             db.execSQL("drop table if exists " + dbTableLogCount);
             db.execSQL("drop table if exists " + dbTableLogsOffline);
             db.execSQL("drop table if exists " + dbTableTrackables);
+            db.execSQL("drop table if exists " + dbTableImages);
+            db.execSQL("drop table if exists " + dbTableImageRefs);
+            db.execSQL("drop table if exists " + dbTableCleanup);
+            db.execSQL("drop table if exists " + dbTableListCounts);
         }
 
     }
@@ -952,10 +1430,44 @@ public class DataStore {
      */
     public static void removeObsoleteCacheDirectories() {
         removeObsoleteCacheDirectories(database);
+        StorageJanitor.schedule();
+        removeObsoleteImageReferences();
     }
 
     /**
-     * Remove obsolete cache directories in c:geo private storage.
+     * Remove the image references of caches which are not stored (anymore), e.g. images loaded while looking at a cache
+     * which was never stored. References of pseudo geocodes (like the shared icons) are kept.
+     */
+    private static void removeObsoleteImageReferences() {
+        final Pattern geocodePattern = Pattern.compile("^[GC|TB|EC|GK|O][A-Z0-9]{4,7}$");
+        final List<String> obsolete = new ArrayList<>();
+        final Cursor cursor = database.rawQuery("SELECT DISTINCT geocode FROM " + dbTableImageRefs + " WHERE geocode NOT IN (SELECT geocode FROM " + dbTableCaches + ")", null);
+        try {
+            while (cursor.moveToNext()) {
+                final String geocode = cursor.getString(0);
+                if (geocodePattern.matcher(geocode).find()) {
+                    obsolete.add(DatabaseUtils.sqlEscapeString(geocode));
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        if (obsolete.isEmpty()) {
+            return;
+        }
+        database.beginTransaction();
+        try {
+            enqueueCleanup(database, StorageJanitor.TYPE_IMAGE_BLOB, removeImageReferencesWithoutTransaction("geocode in (" + StringUtils.join(obsolete, ',') + ")", null));
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        StorageJanitor.schedule();
+    }
+
+    /**
+     * Queue obsolete cache directories in c:geo private storage for deletion. Call {@link StorageJanitor#schedule()}
+     * afterwards, unless the database is being upgraded, as then the janitor is scheduled once it has been opened.
      *
      * @param db
      *            the read-write database to use
@@ -964,34 +1476,110 @@ public class DataStore {
         final File[] files = LocalStorage.getStorage().listFiles();
         if (ArrayUtils.isNotEmpty(files)) {
             final Pattern oldFilePattern = Pattern.compile("^[GC|TB|EC|GK|O][A-Z0-9]{4,7}$");
-            final SQLiteStatement select = PreparedStatement.CHECK_IF_PRESENT.getStatement();
-            final List<File> toRemove = new ArrayList<>(files.length);
+            final Set<String> storedGeocodes = new HashSet<>();
+            final Cursor cursor = db.query(dbTableCaches, new String[] { "geocode" }, null, null, null, null, null);
+            try {
+                while (cursor.moveToNext()) {
+                    storedGeocodes.add(cursor.getString(0));
+                }
+            } finally {
+                cursor.close();
+            }
+            final List<String> toRemove = new ArrayList<>();
             for (final File file : files) {
                 if (file.isDirectory()) {
                     final String geocode = file.getName();
-                    if (oldFilePattern.matcher(geocode).find()) {
-                        synchronized (select) {
-                            select.bindString(1, geocode);
-                            if (select.simpleQueryForLong() == 0) {
-                                toRemove.add(file);
-                            }
-                        }
+                    if (oldFilePattern.matcher(geocode).find() && !storedGeocodes.contains(geocode)) {
+                        toRemove.add(geocode);
                     }
                 }
             }
+            if (toRemove.isEmpty()) {
+                return;
+            }
+            Log.i("Removing " + toRemove.size() + " obsolete cache directories");
 
-            // Use a background thread for the real removal to avoid keeping the database locked
+            // The janitor removes the directories in the background, avoiding to keep the database locked
             // if we are called from within a transaction.
-            Schedulers.io().createWorker().schedule(new Action0() {
-                @Override
-                public void call() {
-                    for (final File dir : toRemove) {
-                        Log.i("Removing obsolete cache directory for " + dir.getName());
-                        FileUtils.deleteDirectory(dir);
+            enqueueCleanup(db, StorageJanitor.TYPE_CACHE_DIRECTORY, toRemove);
+        }
+    }
+
+    /**
+     * Queue files for deletion by the {@link StorageJanitor}. Call {@link StorageJanitor#schedule()} after the
+     * surrounding transaction has been committed.
+     *
+     * @param db
+     *            the read-write database to use
+     * @param type
+     *            the type of the files, one of the {@code StorageJanitor.TYPE_*} constants
+     * @param names
+     *            the names of the files, as expected by the janitor for this type
+     */
+    private static void enqueueCleanup(final SQLiteDatabase db, final int type, @NonNull final Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        final SQLiteStatement insert = db.compileStatement("INSERT INTO " + dbTableCleanup + " (type, name) VALUES (?, ?)");
+        try {
+            for (final String name : names) {
+                insert.bindLong(1, type);
+                insert.bindString(2, name);
+                insert.executeInsert();
+            }
+        } finally {
+            insert.close();
+        }
+    }
+
+    /**
+     * Load the oldest entries of the cleanup queue.
+     */
+    @NonNull
+    static List<StorageJanitor.Task> loadCleanupTasks(final int limit) {
+        return queryToColl(dbTableCleanup,
+                new String[] { "_id", "type", "name" },
+                null,
+                null,
+                "_id",
+                String.valueOf(limit),
+                new ArrayList<StorageJanitor.Task>(limit),
+                new Func1<Cursor, StorageJanitor.Task>() {
+                    @Override
+                    public StorageJanitor.Task call(final Cursor cursor) {
+                        return new StorageJanitor.Task(cursor.getLong(0), cursor.getInt(1), cursor.getString(2));
                     }
-                }
-            });
+                });
+    }
+
+    /**
+     * Remove processed entries from the cleanup queue.
+     */
+    static void removeCleanupTasks(@NonNull final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        init();
+
+        database.delete(dbTableCleanup, "_id IN (" + StringUtils.join(ids, ',') + ")", null);
+    }
+
+    /**
+     * Load which of the given geocodes are stored, with a single query.
+     */
+    @NonNull
+    static Set<String> loadStoredGeocodes(@NonNull final Collection<String> geocodes) {
+        if (geocodes.isEmpty()) {
+            return Collections.emptySet();
         }
+        return queryToColl(dbTableCaches,
+                new String[] { "geocode" },
+                whereGeocodeIn(geocodes).toString(),
+                null,
+                null,
+                null,
+                new HashSet<String>(),
+                GET_STRING_0);
     }
 
     public static boolean isThere(final String geocode, final String guid, final boolean checkTime) {
@@ -1103,6 +1691,28 @@ public class DataStore {
         return null;
     }
 
+    /**
+     * @return {@code true} if the cache is stored in the database, independent of its lists
+     */
+    public static boolean isCacheStored(final String geocode) {
+        if (StringUtils.isBlank(geocode)) {
+            return false;
+        }
+        init();
+
+        try {
+            final SQLiteStatement checkIfPresent = PreparedStatement.CHECK_IF_PRESENT.getStatement();
+            synchronized (checkIfPresent) {
+                checkIfPresent.bindString(1, StringUtils.upperCase(geocode));
+                return checkIfPresent.simpleQueryForLong() > 0;
+            }
+        } catch (final Exception e) {
+            Log.e("DataStore.isCacheStored", e);
+        }
+
+        return false;
+    }
+
     @Nullable
     public static String getGeocodeForTitle(@NonNull final String title) {
         if (StringUtils.isBlank(title)) {
@@ -1192,9 +1802,12 @@ public class DataStore {
         for (final Geocache geocache : toBeStored) {
             storeIntoDatabase(geocache);
         }
+        if (!toBeStored.isEmpty()) {
+            notifyListCountsChanged();
+        }
     }
 
-    private static boolean storeIntoDatabase(final Geocache cache) {
+    static boolean storeIntoDatabase(final Geocache cache) {
         cache.addStorageLocation(StorageLocation.DATABASE);
         cacheCache.putCacheInCache(cache);
         Log.d("Saving " + cache.toString() + " (" + cache.getLists() + ") to DB");
@@ -1232,9 +1845,9 @@ public class DataStore {
         values.put("direction", cache.getDirection());
         putCoords(values, cache.getCoords());
         values.put("reliable_latlon", cache.isReliableLatLon() ? 1 : 0);
-        values.put("shortdesc", cache.getShortDescription());
+        putText(values, "shortdesc", cache.getShortDescription());
         values.put("personal_note", cache.getPersonalNote());
-        values.put("description", cache.getDescription());
+        putText(values, "description", cache.getDescription());
         values.put("favourite_cnt", cache.getFavoritePoints());
         values.put("rating", cache.getRating());
         values.put("votes", cache.getVotes());
@@ -1253,6 +1866,7 @@ public class DataStore {
 
         init();
 
+        final long start = STORE_CACHE_TIMER.start();
         // try to update record else insert fresh..
         database.beginTransaction();
 
@@ -1276,6 +1890,7 @@ public class DataStore {
             Log.e("SaveCache", e);
         } finally {
             database.endTransaction();
+            STORE_CACHE_TIMER.stop(start);
         }
 
         return false;
@@ -1361,49 +1976,151 @@ public class DataStore {
         return false;
     }
 
+    /**
+     * Add waypoints to stored caches, like the ones of a separate GPX waypoint file. The new waypoints are merged with
+     * the stored waypoints of their cache and only the changed waypoints are written, all caches in one transaction.
+     * Caches in the CacheCache get the merged waypoints, so that they don't need to be loaded again.
+     *
+     * @param waypointsByGeocode
+     *            new waypoints by the geocode of their cache
+     */
+    public static void saveAdditionalWaypoints(@NonNull final Map<String, List<Waypoint>> waypointsByGeocode) {
+        init();
+        database.beginTransaction();
+        try {
+            for (final Entry<String, List<Waypoint>> entry : waypointsByGeocode.entrySet()) {
+                final String geocode = entry.getKey();
+                final List<Waypoint> waypoints = new ArrayList<>(entry.getValue());
+                Waypoint.mergeWayPoints(waypoints, loadWaypoints(geocode), true);
+                saveWaypointsWithoutTransaction(geocode, waypoints);
+
+                final Geocache cachedCache = cacheCache.getCacheFromCache(geocode);
+                if (cachedCache != null) {
+                    cachedCache.setWaypoints(waypoints, false);
+                }
+            }
+            database.setTransactionSuccessful();
+        } catch (final Exception e) {
+            Log.e("saveAdditionalWaypoints", e);
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Columns of a stored waypoint, compared to skip saving unchanged waypoints. The order is the one of the parameters
+     * of {@link PreparedStatement#INSERT_WAYPOINT} following the geocode and the update time.
+     */
+    private static final String[] WAYPOINT_VALUE_COLUMNS = { "type", "prefix", "lookup", "name", "latitude", "longitude", "note", "own", "visited" };
+
+    /**
+     * Save the waypoints of the cache and remove its stored waypoints which are not part of it anymore. Unchanged
+     * waypoints are not written.
+     */
     private static void saveWaypointsWithoutTransaction(final Geocache cache) {
-        final String geocode = cache.getGeocode();
+        saveWaypointsWithoutTransaction(cache.getGeocode(), cache.getWaypoints());
+    }
 
-        final List<Waypoint> waypoints = cache.getWaypoints();
+    private static void saveWaypointsWithoutTransaction(@NonNull final String geocode, final List<Waypoint> waypoints) {
         if (CollectionUtils.isNotEmpty(waypoints)) {
-            final List<String> currentWaypointIds = new ArrayList<>();
-            final ContentValues values = new ContentValues();
+            final Map<Integer, Object[]> storedWaypoints = loadStoredWaypoints(geocode);
+            final SQLiteStatement insertWaypoint = PreparedStatement.INSERT_WAYPOINT.getStatement();
+            final SQLiteStatement updateWaypoint = PreparedStatement.UPDATE_WAYPOINT.getStatement();
             final long timeStamp = System.currentTimeMillis();
             for (final Waypoint oneWaypoint : waypoints) {
-
-                values.clear();
-                values.put("geocode", geocode);
-                values.put("updated", timeStamp);
-                values.put("type", oneWaypoint.getWaypointType() != null ? oneWaypoint.getWaypointType().id : null);
-                values.put("prefix", oneWaypoint.getPrefix());
-                values.put("lookup", oneWaypoint.getLookup());
-                values.put("name", oneWaypoint.getName());
-                putCoords(values, oneWaypoint.getCoords());
-                values.put("note", oneWaypoint.getNote());
-                values.put("own", oneWaypoint.isUserDefined() ? 1 : 0);
-                values.put("visited", oneWaypoint.isVisited() ? 1 : 0);
+                final Object[] values = waypointValues(oneWaypoint);
                 if (oneWaypoint.getId() < 0) {
-                    final long rowId = database.insert(dbTableWaypoints, null, values);
-                    oneWaypoint.setId((int) rowId);
+                    bindWaypoint(insertWaypoint, geocode, timeStamp, values);
+                    oneWaypoint.setId((int) insertWaypoint.executeInsert());
                 } else {
-                    database.update(dbTableWaypoints, values, "_id = ?", new String[] { Integer.toString(oneWaypoint.getId(), 10) });
+                    // the waypoint may also be stored for another cache, which is then updated as before
+                    final Object[] stored = storedWaypoints.remove(oneWaypoint.getId());
+                    if (stored == null || !Arrays.equals(values, stored)) {
+                        bindWaypoint(updateWaypoint, geocode, timeStamp, values);
+                        updateWaypoint.bindLong(WAYPOINT_VALUE_COLUMNS.length + 3, oneWaypoint.getId());
+                        updateWaypoint.execute();
+                    }
                 }
-                currentWaypointIds.add(Integer.toString(oneWaypoint.getId()));
             }
 
-            removeOutdatedWaypointsOfCache(cache, currentWaypointIds);
+            // remove the waypoints which are not part of the cache anymore
+            final SQLiteStatement deleteWaypoint = PreparedStatement.DELETE_WAYPOINT.getStatement();
+            for (final Integer outdatedId : storedWaypoints.keySet()) {
+                deleteWaypoint.bindLong(1, outdatedId);
+                deleteWaypoint.execute();
+            }
         }
     }
 
     /**
-     * remove all waypoints of the given cache, where the id is not in the given list
-     *
-     * @param remainingWaypointIds
-     *            ids of waypoints which shall not be deleted
+     * @return the values of the waypoint as they are stored, in the order of {@link #WAYPOINT_VALUE_COLUMNS}
+     */
+    @NonNull
+    private static Object[] waypointValues(@NonNull final Waypoint waypoint) {
+        final Geopoint coords = waypoint.getCoords();
+        return new Object[] {
+                waypoint.getWaypointType() != null ? waypoint.getWaypointType().id : null,
+                waypoint.getPrefix(),
+                waypoint.getLookup(),
+                waypoint.getName(),
+                coords != null ? coords.getLatitude() : null,
+                coords != null ? coords.getLongitude() : null,
+                waypoint.getNote(),
+                waypoint.isUserDefined() ? 1L : 0L,
+                waypoint.isVisited() ? 1L : 0L
+        };
+    }
+
+    /**
+     * Bind the geocode, the update time and the values of {@link #waypointValues} to
+     * {@link PreparedStatement#INSERT_WAYPOINT} or {@link PreparedStatement#UPDATE_WAYPOINT}, which share the order of
+     * their parameters.
+     */
+    private static void bindWaypoint(@NonNull final SQLiteStatement statement, @NonNull final String geocode, final long timeStamp, @NonNull final Object[] values) {
+        statement.bindString(1, geocode);
+        statement.bindLong(2, timeStamp);
+        for (int i = 0; i < values.length; i++) {
+            final Object value = values[i];
+            if (value == null) {
+                statement.bindNull(i + 3);
+            } else if (value instanceof Double) {
+                statement.bindDouble(i + 3, (Double) value);
+            } else if (value instanceof Long) {
+                statement.bindLong(i + 3, (Long) value);
+            } else {
+                statement.bindString(i + 3, (String) value);
+            }
+        }
+    }
+
+    /**
+     * Load the stored waypoints of a cache by their id, with the values of {@link #WAYPOINT_VALUE_COLUMNS} typed like
+     * the ones of {@link #waypointValues}, so that unchanged waypoints compare equal.
      */
-    private static void removeOutdatedWaypointsOfCache(final @NonNull Geocache cache, final @NonNull Collection<String> remainingWaypointIds) {
-        final String idList = StringUtils.join(remainingWaypointIds, ',');
-        database.delete(dbTableWaypoints, "geocode = ? AND _id NOT in (" + idList + ")", new String[] { cache.getGeocode() });
+    @NonNull
+    private static Map<Integer, Object[]> loadStoredWaypoints(@NonNull final String geocode) {
+        final String[] columns = ArrayUtils.add(WAYPOINT_VALUE_COLUMNS, 0, "_id");
+        final Map<Integer, Object[]> stored = new HashMap<>();
+        final Cursor cursor = database.query(dbTableWaypoints, columns, "geocode = ?", new String[] { geocode }, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                // Cursor.getType() needs API 11, so the columns are read according to their declared type
+                stored.put(cursor.getInt(0), new Object[] {
+                        cursor.getString(1),
+                        cursor.getString(2),
+                        cursor.getString(3),
+                        cursor.getString(4),
+                        cursor.isNull(5) ? null : cursor.getDouble(5),
+                        cursor.isNull(6) ? null : cursor.getDouble(6),
+                        cursor.getString(7),
+                        cursor.getLong(8),
+                        cursor.getLong(9)
+                });
+            }
+        } finally {
+            cursor.close();
+        }
+        return stored;
     }
 
     /**
@@ -1419,6 +2136,34 @@ public class DataStore {
         values.put("longitude", coords == null ? null : coords.getLongitude());
     }
 
+    /**
+     * Put a large text column into the values, compressing it if enabled in the settings.
+     *
+     * @see TextCodec
+     */
+    private static void putText(final ContentValues values, final String column, @Nullable final String text) {
+        final byte[] compressed = Settings.isDbCompressTexts() ? TextCodec.compress(text) : null;
+        if (compressed != null) {
+            values.put(column, compressed);
+        } else {
+            values.put(column, text);
+        }
+    }
+
+    /**
+     * Bind a large text column, compressing it if enabled in the settings.
+     *
+     * @see TextCodec
+     */
+    private static void bindText(final SQLiteStatement statement, final int index, @NonNull final String text) {
+        final byte[] compressed = Settings.isDbCompressTexts() ? TextCodec.compress(text) : null;
+        if (compressed != null) {
+            statement.bindBlob(index, compressed);
+        } else {
+            statement.bindString(index, text);
+        }
+    }
+
     /**
      * Retrieve coordinates from a Cursor
      *
@@ -1520,33 +2265,295 @@ public class DataStore {
         }
     }
 
+    /**
+     * Save the logs of a cache or trackable, only writing the difference to the stored logs. Stored logs are identified
+     * by their date, type and author. Unchanged logs and their images are left as they are, changed logs are updated,
+     * new logs are inserted and logs not present anymore are deleted together with their images. The logs must be
+     * given in the order of the website, which is kept for logs of the same day.
+     */
     private static void saveLogsWithoutTransaction(final String geocode, final Iterable<LogEntry> logs) {
-        // TODO delete logimages referring these logs
-        database.delete(dbTableLogs, "geocode = ?", new String[]{geocode});
-
-        final SQLiteStatement insertLog = PreparedStatement.INSERT_LOG.getStatement();
+        final Map<String, List<StoredLog>> storedLogs = loadStoredLogs("geocode = ?", new String[] { geocode });
+        final Map<Long, Long> lastIds = new HashMap<>();
         final long timestamp = System.currentTimeMillis();
         for (final LogEntry log : logs) {
-            insertLog.bindString(1, geocode);
-            insertLog.bindLong(2, timestamp);
-            insertLog.bindLong(3, log.getType().id);
-            insertLog.bindString(4, log.author);
-            insertLog.bindString(5, log.log);
-            insertLog.bindLong(6, log.date);
-            insertLog.bindLong(7, log.found);
-            insertLog.bindLong(8, log.friend ? 1 : 0);
-            final long logId = insertLog.executeInsert();
-            if (log.hasLogImages()) {
-                final SQLiteStatement insertImage = PreparedStatement.INSERT_LOG_IMAGE.getStatement();
-                for (final Image img : log.getLogImages()) {
-                    insertImage.bindLong(1, logId);
-                    insertImage.bindString(2, StringUtils.defaultIfBlank(img.title, ""));
-                    insertImage.bindString(3, img.getUrl());
-                    insertImage.bindString(4, StringUtils.defaultIfBlank(img.getDescription(), ""));
-                    insertImage.executeInsert();
+            saveLog(geocode, timestamp, storedLogs, lastIds, log);
+        }
+        removeStoredLogs(storedLogs);
+    }
+
+    /**
+     * Saves the logs of a cache in batches while they are downloaded, so that a logbook with thousands of entries never
+     * has to be kept in memory. Like {@link #saveLogs(String, Iterable)}, only the difference to the stored logs is
+     * written. Each batch is compared to the stored logs of its date range, read inside the transaction of the batch.
+     * Only the ids of the saved logs are kept between batches. The batches must be given in the order of the website.
+     */
+    public static final class LogBatchWriter {
+        private final String geocode;
+        private final long timestamp = System.currentTimeMillis();
+        private final Set<Long> savedIds = new HashSet<>();
+        private final Map<Long, Long> lastIds = new HashMap<>();
+
+        public LogBatchWriter(final String geocode) {
+            this.geocode = geocode;
+        }
+
+        /**
+         * Save a batch of logs in a single transaction.
+         */
+        public void save(final Collection<LogEntry> logs) {
+            if (logs.isEmpty()) {
+                return;
+            }
+            long minDate = Long.MAX_VALUE;
+            long maxDate = Long.MIN_VALUE;
+            for (final LogEntry log : logs) {
+                minDate = Math.min(minDate, log.date);
+                maxDate = Math.max(maxDate, log.date);
+            }
+            database.beginTransaction();
+            try {
+                final Map<String, List<StoredLog>> storedLogs = loadStoredLogs("geocode = ? AND date BETWEEN " + minDate + " AND " + maxDate, new String[] { geocode });
+                // logs on the boundary of the date range may already have been matched by a previous batch
+                for (final List<StoredLog> sameKey : storedLogs.values()) {
+                    for (final Iterator<StoredLog> iterator = sameKey.iterator(); iterator.hasNext();) {
+                        if (savedIds.contains(iterator.next().id)) {
+                            iterator.remove();
+                        }
+                    }
+                }
+                for (final LogEntry log : logs) {
+                    savedIds.add(saveLog(geocode, timestamp, storedLogs, lastIds, log));
+                }
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+            }
+        }
+
+        /**
+         * Delete the stored logs which have not been saved again. This must only be called after the complete logbook
+         * has been saved, otherwise the logs of missing batches are lost.
+         */
+        public void removeObsoleteLogs() {
+            database.beginTransaction();
+            try {
+                final List<Long> obsoleteIds = new ArrayList<>();
+                final Cursor cursor = database.query(dbTableLogs, new String[] { "_id" }, "geocode = ?", new String[] { geocode }, null, null, null);
+                try {
+                    while (cursor.moveToNext()) {
+                        final long id = cursor.getLong(0);
+                        if (!savedIds.contains(id)) {
+                            obsoleteIds.add(id);
+                        }
+                    }
+                } finally {
+                    cursor.close();
+                }
+                deleteLogs(obsoleteIds);
+                database.setTransactionSuccessful();
+            } finally {
+                database.endTransaction();
+            }
+        }
+    }
+
+    /**
+     * Insert or update a log, and remove its stored version from the given stored logs. Logs of the same day are loaded
+     * in the order of their ids, therefore a stored log is deleted and inserted again if its id is lower than the one
+     * of the log saved before it for the same day. From the first new or moved log of a day on, the following logs of
+     * that day are thus inserted again in the order of the website.
+     *
+     * @param lastIds
+     *            the id of the last log saved for each day, updated with the saved log
+     * @return the id of the saved log
+     */
+    private static long saveLog(final String geocode, final long timestamp, final Map<String, List<StoredLog>> storedLogs, final Map<Long, Long> lastIds, final LogEntry log) {
+        final StoredLog stored = removeStoredLog(storedLogs, log);
+        final Long lastId = lastIds.get(log.date);
+        final long id;
+        if (stored != null && (lastId == null || stored.id > lastId)) {
+            updateLog(timestamp, stored, log);
+            id = stored.id;
+        } else {
+            if (stored != null) {
+                deleteLogs(Collections.singletonList(stored.id));
+            }
+            id = insertLog(geocode, timestamp, log);
+        }
+        lastIds.put(log.date, id);
+        return id;
+    }
+
+    private static long insertLog(final String geocode, final long timestamp, final LogEntry log) {
+        final SQLiteStatement insertLog = PreparedStatement.INSERT_LOG.getStatement();
+        insertLog.bindString(1, geocode);
+        insertLog.bindLong(2, timestamp);
+        insertLog.bindLong(3, log.getType().id);
+        insertLog.bindString(4, log.author);
+        bindText(insertLog, 5, log.log);
+        insertLog.bindLong(6, log.date);
+        insertLog.bindLong(7, log.found);
+        insertLog.bindLong(8, log.friend ? 1 : 0);
+        final long id = insertLog.executeInsert();
+        insertLogImages(id, log.getLogImages());
+        return id;
+    }
+
+    /**
+     * Update a stored log and its images if they differ from the given log.
+     */
+    private static void updateLog(final long timestamp, final StoredLog stored, final LogEntry log) {
+        if (!StringUtils.equals(stored.text, log.log) || stored.found != log.found || stored.friend != log.friend) {
+            final SQLiteStatement updateLog = PreparedStatement.UPDATE_LOG.getStatement();
+            updateLog.bindLong(1, timestamp);
+            bindText(updateLog, 2, log.log);
+            updateLog.bindLong(3, log.found);
+            updateLog.bindLong(4, log.friend ? 1 : 0);
+            updateLog.bindLong(5, stored.id);
+            updateLog.execute();
+        }
+        if (!sameImages(stored.images, log.getLogImages())) {
+            final SQLiteStatement deleteImages = PreparedStatement.DELETE_LOG_IMAGES.getStatement();
+            deleteImages.bindLong(1, stored.id);
+            deleteImages.execute();
+            insertLogImages(stored.id, log.getLogImages());
+        }
+    }
+
+    /**
+     * Delete the given stored logs together with their images.
+     */
+    private static void removeStoredLogs(final Map<String, List<StoredLog>> storedLogs) {
+        final List<Long> obsoleteIds = new ArrayList<>();
+        for (final List<StoredLog> remaining : storedLogs.values()) {
+            for (final StoredLog stored : remaining) {
+                obsoleteIds.add(stored.id);
+            }
+        }
+        deleteLogs(obsoleteIds);
+    }
+
+    /**
+     * Delete the logs with the given ids together with their images.
+     */
+    private static void deleteLogs(final List<Long> obsoleteIds) {
+        if (!obsoleteIds.isEmpty()) {
+            final String idList = StringUtils.join(obsoleteIds, ',');
+            database.delete(dbTableLogImages, "log_id IN (" + idList + ")", null);
+            database.delete(dbTableLogs, "_id IN (" + idList + ")", null);
+        }
+    }
+
+    private static void insertLogImages(final long logId, final List<Image> images) {
+        if (images.isEmpty()) {
+            return;
+        }
+        final SQLiteStatement insertImage = PreparedStatement.INSERT_LOG_IMAGE.getStatement();
+        for (final Image img : images) {
+            insertImage.bindLong(1, logId);
+            insertImage.bindString(2, StringUtils.defaultIfBlank(img.title, ""));
+            insertImage.bindString(3, img.getUrl());
+            insertImage.bindString(4, StringUtils.defaultIfBlank(img.getDescription(), ""));
+            insertImage.executeInsert();
+        }
+    }
+
+    /**
+     * Compare log images the way they are stored, that is with blank titles and descriptions saved as empty strings.
+     */
+    private static boolean sameImages(final List<Image> stored, final List<Image> current) {
+        if (stored.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < stored.size(); i++) {
+            final Image storedImage = stored.get(i);
+            final Image currentImage = current.get(i);
+            if (!StringUtils.equals(storedImage.getUrl(), currentImage.getUrl())
+                    || !StringUtils.equals(StringUtils.defaultIfBlank(storedImage.title, ""), StringUtils.defaultIfBlank(currentImage.title, ""))
+                    || !StringUtils.equals(StringUtils.defaultIfBlank(storedImage.getDescription(), ""), StringUtils.defaultIfBlank(currentImage.getDescription(), ""))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Log row as stored in the database, used to compute the difference to the logs being saved.
+     */
+    private static final class StoredLog {
+        private final long id;
+        private final String text;
+        private final int found;
+        private final boolean friend;
+        private final List<Image> images = new ArrayList<>();
+
+        StoredLog(final long id, final String text, final int found, final boolean friend) {
+            this.id = id;
+            this.text = text;
+            this.found = found;
+            this.friend = friend;
+        }
+    }
+
+    private static String storedLogKey(final long date, final int type, final String author) {
+        return date + ":" + type + ":" + author;
+    }
+
+    /**
+     * Load the stored logs matching the given selection, grouped by their identifying key.
+     */
+    @NonNull
+    private static Map<String, List<StoredLog>> loadStoredLogs(final String selection, final String[] selectionArgs) {
+        final Map<String, List<StoredLog>> storedLogs = new HashMap<>();
+        final Cursor cursor = database.rawQuery(
+                //                         0        1       2       3    4      5      6     7      8       9
+                "SELECT " + dbTableLogs + "._id, date, type, author, log, found, friend, title, url, description"
+                        + " FROM " + dbTableLogs + " LEFT OUTER JOIN " + dbTableLogImages + " ON (" + dbTableLogs + "._id = log_id)"
+                        + " WHERE " + selection + " ORDER BY " + dbTableLogs + "._id, " + dbTableLogImages + "._id", selectionArgs);
+        try {
+            StoredLog log = null;
+            while (cursor.moveToNext()) {
+                final long id = cursor.getLong(0);
+                if (log == null || log.id != id) {
+                    log = new StoredLog(id, TextCodec.decode(cursor.getBlob(4)), cursor.getInt(5), cursor.getInt(6) == 1);
+                    final String key = storedLogKey(cursor.getLong(1), cursor.getInt(2), cursor.getString(3));
+                    List<StoredLog> sameKey = storedLogs.get(key);
+                    if (sameKey == null) {
+                        sameKey = new LinkedList<>();
+                        storedLogs.put(key, sameKey);
+                    }
+                    sameKey.add(log);
+                }
+                if (!cursor.isNull(8)) {
+                    log.images.add(new Image.Builder().setUrl(cursor.getString(8)).setTitle(cursor.getString(7)).setDescription(cursor.getString(9)).build());
                 }
             }
+        } finally {
+            cursor.close();
         }
+        return storedLogs;
+    }
+
+    /**
+     * Find and remove the stored version of a log. If several stored logs share the same key, one with the same text is
+     * preferred.
+     *
+     * @return the stored log, or {@code null} if the log is new
+     */
+    @Nullable
+    private static StoredLog removeStoredLog(final Map<String, List<StoredLog>> storedLogs, final LogEntry log) {
+        final List<StoredLog> sameKey = storedLogs.get(storedLogKey(log.date, log.getType().id, log.author));
+        if (sameKey == null || sameKey.isEmpty()) {
+            return null;
+        }
+        for (final Iterator<StoredLog> iterator = sameKey.iterator(); iterator.hasNext();) {
+            final StoredLog stored = iterator.next();
+            if (StringUtils.equals(stored.text, log.log)) {
+                iterator.remove();
+                return stored;
+            }
+        }
+        return sameKey.remove(0);
     }
 
     private static void saveLogCountsWithoutTransaction(final Geocache cache) {
@@ -1581,44 +2588,143 @@ public class DataStore {
         }
     }
 
-    private static void saveInventoryWithoutTransaction(final String geocode, final List<Trackable> trackables) {
-        if (geocode != null) {
-            database.delete(dbTableTrackables, "geocode = ?", new String[]{geocode});
-        }
+    /**
+     * Columns of a stored trackable, compared to skip saving unchanged trackables. The order is the one of the
+     * parameters of {@link PreparedStatement#INSERT_TRACKABLE} following the update time.
+     */
+    private static final String[] TRACKABLE_COLUMNS = { "tbcode", "geocode", "guid", "title", "owner", "released", "goal", "description" };
 
-        if (CollectionUtils.isNotEmpty(trackables)) {
-            final ContentValues values = new ContentValues();
-            final long timeStamp = System.currentTimeMillis();
+    /**
+     * Save trackables, updating their stored version identified by the trackable code. Unchanged trackables are not
+     * written, and their logs are only saved if they contain logs, as inventories listed on a cache page don't.
+     * Trackables without code cannot be identified and are always inserted.
+     *
+     * @param geocode
+     *            the cache whose complete inventory is saved, or {@code null} to save single trackables and keep the
+     *            cache they are stored for
+     */
+    private static void saveInventoryWithoutTransaction(@Nullable final String geocode, final List<Trackable> trackables) {
+        final Map<String, Trackable> byCode = new LinkedHashMap<>();
+        final List<Trackable> withoutCode = new ArrayList<>();
+        if (trackables != null) {
             for (final Trackable trackable : trackables) {
-                final String tbCode = trackable.getGeocode();
-                if (StringUtils.isNotBlank(tbCode)) {
-                    database.delete(dbTableTrackables, "tbcode = ?", new String[] { tbCode });
-                }
-                values.clear();
-                if (geocode != null) {
-                    values.put("geocode", geocode);
-                }
-                values.put("updated", timeStamp);
-                values.put("tbcode", tbCode);
-                values.put("guid", trackable.getGuid());
-                values.put("title", trackable.getName());
-                values.put("owner", trackable.getOwner());
-                final Date releasedDate = trackable.getReleased();
-                if (releasedDate != null) {
-                    values.put("released", releasedDate.getTime());
+                if (StringUtils.isNotBlank(trackable.getGeocode())) {
+                    byCode.put(trackable.getGeocode(), trackable);
                 } else {
-                    values.put("released", 0L);
+                    withoutCode.add(trackable);
                 }
-                values.put("goal", trackable.getGoal());
-                values.put("description", trackable.getDetails());
+            }
+        }
+
+        if (geocode != null) {
+            // remove the trackables which have left the cache
+            final StringBuilder where = new StringBuilder("geocode = ?");
+            if (!byCode.isEmpty()) {
+                where.append(" and tbcode not in (");
+                appendEscapedList(where, byCode.keySet());
+                where.append(')');
+            }
+            database.delete(dbTableTrackables, where.toString(), new String[] { geocode });
+        }
+
+        final long timeStamp = System.currentTimeMillis();
+        final SQLiteStatement insertTrackable = PreparedStatement.INSERT_TRACKABLE.getStatement();
+        for (final Trackable trackable : withoutCode) {
+            bindTrackable(insertTrackable, timeStamp, trackableValues(trackable, geocode));
+            insertTrackable.executeInsert();
+        }
+        if (byCode.isEmpty()) {
+            return;
+        }
 
-                database.insert(dbTableTrackables, null, values);
+        final Map<String, String[]> storedTrackables = loadStoredTrackables(byCode.keySet());
+        final SQLiteStatement updateTrackable = PreparedStatement.UPDATE_TRACKABLE.getStatement();
+        for (final Trackable trackable : byCode.values()) {
+            final String tbCode = trackable.getGeocode();
+            final String[] stored = storedTrackables.get(tbCode);
+            final String[] values = trackableValues(trackable, geocode != null || stored == null ? geocode : stored[1]);
+            if (stored == null) {
+                bindTrackable(insertTrackable, timeStamp, values);
+                insertTrackable.executeInsert();
+            } else if (!Arrays.equals(values, stored)) {
+                bindTrackable(updateTrackable, timeStamp, values);
+                updateTrackable.execute();
+            }
 
+            if (geocode == null || !trackable.getLogs().isEmpty()) {
                 saveLogsWithoutTransaction(tbCode, trackable.getLogs());
             }
         }
     }
 
+    /**
+     * @return the values of the trackable as they are stored, in the order of {@link #TRACKABLE_COLUMNS}
+     */
+    @NonNull
+    private static String[] trackableValues(@NonNull final Trackable trackable, @Nullable final String geocode) {
+        final Date releasedDate = trackable.getReleased();
+        return new String[] {
+                trackable.getGeocode(),
+                geocode,
+                trackable.getGuid(),
+                trackable.getName(),
+                trackable.getOwner(),
+                String.valueOf(releasedDate != null ? releasedDate.getTime() : 0L),
+                trackable.getGoal(),
+                trackable.getDetails()
+        };
+    }
+
+    /**
+     * Bind the update time and the values of {@link #trackableValues} to {@link PreparedStatement#INSERT_TRACKABLE} or
+     * {@link PreparedStatement#UPDATE_TRACKABLE}, which share the order of their parameters.
+     */
+    private static void bindTrackable(@NonNull final SQLiteStatement statement, final long timeStamp, @NonNull final String[] values) {
+        statement.bindLong(1, timeStamp);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                statement.bindNull(i + 2);
+            } else {
+                statement.bindString(i + 2, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Load the stored trackables with the given codes, with the values of {@link #TRACKABLE_COLUMNS} as text.
+     */
+    @NonNull
+    private static Map<String, String[]> loadStoredTrackables(@NonNull final Collection<String> tbCodes) {
+        final StringBuilder where = new StringBuilder("tbcode in (");
+        appendEscapedList(where, tbCodes);
+        where.append(')');
+        final Map<String, String[]> stored = new HashMap<>();
+        final Cursor cursor = database.query(dbTableTrackables, TRACKABLE_COLUMNS, where.toString(), null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                final String[] values = new String[TRACKABLE_COLUMNS.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = cursor.getString(i);
+                }
+                stored.put(values[0], values);
+            }
+        } finally {
+            cursor.close();
+        }
+        return stored;
+    }
+
+    private static void appendEscapedList(@NonNull final StringBuilder builder, @NonNull final Collection<String> values) {
+        boolean first = true;
+        for (final String value : values) {
+            if (!first) {
+                builder.append(',');
+            }
+            DatabaseUtils.appendEscapedSQLString(builder, value);
+            first = false;
+        }
+    }
+
     @Nullable
     public static Viewport getBounds(final Set<String> geocodes) {
         if (CollectionUtils.isEmpty(geocodes)) {
@@ -1668,6 +2774,7 @@ public class DataStore {
                     remaining.remove(cache.getGeocode());
                 }
             }
+            CACHE_CACHE_HITS.add(result.size());
         }
 
         if (loadFlags.contains(LoadFlag.DB_MINIMAL) ||
@@ -1728,6 +2835,7 @@ public class DataStore {
         query.append(" WHERE ").append(dbTableCaches).append('.');
         query.append(whereGeocodeIn(geocodes));
 
+        final long start = LOAD_CACHES_TIMER.start();
         final Cursor cursor = database.rawQuery(query.toString(), null);
         try {
             final Set<Geocache> caches = new HashSet<>();
@@ -1780,9 +2888,11 @@ public class DataStore {
 
                 caches.add(cache);
             }
+            LOAD_CACHES_COUNT.record(caches.size());
             return caches;
         } finally {
             cursor.close();
+            LOAD_CACHES_TIMER.stop(start);
         }
     }
 
@@ -2052,7 +3162,7 @@ public class DataStore {
                         .setAuthor(cursor.getString(2))
                         .setDate(cursor.getLong(4))
                         .setLogType(LogType.getById(cursor.getInt(1)))
-                        .setLog(cursor.getString(3))
+                        .setLog(StringUtils.defaultString(TextCodec.decode(cursor.getBlob(3))))
                         .setId(cursor.getInt(0))
                         .setFound(cursor.getInt(5))
                         .setFriend(cursor.getInt(6) == 1);
@@ -2203,8 +3313,8 @@ public class DataStore {
                     compiledStmnt.bindLong(1, list);
                 } else {
                     compiledStmnt = PreparedStatement.COUNT_TYPE_LIST.getStatement();
-                    compiledStmnt.bindString(1, cacheType.id);
                     compiledStmnt.bindLong(1, list);
+                    compiledStmnt.bindString(2, cacheType.id);
                 }
 
                 return (int) compiledStmnt.simpleQueryForLong();
@@ -2238,8 +3348,13 @@ public class DataStore {
                                                                      final U result,
                                                                      final Func1<? super Cursor, ? extends T> func) {
         init();
-        final Cursor cursor = database.query(table, columns, selection, selectionArgs, null, null, orderBy, limit);
-        return cursorToColl(cursor, result, func);
+        final long start = QUERY_TIMER.start();
+        try {
+            final Cursor cursor = database.query(table, columns, selection, selectionArgs, null, null, orderBy, limit);
+            return cursorToColl(cursor, result, func);
+        } finally {
+            QUERY_TIMER.stop(start);
+        }
     }
 
     private static <T, U extends Collection<? super T>> U cursorToColl(final Cursor cursor, final U result, final Func1<? super Cursor, ? extends T> func) {
@@ -2359,6 +3474,20 @@ public class DataStore {
      */
     @NonNull
     private static SearchResult loadInViewport(final boolean stored, final Viewport viewport, final CacheType cacheType) {
+        final long start = VIEWPORT_TIMER.start();
+        try {
+            return new SearchResult(queryInViewport(stored, viewport, cacheType));
+        } catch (final Exception e) {
+            Log.e("DataStore.loadInViewport", e);
+        } finally {
+            VIEWPORT_TIMER.stop(start);
+        }
+
+        return new SearchResult();
+    }
+
+    @NonNull
+    private static Set<String> queryInViewport(final boolean stored, final Viewport viewport, final CacheType cacheType) {
         final Set<String> geocodes = new HashSet<>();
 
         // if not stored only, get codes from CacheCache as well
@@ -2381,20 +3510,14 @@ public class DataStore {
             selection.append(" and geocode in (select geocode from " + dbTableCachesLists + " where list_id >= " + StoredList.STANDARD_LIST_ID + ")");
         }
 
-        try {
-            return new SearchResult(queryToColl(dbTableCaches,
-                    new String[]{"geocode"},
-                    selection.toString(),
-                    selectionArgs,
-                    null,
-                    "500",
-                    geocodes,
-                    GET_STRING_0));
-        } catch (final Exception e) {
-            Log.e("DataStore.loadInViewport", e);
-        }
-
-        return new SearchResult();
+        return queryToColl(dbTableCaches,
+                new String[]{"geocode"},
+                selection.toString(),
+                selectionArgs,
+                null,
+                "500",
+                geocodes,
+                GET_STRING_0);
     }
 
     /**
@@ -2407,79 +3530,125 @@ public class DataStore {
         }
         databaseCleaned = true;
 
-        Schedulers.io().createWorker().schedule(new Action0() {
-            @Override
-            public void call() {
-                Log.d("Database clean: started");
-                try {
-                    final int version = Version.getVersionCode(context);
-                    final Set<String> geocodes = new HashSet<>();
-                    if (version != Settings.getVersion()) {
-                        queryToColl(dbTableCaches,
-                                new String[]{"geocode"},
-                                "geocode NOT IN (SELECT distinct (geocode) FROM " + dbTableCachesLists + ")",
-                                null,
-                                null,
-                                null,
-                                geocodes,
-                                GET_STRING_0);
+        final Scheduler.Worker worker = Schedulers.io().createWorker();
+        worker.schedule(new DatabaseCleanup(context, worker));
+    }
+
+    /**
+     * Removal of the caches which are not on any list anymore and of obsolete records, started once per process.
+     *
+     * The tables are examined in windows of {@link #CLEANUP_WINDOW} row ids with indexed {@code NOT EXISTS} subqueries,
+     * so that every statement only touches a bounded number of rows. A step processes windows for at most
+     * {@link #CLEANUP_STEP_MS} milliseconds, then the cleanup pauses to let the foreground use the database.
+     */
+    private static final class DatabaseCleanup implements Action0 {
+
+        /** Number of row ids examined by one cleanup statement. */
+        private static final int CLEANUP_WINDOW = 500;
+        /** Time spent in a step before pausing. */
+        private static final long CLEANUP_STEP_MS = 10;
+        /** Pause between two steps. */
+        private static final long CLEANUP_PAUSE_MS = 100;
+
+        @NonNull private final Context context;
+        @NonNull private final Scheduler.Worker worker;
+        private boolean started = false;
+        private int version;
+        /** Caches not updated since this time are removed, or all unlisted caches if 0. */
+        private long olderThan;
+        private long nextCacheId;
+        private long maxCacheId;
+        private long nextLogImageId;
+        private long maxLogImageId;
+        private int removedCaches = 0;
+
+        DatabaseCleanup(@NonNull final Context context, @NonNull final Scheduler.Worker worker) {
+            this.context = context;
+            this.worker = worker;
+        }
+
+        @Override
+        public void call() {
+            try {
+                if (!started) {
+                    start();
+                }
+                final long stepEnd = System.currentTimeMillis() + CLEANUP_STEP_MS;
+                do {
+                    if (nextCacheId <= maxCacheId) {
+                        removeUnlistedCaches(nextCacheId, nextCacheId + CLEANUP_WINDOW);
+                        nextCacheId += CLEANUP_WINDOW;
+                    } else if (nextLogImageId <= maxLogImageId) {
+                        // This cleanup needs to be kept in place for about one year so that older log images records are
+                        // cleaned. TO BE REMOVED AFTER 2015-03-24.
+                        database.delete(dbTableLogImages, "_id >= ? AND _id < ? AND NOT EXISTS (SELECT 1 FROM " + dbTableLogs + " l WHERE l._id = " + dbTableLogImages + ".log_id)",
+                                new String[] { String.valueOf(nextLogImageId), String.valueOf(nextLogImageId + CLEANUP_WINDOW) });
+                        nextLogImageId += CLEANUP_WINDOW;
                     } else {
-                        final long timestamp = System.currentTimeMillis() - DAYS_AFTER_CACHE_IS_DELETED;
-                        final String timestampString = Long.toString(timestamp);
-                        queryToColl(dbTableCaches,
-                                new String[]{"geocode"},
-                                "detailed < ? and detailedupdate < ? and visiteddate < ? and geocode NOT IN (SELECT distinct (geocode) FROM " + dbTableCachesLists + ")",
-                                new String[]{timestampString, timestampString, timestampString},
-                                null,
-                                null,
-                                geocodes,
-                                GET_STRING_0);
+                        finish();
+                        return;
                     }
+                } while (System.currentTimeMillis() < stepEnd);
+                worker.schedule(this, CLEANUP_PAUSE_MS, TimeUnit.MILLISECONDS);
+            } catch (final Exception e) {
+                Log.w("DataStore.clean", e);
+                worker.unsubscribe();
+            }
+        }
 
-                    final Set<String> withoutOfflineLogs = exceptCachesWithOfflineLog(geocodes);
-                    Log.d("Database clean: removing " + withoutOfflineLogs.size() + " geocaches");
-                    removeCaches(withoutOfflineLogs, LoadFlags.REMOVE_ALL);
+        private void start() {
+            Log.d("Database clean: started");
+            started = true;
+            init();
+            version = Version.getVersionCode(context);
+            olderThan = version != Settings.getVersion() ? 0 : System.currentTimeMillis() - DAYS_AFTER_CACHE_IS_DELETED;
+            nextCacheId = 0;
+            maxCacheId = DatabaseUtils.longForQuery(database, "SELECT ifnull(max(_id), 0) FROM " + dbTableCaches, null);
+            nextLogImageId = 0;
+            maxLogImageId = DatabaseUtils.longForQuery(database, "SELECT ifnull(max(_id), 0) FROM " + dbTableLogImages, null);
+        }
 
-                    // This cleanup needs to be kept in place for about one year so that older log images records are
-                    // cleaned. TO BE REMOVED AFTER 2015-03-24.
-                    Log.d("Database clean: removing obsolete log images records");
-                    database.delete(dbTableLogImages, "log_id NOT IN (SELECT _id FROM " + dbTableLogs + ")", null);
+        /**
+         * Remove the caches of the given row id range which are neither on a list nor have an offline log.
+         */
+        private void removeUnlistedCaches(final long fromId, final long toId) {
+            final StringBuilder selection = new StringBuilder("_id >= ? AND _id < ?");
+            final List<String> selectionArgs = new ArrayList<>();
+            selectionArgs.add(String.valueOf(fromId));
+            selectionArgs.add(String.valueOf(toId));
+            if (olderThan > 0) {
+                selection.append(" AND detailed < ? AND detailedupdate < ? AND visiteddate < ?");
+                final String timestampString = String.valueOf(olderThan);
+                Collections.addAll(selectionArgs, timestampString, timestampString, timestampString);
+            }
+            selection.append(" AND NOT EXISTS (SELECT 1 FROM ").append(dbTableCachesLists).append(" l WHERE l.geocode = ").append(dbTableCaches).append(".geocode)");
+            selection.append(" AND NOT EXISTS (SELECT 1 FROM ").append(dbTableLogsOffline).append(" o WHERE o.geocode = ").append(dbTableCaches).append(".geocode)");
+            final Set<String> geocodes = queryToColl(dbTableCaches,
+                    new String[] { "geocode" },
+                    selection.toString(),
+                    selectionArgs.toArray(new String[selectionArgs.size()]),
+                    null,
+                    null,
+                    new HashSet<String>(),
+                    GET_STRING_0);
+            if (!geocodes.isEmpty()) {
+                removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+                removedCaches += geocodes.size();
+            }
+        }
 
-                    // Remove the obsolete "_others" directory where the user avatar used to be stored.
-                    FileUtils.deleteDirectory(LocalStorage.getStorageDir("_others"));
+        private void finish() {
+            Log.d("Database clean: removed " + removedCaches + " geocaches");
 
-                    if (version > -1) {
-                        Settings.setVersion(version);
-                    }
-                } catch (final Exception e) {
-                    Log.w("DataStore.clean", e);
-                }
+            // Remove the obsolete "_others" directory where the user avatar used to be stored.
+            FileUtils.deleteDirectory(LocalStorage.getStorageDir("_others"));
 
-                Log.d("Database clean: finished");
+            if (version > -1) {
+                Settings.setVersion(version);
             }
-        });
-    }
-
-    /**
-     * remove all geocodes from the given list of geocodes where an offline log exists
-     *
-     */
-    @NonNull
-    private static Set<String> exceptCachesWithOfflineLog(@NonNull final Set<String> geocodes) {
-        if (geocodes.isEmpty()) {
-            return geocodes;
+            Log.d("Database clean: finished");
+            worker.unsubscribe();
         }
-
-        final List<String> geocodesWithOfflineLog = queryToColl(dbTableLogsOffline,
-                new String[] { "geocode" },
-                null,
-                null,
-                null,
-                null,
-                new LinkedList<String>(),
-                GET_STRING_0);
-        geocodes.removeAll(geocodesWithOfflineLog);
-        return geocodes;
     }
 
     public static void removeAllFromCache() {
@@ -2533,16 +3702,187 @@ public class DataStore {
                 }
                 database.delete(dbTableWaypoints, wayPointClause, null);
                 database.delete(dbTableTrackables, baseWhereClause, null);
+                // Delete cache directories and the images not used by other caches in the background
+                enqueueCleanup(database, StorageJanitor.TYPE_CACHE_DIRECTORY, geocodes);
+                enqueueCleanup(database, StorageJanitor.TYPE_IMAGE_BLOB, removeImageReferencesWithoutTransaction(baseWhereClause, null));
                 database.setTransactionSuccessful();
             } finally {
                 database.endTransaction();
             }
+            StorageJanitor.schedule();
+            notifyListCountsChanged();
+        }
+    }
 
-            // Delete cache directories
-            for (final String geocode : geocodes) {
-                FileUtils.deleteDirectory(LocalStorage.getStorageDir(geocode));
+    /**
+     * Load the index entry of a file in the {@link ImageStore}.
+     *
+     * @param hash
+     *            the hash of the url or name of the file
+     * @return the entry, or {@code null} if the file is not stored
+     */
+    @Nullable
+    static ImageStore.IndexEntry loadImageEntry(@NonNull final String hash) {
+        init();
+
+        final Cursor cursor = database.query(dbTableImages, new String[] { "blob", "etag", "lastmodified", "fetched" }, "hash = ?", new String[] { hash }, null, null, null, "1");
+        try {
+            if (cursor.moveToFirst()) {
+                return new ImageStore.IndexEntry(cursor.getString(0), cursor.getString(1), cursor.getString(2), cursor.getLong(3));
+            }
+            return null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Add a reference from a geocode to a file in the {@link ImageStore}, if it does not exist yet. Existing references
+     * are only read, so that reading stored files does not write to the database.
+     */
+    static void ensureImageReference(@NonNull final String geocode, @NonNull final String hash) {
+        init();
+
+        final SQLiteStatement statement = PreparedStatement.COUNT_IMAGE_REFERENCE.getStatement();
+        synchronized (statement) {
+            statement.bindString(1, geocode);
+            statement.bindString(2, hash);
+            if (statement.simpleQueryForLong() > 0) {
+                return;
             }
         }
+        addImageReference(geocode, hash);
+    }
+
+    /**
+     * Add a reference from a geocode to a file in the {@link ImageStore}. Nothing happens if the reference exists
+     * already.
+     */
+    private static void addImageReference(@NonNull final String geocode, @NonNull final String hash) {
+        init();
+
+        final SQLiteStatement statement = PreparedStatement.ADD_IMAGE_REFERENCE.getStatement();
+        synchronized (statement) {
+            statement.bindString(1, geocode);
+            statement.bindString(2, hash);
+            statement.executeInsert();
+        }
+    }
+
+    /**
+     * Store the index entry of a file in the {@link ImageStore} and reference it from a geocode.
+     *
+     * @return the blob formerly stored under this hash, if it is not used anymore and can be deleted
+     */
+    @Nullable
+    static String saveImageEntry(@NonNull final String geocode, @NonNull final String hash, @NonNull final ImageStore.IndexEntry entry) {
+        init();
+
+        database.beginTransaction();
+        try {
+            final ImageStore.IndexEntry previous = loadImageEntry(hash);
+            final ContentValues values = new ContentValues();
+            values.put("hash", hash);
+            values.put("blob", entry.blob);
+            values.put("etag", entry.etag);
+            values.put("lastmodified", entry.lastModified);
+            values.put("fetched", entry.fetched);
+            database.replace(dbTableImages, null, values);
+            addImageReference(geocode, hash);
+            final String unusedBlob = previous != null && !previous.blob.equals(entry.blob) && !isImageBlobUsed(previous.blob) ? previous.blob : null;
+            database.setTransactionSuccessful();
+            return unusedBlob;
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Mark a file in the {@link ImageStore} as validated with the server right now.
+     */
+    static void touchImageEntry(@NonNull final String hash) {
+        init();
+
+        final SQLiteStatement statement = PreparedStatement.TOUCH_IMAGE.getStatement();
+        synchronized (statement) {
+            statement.bindLong(1, System.currentTimeMillis());
+            statement.bindString(2, hash);
+            statement.execute();
+        }
+    }
+
+    /**
+     * Remove the reference of a geocode to a file in the {@link ImageStore}.
+     *
+     * @return the blobs which are not used anymore and can be deleted
+     */
+    @NonNull
+    static Set<String> removeImageReference(@NonNull final String geocode, @NonNull final String hash) {
+        init();
+
+        database.beginTransaction();
+        try {
+            final Set<String> unusedBlobs = removeImageReferencesWithoutTransaction("geocode = ? AND hash = ?", new String[] { geocode, hash });
+            database.setTransactionSuccessful();
+            return unusedBlobs;
+        } finally {
+            database.endTransaction();
+        }
+    }
+
+    /**
+     * Remove image references, and the index entries no longer referenced by any geocode.
+     *
+     * @param whereClause
+     *            the selection of the references to remove
+     * @return the blobs which are not used by any index entry anymore
+     */
+    @NonNull
+    private static Set<String> removeImageReferencesWithoutTransaction(@NonNull final String whereClause, @Nullable final String[] whereArgs) {
+        final Set<String> hashes = new HashSet<>();
+        final Cursor cursor = database.query(true, dbTableImageRefs, new String[] { "hash" }, whereClause, whereArgs, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                hashes.add(cursor.getString(0));
+            }
+        } finally {
+            cursor.close();
+        }
+        if (hashes.isEmpty()) {
+            return Collections.emptySet();
+        }
+        database.delete(dbTableImageRefs, whereClause, whereArgs);
+
+        final Set<String> unusedBlobs = new HashSet<>();
+        final SQLiteStatement countReferences = PreparedStatement.COUNT_IMAGE_REFERENCES.getStatement();
+        for (final String hash : hashes) {
+            final long references;
+            synchronized (countReferences) {
+                countReferences.bindString(1, hash);
+                references = countReferences.simpleQueryForLong();
+            }
+            if (references == 0) {
+                final ImageStore.IndexEntry entry = loadImageEntry(hash);
+                if (entry != null) {
+                    database.delete(dbTableImages, "hash = ?", new String[] { hash });
+                    unusedBlobs.add(entry.blob);
+                }
+            }
+        }
+        for (final Iterator<String> it = unusedBlobs.iterator(); it.hasNext();) {
+            if (isImageBlobUsed(it.next())) {
+                it.remove();
+            }
+        }
+        return unusedBlobs;
+    }
+
+    static boolean isImageBlobUsed(@NonNull final String blob) {
+        final SQLiteStatement countUses = PreparedStatement.COUNT_IMAGE_BLOB_USES.getStatement();
+        synchronized (countUses) {
+            countUses.bindString(1, blob);
+            return countUses.simpleQueryForLong() > 0;
+        }
     }
 
     public static boolean saveLogOffline(final String geocode, final Date date, final LogType type, final String log) {
@@ -2606,6 +3946,55 @@ public class DataStore {
         return log;
     }
 
+    /**
+     * Load the latest offline log of each of the given caches with a single query.
+     *
+     * @param geocodes
+     *            the geocodes of the caches
+     * @param minDate
+     *            only load logs dated after this time (in milliseconds since the epoch), or {@link Long#MIN_VALUE} to
+     *            load all logs
+     * @return the offline logs by geocode, caches without (recent enough) offline log are missing
+     */
+    @NonNull
+    public static Map<String, LogEntry> loadLogsOffline(@NonNull final Collection<String> geocodes, final long minDate) {
+        final Map<String, LogEntry> logs = new HashMap<>();
+        if (geocodes.isEmpty()) {
+            return logs;
+        }
+
+        init();
+
+        final Cursor cursor = database.query(
+                dbTableLogsOffline,
+                new String[]{"_id", "type", "log", "date", "geocode"},
+                whereGeocodeIn(geocodes).toString(),
+                null,
+                null,
+                null,
+                "_id");
+        try {
+            // ordered by id, so later logs of the same cache replace former ones like in loadLogOffline()
+            while (cursor.moveToNext()) {
+                logs.put(cursor.getString(4), new LogEntry.Builder()
+                        .setDate(cursor.getLong(3))
+                        .setLogType(LogType.getById(cursor.getInt(1)))
+                        .setLog(cursor.getString(2))
+                        .setId(cursor.getInt(0))
+                        .build());
+            }
+        } finally {
+            cursor.close();
+        }
+        // filter after grouping, as only the latest log of each cache counts
+        for (final Iterator<LogEntry> it = logs.values().iterator(); it.hasNext();) {
+            if (it.next().date <= minDate) {
+                it.remove();
+            }
+        }
+        return logs;
+    }
+
     public static void clearLogOffline(final String geocode) {
         if (StringUtils.isBlank(geocode)) {
             return;
@@ -2679,10 +4068,9 @@ public class DataStore {
         lists.add(new StoredList(StoredList.STANDARD_LIST_ID, res.getString(R.string.list_inbox), (int) PreparedStatement.COUNT_CACHES_ON_STANDARD_LIST.simpleQueryForLong()));
 
         try {
-            final String query = "SELECT l._id as _id, l.title as title, COUNT(c.geocode) as count" +
-                    " FROM " + dbTableLists + " l LEFT OUTER JOIN " + dbTableCachesLists + " c" +
-                    " ON l._id + " + customListIdOffset + " = c.list_id" +
-                    " GROUP BY l._id" +
+            final String query = "SELECT l._id as _id, l.title as title, ifnull(c.count, 0) as count" +
+                    " FROM " + dbTableLists + " l LEFT OUTER JOIN " + dbTableListCounts + " c" +
+                    " ON l._id + " + customListIdOffset + " = c.list_id AND c.type = '" + LIST_COUNT_ALL_TYPES + "'" +
                     " ORDER BY l.title COLLATE NOCASE ASC";
 
             lists.addAll(getListsFromCursor(database.rawQuery(query, null)));
@@ -2710,14 +4098,10 @@ public class DataStore {
     public static StoredList getList(final int id) {
         init();
         if (id >= customListIdOffset) {
-            final Cursor cursor = database.query(
-                    dbTableLists,
-                    new String[]{"_id", "title"},
-                    "_id = ? ",
-                    new String[] { String.valueOf(id - customListIdOffset) },
-                    null,
-                    null,
-                    null);
+            final Cursor cursor = database.rawQuery("SELECT l._id as _id, l.title as title, ifnull(c.count, 0) as count" +
+                    " FROM " + dbTableLists + " l LEFT OUTER JOIN " + dbTableListCounts + " c" +
+                    " ON l._id + " + customListIdOffset + " = c.list_id AND c.type = '" + LIST_COUNT_ALL_TYPES + "'" +
+                    " WHERE l._id = ?", new String[] { String.valueOf(id - customListIdOffset) });
             final List<StoredList> lists = getListsFromCursor(cursor);
             if (!lists.isEmpty()) {
                 return lists.get(0);
@@ -2746,6 +4130,21 @@ public class DataStore {
         return allCachesCountObservable;
     }
 
+    /**
+     * Notifications emitted after the number of caches on a list may have changed. The counts are maintained by the
+     * database, so that subscribers can read them again using {@link #getLists()} without counting the caches.
+     *
+     * @return an observable which emits {@code null} after each change, on the thread which changed the lists
+     */
+    @NonNull
+    public static Observable<Void> getListCountsChangedObservable() {
+        return listCountsChanged.asObservable();
+    }
+
+    private static void notifyListCountsChanged() {
+        listCountsChanged.onNext(null);
+    }
+
     /**
      * Create a new list
      *
@@ -2772,6 +4171,7 @@ public class DataStore {
         } finally {
             database.endTransaction();
         }
+        notifyListCountsChanged();
 
         return id >= 0 ? id + customListIdOffset : -1;
     }
@@ -2840,6 +4240,7 @@ public class DataStore {
         } finally {
             database.endTransaction();
         }
+        notifyListCountsChanged();
 
         return status;
     }
@@ -2855,48 +4256,47 @@ public class DataStore {
         if (!list.isConcrete()) {
             return;
         }
+        if (oldListId == newListId) {
+            return;
+        }
         init();
 
-        final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_LIST.getStatement();
-        final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                remove.bindLong(1, oldListId);
-                remove.bindString(2, cache.getGeocode());
-                remove.execute();
-
-                add.bindLong(1, newListId);
-                add.bindString(2, cache.getGeocode());
-                add.execute();
-
-                cache.getLists().remove(oldListId);
-                cache.getLists().add(newListId);
+            for (final String geocodes : partitionGeocodes(caches)) {
+                removeFromListWithoutTransaction(geocodes, oldListId);
+                addToListWithoutTransaction(geocodes, newListId);
             }
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        for (final Geocache cache : caches) {
+            cache.getLists().remove(oldListId);
+            cache.getLists().add(newListId);
+        }
+        notifyListCountsChanged();
     }
 
     public static void removeFromList(final Collection<Geocache> caches, final int oldListId) {
+        if (caches.isEmpty()) {
+            return;
+        }
         init();
 
-        final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_LIST.getStatement();
-
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                remove.bindLong(1, oldListId);
-                remove.bindString(2, cache.getGeocode());
-                remove.execute();
-                cache.getLists().remove(oldListId);
+            for (final String geocodes : partitionGeocodes(caches)) {
+                removeFromListWithoutTransaction(geocodes, oldListId);
             }
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        for (final Geocache cache : caches) {
+            cache.getLists().remove(oldListId);
+        }
+        notifyListCountsChanged();
     }
 
     public static void addToList(final Collection<Geocache> caches, final int listId) {
@@ -2912,21 +4312,103 @@ public class DataStore {
         }
         init();
 
-        final SQLiteStatement add = PreparedStatement.ADD_TO_LIST.getStatement();
-
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                add.bindLong(1, listId);
-                add.bindString(2, cache.getGeocode());
-                add.execute();
+            for (final String geocodes : partitionGeocodes(caches)) {
+                addToListWithoutTransaction(geocodes, listId);
+            }
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        for (final Geocache cache : caches) {
+            cache.getLists().add(listId);
+        }
+        notifyListCountsChanged();
+    }
 
-                cache.getLists().add(listId);
+    /**
+     * Check whether the given caches are exactly the caches on a list, detailed or not, so that the list can be moved
+     * or copied as a whole.
+     */
+    public static boolean isWholeList(final Collection<Geocache> caches, final int listId) {
+        final Set<String> geocodes = Geocache.getGeocodes(caches);
+        if (geocodes.isEmpty()) {
+            return false;
+        }
+        init();
+
+        final String[] listArgs = { String.valueOf(listId) };
+        if (DatabaseUtils.longForQuery(database, "SELECT COUNT(*) FROM " + dbTableCachesLists + " WHERE list_id = ?", listArgs) != geocodes.size()) {
+            return false;
+        }
+        long onList = 0;
+        for (final String whereGeocodes : partitionGeocodes(caches)) {
+            onList += DatabaseUtils.longForQuery(database, "SELECT COUNT(*) FROM " + dbTableCachesLists + " WHERE list_id = ? AND " + whereGeocodes, listArgs);
+        }
+        return onList == geocodes.size();
+    }
+
+    /**
+     * Move all caches of a list to another list, without loading them.
+     */
+    public static void moveAllToList(final int oldListId, final int newListId) {
+        changeAllLists(oldListId, newListId, true);
+    }
+
+    /**
+     * Add all caches of a list to another list as well, without loading them.
+     */
+    public static void copyAllToList(final int sourceListId, final int targetListId) {
+        changeAllLists(sourceListId, targetListId, false);
+    }
+
+    private static void changeAllLists(final int sourceListId, final int targetListId, final boolean removeFromSource) {
+        final AbstractList list = AbstractList.getListById(targetListId);
+        if (list == null || !list.isConcrete() || sourceListId == targetListId) {
+            return;
+        }
+        init();
+
+        database.beginTransaction();
+        try {
+            database.execSQL("INSERT OR IGNORE INTO " + dbTableCachesLists + " (list_id, geocode) SELECT ?, geocode FROM " + dbTableCachesLists + " WHERE list_id = ?",
+                    new Object[] { targetListId, sourceListId });
+            if (removeFromSource) {
+                database.execSQL("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ?", new Object[] { sourceListId });
             }
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        cacheCache.changeLists(sourceListId, targetListId, removeFromSource);
+        notifyListCountsChanged();
+    }
+
+    /**
+     * Split the geocodes of the given caches into {@code geocode in (...)} clauses of at most
+     * {@link #LIST_MEMBERSHIP_BATCH_SIZE} geocodes, so that list memberships are changed with one statement per batch
+     * instead of one per cache.
+     */
+    @NonNull
+    private static List<String> partitionGeocodes(final Collection<Geocache> caches) {
+        final List<String> clauses = new ArrayList<>();
+        for (final List<String> geocodes : ListUtils.partition(new ArrayList<>(Geocache.getGeocodes(caches)), LIST_MEMBERSHIP_BATCH_SIZE)) {
+            clauses.add(whereGeocodeIn(geocodes).toString());
+        }
+        return clauses;
+    }
+
+    /**
+     * Add the stored caches matching the geocode clause to a list. Caches already on the list are left unchanged.
+     */
+    private static void addToListWithoutTransaction(final String whereGeocodes, final int listId) {
+        database.execSQL("INSERT OR IGNORE INTO " + dbTableCachesLists + " (list_id, geocode) SELECT ?, geocode FROM " + dbTableCaches + " WHERE " + whereGeocodes,
+                new Object[] { listId });
+    }
+
+    private static void removeFromListWithoutTransaction(final String whereGeocodes, final int listId) {
+        database.execSQL("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ? AND " + whereGeocodes, new Object[] { listId });
     }
 
     public static boolean isInitialized() {
@@ -2981,8 +4463,8 @@ public class DataStore {
                     "1");
 
             if (cursor.moveToFirst()) {
-                partial.setDescription(StringUtils.defaultString(cursor.getString(0)));
-                partial.setShortDescription(StringUtils.defaultString(cursor.getString(1)));
+                partial.setDescription(StringUtils.defaultString(TextCodec.decode(cursor.getBlob(0))));
+                partial.setShortDescription(StringUtils.defaultString(TextCodec.decode(cursor.getBlob(1))));
                 partial.setHint(StringUtils.defaultString(cursor.getString(2)));
                 partial.setLocation(StringUtils.defaultString(cursor.getString(3)));
             }
@@ -3072,29 +4554,40 @@ public class DataStore {
 
         HISTORY_COUNT("SELECT COUNT(_id) FROM " + dbTableCaches + " WHERE visiteddate > 0"),
         MOVE_TO_STANDARD_LIST("UPDATE " + dbTableCachesLists + " SET list_id = " + StoredList.STANDARD_LIST_ID + " WHERE list_id = ? AND geocode NOT IN (SELECT distinct (geocode) FROM " + dbTableCachesLists + " WHERE list_id = " + StoredList.STANDARD_LIST_ID + ")"),
-        REMOVE_FROM_LIST("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ? AND geocode = ?"),
-        REMOVE_FROM_ALL_LISTS("DELETE FROM " + dbTableCachesLists + " WHERE geocode = ?"),
         REMOVE_ALL_FROM_LIST("DELETE FROM " + dbTableCachesLists + " WHERE list_id = ?"),
         UPDATE_VISIT_DATE("UPDATE " + dbTableCaches + " SET visiteddate = ? WHERE geocode = ?"),
         INSERT_LOG_IMAGE("INSERT INTO " + dbTableLogImages + " (log_id, title, url, description) VALUES (?, ?, ?, ?)"),
+        DELETE_LOG_IMAGES("DELETE FROM " + dbTableLogImages + " WHERE log_id = ?"),
         INSERT_LOG_COUNTS("INSERT INTO " + dbTableLogCount + " (geocode, updated, type, count) VALUES (?, ?, ?, ?)"),
         INSERT_SPOILER("INSERT INTO " + dbTableSpoilers + " (geocode, updated, url, title, description) VALUES (?, ?, ?, ?, ?)"),
         LOG_COUNT_OF_GEOCODE("SELECT count(_id) FROM " + dbTableLogsOffline + " WHERE geocode = ?"),
-        COUNT_CACHES_ON_STANDARD_LIST("SELECT count(geocode) FROM " + dbTableCachesLists + " WHERE list_id = " + StoredList.STANDARD_LIST_ID),
-        COUNT_ALL_CACHES("SELECT count(distinct(geocode)) FROM " + dbTableCachesLists + " WHERE list_id >= " + StoredList.STANDARD_LIST_ID),
+        COUNT_CACHES_ON_STANDARD_LIST("SELECT ifnull(max(count), 0) FROM " + dbTableListCounts + " WHERE list_id = " + StoredList.STANDARD_LIST_ID + " AND type = '" + LIST_COUNT_ALL_TYPES + "'"),
+        COUNT_ALL_CACHES("SELECT ifnull(max(count), 0) FROM " + dbTableListCounts + " WHERE list_id = " + LIST_COUNT_ALL_LISTS + " AND type = '" + LIST_COUNT_ALL_TYPES + "'"),
+        INSERT_TRACKABLE("INSERT INTO " + dbTableTrackables + " (updated, tbcode, geocode, guid, title, owner, released, goal, description) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        UPDATE_TRACKABLE("UPDATE " + dbTableTrackables + " SET updated = ?1, geocode = ?3, guid = ?4, title = ?5, owner = ?6, released = ?7, goal = ?8, description = ?9 WHERE tbcode = ?2"),
+        INSERT_WAYPOINT("INSERT INTO " + dbTableWaypoints + " (geocode, updated, type, prefix, lookup, name, latitude, longitude, note, own, visited) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"),
+        UPDATE_WAYPOINT("UPDATE " + dbTableWaypoints + " SET geocode = ?, updated = ?, type = ?, prefix = ?, lookup = ?, name = ?, latitude = ?, longitude = ?, note = ?, own = ?, visited = ? WHERE _id = ?"),
+        DELETE_WAYPOINT("DELETE FROM " + dbTableWaypoints + " WHERE _id = ?"),
         INSERT_LOG("INSERT INTO " + dbTableLogs + " (geocode, updated, type, author, log, date, found, friend) VALUES (?, ?, ?, ?, ?, ?, ?, ?)"),
+        UPDATE_LOG("UPDATE " + dbTableLogs + " SET updated = ?, log = ?, found = ?, friend = ? WHERE _id = ?"),
         INSERT_ATTRIBUTE("INSERT INTO " + dbTableAttributes + " (geocode, updated, attribute) VALUES (?, ?, ?)"),
-        ADD_TO_LIST("INSERT OR REPLACE INTO " + dbTableCachesLists + " (list_id, geocode) VALUES (?, ?)"),
+        // not "OR REPLACE", as the implicit delete would not update the list counters
+        ADD_TO_LIST("INSERT OR IGNORE INTO " + dbTableCachesLists + " (list_id, geocode) VALUES (?, ?)"),
         GEOCODE_OFFLINE("SELECT count(list_id) FROM " + dbTableCachesLists + " WHERE geocode = ? AND list_id != " + StoredList.TEMPORARY_LIST.id),
         GUID_OFFLINE("SELECT count(list_id) FROM " + dbTableCachesLists + " WHERE geocode = (SELECT geocode FROM " + dbTableCaches + " WHERE guid = ?) AND list_id != " + StoredList.TEMPORARY_LIST.id),
         GEOCODE_OF_GUID("SELECT geocode FROM " + dbTableCaches + " WHERE guid = ?"),
         GEOCODE_FROM_TITLE("SELECT geocode FROM " + dbTableCaches + " WHERE title = ?"),
         INSERT_SEARCH_DESTINATION("INSERT INTO " + dbTableSearchDestinationHistory + " (date, latitude, longitude) VALUES (?, ?, ?)"),
-        COUNT_TYPE_ALL_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l  WHERE c.detailed = 1 AND c.type = ? AND c.geocode = l.geocode AND l.list_id > 0"), // See use of COUNT_TYPE_LIST for synchronization
-        COUNT_ALL_TYPES_ALL_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l WHERE c.detailed = 1 AND c.geocode = l.geocode AND l.list_id  > 0"), // See use of COUNT_TYPE_LIST for synchronization
-        COUNT_TYPE_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l WHERE c.detailed = 1 AND c.type = ? AND c.geocode = l.geocode AND l.list_id = ?"),
-        COUNT_ALL_TYPES_LIST("SELECT COUNT(c._id) FROM " + dbTableCaches + " c, " + dbTableCachesLists + " l WHERE c.detailed = 1 AND c.geocode = l.geocode AND l.list_id = ?"), // See use of COUNT_TYPE_LIST for synchronization
-        CHECK_IF_PRESENT("SELECT COUNT(*) FROM " + dbTableCaches + " WHERE geocode = ?");
+        COUNT_TYPE_ALL_LIST("SELECT ifnull(sum(count), 0) FROM " + dbTableListCounts + " WHERE list_id > 0 AND type = ?"), // See use of COUNT_TYPE_LIST for synchronization
+        COUNT_ALL_TYPES_ALL_LIST("SELECT ifnull(sum(count), 0) FROM " + dbTableListCounts + " WHERE list_id > 0 AND type <> '" + LIST_COUNT_ALL_TYPES + "'"), // See use of COUNT_TYPE_LIST for synchronization
+        COUNT_TYPE_LIST("SELECT ifnull(max(count), 0) FROM " + dbTableListCounts + " WHERE list_id = ? AND type = ?"),
+        COUNT_ALL_TYPES_LIST("SELECT ifnull(sum(count), 0) FROM " + dbTableListCounts + " WHERE list_id = ? AND type <> '" + LIST_COUNT_ALL_TYPES + "'"), // See use of COUNT_TYPE_LIST for synchronization
+        CHECK_IF_PRESENT("SELECT COUNT(*) FROM " + dbTableCaches + " WHERE geocode = ?"),
+        ADD_IMAGE_REFERENCE("INSERT OR IGNORE INTO " + dbTableImageRefs + " (geocode, hash) VALUES (?, ?)"),
+        TOUCH_IMAGE("UPDATE " + dbTableImages + " SET fetched = ? WHERE hash = ?"),
+        COUNT_IMAGE_REFERENCES("SELECT COUNT(*) FROM " + dbTableImageRefs + " WHERE hash = ?"),
+        COUNT_IMAGE_REFERENCE("SELECT COUNT(*) FROM " + dbTableImageRefs + " WHERE geocode = ? AND hash = ?"),
+        COUNT_IMAGE_BLOB_USES("SELECT COUNT(*) FROM " + dbTableImages + " WHERE blob = ?");
 
         private static final List<PreparedStatement> statements = new ArrayList<>();
 
@@ -3141,20 +4634,24 @@ public class DataStore {
     }
 
     public static void markDropped(final Collection<Geocache> caches) {
-        final SQLiteStatement remove = PreparedStatement.REMOVE_FROM_ALL_LISTS.getStatement();
+        if (caches.isEmpty()) {
+            return;
+        }
+        init();
 
         database.beginTransaction();
         try {
-            for (final Geocache cache : caches) {
-                remove.bindString(1, cache.getGeocode());
-                remove.execute();
-
-                cache.getLists().clear();
+            for (final String geocodes : partitionGeocodes(caches)) {
+                database.delete(dbTableCachesLists, geocodes, null);
             }
             database.setTransactionSuccessful();
         } finally {
             database.endTransaction();
         }
+        for (final Geocache cache : caches) {
+            cache.getLists().clear();
+        }
+        notifyListCountsChanged();
     }
 
     @Nullable
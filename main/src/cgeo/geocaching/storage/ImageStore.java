@@ -0,0 +1,317 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.network.Parameters;
+import cgeo.geocaching.utils.CryptUtils;
+import cgeo.geocaching.utils.FileUtils;
+import cgeo.geocaching.utils.Log;
+
+import okhttp3.Response;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * Content addressed store for downloaded images and static maps.
+ *
+ * Every file is stored once as blob named after the SHA-1 of its content, below {@link #BLOB_DIRECTORY}. The database
+ * maps the url (or the name) of a file to its blob together with the HTTP validators, and records which geocodes use
+ * it. Images shared by many caches (banners, icons, logos) are therefore stored only once, and a blob is deleted when
+ * the last cache using it is removed.
+ *
+ * Files of the former per-geocode layout are imported when they are looked up for the first time.
+ */
+public final class ImageStore {
+
+    /** Directory of the blobs below the primary storage. Its name cannot be mistaken for a geocode. */
+    static final String BLOB_DIRECTORY = "_blobs";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Index entry of a stored file.
+     */
+    static final class IndexEntry {
+        @NonNull final String blob;
+        @Nullable final String etag;
+        @Nullable final String lastModified;
+        final long fetched;
+
+        IndexEntry(@NonNull final String blob, @Nullable final String etag, @Nullable final String lastModified, final long fetched) {
+            this.blob = blob;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.fetched = fetched;
+        }
+    }
+
+    /**
+     * A file found in the store.
+     */
+    public static final class StoredFile {
+        @NonNull private final File file;
+        private final long fetched;
+
+        StoredFile(@NonNull final File file, final long fetched) {
+            this.file = file;
+            this.fetched = fetched;
+        }
+
+        @NonNull
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return the time the file was last downloaded or validated with the server, in milliseconds since the epoch
+         */
+        public long getFetched() {
+            return fetched;
+        }
+    }
+
+    private ImageStore() {
+        // utility class
+    }
+
+    /**
+     * Look up a stored file and record that it is used by the given geocode. The use is only written to the database
+     * the first time, when the file is stored or imported, or when another geocode starts to use a shared url.
+     *
+     * @param geocode
+     *            the geocode (or pseudo geocode) using the file
+     * @param fileNameOrUrl
+     *            the url of the file, or a file name unique for the geocode
+     * @param isUrl
+     *            {@code true} if an url was given, in which case the file is shared among all geocodes
+     * @return the stored file, or {@code null} if it has not been stored yet
+     */
+    @Nullable
+    public static StoredFile get(@NonNull final String geocode, @NonNull final String fileNameOrUrl, final boolean isUrl) {
+        final String hash = hash(geocode, fileNameOrUrl, isUrl);
+        IndexEntry entry = DataStore.loadImageEntry(hash);
+        if (entry == null) {
+            entry = importLegacyFile(geocode, fileNameOrUrl, isUrl, hash);
+            if (entry == null) {
+                return null;
+            }
+        }
+        final File file = getBlobFile(entry.blob);
+        if (!file.exists()) {
+            // blob lost (e.g. storage cleared), the index entry will be replaced by the next download
+            return null;
+        }
+        // a shared url may have been stored for another geocode, whose removal must not delete the file
+        DataStore.ensureImageReference(geocode, hash);
+        return new StoredFile(file, entry.fetched);
+    }
+
+    /**
+     * Get the file stored for a geocode.
+     *
+     * @see #get(String, String, boolean)
+     * @return the file, or {@code null} if it has not been stored yet
+     */
+    @Nullable
+    public static File getFile(@NonNull final String geocode, @NonNull final String fileNameOrUrl, final boolean isUrl) {
+        final StoredFile stored = get(geocode, fileNameOrUrl, isUrl);
+        return stored != null ? stored.getFile() : null;
+    }
+
+    /**
+     * Get the headers for a conditional request of an already stored url.
+     *
+     * @return the headers, or {@code null} if the url is not stored or no validator is known
+     */
+    @Nullable
+    public static Parameters getConditionalHeaders(@NonNull final String url) {
+        final IndexEntry entry = DataStore.loadImageEntry(hash(null, url, true));
+        if (entry == null || !getBlobFile(entry.blob).exists()) {
+            return null;
+        }
+        // The ETag is a more robust check than a timestamp. If we have an ETag, it is enough
+        // to identify the right version of the resource.
+        if (entry.etag != null) {
+            return new Parameters("If-None-Match", entry.etag);
+        }
+        if (entry.lastModified != null) {
+            return new Parameters("If-Modified-Since", entry.lastModified);
+        }
+        return null;
+    }
+
+    /**
+     * Store the body of an HTTP response, together with its validators.
+     *
+     * @return {@code true} if the body could be stored
+     */
+    public static boolean save(@NonNull final String geocode, @NonNull final String url, @NonNull final Response response) {
+        try {
+            return save(geocode, url, true, response.body().byteStream(), response.header(LocalStorage.HEADER_ETAG), response.header(LocalStorage.HEADER_LAST_MODIFIED));
+        } catch (final Exception e) {
+            Log.e("ImageStore.save", e);
+        }
+        return false;
+    }
+
+    /**
+     * Store the content of a stream. The stream is closed afterwards.
+     *
+     * @return {@code true} if the content could be stored
+     */
+    public static boolean save(@NonNull final String geocode, @NonNull final String fileNameOrUrl, final boolean isUrl, @Nullable final InputStream input) {
+        return save(geocode, fileNameOrUrl, isUrl, input, null, null);
+    }
+
+    private static boolean save(@NonNull final String geocode, @NonNull final String fileNameOrUrl, final boolean isUrl, @Nullable final InputStream input,
+                                @Nullable final String etag, @Nullable final String lastModified) {
+        if (input == null) {
+            return false;
+        }
+        try {
+            final String blob = writeBlob(input);
+            if (blob == null) {
+                return false;
+            }
+            final String unusedBlob = DataStore.saveImageEntry(geocode, hash(geocode, fileNameOrUrl, isUrl), new IndexEntry(blob, etag, lastModified, System.currentTimeMillis()));
+            if (unusedBlob != null) {
+                FileUtils.deleteIgnoringFailure(getBlobFile(unusedBlob));
+            }
+            return true;
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Record that a stored url has been validated with the server (e.g. after a "304 Not Modified" response).
+     */
+    public static void touch(@NonNull final String url) {
+        DataStore.touchImageEntry(hash(null, url, true));
+    }
+
+    /**
+     * Remove the reference of a geocode to a stored file, and delete the file if no other geocode uses it.
+     */
+    public static void remove(@NonNull final String geocode, @NonNull final String fileNameOrUrl, final boolean isUrl) {
+        deleteBlobs(DataStore.removeImageReference(geocode, hash(geocode, fileNameOrUrl, isUrl)));
+        LocalStorage.deleteWithHeaders(LocalStorage.getStorageFile(geocode, fileNameOrUrl, isUrl, false));
+    }
+
+    /**
+     * Delete blobs which are not referenced by the database anymore.
+     */
+    static void deleteBlobs(@NonNull final Collection<String> blobs) {
+        for (final String blob : blobs) {
+            FileUtils.deleteIgnoringFailure(getBlobFile(blob));
+        }
+    }
+
+    @NonNull
+    static File getBlobFile(@NonNull final String blob) {
+        return new File(new File(new File(LocalStorage.getStorage(), BLOB_DIRECTORY), blob.substring(0, 2)), blob);
+    }
+
+    /**
+     * Urls are shared among all geocodes, while file names are only unique for their geocode.
+     */
+    @NonNull
+    private static String hash(@Nullable final String geocode, @NonNull final String fileNameOrUrl, final boolean isUrl) {
+        return CryptUtils.md5(isUrl ? fileNameOrUrl : geocode + '/' + fileNameOrUrl);
+    }
+
+    /**
+     * Write a stream into the blob directory while computing its hash. If the same content is already stored, the new
+     * copy is discarded.
+     *
+     * @return the name of the blob, or {@code null} if the stream could not be stored
+     */
+    @Nullable
+    private static String writeBlob(@NonNull final InputStream input) {
+        final File blobDirectory = new File(LocalStorage.getStorage(), BLOB_DIRECTORY);
+        FileUtils.mkdirs(blobDirectory);
+        File tempFile = null;
+        try {
+            tempFile = File.createTempFile("download", null, blobDirectory);
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            final OutputStream output = new DigestOutputStream(new FileOutputStream(tempFile), digest);
+            final boolean written;
+            try {
+                written = LocalStorage.copy(input, output);
+                output.close();
+            } finally {
+                IOUtils.closeQuietly(output);
+            }
+            if (!written) {
+                return null;
+            }
+            final String blob = toHex(digest.digest());
+            final File blobFile = getBlobFile(blob);
+            if (blobFile.exists()) {
+                return blob;
+            }
+            FileUtils.mkdirs(blobFile.getParentFile());
+            return tempFile.renameTo(blobFile) ? blob : null;
+        } catch (IOException | NoSuchAlgorithmException e) {
+            Log.e("ImageStore.writeBlob", e);
+            return null;
+        } finally {
+            if (tempFile != null) {
+                FileUtils.deleteIgnoringFailure(tempFile);
+            }
+        }
+    }
+
+    /**
+     * Import a file of the former per-geocode layout (from primary or secondary storage) with its saved headers, and
+     * delete the old copy.
+     */
+    @Nullable
+    private static IndexEntry importLegacyFile(@NonNull final String geocode, @NonNull final String fileNameOrUrl, final boolean isUrl, @NonNull final String hash) {
+        File legacyFile = LocalStorage.getStorageFile(geocode, fileNameOrUrl, isUrl, false);
+        if (!legacyFile.isFile()) {
+            legacyFile = LocalStorage.getStorageSecFile(geocode, fileNameOrUrl, isUrl);
+            if (!legacyFile.isFile()) {
+                return null;
+            }
+        }
+        InputStream input = null;
+        try {
+            input = new FileInputStream(legacyFile);
+            final String blob = writeBlob(input);
+            if (blob == null) {
+                return null;
+            }
+            final IndexEntry entry = new IndexEntry(blob, LocalStorage.getSavedHeader(legacyFile, LocalStorage.HEADER_ETAG),
+                    LocalStorage.getSavedHeader(legacyFile, LocalStorage.HEADER_LAST_MODIFIED), legacyFile.lastModified());
+            DataStore.saveImageEntry(geocode, hash, entry);
+            LocalStorage.deleteWithHeaders(legacyFile);
+            return entry;
+        } catch (final IOException e) {
+            Log.w("ImageStore.importLegacyFile: cannot import " + legacyFile, e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    @NonNull
+    private static String toHex(@NonNull final byte[] bytes) {
+        final char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            hex[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            hex[2 * i + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(hex);
+    }
+}
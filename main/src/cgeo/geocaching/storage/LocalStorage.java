@@ -237,6 +237,18 @@ public final class LocalStorage {
         }
     }
 
+    /**
+     * Delete a file saved by {@link #saveEntityToFile(Response, File)}, together with its saved headers.
+     *
+     * @param file
+     *            the file to delete
+     */
+    public static void deleteWithHeaders(@NonNull final File file) {
+        FileUtils.deleteIgnoringFailure(file);
+        FileUtils.deleteIgnoringFailure(filenameForHeader(file, HEADER_ETAG));
+        FileUtils.deleteIgnoringFailure(filenameForHeader(file, HEADER_LAST_MODIFIED));
+    }
+
     @NonNull
     private static File filenameForHeader(@NonNull final File baseFile, final String name) {
         return new File(baseFile.getAbsolutePath() + "-" + name);
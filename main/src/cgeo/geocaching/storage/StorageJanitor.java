@@ -0,0 +1,139 @@
+package cgeo.geocaching.storage;
+
+import cgeo.geocaching.utils.FileUtils;
+import cgeo.geocaching.utils.Log;
+
+import org.eclipse.jdt.annotation.NonNull;
+import rx.Scheduler;
+import rx.android.schedulers.AndroidSchedulers;
+import rx.functions.Action0;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Deletes the files of removed caches in the background.
+ *
+ * The files to delete are queued in the database in the same transaction which removes the caches, so that the work
+ * survives the death of the process and is resumed when the database is opened again. The queue is processed in
+ * batches on a single thread with background priority, to keep the storage available for the foreground.
+ */
+final class StorageJanitor {
+
+    /** Queued cache directory, the name is the geocode. */
+    static final int TYPE_CACHE_DIRECTORY = 0;
+    /** Queued {@link ImageStore} blob, the name is the blob. */
+    static final int TYPE_IMAGE_BLOB = 1;
+
+    static final int BATCH_SIZE = 50;
+
+    private static final HandlerThread janitorThread = new HandlerThread("storage janitor", Process.THREAD_PRIORITY_BACKGROUND);
+
+    static {
+        janitorThread.start();
+    }
+
+    private static final Scheduler janitorScheduler = AndroidSchedulers.handlerThread(new Handler(janitorThread.getLooper()));
+
+    /** Set while a run is scheduled but has not started yet, to avoid queueing many runs. */
+    private static final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * Entry of the cleanup queue.
+     */
+    static final class Task {
+        final long id;
+        final int type;
+        @NonNull final String name;
+
+        Task(final long id, final int type, @NonNull final String name) {
+            this.id = id;
+            this.type = type;
+            this.name = name;
+        }
+    }
+
+    private StorageJanitor() {
+        // utility class
+    }
+
+    /**
+     * Process the cleanup queue in the background. Work queued after a run has started is picked up by that run or by
+     * a following one.
+     */
+    static void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            janitorScheduler.createWorker().schedule(new Action0() {
+                @Override
+                public void call() {
+                    scheduled.set(false);
+                    try {
+                        processQueue();
+                    } catch (final Exception e) {
+                        Log.e("StorageJanitor: cleanup failed", e);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Process the cleanup queue on the calling thread until it is empty.
+     */
+    static void processQueue() {
+        int deleted = 0;
+        List<Task> batch;
+        while (!(batch = DataStore.loadCleanupTasks(BATCH_SIZE)).isEmpty()) {
+            processBatch(batch);
+            deleted += batch.size();
+        }
+        if (deleted > 0) {
+            Log.i("StorageJanitor: processed " + deleted + " queued deletions");
+        }
+    }
+
+    private static void processBatch(@NonNull final List<Task> batch) {
+        final Set<String> geocodes = new HashSet<>();
+        for (final Task task : batch) {
+            if (task.type == TYPE_CACHE_DIRECTORY) {
+                geocodes.add(task.name);
+            }
+        }
+        // caches stored again since their removal keep their files
+        final Set<String> storedAgain = DataStore.loadStoredGeocodes(geocodes);
+
+        final List<Long> done = new ArrayList<>(batch.size());
+        for (final Task task : batch) {
+            if (task.type == TYPE_CACHE_DIRECTORY) {
+                if (!storedAgain.contains(task.name)) {
+                    deleteCacheDirectory(task.name);
+                }
+            } else if (task.type == TYPE_IMAGE_BLOB) {
+                // the same content may have been stored again in the meantime
+                if (!DataStore.isImageBlobUsed(task.name)) {
+                    FileUtils.deleteIgnoringFailure(ImageStore.getBlobFile(task.name));
+                }
+            } else {
+                Log.w("StorageJanitor: ignoring unknown task type " + task.type);
+            }
+            done.add(task.id);
+        }
+        DataStore.removeCleanupTasks(done);
+    }
+
+    private static void deleteCacheDirectory(@NonNull final String geocode) {
+        FileUtils.deleteDirectory(LocalStorage.getStorageDir(geocode));
+        final File secondary = new File(LocalStorage.getStorageSec(), geocode);
+        if (secondary.isDirectory()) {
+            FileUtils.deleteDirectory(secondary);
+        }
+    }
+}
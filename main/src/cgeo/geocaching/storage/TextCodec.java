@@ -0,0 +1,132 @@
+package cgeo.geocaching.storage;
+
+import org.apache.commons.lang3.CharEncoding;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+import java.io.UnsupportedEncodingException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Storage format of large text columns (descriptions and logs). A text is either stored as is, or as blob starting
+ * with a format marker, followed by the length of the text in UTF-8 and the deflated text.
+ *
+ * The marker byte never starts a valid UTF-8 sequence, therefore both formats can be distinguished when reading the
+ * raw bytes of a column, and databases with partially compressed columns can be read.
+ */
+final class TextCodec {
+
+    /** Marker of deflated texts. 0xFE is not valid in UTF-8. */
+    static final byte FORMAT_DEFLATE = (byte) 0xFE;
+
+    /** Shorter texts are always stored uncompressed, as the header and deflate overhead would eat up the gain. */
+    static final int MIN_COMPRESSED_LENGTH = 256;
+
+    private static final int HEADER_LENGTH = 5;
+
+    private TextCodec() {
+        // utility class
+    }
+
+    /**
+     * Compress a text if this saves space.
+     *
+     * @return the compressed representation, or {@code null} if the text should be stored as is
+     */
+    @Nullable
+    static byte[] compress(@Nullable final String text) {
+        if (text == null || text.length() < MIN_COMPRESSED_LENGTH) {
+            return null;
+        }
+        final byte[] utf8 = toUtf8(text);
+        final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            // only keep the result if it is smaller than the original
+            final byte[] buffer = new byte[utf8.length];
+            buffer[0] = FORMAT_DEFLATE;
+            buffer[1] = (byte) (utf8.length >>> 24);
+            buffer[2] = (byte) (utf8.length >>> 16);
+            buffer[3] = (byte) (utf8.length >>> 8);
+            buffer[4] = (byte) utf8.length;
+            int length = HEADER_LENGTH;
+            while (!deflater.finished() && length < buffer.length) {
+                length += deflater.deflate(buffer, length, buffer.length - length);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            final byte[] result = new byte[length];
+            System.arraycopy(buffer, 0, result, 0, length);
+            return result;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decode the raw bytes of a text column.
+     *
+     * @param stored
+     *            the column content, either a blob written by {@link #compress(String)} or the UTF-8 bytes of a text
+     *            (optionally followed by the terminating zero byte returned by the cursor)
+     * @return the text, or {@code null} if the column was {@code null}
+     */
+    @Nullable
+    static String decode(@Nullable final byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        if (!isCompressed(stored)) {
+            int length = stored.length;
+            if (length > 0 && stored[length - 1] == 0) {
+                length--;
+            }
+            return fromUtf8(stored, length);
+        }
+        final int textLength = (stored[1] & 0xff) << 24 | (stored[2] & 0xff) << 16 | (stored[3] & 0xff) << 8 | (stored[4] & 0xff);
+        final byte[] utf8 = new byte[textLength];
+        final Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(stored, HEADER_LENGTH, stored.length - HEADER_LENGTH);
+            int length = 0;
+            while (length < textLength) {
+                final int inflated = inflater.inflate(utf8, length, textLength - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.finished())) {
+                    break;
+                }
+                length += inflated;
+            }
+            return fromUtf8(utf8, length);
+        } catch (final DataFormatException e) {
+            throw new IllegalArgumentException("corrupt compressed text", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    static boolean isCompressed(@NonNull final byte[] stored) {
+        return stored.length >= HEADER_LENGTH && stored[0] == FORMAT_DEFLATE;
+    }
+
+    @NonNull
+    private static byte[] toUtf8(@NonNull final String text) {
+        try {
+            return text.getBytes(CharEncoding.UTF_8);
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @NonNull
+    private static String fromUtf8(@NonNull final byte[] bytes, final int length) {
+        try {
+            return new String(bytes, 0, length, CharEncoding.UTF_8);
+        } catch (final UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import cgeo.geocaching.apps.navi.NavigationAppFactory;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Image;
 import cgeo.geocaching.network.HtmlImage;
+import cgeo.geocaching.storage.ImageStore;
 import cgeo.geocaching.storage.LocalStorage;
 import cgeo.geocaching.utils.Log;
 
@@ -177,7 +178,10 @@ public class ImagesList {
     @Nullable
     private GeoLocation getImageLocation(final Image image) {
         try {
-            final File file = LocalStorage.getStorageFile(geocode, image.getUrl(), true, false);
+            final File file = ImageStore.getFile(geocode, image.getUrl(), true);
+            if (file == null) {
+                return null;
+            }
             final Metadata metadata = ImageMetadataReader.readMetadata(file);
             final Collection<GpsDirectory> gpsDirectories = metadata.getDirectoriesOfType(GpsDirectory.class);
             if (gpsDirectories == null) {
@@ -279,8 +283,8 @@ public class ImagesList {
     private void viewImageInStandardApp(final Image img, final BitmapDrawable image) {
         try {
             final Intent intent = new Intent().setAction(android.content.Intent.ACTION_VIEW);
-            final File file = img.isLocalFile() ? img.localFile() : LocalStorage.getStorageFile(geocode, img.getUrl(), true, true);
-            if (file.exists()) {
+            final File file = img.isLocalFile() ? img.localFile() : ImageStore.getFile(geocode, img.getUrl(), true);
+            if (file != null && file.exists()) {
                 intent.setDataAndType(Uri.fromFile(file), mimeTypeForUrl(img.getUrl()));
             } else {
                 intent.setDataAndType(Uri.fromFile(saveToTemporaryJPGFile(image)), "image/jpeg");
@@ -24,7 +24,10 @@ public class AndroidRxUtils {
 
     public final static Scheduler computationScheduler = Schedulers.computation();
 
-    public static final Scheduler networkScheduler = Schedulers.from(Executors.newFixedThreadPool(10, new RxThreadFactory("network-")));
+    /** Number of threads of the {@link #networkScheduler}, also used to limit the number of concurrent HTTP requests */
+    public static final int NETWORK_THREADS = 10;
+
+    public static final Scheduler networkScheduler = Schedulers.from(Executors.newFixedThreadPool(NETWORK_THREADS, new RxThreadFactory("network-")));
 
     public static final Scheduler refreshScheduler = Schedulers.from(Executors.newFixedThreadPool(3, new RxThreadFactory("refresh-")));
 
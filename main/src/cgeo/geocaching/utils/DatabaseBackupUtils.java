@@ -9,8 +9,10 @@ import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.Nullable;
 
+import rx.android.schedulers.AndroidSchedulers;
 import rx.functions.Action0;
 import rx.functions.Action1;
+import rx.functions.Action2;
 import rx.functions.Func0;
 import rx.schedulers.Schedulers;
 
@@ -105,13 +107,27 @@ public class DatabaseBackupUtils {
     }
 
     private static void createBackupInternal(final Activity activity, final Runnable runAfterwards) {
-        final ProgressDialog dialog = ProgressDialog.show(activity,
-                activity.getString(R.string.init_backup),
-                activity.getString(R.string.init_backup_running), true, false);
+        final ProgressDialog dialog = new ProgressDialog(activity);
+        dialog.setTitle(activity.getString(R.string.init_backup));
+        dialog.setMessage(activity.getString(R.string.init_backup_running));
+        dialog.setProgressStyle(ProgressDialog.STYLE_HORIZONTAL);
+        dialog.setCancelable(false);
+        dialog.show();
         AndroidRxUtils.andThenOnUi(Schedulers.io(), new Func0<String>() {
             @Override
             public String call() {
-                return DataStore.backupDatabaseInternal();
+                return DataStore.backupDatabaseInternal(new Action2<Integer, Integer>() {
+                    @Override
+                    public void call(final Integer copiedTables, final Integer totalTables) {
+                        AndroidSchedulers.mainThread().createWorker().schedule(new Action0() {
+                            @Override
+                            public void call() {
+                                dialog.setMax(totalTables);
+                                dialog.setProgress(copiedTables);
+                            }
+                        });
+                    }
+                });
             }
         }, new Action1<String>() {
             @Override
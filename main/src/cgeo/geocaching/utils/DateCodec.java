@@ -0,0 +1,204 @@
+package cgeo.geocaching.utils;
+
+import org.eclipse.jdt.annotation.NonNull;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Parsing and formatting of dates without lock contention between parser threads.
+ *
+ * The fixed ISO 8601 date times used by GPX files and the opencaching API are handled by hand written code on a
+ * calendar confined to the calling thread. Other patterns, like the user configurable date format of geocaching.com,
+ * use {@link SimpleDateFormat} instances which are cached per thread, as they are expensive to create and not thread
+ * safe.
+ *
+ * @see ThreadLocalDateFormat
+ */
+public final class DateCodec {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    /** number of {@link SimpleDateFormat} kept per thread for the pattern based methods */
+    private static final int FORMATS_PER_THREAD = 8;
+
+    /** length of "yyyy-MM-ddTHH:mm:ss" */
+    private static final int DATE_TIME_LENGTH = 19;
+
+    private static final ThreadLocal<Calendar> calendars = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return new GregorianCalendar(Locale.US);
+        }
+    };
+
+    private static final ThreadLocal<Map<String, SimpleDateFormat>> formats = new ThreadLocal<Map<String, SimpleDateFormat>>() {
+        @Override
+        protected Map<String, SimpleDateFormat> initialValue() {
+            return new LeastRecentlyUsedMap.LruCache<>(FORMATS_PER_THREAD);
+        }
+    };
+
+    private DateCodec() {
+        // utility class
+    }
+
+    /**
+     * Parse an ISO 8601 date time like {@code 2010-04-20T07:00:00}, optionally followed by fractional seconds (which
+     * are ignored) and a time zone designator ({@code Z}, {@code +02}, {@code +0200} or {@code +02:00}).
+     *
+     * @param input
+     *            the text to parse, without surrounding whitespace
+     * @param defaultZone
+     *            the time zone of date times without time zone designator
+     * @throws ParseException
+     *             if the input is not an ISO 8601 date time
+     */
+    @NonNull
+    public static Date parseIsoDateTime(@NonNull final String input, @NonNull final TimeZone defaultZone) throws ParseException {
+        final int length = input.length();
+        if (length < DATE_TIME_LENGTH || input.charAt(4) != '-' || input.charAt(7) != '-' || input.charAt(10) != 'T' || input.charAt(13) != ':' || input.charAt(16) != ':') {
+            throw new ParseException("Not an ISO 8601 date time: " + input, 0);
+        }
+        final int year = parseDigits(input, 0, 4);
+        final int month = parseDigits(input, 5, 2);
+        final int day = parseDigits(input, 8, 2);
+        final int hour = parseDigits(input, 11, 2);
+        final int minute = parseDigits(input, 14, 2);
+        final int second = parseDigits(input, 17, 2);
+
+        int position = DATE_TIME_LENGTH;
+        if (position < length && input.charAt(position) == '.') {
+            position++;
+            while (position < length && isDigit(input.charAt(position))) {
+                position++;
+            }
+        }
+
+        TimeZone zone = defaultZone;
+        int offsetMillis = 0;
+        if (position < length) {
+            final char designator = input.charAt(position);
+            if (designator == 'Z') {
+                zone = UTC;
+                position++;
+            } else if (designator == '+' || designator == '-') {
+                zone = UTC;
+                final int offsetHours = parseDigits(input, position + 1, 2);
+                position += 3;
+                int offsetMinutes = 0;
+                if (position < length) {
+                    if (input.charAt(position) == ':') {
+                        position++;
+                    }
+                    offsetMinutes = parseDigits(input, position, 2);
+                    position += 2;
+                }
+                offsetMillis = (offsetHours * 60 + offsetMinutes) * 60 * 1000;
+                if (designator == '-') {
+                    offsetMillis = -offsetMillis;
+                }
+            }
+        }
+        if (position != length) {
+            throw new ParseException("Unexpected text after ISO 8601 date time: " + input, position);
+        }
+
+        final Calendar calendar = calendars.get();
+        calendar.clear();
+        calendar.setTimeZone(zone);
+        calendar.set(year, month - 1, day, hour, minute, second);
+        return new Date(calendar.getTimeInMillis() - offsetMillis);
+    }
+
+    /**
+     * Format a date as ISO 8601 date time like {@code 2010-04-20T07:00:00}, without time zone designator.
+     *
+     * @param zone
+     *            the time zone to represent the date in
+     */
+    @NonNull
+    public static String formatIsoDateTime(@NonNull final Date date, @NonNull final TimeZone zone) {
+        final Calendar calendar = calendars.get();
+        calendar.setTimeZone(zone);
+        calendar.setTimeInMillis(date.getTime());
+        final char[] text = new char[DATE_TIME_LENGTH];
+        putDigits(text, 0, 4, calendar.get(Calendar.YEAR));
+        text[4] = '-';
+        putDigits(text, 5, 2, calendar.get(Calendar.MONTH) + 1);
+        text[7] = '-';
+        putDigits(text, 8, 2, calendar.get(Calendar.DAY_OF_MONTH));
+        text[10] = 'T';
+        putDigits(text, 11, 2, calendar.get(Calendar.HOUR_OF_DAY));
+        text[13] = ':';
+        putDigits(text, 14, 2, calendar.get(Calendar.MINUTE));
+        text[16] = ':';
+        putDigits(text, 17, 2, calendar.get(Calendar.SECOND));
+        return new String(text);
+    }
+
+    /**
+     * Parse a date with a {@link SimpleDateFormat} pattern, like the user configurable date format of geocaching.com.
+     */
+    @NonNull
+    public static Date parse(@NonNull final String input, @NonNull final String pattern, @NonNull final Locale locale) throws ParseException {
+        return getFormat(pattern, locale).parse(input);
+    }
+
+    /**
+     * Format a date with a {@link SimpleDateFormat} pattern in the default time zone.
+     */
+    @NonNull
+    public static String format(@NonNull final Date date, @NonNull final String pattern, @NonNull final Locale locale) {
+        return getFormat(pattern, locale).format(date);
+    }
+
+    /**
+     * Get a date format for the given pattern which may only be used by the calling thread. It is not handed out, as
+     * it is shared with later callers on the same thread and must not be modified.
+     */
+    @NonNull
+    private static SimpleDateFormat getFormat(@NonNull final String pattern, @NonNull final Locale locale) {
+        final Map<String, SimpleDateFormat> threadFormats = formats.get();
+        final String key = locale + "|" + pattern;
+        SimpleDateFormat format = threadFormats.get(key);
+        if (format == null) {
+            format = new SimpleDateFormat(pattern, locale);
+            threadFormats.put(key, format);
+        }
+        return format;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int parseDigits(@NonNull final String input, final int start, final int count) throws ParseException {
+        if (start + count > input.length()) {
+            throw new ParseException("Truncated ISO 8601 date time: " + input, start);
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            final char c = input.charAt(i);
+            if (!isDigit(c)) {
+                throw new ParseException("Digit expected in ISO 8601 date time: " + input, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void putDigits(@NonNull final char[] text, final int start, final int count, final int value) {
+        int remaining = value;
+        for (int i = start + count - 1; i >= start; i--) {
+            text[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package cgeo.geocaching.utils;
 
 import cgeo.geocaching.R;
+import cgeo.geocaching.ui.dialog.Dialogs;
 
 import org.eclipse.jdt.annotation.NonNull;
 
+import android.app.Activity;
 import android.content.Context;
+import android.content.DialogInterface;
+import android.content.DialogInterface.OnClickListener;
 import android.os.Environment;
 import android.widget.Toast;
 
@@ -33,4 +37,41 @@ public class DebugUtils {
             Log.e("createMemoryDump", e);
         }
     }
+
+    /**
+     * Show the collected {@link Metrics}, with the options to export them as JSON or to reset them.
+     */
+    public static void showMetrics(final @NonNull Activity activity) {
+        Dialogs.confirmPositiveNegativeNeutral(activity, R.string.init_metrics, Metrics.format(),
+                R.string.export,                // Positive Button
+                R.string.init_metrics_reset,    // Negative Button
+                android.R.string.cancel,        // Neutral Button
+                new OnClickListener() {
+                    @Override
+                    public void onClick(final DialogInterface dialog, final int which) {
+                        exportMetrics(activity);
+                    }
+                },
+                new OnClickListener() {
+                    @Override
+                    public void onClick(final DialogInterface dialog, final int which) {
+                        Metrics.reset();
+                    }
+                },
+                null);
+    }
+
+    private static void exportMetrics(final @NonNull Context context) {
+        try {
+            final SimpleDateFormat fileNameDateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss", Locale.US);
+            final File file = FileUtils.getUniqueNamedFile(new File(Environment.getExternalStorageDirectory(),
+                    "cgeo_metrics_" + fileNameDateFormat.format(new Date()) + ".json"));
+            JsonUtils.writer.writeValue(file, Metrics.toJson());
+            Toast.makeText(context, context.getString(R.string.init_metrics_exported, file.getAbsolutePath()),
+                    Toast.LENGTH_LONG).show();
+            ShareUtils.share(context, file, "application/json", R.string.init_metrics);
+        } catch (final IOException e) {
+            Log.e("exportMetrics", e);
+        }
+    }
 }
@@ -1,21 +1,13 @@
 package cgeo.geocaching.utils;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
-import org.apache.commons.lang3.CharEncoding;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.jdt.annotation.NonNull;
 
 import android.os.Handler;
 import android.os.Message;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.util.List;
 
 /**
@@ -150,6 +142,19 @@ public final class FileUtils {
         return success;
     }
 
+    /**
+     * Moves a file to a new location, replacing an already existing file there. Failures are logged.
+     *
+     * @return {@code true} if the file was moved, {@code false} otherwise.
+     */
+    public static boolean move(final File source, final File target) {
+        final boolean success = (!target.exists() || target.delete()) && source.renameTo(target);
+        if (!success) {
+            Log.e("Could not move " + source.getAbsolutePath() + " to " + target.getAbsolutePath());
+        }
+        return success;
+    }
+
     /**
      * Creates the directory named by the given file, creating any missing parent directories in the process.
      *
@@ -164,25 +169,6 @@ public final class FileUtils {
         return success;
     }
 
-    public static boolean writeFileUTF16(final File file, final String content) {
-        // TODO: replace by some apache.commons IOUtils or FileUtils code
-        Writer fileWriter = null;
-        BufferedOutputStream buffer = null;
-        try {
-            final OutputStream os = new FileOutputStream(file);
-            buffer = new BufferedOutputStream(os);
-            fileWriter = new OutputStreamWriter(buffer, CharEncoding.UTF_16);
-            fileWriter.write(content);
-        } catch (final IOException e) {
-            Log.e("FieldnoteExport.ExportTask export", e);
-            return false;
-        } finally {
-            IOUtils.closeQuietly(fileWriter);
-            IOUtils.closeQuietly(buffer);
-        }
-        return true;
-    }
-
     /**
      * Check if the URL represents a file on the local file system.
      *
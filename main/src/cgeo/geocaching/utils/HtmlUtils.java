@@ -1,20 +1,35 @@
 package cgeo.geocaching.utils;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.text.translate.EntityArrays;
 import org.eclipse.jdt.annotation.NonNull;
 
-import android.text.Html;
 import android.text.Spanned;
 import android.text.style.ImageSpan;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 public final class HtmlUtils {
 
+    /** the longest entity name is "thetasym" */
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    /** characters of the named HTML 4 entities, by entity name */
+    private static final Map<String, String> ENTITIES = new HashMap<>();
+
+    static {
+        for (final String[][] entities : Arrays.asList(EntityArrays.BASIC_UNESCAPE(), EntityArrays.APOS_UNESCAPE(), EntityArrays.ISO8859_1_UNESCAPE(), EntityArrays.HTML40_EXTENDED_UNESCAPE())) {
+            for (final String[] entity : entities) {
+                // strip '&' and ';'
+                ENTITIES.put(entity[0].substring(1, entity[0].length() - 1), entity[1]);
+            }
+        }
+    }
+
     private HtmlUtils() {
         // utility class
     }
@@ -29,37 +44,215 @@ public final class HtmlUtils {
         if (StringUtils.isBlank(html)) {
             return StringUtils.EMPTY;
         }
-        String result = html.toString();
 
         // recognize images in textview HTML contents
-        if (html instanceof Spanned) {
-            final Spanned text = (Spanned) html;
-            final Object[] styles = text.getSpans(0, text.length(), Object.class);
-            final List<Pair<Integer, Integer>> removals = new ArrayList<>();
-            for (final Object style : styles) {
-                if (style instanceof ImageSpan) {
-                    final int start = text.getSpanStart(style);
-                    final int end = text.getSpanEnd(style);
-                    removals.add(Pair.of(start, end));
+        final String source = html instanceof Spanned ? removeImageSpans((Spanned) html) : html.toString();
+        return htmlToText(source).trim();
+    }
+
+    @NonNull
+    private static String removeImageSpans(@NonNull final Spanned text) {
+        final ImageSpan[] images = text.getSpans(0, text.length(), ImageSpan.class);
+        if (images.length == 0) {
+            return text.toString();
+        }
+        Arrays.sort(images, new Comparator<ImageSpan>() {
+
+            @Override
+            public int compare(final ImageSpan lhs, final ImageSpan rhs) {
+                return text.getSpanStart(lhs) - text.getSpanStart(rhs);
+            }
+        });
+        final StringBuilder result = new StringBuilder(text.length());
+        int position = 0;
+        for (final ImageSpan image : images) {
+            final int start = text.getSpanStart(image);
+            if (start > position) {
+                result.append(text, position, start);
+            }
+            position = Math.max(position, text.getSpanEnd(image));
+        }
+        result.append(text, position, text.length());
+        return result.toString();
+    }
+
+    /**
+     * Convert HTML to text in a single pass, like the legacy mode of HTML.fromHtml(...) does, but without any styles.
+     * Tags are removed, line breaks become new lines and paragraph like blocks are separated by an empty line. Runs of
+     * spaces and new lines in the HTML are collapsed into a single space, entities are resolved. Images, scripts and
+     * styles are left out.
+     */
+    @NonNull
+    static String htmlToText(@NonNull final String html) {
+        final StringBuilder text = new StringBuilder(html.length());
+        final int length = html.length();
+        int position = 0;
+        while (position < length) {
+            final char c = html.charAt(position);
+            if (c == '<') {
+                position = appendTag(html, position, text);
+            } else if (c == '&') {
+                position = appendEntity(html, position, text);
+            } else {
+                if (c == ' ' || c == '\n' || c == '\r') {
+                    appendSpace(text);
+                } else {
+                    text.append(c);
                 }
+                position++;
             }
+        }
+        return text.toString();
+    }
 
-            // sort reversed and delete image spans
-            Collections.sort(removals, new Comparator<Pair<Integer, Integer>>() {
+    /**
+     * Handle the tag starting at the given position.
+     *
+     * @return the position after the tag
+     */
+    private static int appendTag(@NonNull final String html, final int start, @NonNull final StringBuilder text) {
+        final int length = html.length();
+        if (html.startsWith("<!--", start)) {
+            final int end = html.indexOf("-->", start + 4);
+            return end < 0 ? length : end + 3;
+        }
+        int position = start + 1;
+        final boolean endTag = position < length && html.charAt(position) == '/';
+        if (endTag) {
+            position++;
+        }
+        if (position >= length || !(Character.isLetter(html.charAt(position)) || (!endTag && (html.charAt(position) == '!' || html.charAt(position) == '?')))) {
+            // not a tag, like in "<3m"
+            text.append('<');
+            return start + 1;
+        }
+        final int nameStart = position;
+        while (position < length && Character.isLetterOrDigit(html.charAt(position))) {
+            position++;
+        }
+        final String name = html.substring(nameStart, position).toLowerCase(Locale.US);
+        position = skipToTagEnd(html, position);
 
-                @Override
-                public int compare(final Pair<Integer, Integer> lhs, final Pair<Integer, Integer> rhs) {
-                    return rhs.getRight().compareTo(lhs.getRight());
+        switch (name) {
+            case "br":
+                if (!endTag) {
+                    text.append('\n');
                 }
-            });
-            result = text.toString();
-            for (final Pair<Integer, Integer> removal : removals) {
-                result = result.substring(0, removal.getLeft()) + result.substring(removal.getRight());
+                break;
+            case "p":
+            case "div":
+            case "blockquote":
+            case "h1":
+            case "h2":
+            case "h3":
+            case "h4":
+            case "h5":
+            case "h6":
+                appendParagraphBreak(text);
+                break;
+            case "script":
+            case "style":
+                if (!endTag && html.charAt(position - 2) != '/') {
+                    final int end = StringUtils.indexOfIgnoreCase(html, "</" + name, position);
+                    return end < 0 ? length : skipToTagEnd(html, end + 2);
+                }
+                break;
+            default:
+                break;
+        }
+        return position;
+    }
+
+    /**
+     * @return the position after the closing '>' of the tag, ignoring '>' in quoted attribute values
+     */
+    private static int skipToTagEnd(@NonNull final String html, final int start) {
+        final int length = html.length();
+        char quote = 0;
+        for (int position = start; position < length; position++) {
+            final char c = html.charAt(position);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return position + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Resolve the entity starting at the given position. Unknown or unterminated entities are kept as they are.
+     *
+     * @return the position after the entity
+     */
+    private static int appendEntity(@NonNull final String html, final int start, @NonNull final StringBuilder text) {
+        final int end = findEntityEnd(html, start);
+        if (end > start + 1) {
+            if (html.charAt(start + 1) == '#') {
+                final boolean hex = end > start + 2 && (html.charAt(start + 2) == 'x' || html.charAt(start + 2) == 'X');
+                try {
+                    final int codePoint = Integer.parseInt(html.substring(start + (hex ? 3 : 2), end), hex ? 16 : 10);
+                    if (codePoint > 0 && Character.isValidCodePoint(codePoint)) {
+                        text.appendCodePoint(codePoint);
+                        return end + 1;
+                    }
+                } catch (final NumberFormatException ignored) {
+                    // keep the text as it is
+                }
+            } else {
+                final String character = ENTITIES.get(html.substring(start + 1, end));
+                if (character != null) {
+                    text.append(character);
+                    return end + 1;
+                }
+            }
+        }
+        text.append('&');
+        return start + 1;
+    }
+
+    /**
+     * Find the semicolon terminating the entity starting at the given position. Only the first characters are searched,
+     * so that a text with many ampersands is not scanned to its end for each of them.
+     *
+     * @return the position of the semicolon, or -1 if the entity is not terminated within {@link #MAX_ENTITY_LENGTH}
+     */
+    private static int findEntityEnd(@NonNull final String html, final int start) {
+        final int limit = Math.min(html.length(), start + MAX_ENTITY_LENGTH + 1);
+        for (int position = start + 1; position < limit; position++) {
+            if (html.charAt(position) == ';') {
+                return position;
             }
         }
+        return -1;
+    }
 
-        // now that images are gone, do a normal html to text conversion
-        return Html.fromHtml(result).toString().trim();
+    /**
+     * Append a space, unless the text is empty or already ends with white space.
+     */
+    private static void appendSpace(@NonNull final StringBuilder text) {
+        final int length = text.length();
+        if (length > 0) {
+            final char last = text.charAt(length - 1);
+            if (last != ' ' && last != '\n') {
+                text.append(' ');
+            }
+        }
+    }
+
+    /**
+     * Make the text end with an empty line, unless it is empty.
+     */
+    private static void appendParagraphBreak(@NonNull final StringBuilder text) {
+        final int length = text.length();
+        if (length == 0 || (length >= 2 && text.charAt(length - 1) == '\n' && text.charAt(length - 2) == '\n')) {
+            return;
+        }
+        text.append(text.charAt(length - 1) == '\n' ? "\n" : "\n\n");
     }
 
     /**
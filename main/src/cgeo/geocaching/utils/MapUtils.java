@@ -7,14 +7,18 @@ import cgeo.geocaching.compatibility.Compatibility;
 import cgeo.geocaching.enumerations.CacheListType;
 import cgeo.geocaching.enumerations.LogType;
 
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.eclipse.jdt.annotation.NonNull;
 
 import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.LayerDrawable;
 import android.support.annotation.Nullable;
-import android.util.SparseArray;
+import android.util.SparseIntArray;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -34,7 +38,44 @@ public final class MapUtils {
     private static final int[][] INSET_PERSONALNOTE = { { 0, 17, 12, 0 }, { 0, 23, 16, 0 }, { 0, 25, 19, 0 }, { 0, 34, 26, 0 }, { 0, 51, 39, 0 }, { 0, 68, 52, 0 } };
     private static final int[][] INSET_PERSONALNOTE_LIST = { { 0, 14, 16, 2 }, { 0, 19, 22, 3 }, { 0, 28, 33, 4 }, { 0, 38, 44, 6 }, { 0, 57, 66, 9 }, { 0, 76, 88, 12 } };
 
-    private static final SparseArray<LayerDrawable> overlaysCache = new SparseArray<>();
+    /**
+     * Maximum number of pre-rendered markers. A few dozen variants are typically visible at the same time, and even
+     * the largest markers need less than 70 KB each.
+     */
+    private static final int MAX_CACHED_MARKERS = 128;
+
+    /**
+     * Bit layout of the marker keys. Cache markers use the lower 31 bits for their status, waypoint markers set the
+     * highest bit and only use the type, visited and density fields. Cluster markers set the highest bit and the cluster
+     * flag and store the displayed number of caches.
+     */
+    private static final int KEY_SHIFT_TYPE = 0;               // 6 bits, cache or waypoint type ordinal
+    private static final int KEY_SHIFT_BACKGROUND = 6;         // 4 bits, index of the background marker resource
+    private static final int KEY_FLAG_RELIABLE = 1 << 10;
+    private static final int KEY_FLAG_OWNER = 1 << 11;
+    private static final int KEY_FLAG_FOUND = 1 << 12;
+    private static final int KEY_FLAG_USER_MODIFIED_COORDS = 1 << 13;
+    private static final int KEY_FLAG_PERSONAL_NOTE = 1 << 14;
+    private static final int KEY_FLAG_LOG_OFFLINE = 1 << 15;
+    private static final int KEY_FLAG_STORED = 1 << 16;
+    private static final int KEY_SHIFT_OFFLINE_LOG_TYPE = 17;  // 6 bits, log type ordinal + 1, 0 if none
+    private static final int KEY_SHIFT_LIST_TYPE = 23;         // 4 bits, cache list type ordinal + 1, 0 for the map
+    private static final int KEY_SHIFT_DENSITY = 27;           // 4 bits, twice the display density
+    private static final int KEY_FLAG_VISITED = 1 << 6;
+    private static final int KEY_FLAG_CLUSTER = 1 << 7;
+    private static final int KEY_SHIFT_CLUSTER_SIZE = 8;       // 10 bits, number of caches in a cluster
+    private static final int KEY_FLAG_WAYPOINT = 1 << 31;
+    private static final int MAX_BACKGROUND_INDEX = 15;
+
+    /** Larger clusters are shown with the same marker. Must fit into the cluster size field of the key. */
+    private static final int MAX_CLUSTER_SIZE = 999;
+    private static final int CLUSTER_DIAMETER_DP = 36;
+    private static final int CLUSTER_COLOR = 0xDD1E6E1E;
+
+    private static final LeastRecentlyUsedMap<Integer, Drawable> overlaysCache = new LeastRecentlyUsedMap.LruCache<>(MAX_CACHED_MARKERS);
+
+    /** Compact indices of the background marker resources, which differ per connector. */
+    private static final SparseIntArray backgroundIndices = new SparseIntArray();
 
     private MapUtils() {
         // Do not instantiate
@@ -51,13 +92,14 @@ public final class MapUtils {
      *          a drawable representing the current cache status
      */
     @NonNull
-    public static LayerDrawable getCacheMarker(final Resources res, final Geocache cache) {
+    public static Drawable getCacheMarker(final Resources res, final Geocache cache) {
         return getCacheMarker(res, cache, null);
     }
 
     /**
      * Obtain the drawable for a given cache.
-     * Return a drawable from the cache, if a similar drawable was already generated.
+     * Return a drawable from the cache, if a similar drawable was already generated. The layers of the marker are
+     * flattened into a single bitmap, so that drawing the marker only needs one bitmap operation.
      *
      * cacheListType should be Null if the requesting activity is Map.
      *
@@ -71,28 +113,45 @@ public final class MapUtils {
      *          a drawable representing the current cache status
      */
     @NonNull
-    public static LayerDrawable getCacheMarker(final Resources res, final Geocache cache, @Nullable final CacheListType cacheListType) {
-        final int hashcode = new HashCodeBuilder()
-                .append(cache.isReliableLatLon())
-                .append(cache.getType().id)
-                .append(cache.isDisabled() || cache.isArchived())
-                .append(cache.getMapMarkerId())
-                .append(cache.isOwner())
-                .append(cache.isFound())
-                .append(showUserModifiedCoords(cache, cacheListType))
-                .append(cache.getPersonalNote())
-                .append(cache.isLogOffline())
-                .append(!cache.getLists().isEmpty())
-                .append(cache.getOfflineLogType())
-                .append(showBackground(cacheListType))
-                .append(showFloppyOverlay(cacheListType))
-                .toHashCode();
+    public static Drawable getCacheMarker(final Resources res, final Geocache cache, @Nullable final CacheListType cacheListType) {
+        final int backgroundIndex = getBackgroundIndex(cache.getMapMarkerId());
+        if (backgroundIndex > MAX_BACKGROUND_INDEX) {
+            // cannot be represented in a key, should never happen with the existing connectors
+            return createCacheMarker(res, cache, cacheListType);
+        }
+        final LogType offlineLogType = cache.getOfflineLogType();
+        int key = cache.getType().ordinal() << KEY_SHIFT_TYPE
+                | backgroundIndex << KEY_SHIFT_BACKGROUND
+                | (offlineLogType == null ? 0 : offlineLogType.ordinal() + 1) << KEY_SHIFT_OFFLINE_LOG_TYPE
+                | (cacheListType == null ? 0 : cacheListType.ordinal() + 1) << KEY_SHIFT_LIST_TYPE
+                | getDensityIndex(res) << KEY_SHIFT_DENSITY;
+        if (cache.isReliableLatLon()) {
+            key |= KEY_FLAG_RELIABLE;
+        }
+        if (cache.isOwner()) {
+            key |= KEY_FLAG_OWNER;
+        }
+        if (cache.isFound()) {
+            key |= KEY_FLAG_FOUND;
+        }
+        if (showUserModifiedCoords(cache, cacheListType)) {
+            key |= KEY_FLAG_USER_MODIFIED_COORDS;
+        }
+        if (cache.getPersonalNote() != null) {
+            key |= KEY_FLAG_PERSONAL_NOTE;
+        }
+        if (cache.isLogOffline()) {
+            key |= KEY_FLAG_LOG_OFFLINE;
+        }
+        if (!cache.getLists().isEmpty()) {
+            key |= KEY_FLAG_STORED;
+        }
 
         synchronized (overlaysCache) {
-            LayerDrawable drawable = overlaysCache.get(hashcode);
+            Drawable drawable = overlaysCache.get(key);
             if (drawable == null) {
-                drawable = createCacheMarker(res, cache, cacheListType);
-                overlaysCache.put(hashcode, drawable);
+                drawable = flatten(res, createCacheMarker(res, cache, cacheListType));
+                overlaysCache.put(key, drawable);
             }
             return drawable;
         }
@@ -110,22 +169,116 @@ public final class MapUtils {
      *          a drawable representing the current waypoint status
      */
     @NonNull
-    public static LayerDrawable getWaypointMarker(final Resources res, final Waypoint waypoint) {
-        final int hashcode = new HashCodeBuilder()
-        .append(waypoint.isVisited())
-        .append(waypoint.getWaypointType().id)
-        .toHashCode();
+    public static Drawable getWaypointMarker(final Resources res, final Waypoint waypoint) {
+        int key = KEY_FLAG_WAYPOINT
+                | waypoint.getWaypointType().ordinal() << KEY_SHIFT_TYPE
+                | getDensityIndex(res) << KEY_SHIFT_DENSITY;
+        if (waypoint.isVisited()) {
+            key |= KEY_FLAG_VISITED;
+        }
+
+        synchronized (overlaysCache) {
+            Drawable drawable = overlaysCache.get(key);
+            if (drawable == null) {
+                drawable = flatten(res, createWaypointMarker(res, waypoint));
+                overlaysCache.put(key, drawable);
+            }
+            return drawable;
+        }
+    }
+
+    /**
+     * Get the marker of a cluster of caches, showing the number of caches in the cluster.
+     *
+     * @param res
+     *          the resources to use
+     * @param size
+     *          the number of caches in the cluster
+     * @return
+     *          a drawable representing the cluster
+     */
+    @NonNull
+    public static Drawable getClusterMarker(final Resources res, final int size) {
+        final int displayedSize = Math.min(size, MAX_CLUSTER_SIZE + 1);
+        final int key = KEY_FLAG_WAYPOINT
+                | KEY_FLAG_CLUSTER
+                | displayedSize << KEY_SHIFT_CLUSTER_SIZE
+                | getDensityIndex(res) << KEY_SHIFT_DENSITY;
 
         synchronized (overlaysCache) {
-            LayerDrawable drawable = overlaysCache.get(hashcode);
+            Drawable drawable = overlaysCache.get(key);
             if (drawable == null) {
-                drawable = createWaypointMarker(res, waypoint);
-                overlaysCache.put(hashcode, drawable);
+                drawable = createClusterMarker(res, displayedSize);
+                overlaysCache.put(key, drawable);
             }
             return drawable;
         }
     }
 
+    @NonNull
+    private static Drawable createClusterMarker(final Resources res, final int displayedSize) {
+        final float density = res.getDisplayMetrics().density;
+        final int diameter = Math.round(CLUSTER_DIAMETER_DP * density);
+        final float center = diameter / 2f;
+        final Bitmap bitmap = Bitmap.createBitmap(diameter, diameter, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+
+        final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(CLUSTER_COLOR);
+        canvas.drawCircle(center, center, center, paint);
+        paint.setColor(Color.WHITE);
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setStrokeWidth(2 * density);
+        canvas.drawCircle(center, center, center - density, paint);
+
+        final String text = displayedSize > MAX_CLUSTER_SIZE ? MAX_CLUSTER_SIZE + "+" : String.valueOf(displayedSize);
+        paint.setStyle(Paint.Style.FILL);
+        paint.setTextAlign(Paint.Align.CENTER);
+        paint.setFakeBoldText(true);
+        paint.setTextSize(diameter / (text.length() > 3 ? 3.5f : 2.5f));
+        canvas.drawText(text, center, center - (paint.descent() + paint.ascent()) / 2, paint);
+        return new BitmapDrawable(res, bitmap);
+    }
+
+    /**
+     * Render all layers of a marker into a single bitmap.
+     *
+     * @param res
+     *          the resources to use
+     * @param layers
+     *          the layered marker
+     * @return
+     *          a drawable showing the same image as the layered marker
+     */
+    @NonNull
+    private static Drawable flatten(final Resources res, final LayerDrawable layers) {
+        final int width = layers.getIntrinsicWidth();
+        final int height = layers.getIntrinsicHeight();
+        if (width <= 0 || height <= 0) {
+            return layers;
+        }
+        final Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+        layers.setBounds(0, 0, width, height);
+        layers.draw(canvas);
+        return new BitmapDrawable(res, bitmap);
+    }
+
+    private static int getBackgroundIndex(final int markerId) {
+        synchronized (backgroundIndices) {
+            int index = backgroundIndices.get(markerId, -1);
+            if (index < 0) {
+                index = backgroundIndices.size();
+                backgroundIndices.put(markerId, index);
+            }
+            return index;
+        }
+    }
+
+    private static int getDensityIndex(final Resources res) {
+        return Math.min(15, Math.round(res.getDisplayMetrics().density * 2));
+    }
+
     /**
      * Build the drawable for a given waypoint.
      *
@@ -0,0 +1,308 @@
+package cgeo.geocaching.utils;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.eclipse.jdt.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Registry of counters, histograms and timers for the hot paths of the application, so that performance can be
+ * analyzed on real devices without attaching a profiler. The collected values can be shown on the debug screen and
+ * exported as JSON.
+ *
+ * Recording a value only costs a few atomic operations. Users should keep the metric in a static field instead of
+ * looking it up by name for every event:
+ *
+ * <pre>
+ * private static final Metrics.Timer LOAD_TIMER = Metrics.timer("datastore.loadCaches");
+ *
+ * final long start = LOAD_TIMER.start();
+ * try {
+ *     ...
+ * } finally {
+ *     LOAD_TIMER.stop(start);
+ * }
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final ConcurrentMap<String, Metric> registry = new ConcurrentHashMap<>();
+
+    /** Time of the last reset. */
+    private static volatile long since = System.currentTimeMillis();
+
+    private Metrics() {
+        // utility class
+    }
+
+    private abstract static class Metric {
+        abstract void reset();
+
+        abstract void toJson(@NonNull ObjectNode node);
+
+        @NonNull
+        abstract String format();
+    }
+
+    /**
+     * Monotonic event counter.
+     */
+    public static final class Counter extends Metric {
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter() {
+            // created by the registry
+        }
+
+        public void inc() {
+            value.incrementAndGet();
+        }
+
+        public void add(final long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+
+        @Override
+        void reset() {
+            value.set(0);
+        }
+
+        @Override
+        void toJson(@NonNull final ObjectNode node) {
+            node.put("type", "counter");
+            node.put("value", value.get());
+        }
+
+        @Override
+        @NonNull
+        String format() {
+            return String.valueOf(value.get());
+        }
+    }
+
+    /**
+     * Distribution of non negative values (e.g. sizes). The values are counted in buckets with power of two bounds,
+     * therefore the reported percentiles are upper bounds which are at most twice the real value.
+     */
+    public static class Histogram extends Metric {
+        private static final int BUCKETS = 64;
+
+        @NonNull private final String unit;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        /** Bucket i counts the values below 2^i which are not counted in a lower bucket. */
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        private Histogram(@NonNull final String unit) {
+            this.unit = unit;
+        }
+
+        public void record(final long value) {
+            final long positive = Math.max(0, value);
+            count.incrementAndGet();
+            sum.addAndGet(positive);
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(positive)));
+            long current = max.get();
+            while (positive > current && !max.compareAndSet(current, positive)) {
+                current = max.get();
+            }
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        public long getMean() {
+            final long n = count.get();
+            return n > 0 ? sum.get() / n : 0;
+        }
+
+        /**
+         * @param percent
+         *            percentile between 0 and 100
+         * @return upper bound of the given percentile, or 0 if nothing has been recorded
+         */
+        public long getPercentile(final int percent) {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += buckets.get(i);
+            }
+            final long rank = (total * percent + 99) / 100;
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank && seen > 0) {
+                    return Math.min(i == 0 ? 0 : (1L << i) - 1, max.get());
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        void reset() {
+            count.set(0);
+            sum.set(0);
+            max.set(0);
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        @NonNull
+        String getType() {
+            return "histogram";
+        }
+
+        @Override
+        void toJson(@NonNull final ObjectNode node) {
+            node.put("type", getType());
+            node.put("unit", unit);
+            node.put("count", count.get());
+            node.put("sum", sum.get());
+            node.put("mean", getMean());
+            node.put("p50", getPercentile(50));
+            node.put("p90", getPercentile(90));
+            node.put("p99", getPercentile(99));
+            node.put("max", max.get());
+        }
+
+        @Override
+        @NonNull
+        String format() {
+            return String.format(Locale.US, "n=%d mean=%d p90=%d max=%d %s", count.get(), getMean(), getPercentile(90), max.get(), unit);
+        }
+    }
+
+    /**
+     * Histogram of durations in microseconds.
+     */
+    public static final class Timer extends Histogram {
+
+        private Timer() {
+            super("us");
+        }
+
+        /**
+         * @return the start time to be passed to {@link #stop(long)}
+         */
+        public long start() {
+            return System.nanoTime();
+        }
+
+        /**
+         * Record the time elapsed since the given start time.
+         */
+        public void stop(final long start) {
+            record((System.nanoTime() - start) / 1000);
+        }
+
+        @Override
+        @NonNull
+        String getType() {
+            return "timer";
+        }
+    }
+
+    @NonNull
+    public static Counter counter(@NonNull final String name) {
+        final Metric metric = registry.get(name);
+        if (metric != null) {
+            return cast(name, metric, Counter.class);
+        }
+        return cast(name, register(name, new Counter()), Counter.class);
+    }
+
+    /**
+     * @param unit
+     *            unit of the recorded values, only used for display
+     */
+    @NonNull
+    public static Histogram histogram(@NonNull final String name, @NonNull final String unit) {
+        final Metric metric = registry.get(name);
+        if (metric != null) {
+            return cast(name, metric, Histogram.class);
+        }
+        return cast(name, register(name, new Histogram(unit)), Histogram.class);
+    }
+
+    @NonNull
+    public static Timer timer(@NonNull final String name) {
+        final Metric metric = registry.get(name);
+        if (metric != null) {
+            return cast(name, metric, Timer.class);
+        }
+        return cast(name, register(name, new Timer()), Timer.class);
+    }
+
+    @NonNull
+    private static Metric register(@NonNull final String name, @NonNull final Metric metric) {
+        final Metric existing = registry.putIfAbsent(name, metric);
+        return existing != null ? existing : metric;
+    }
+
+    @NonNull
+    private static <T extends Metric> T cast(@NonNull final String name, @NonNull final Metric metric, @NonNull final Class<T> type) {
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException("metric " + name + " is already registered as " + metric.getClass().getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    /**
+     * Reset all metrics to zero.
+     */
+    public static void reset() {
+        for (final Metric metric : registry.values()) {
+            metric.reset();
+        }
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * Export all metrics with their name as key. Values recorded concurrently may be partially included.
+     */
+    @NonNull
+    public static ObjectNode toJson() {
+        final ObjectNode root = JsonUtils.factory.objectNode();
+        root.put("timestamp", System.currentTimeMillis());
+        root.put("duration", System.currentTimeMillis() - since);
+        final ObjectNode metrics = root.putObject("metrics");
+        for (final Map.Entry<String, Metric> entry : sorted().entrySet()) {
+            entry.getValue().toJson(metrics.putObject(entry.getKey()));
+        }
+        return root;
+    }
+
+    /**
+     * Human readable summary of all metrics, one per line.
+     */
+    @NonNull
+    public static String format() {
+        final StringBuilder text = new StringBuilder();
+        text.append(String.format(Locale.US, "collected during %d s", (System.currentTimeMillis() - since) / 1000));
+        for (final Map.Entry<String, Metric> entry : sorted().entrySet()) {
+            text.append('\n').append(entry.getKey()).append(": ").append(entry.getValue().format());
+        }
+        return text.toString();
+    }
+
+    @NonNull
+    private static Map<String, Metric> sorted() {
+        return new TreeMap<>(registry);
+    }
+}
@@ -0,0 +1,93 @@
+package cgeo.geocaching.utils;
+
+import org.eclipse.jdt.annotation.NonNull;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.IOException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Reusable SAX readers, one per thread.
+ *
+ * Creating the parser factory, the parser and its reader for every document costs more than parsing the small XML
+ * responses of the trackable services. The readers are namespace aware, so that handlers can rely on the local name of
+ * the elements.
+ */
+public final class SaxReaders {
+
+    private static final DefaultHandler NO_HANDLER = new DefaultHandler();
+
+    private static final SAXParserFactory factory = SAXParserFactory.newInstance();
+
+    static {
+        factory.setNamespaceAware(true);
+    }
+
+    private static final class PooledReader {
+        private XMLReader reader;
+        /** set while a document is parsed, a handler parsing another document gets a new reader */
+        private boolean inUse = false;
+    }
+
+    private static final ThreadLocal<PooledReader> readers = new ThreadLocal<PooledReader>() {
+        @Override
+        protected PooledReader initialValue() {
+            return new PooledReader();
+        }
+    };
+
+    private SaxReaders() {
+        // utility class
+    }
+
+    /**
+     * Parse a document with the reader of the calling thread.
+     *
+     * @throws SAXException
+     *             if the document is not well formed, or no reader can be created
+     */
+    public static void parse(@NonNull final InputSource source, @NonNull final ContentHandler handler) throws IOException, SAXException {
+        final PooledReader pooled = readers.get();
+        if (pooled.inUse) {
+            parseWith(newReader(), source, handler);
+            return;
+        }
+        if (pooled.reader == null) {
+            pooled.reader = newReader();
+        }
+        pooled.inUse = true;
+        try {
+            parseWith(pooled.reader, source, handler);
+        } finally {
+            pooled.inUse = false;
+        }
+    }
+
+    private static void parseWith(@NonNull final XMLReader reader, @NonNull final InputSource source, @NonNull final ContentHandler handler) throws IOException, SAXException {
+        reader.setContentHandler(handler);
+        try {
+            reader.parse(source);
+        } finally {
+            // do not keep the handler and its results alive with the reader
+            reader.setContentHandler(NO_HANDLER);
+        }
+    }
+
+    @NonNull
+    private static XMLReader newReader() throws SAXException {
+        try {
+            // the factory is not guaranteed to be thread safe
+            synchronized (factory) {
+                return factory.newSAXParser().getXMLReader();
+            }
+        } catch (final ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+    }
+}
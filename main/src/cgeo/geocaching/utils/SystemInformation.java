@@ -6,6 +6,7 @@ import cgeo.geocaching.CgeoApplication;
 import cgeo.geocaching.connector.ConnectorFactory;
 import cgeo.geocaching.connector.IConnector;
 import cgeo.geocaching.connector.capability.ILogin;
+import cgeo.geocaching.network.Network;
 import cgeo.geocaching.sensors.MagnetometerAndAccelerometerProvider;
 import cgeo.geocaching.sensors.OrientationProvider;
 import cgeo.geocaching.sensors.RotationProvider;
@@ -62,6 +63,7 @@ public final class SystemInformation {
             body.append(" (cgeo forced to English)");
         }
         appendConnectors(body);
+        body.append('\n').append(Network.getStatistics());
         appendAddons(body);
         body.append("\n--- End of system information ---\n");
         return body.toString();
@@ -0,0 +1,43 @@
+package cgeo.geocaching.utils;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Date format which can be shared by several threads. Every thread uses its own {@link SimpleDateFormat}, so that
+ * parallel parsers do not contend for a lock.
+ *
+ * @see DateCodec
+ */
+public class ThreadLocalDateFormat {
+    private final ThreadLocal<SimpleDateFormat> format;
+
+    public ThreadLocalDateFormat(final String pattern, final Locale locale) {
+        this(pattern, null, locale);
+    }
+
+    public ThreadLocalDateFormat(final String pattern, final TimeZone timeZone, final Locale locale) {
+        format = new ThreadLocal<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat initialValue() {
+                final SimpleDateFormat threadFormat = new SimpleDateFormat(pattern, locale);
+                if (timeZone != null) {
+                    threadFormat.setTimeZone((TimeZone) timeZone.clone());
+                }
+                return threadFormat;
+            }
+        };
+    }
+
+    public Date parse(final String input) throws ParseException {
+        return format.get().parse(input);
+    }
+
+    public String format(final Date date) {
+        return format.get().format(date);
+    }
+
+}
@@ -0,0 +1,55 @@
+package cgeo.geocaching.utils;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Case insensitive mapping of XML element names to the constants of an enumeration, so that SAX handlers can switch
+ * over the elements instead of comparing the name with every known element.
+ *
+ * The element with name {@code "datecreated"} is mapped to the constant {@code DATECREATED}. Every spelling of a name
+ * is lower cased only once, later lookups of the same spelling are a single hash lookup.
+ *
+ * @param <E>
+ *            the enumeration of the known elements
+ */
+public final class XmlElementNames<E extends Enum<E>> {
+
+    /** spellings of unknown elements are not remembered beyond this number, to bound the memory used */
+    private static final int MAX_SPELLINGS = 256;
+
+    @NonNull private final Map<String, E> byLowerCaseName = new HashMap<>();
+    @NonNull private final ConcurrentMap<String, E> bySpelling = new ConcurrentHashMap<>();
+    @NonNull private final E unknown;
+
+    /**
+     * @param unknown
+     *            the constant returned for names without constant
+     */
+    public XmlElementNames(@NonNull final Class<E> elements, @NonNull final E unknown) {
+        for (final E element : elements.getEnumConstants()) {
+            byLowerCaseName.put(element.name().toLowerCase(Locale.US), element);
+        }
+        this.unknown = unknown;
+    }
+
+    @NonNull
+    public E get(@NonNull final String name) {
+        final E cached = bySpelling.get(name);
+        if (cached != null) {
+            return cached;
+        }
+        final E element = byLowerCaseName.get(StringUtils.lowerCase(name, Locale.US));
+        final E result = element != null ? element : unknown;
+        if (bySpelling.size() < MAX_SPELLINGS) {
+            bySpelling.put(name, result);
+        }
+        return result;
+    }
+}
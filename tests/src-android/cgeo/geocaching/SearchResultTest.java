@@ -2,11 +2,18 @@ package cgeo.geocaching;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import cgeo.geocaching.test.mock.MockedSlowConnector;
+
+import rx.functions.Func1;
+
 import android.os.Parcel;
 import android.test.AndroidTestCase;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 public class SearchResultTest extends AndroidTestCase {
     public static void testCreateFromGeocodes() {
@@ -69,4 +76,43 @@ public class SearchResultTest extends AndroidTestCase {
 
         assertThat(newSearch.getFilteredGeocodes()).contains("GC45678").doesNotContain("GC12345");
     }
+
+    private static final Func1<MockedSlowConnector, SearchResult> SEARCH = new Func1<MockedSlowConnector, SearchResult>() {
+        @Override
+        public SearchResult call(final MockedSlowConnector connector) {
+            return connector.search();
+        }
+    };
+
+    public static void testParallelActive() {
+        final List<MockedSlowConnector> connectors = Arrays.asList(new MockedSlowConnector("GCSLOW", 500), new MockedSlowConnector("GCFAST", 0));
+        final List<SearchResult> results = SearchResult.parallelActive(connectors, SEARCH, 5, TimeUnit.SECONDS).toList().toBlocking().single();
+        // the result of every connector is emitted as soon as it is available
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getGeocodes()).containsOnly("GCFAST");
+        assertThat(results.get(1).getGeocodes()).containsOnly("GCSLOW");
+    }
+
+    public static void testParallelActiveDeadline() {
+        final List<MockedSlowConnector> connectors = Arrays.asList(new MockedSlowConnector("GCSLOW", 5000), new MockedSlowConnector("GCFAST", 0));
+        final long start = System.currentTimeMillis();
+        final List<SearchResult> results = SearchResult.parallelActive(connectors, SEARCH, 500, TimeUnit.MILLISECONDS).toList().toBlocking().single();
+        assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).getGeocodes()).containsOnly("GCFAST");
+    }
+
+    public static void testParallelActivePartialResult() {
+        final List<MockedSlowConnector> connectors = Arrays.asList(new MockedSlowConnector("GCSLOW", 5000), new MockedSlowConnector("GCFAST", 0));
+        final List<SearchResult> results = SearchResult.parallelActive(connectors, SEARCH, 500, TimeUnit.MILLISECONDS, new Func1<MockedSlowConnector, SearchResult>() {
+            @Override
+            public SearchResult call(final MockedSlowConnector connector) {
+                final SearchResult partial = new SearchResult();
+                partial.addGeocode("GCPARTIAL");
+                return partial;
+            }
+        }).toList().toBlocking().single();
+        assertThat(results).hasSize(2);
+        assertThat(results.get(1).getGeocodes()).containsOnly("GCPARTIAL");
+    }
 }
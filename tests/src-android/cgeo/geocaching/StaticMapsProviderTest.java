@@ -2,12 +2,14 @@ package cgeo.geocaching;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.Waypoint;
 import cgeo.geocaching.settings.Settings;
 import cgeo.geocaching.settings.TestSettings;
+import cgeo.geocaching.storage.DataStore;
 import cgeo.geocaching.storage.LocalStorage;
 import cgeo.geocaching.utils.FileUtils;
 
@@ -16,6 +18,7 @@ import junit.framework.TestCase;
 import android.test.suitebuilder.annotation.Suppress;
 
 import java.io.File;
+import java.util.Collections;
 
 @Suppress
 public class StaticMapsProviderTest extends TestCase {
@@ -81,6 +84,8 @@ public class StaticMapsProviderTest extends TestCase {
     private static void deleteCacheDirectory(String geocode) {
         File cacheDir = LocalStorage.getStorageDir(geocode);
         FileUtils.deleteDirectory(cacheDir);
+        // release the stored maps
+        DataStore.removeCaches(Collections.singleton(geocode), LoadFlags.REMOVE_ALL);
     }
 
 }
@@ -0,0 +1,84 @@
+package cgeo.geocaching.connector.gc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cgeo.geocaching.enumerations.LogType;
+import cgeo.geocaching.models.LogEntry;
+import cgeo.geocaching.settings.Settings;
+
+import junit.framework.TestCase;
+import rx.functions.Action1;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class GCLogbookReaderTest extends TestCase {
+
+    private static final String LOGBOOK = "{\"status\":\"success\",\"data\":["
+            + "{\"LogID\":1,\"LogType\":\"Found it\",\"LogTypeImage\":\"2.png\",\"LogText\":\"TFTC\",\"Visited\":\"2015-08-15\","
+            + "\"UserName\":\"Finder\",\"GeocacheFindCount\":42,\"LatLonString\":\"\",\"Images\":["
+            + "{\"FileName\":\"abc.jpg\",\"Name\":\"View\",\"Descr\":\"from the top\",\"Extra\":{\"a\":[1,2]}}]},"
+            + "{\"LogID\":2,\"LogTypeImage\":\"3.png\",\"LogText\":null,\"Visited\":\"not a date\",\"UserName\":\"Nobody\",\"Images\":[]},"
+            + "{\"LogID\":3,\"LogTypeImage\":\"3.png\",\"LogText\":\"Not found\",\"Visited\":\"2015-08-14\",\"UserName\":\"Seeker\","
+            + "\"GeocacheFindCount\":1,\"LatLonString\":\"N 49° 12.345 E 008° 12.345\",\"Images\":[]}"
+            + "],\"pageInfo\":{\"idx\":1,\"size\":35,\"totalRows\":3,\"totalPages\":1,\"rows\":[]}}";
+
+    private static GCLogbookReader.Page read(final String json, final List<LogEntry> logs) throws IOException {
+        final String customDate = Settings.getGcCustomDate();
+        try {
+            Settings.setGcCustomDate("yyyy-MM-dd");
+            return GCLogbookReader.read(new ByteArrayInputStream(json.getBytes("UTF-8")), false, new Action1<LogEntry>() {
+                @Override
+                public void call(final LogEntry logEntry) {
+                    logs.add(logEntry);
+                }
+            });
+        } finally {
+            Settings.setGcCustomDate(customDate);
+        }
+    }
+
+    public static void testReadLogbook() throws IOException {
+        final List<LogEntry> logs = new ArrayList<>();
+        final GCLogbookReader.Page page = read(LOGBOOK, logs);
+        assertThat(page.success).isTrue();
+        assertThat(page.entries).isEqualTo(3);
+        assertThat(page.totalPages).isEqualTo(1);
+
+        // the entry with the invalid date is skipped
+        assertThat(logs).hasSize(2);
+        final LogEntry found = logs.get(0);
+        assertThat(found.author).isEqualTo("Finder");
+        assertThat(found.getType()).isEqualTo(LogType.FOUND_IT);
+        assertThat(found.log).isEqualTo("TFTC");
+        assertThat(found.found).isEqualTo(42);
+        assertThat(found.friend).isFalse();
+        assertThat(found.getLogImages()).hasSize(1);
+        assertThat(found.getLogImages().get(0).getUrl()).isEqualTo("https://imgcdn.geocaching.com/cache/log/large/abc.jpg");
+        assertThat(found.getLogImages().get(0).getTitle()).isEqualTo("View");
+        assertThat(found.getLogImages().get(0).getDescription()).isEqualTo("from the top");
+
+        final LogEntry notFound = logs.get(1);
+        assertThat(notFound.getType()).isEqualTo(LogType.DIDNT_FIND_IT);
+        assertThat(notFound.log).isEqualTo("N 49° 12.345 E 008° 12.345<br/><br/>Not found");
+        assertThat(notFound.getLogImages()).isEmpty();
+    }
+
+    public static void testFailureStatus() throws IOException {
+        final List<LogEntry> logs = new ArrayList<>();
+        final GCLogbookReader.Page page = read("{\"status\":\"error\",\"data\":[{\"Visited\":\"2015-08-15\"}]}", logs);
+        assertThat(page.success).isFalse();
+        assertThat(logs).isEmpty();
+    }
+
+    public static void testNoJsonObject() {
+        try {
+            read("[]", new ArrayList<LogEntry>());
+            fail("IOException expected");
+        } catch (final IOException ignored) {
+            // expected
+        }
+    }
+}
@@ -68,13 +68,14 @@ public class GeokretyParserTest extends AbstractResourceInstrumentationTestCase
 
     public static void testGetType() throws Exception {
         final CgeoApplication app = CgeoApplication.getInstance();
-        assertThat(GeokretyParser.getType(0)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_traditional));
-        assertThat(GeokretyParser.getType(1)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_book_or_media));
-        assertThat(GeokretyParser.getType(2)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_human));
-        assertThat(GeokretyParser.getType(3)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_coin));
-        assertThat(GeokretyParser.getType(4)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_post));
-        assertThat(GeokretyParser.getType(5)).isNull();
-        assertThat(GeokretyParser.getType(42)).isNull();
+        final GeokretyParser.Texts texts = GeokretyParser.Texts.fromResources();
+        assertThat(texts.type(0)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_traditional));
+        assertThat(texts.type(1)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_book_or_media));
+        assertThat(texts.type(2)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_human));
+        assertThat(texts.type(3)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_coin));
+        assertThat(texts.type(4)).isEqualTo(app.getString(cgeo.geocaching.R.string.geokret_type_post));
+        assertThat(texts.type(5)).isNull();
+        assertThat(texts.type(42)).isNull();
     }
 
     public void testParseNoValueFields() throws Exception {
@@ -40,6 +40,13 @@ public class FileTypeDetectorTest extends AbstractResourceInstrumentationTestCas
         assertFileType(R.raw.waymarking_gpx, FileType.GPX);
     }
 
+    public void testGpxVersion() throws Exception {
+        assertGpxVersion(R.raw.gc1bkp3_gpx100, GpxVersion.GPX_1_0);
+        assertGpxVersion(R.raw.oc5952_gpx, GpxVersion.GPX_1_0);
+        assertGpxVersion(R.raw.terracaching_gpx, GpxVersion.GPX_1_1);
+        assertGpxVersion(R.raw.no_connector, GpxVersion.GPX_1_1);
+    }
+
     public void testZip() throws Exception {
         assertFileType(R.raw.pq_error, FileType.ZIP);
         assertFileType(R.raw.pq7545915, FileType.ZIP);
@@ -50,4 +57,12 @@ public class FileTypeDetectorTest extends AbstractResourceInstrumentationTestCas
         final FileContentResolver contentResolver = new FileContentResolver(getInstrumentation().getContext());
         assertThat(new FileTypeDetector(resourceURI, contentResolver).getFileType()).isEqualTo(fileType);
     }
+
+    private void assertGpxVersion(@RawRes final int resourceId, final @NonNull GpxVersion gpxVersion) {
+        final Uri resourceURI = getResourceURI(resourceId);
+        final FileContentResolver contentResolver = new FileContentResolver(getInstrumentation().getContext());
+        final FileTypeDetector.Detection detection = new FileTypeDetector(resourceURI, contentResolver).detect();
+        assertThat(detection.type).isEqualTo(FileType.GPX);
+        assertThat(detection.gpxVersion).isEqualTo(gpxVersion);
+    }
 }
@@ -7,11 +7,79 @@ import android.sax.RootElement;
 import android.test.AndroidTestCase;
 import android.util.Xml;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.StringReader;
 import java.util.concurrent.atomic.AtomicReference;
 
 public class InvalidXMLCharacterFilterReaderTest extends AndroidTestCase {
 
+    /**
+     * Reader returning a single character per read, so that every character reference spans several reads.
+     */
+    private static final class SingleCharReader extends Reader {
+        private final String text;
+        private int position = 0;
+
+        SingleCharReader(final String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(final char[] buffer, final int offset, final int length) {
+            if (position >= text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+
+    private static String filter(final Reader input, final int bufferSize) throws IOException {
+        final Reader reader = new InvalidXMLCharacterFilterReader(input);
+        final StringBuilder result = new StringBuilder();
+        final char[] buffer = new char[bufferSize];
+        int read;
+        while ((read = reader.read(buffer, 0, bufferSize)) != -1) {
+            result.append(buffer, 0, read);
+        }
+        return result.toString();
+    }
+
+    private static void assertFiltered(final String input, final String expected) throws IOException {
+        assertThat(filter(new StringReader(input), 1024)).isEqualTo(expected);
+        assertThat(filter(new SingleCharReader(input), 1024)).isEqualTo(expected);
+        assertThat(filter(new StringReader(input), 1)).isEqualTo(expected);
+        assertThat(filter(new SingleCharReader(input), 3)).isEqualTo(expected);
+    }
+
+    public static void testInvalidCharacters() throws IOException {
+        assertFiltered("a\u0000b\u000Bc\uFFFEd", "abcd");
+        assertFiltered("tab\tnew line\ncarriage return\r", "tab\tnew line\ncarriage return\r");
+        // a surrogate pair is a valid character
+        assertFiltered("smile \uD83D\uDE00", "smile \uD83D\uDE00");
+    }
+
+    public static void testInvalidReferences() throws IOException {
+        assertFiltered("a&#xB;b&#11;c&#X0b;d", "abcd");
+        assertFiltered("&#x110000;&#99999999;&#xFFFFFFFF;", "");
+    }
+
+    public static void testValidReferences() throws IOException {
+        assertFiltered("&#65;&#x41;&#x1F600;&amp;&lt;&#39;", "&#65;&#x41;&#x1F600;&amp;&lt;&#39;");
+        assertFiltered("&#x000000041;", "&#x000000041;");
+    }
+
+    public static void testIncompleteReferences() throws IOException {
+        assertFiltered("& &# &#x; &#;&#12", "& &# &#x; &#;&#12");
+        assertFiltered("&&#xB;&#&#11;", "&&#");
+    }
+
     public static void testFilterInvalid() throws Exception {
         final RootElement root = new RootElement("desc");
         final AtomicReference<String> description = new AtomicReference<>();
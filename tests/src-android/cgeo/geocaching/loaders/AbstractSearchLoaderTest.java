@@ -0,0 +1,103 @@
+package cgeo.geocaching.loaders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cgeo.geocaching.CgeoApplication;
+import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.test.mock.MockedSlowConnector;
+
+import junit.framework.TestCase;
+import rx.functions.Func1;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class AbstractSearchLoaderTest extends TestCase {
+
+    private static class MockedSearchLoader extends AbstractSearchLoader {
+
+        private final List<MockedSlowConnector> connectors;
+        private final long deadlineMillis;
+        private final boolean resetBeforeSearch;
+        private boolean waitForUserFirst = false;
+
+        MockedSearchLoader(final long deadlineMillis, final boolean resetBeforeSearch, final MockedSlowConnector... connectors) {
+            super(CgeoApplication.getInstance());
+            this.connectors = Arrays.asList(connectors);
+            this.deadlineMillis = deadlineMillis;
+            this.resetBeforeSearch = resetBeforeSearch;
+        }
+
+        @Override
+        public SearchResult runSearch() {
+            if (resetBeforeSearch) {
+                reset();
+            }
+            return parallelCombineActive(connectors, new Func1<MockedSlowConnector, SearchResult>() {
+                @Override
+                public SearchResult call(final MockedSlowConnector connector) {
+                    if (waitForUserFirst) {
+                        waitForUser();
+                    }
+                    return connector.search();
+                }
+            }, deadlineMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static void testCombineResults() {
+        final MockedSearchLoader loader = new MockedSearchLoader(5000, false, new MockedSlowConnector("GCSLOW", 500), new MockedSlowConnector("GCFAST", 0));
+        assertThat(loader.loadInBackground().getGeocodes()).containsOnly("GCSLOW", "GCFAST");
+        assertThat(loader.isLoading()).isFalse();
+    }
+
+    public static void testSlowConnectorIsSkipped() {
+        final MockedSearchLoader loader = new MockedSearchLoader(500, false, new MockedSlowConnector("GCSLOW", 5000), new MockedSlowConnector("GCFAST", 0));
+        final long start = System.currentTimeMillis();
+        assertThat(loader.loadInBackground().getGeocodes()).containsOnly("GCFAST");
+        assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+    }
+
+    public static void testWaitingForUserIsNotCounted() {
+        final MockedSearchLoader loader = new MockedSearchLoader(500, false, new MockedSlowConnector("GCCAPTCHA", 200));
+        loader.waitForUserFirst = true;
+        final Thread user = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(1000);
+                } catch (final InterruptedException ignored) {
+                    // answer immediately
+                }
+                loader.setText("captcha");
+            }
+        };
+        user.start();
+        assertThat(loader.loadInBackground().getGeocodes()).containsOnly("GCCAPTCHA");
+    }
+
+    public static void testResetBeforeSubscription() {
+        final MockedSearchLoader loader = new MockedSearchLoader(10000, true, new MockedSlowConnector("GCSLOW", 5000));
+        final long start = System.currentTimeMillis();
+        assertThat(loader.loadInBackground().getGeocodes()).isEmpty();
+        assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+    }
+
+    public static void testResetDuringSearch() throws Exception {
+        final MockedSearchLoader loader = new MockedSearchLoader(10000, false, new MockedSlowConnector("GCSLOW", 5000));
+        final long start = System.currentTimeMillis();
+        final Thread search = new Thread() {
+            @Override
+            public void run() {
+                loader.loadInBackground();
+            }
+        };
+        search.start();
+        Thread.sleep(200);
+        loader.reset();
+        search.join();
+        assertThat(System.currentTimeMillis() - start).isLessThan(5000);
+    }
+
+}
@@ -0,0 +1,124 @@
+package cgeo.geocaching.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cgeo.CGeoTestCase;
+import cgeo.geocaching.enumerations.CacheType;
+import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.list.StoredList;
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.models.Geocache;
+import cgeo.geocaching.settings.Settings;
+import cgeo.geocaching.utils.Log;
+
+import android.os.SystemClock;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures the latency of viewport queries (as used when panning the live map) while another thread imports caches,
+ * and of loading compressed and uncompressed descriptions. The numbers are only logged, as they depend heavily on the
+ * device.
+ */
+public class DataStorePerformanceTest extends CGeoTestCase {
+
+    private static final int IMPORTED_CACHES = 500;
+    private static final String GEOCODE_PREFIX = "ZZPERF";
+
+    public static void testViewportLatencyDuringImport() throws InterruptedException {
+        final Viewport viewport = new Viewport(new Geopoint(49.0, 8.0), new Geopoint(50.0, 9.0));
+        final AtomicBoolean importRunning = new AtomicBoolean(true);
+        final Set<String> geocodes = new HashSet<>();
+        for (int i = 0; i < IMPORTED_CACHES; i++) {
+            geocodes.add(GEOCODE_PREFIX + i);
+        }
+
+        final Thread importer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    int i = 0;
+                    for (final String geocode : geocodes) {
+                        final Geocache cache = new Geocache();
+                        cache.setGeocode(geocode);
+                        cache.setDetailed(true);
+                        cache.setType(CacheType.TRADITIONAL);
+                        cache.setCoords(new Geopoint(49.0 + (i % 100) / 100.0, 8.0 + (i / 100) / 10.0));
+                        cache.setDescription(String.format(Locale.US, "description of cache %d", i));
+                        cache.getLists().add(StoredList.STANDARD_LIST_ID);
+                        DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+                        i++;
+                    }
+                } finally {
+                    importRunning.set(false);
+                }
+            }
+        });
+
+        final List<Long> durations = new ArrayList<>();
+        try {
+            importer.start();
+            while (importRunning.get()) {
+                final long start = SystemClock.elapsedRealtime();
+                DataStore.loadStoredInViewport(viewport, CacheType.ALL);
+                durations.add(SystemClock.elapsedRealtime() - start);
+            }
+            importer.join();
+        } finally {
+            DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+        }
+
+        assertThat(durations).isNotEmpty();
+        long max = 0;
+        long sum = 0;
+        for (final Long duration : durations) {
+            max = Math.max(max, duration);
+            sum += duration;
+        }
+        Log.d(String.format(Locale.US, "viewport queries during import: %d queries, average %d ms, maximum %d ms", durations.size(), sum / durations.size(), max));
+    }
+
+    public static void testTextReadLatency() {
+        final boolean compressTexts = Settings.isDbCompressTexts();
+        try {
+            final long plain = measureTextReadLatency(false);
+            final long compressed = measureTextReadLatency(true);
+            Log.d(String.format(Locale.US, "loading 100 descriptions: %d ms uncompressed, %d ms compressed", plain, compressed));
+        } finally {
+            Settings.setDbCompressTexts(compressTexts);
+        }
+    }
+
+    private static long measureTextReadLatency(final boolean compress) {
+        Settings.setDbCompressTexts(compress);
+        final StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            description.append("<p>Paragraph ").append(i).append(" of a rather long cache description.</p>");
+        }
+        final Set<String> geocodes = new HashSet<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                final Geocache cache = new Geocache();
+                cache.setGeocode(GEOCODE_PREFIX + "T" + i);
+                cache.setDetailed(true);
+                cache.setDescription(description.toString());
+                cache.getLists().add(StoredList.STANDARD_LIST_ID);
+                DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+                geocodes.add(cache.getGeocode());
+            }
+            final long start = SystemClock.elapsedRealtime();
+            for (final String geocode : geocodes) {
+                assertThat(DataStore.loadCacheTexts(geocode).getDescription()).isEqualTo(description.toString());
+            }
+            return SystemClock.elapsedRealtime() - start;
+        } finally {
+            DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+        }
+    }
+}
@@ -9,20 +9,27 @@ import cgeo.geocaching.connector.gc.Tile;
 import cgeo.geocaching.enumerations.CacheType;
 import cgeo.geocaching.enumerations.LoadFlags;
 import cgeo.geocaching.enumerations.LoadFlags.SaveFlag;
+import cgeo.geocaching.enumerations.LogType;
+import cgeo.geocaching.enumerations.WaypointType;
 import cgeo.geocaching.list.StoredList;
 import cgeo.geocaching.location.Geopoint;
 import cgeo.geocaching.location.Viewport;
 import cgeo.geocaching.models.Geocache;
 import cgeo.geocaching.models.LogEntry;
 import cgeo.geocaching.models.Trackable;
+import cgeo.geocaching.models.Waypoint;
 
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class DataStoreTest extends CGeoTestCase {
@@ -97,6 +104,146 @@ public class DataStoreTest extends CGeoTestCase {
         }
     }
 
+    public static void testListCounts() {
+        int listId = StoredList.STANDARD_LIST_ID;
+
+        final Geocache traditional = new Geocache();
+        traditional.setGeocode("GCZZLC1");
+        traditional.setType(CacheType.TRADITIONAL);
+        traditional.setDetailed(true);
+        final Geocache multi = new Geocache();
+        multi.setGeocode("GCZZLC2");
+        multi.setType(CacheType.MULTI);
+        multi.setDetailed(true);
+        final List<Geocache> caches = Arrays.asList(traditional, multi);
+
+        final int allCaches = DataStore.getAllCachesCount();
+        try {
+            listId = DataStore.createList("DataStore Counts Test");
+            assertThat(DataStore.getList(listId).getNumberOfCaches()).isEqualTo(0);
+
+            traditional.getLists().add(listId);
+            multi.getLists().add(listId);
+            DataStore.saveCaches(caches, EnumSet.of(SaveFlag.DB));
+            assertThat(DataStore.getList(listId).getNumberOfCaches()).isEqualTo(2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId)).isEqualTo(2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.TRADITIONAL, listId)).isEqualTo(1);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.MULTI, listId)).isEqualTo(1);
+            assertThat(DataStore.getAllCachesCount()).isEqualTo(allCaches + 2);
+
+            // adding a cache twice does not count it twice
+            DataStore.addToList(caches, listId);
+            assertThat(DataStore.getList(listId).getNumberOfCaches()).isEqualTo(2);
+
+            // a cache on two lists is counted for each list, but only once for all lists
+            DataStore.addToList(Collections.singletonList(traditional), StoredList.STANDARD_LIST_ID);
+            assertThat(DataStore.getAllCachesCount()).isEqualTo(allCaches + 2);
+
+            DataStore.removeFromList(Collections.singletonList(multi), listId);
+            assertThat(DataStore.getList(listId).getNumberOfCaches()).isEqualTo(1);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.MULTI, listId)).isEqualTo(0);
+            assertThat(DataStore.getAllCachesCount()).isEqualTo(allCaches + 1);
+
+            // the type counters follow the changes of the cache
+            traditional.setType(CacheType.MYSTERY);
+            DataStore.saveCache(traditional, EnumSet.of(SaveFlag.DB));
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.TRADITIONAL, listId)).isEqualTo(0);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.MYSTERY, listId)).isEqualTo(1);
+
+            DataStore.markDropped(Collections.singletonList(traditional));
+            assertThat(DataStore.getList(listId).getNumberOfCaches()).isEqualTo(0);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId)).isEqualTo(0);
+            assertThat(DataStore.getAllCachesCount()).isEqualTo(allCaches);
+        } finally {
+            final Set<String> geocodes = new HashSet<>();
+            geocodes.add(traditional.getGeocode());
+            geocodes.add(multi.getGeocode());
+            DataStore.markDropped(caches);
+            DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+            DataStore.removeList(listId);
+        }
+    }
+
+    public static void testMoveToList() {
+        int listId1 = StoredList.STANDARD_LIST_ID;
+        int listId2 = StoredList.STANDARD_LIST_ID;
+
+        final Geocache cache1 = new Geocache();
+        cache1.setGeocode("GCZZML1");
+        cache1.setDetailed(true);
+        final Geocache cache2 = new Geocache();
+        cache2.setGeocode("GCZZML2");
+        cache2.setDetailed(true);
+        final List<Geocache> caches = Arrays.asList(cache1, cache2);
+
+        try {
+            listId1 = DataStore.createList("DataStore Move Test 1");
+            listId2 = DataStore.createList("DataStore Move Test 2");
+            cache1.getLists().add(listId1);
+            cache2.getLists().add(listId1);
+            cache2.getLists().add(listId2);
+            DataStore.saveCaches(caches, LoadFlags.SAVE_ALL);
+
+            // a cache already on the target list is not added twice
+            DataStore.moveToList(caches, listId1, listId2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(0);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId2)).isEqualTo(2);
+            assertThat(cache1.getLists()).containsOnly(listId2);
+            assertThat(cache2.getLists()).containsOnly(listId2);
+
+            // whole lists are changed in the database and in the CacheCache
+            DataStore.copyAllToList(listId2, listId1);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(2);
+            assertThat(DataStore.loadCache(cache1.getGeocode(), LoadFlags.LOAD_CACHE_ONLY).getLists()).containsOnly(listId1, listId2);
+
+            DataStore.moveAllToList(listId2, listId1);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId1)).isEqualTo(2);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId2)).isEqualTo(0);
+            assertThat(DataStore.loadCache(cache2.getGeocode(), LoadFlags.LOAD_CACHE_ONLY).getLists()).containsOnly(listId1);
+        } finally {
+            final Set<String> geocodes = new HashSet<>();
+            geocodes.add(cache1.getGeocode());
+            geocodes.add(cache2.getGeocode());
+            DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+            DataStore.removeList(listId1);
+            DataStore.removeList(listId2);
+        }
+    }
+
+    // The list counts only count detailed caches by type, the whole list check must not depend on them
+    public static void testIsWholeListWithNonDetailedCaches() {
+        int listId = StoredList.STANDARD_LIST_ID;
+
+        final Geocache detailed = new Geocache();
+        detailed.setGeocode("GCZZWL1");
+        detailed.setType(CacheType.TRADITIONAL);
+        detailed.setDetailed(true);
+        final Geocache nonDetailed = new Geocache();
+        nonDetailed.setGeocode("GCZZWL2");
+        nonDetailed.setType(CacheType.TRADITIONAL);
+        nonDetailed.setDetailed(false);
+
+        try {
+            listId = DataStore.createList("DataStore Whole List Test");
+            detailed.getLists().add(listId);
+            nonDetailed.getLists().add(listId);
+            DataStore.saveCache(detailed, LoadFlags.SAVE_ALL);
+            DataStore.storeIntoDatabase(nonDetailed);
+            assertThat(DataStore.getAllStoredCachesCount(CacheType.ALL, listId)).isEqualTo(1);
+            assertThat(DataStore.getList(listId).getNumberOfCaches()).isEqualTo(2);
+
+            assertThat(DataStore.isWholeList(Collections.singletonList(detailed), listId)).isFalse();
+            assertThat(DataStore.isWholeList(Collections.singletonList(nonDetailed), listId)).isFalse();
+            assertThat(DataStore.isWholeList(Arrays.asList(detailed, nonDetailed), listId)).isTrue();
+        } finally {
+            final Set<String> geocodes = new HashSet<>();
+            geocodes.add(detailed.getGeocode());
+            geocodes.add(nonDetailed.getGeocode());
+            DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+            DataStore.removeList(listId);
+        }
+    }
+
     // Check that queries don't throw an exception (see issue #1429).
     public static void testLoadWaypoints() {
         final Viewport viewport = new Viewport(new Geopoint(-1, -2), new Geopoint(3, 4));
@@ -137,6 +284,137 @@ public class DataStoreTest extends CGeoTestCase {
         }
     }
 
+    public static void testSaveInventory() {
+        final String GEOCODE_CACHE = "TESTINVENTORY";
+
+        final Geocache cache = new Geocache();
+        cache.setGeocode(GEOCODE_CACHE);
+        cache.setDetailed(true);
+        final Trackable kept = new Trackable();
+        kept.setGeocode("TBZZIN1");
+        kept.setName("kept");
+        final Trackable leaving = new Trackable();
+        leaving.setGeocode("TBZZIN2");
+        leaving.setName("leaving");
+        cache.setInventory(new ArrayList<>(Arrays.asList(kept, leaving)));
+
+        try {
+            // a trackable saved with its logs before the cache
+            final Trackable withLogs = new Trackable();
+            withLogs.setGeocode(kept.getGeocode());
+            withLogs.setName("kept");
+            withLogs.setLogs(Collections.singletonList(new LogEntry.Builder().setAuthor("author").setDate(1000000L).setLogType(LogType.DISCOVERED_IT).setLog("seen").build()));
+            DataStore.saveTrackable(withLogs);
+
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+            assertThat(DataStore.loadCache(GEOCODE_CACHE, LoadFlags.LOAD_ALL_DB_ONLY).getInventory()).hasSize(2);
+            // the inventory of the cache page has no logs, the stored ones are kept
+            final Trackable loaded = DataStore.loadTrackable(kept.getGeocode());
+            assertThat(loaded).isNotNull();
+            assertThat(loaded.getLogs()).hasSize(1);
+
+            // saving a single trackable keeps it in the inventory of its cache
+            kept.setName("renamed");
+            DataStore.saveTrackable(kept);
+            assertThat(DataStore.loadTrackable(kept.getGeocode()).getName()).isEqualTo("renamed");
+            assertThat(DataStore.loadTrackable(kept.getGeocode()).getLogs()).isEmpty();
+
+            cache.setInventory(new ArrayList<>(Collections.singletonList(kept)));
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+            final List<Trackable> inventory = DataStore.loadCache(GEOCODE_CACHE, LoadFlags.LOAD_ALL_DB_ONLY).getInventory();
+            assertThat(inventory).hasSize(1);
+            assertThat(inventory.get(0).getName()).isEqualTo("renamed");
+            assertThat(DataStore.loadTrackable(leaving.getGeocode())).isNull();
+        } finally {
+            DataStore.removeCache(GEOCODE_CACHE, LoadFlags.REMOVE_ALL);
+            // trackable logs are stored under the trackable code, not the geocode of the cache
+            DataStore.saveLogs(kept.getGeocode(), Collections.<LogEntry>emptyList());
+        }
+    }
+
+    public static void testSaveWaypoints() {
+        final String GEOCODE_CACHE = "TESTWAYPOINTS";
+
+        final Geocache cache = new Geocache();
+        cache.setGeocode(GEOCODE_CACHE);
+        cache.setDetailed(true);
+        final Waypoint parking = new Waypoint("parking", WaypointType.PARKING, false);
+        parking.setPrefix("PK");
+        parking.setCoords(new Geopoint(48.1234, 11.5678));
+        final Waypoint stage = new Waypoint("stage", WaypointType.STAGE, false);
+        stage.setPrefix("S1");
+        cache.setWaypoints(new ArrayList<>(Arrays.asList(parking, stage)), false);
+
+        try {
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+            assertThat(parking.getId()).isGreaterThan(0);
+            assertThat(stage.getId()).isGreaterThan(0);
+            final int parkingId = parking.getId();
+
+            // unchanged, changed and removed waypoints
+            stage.setNote("changed");
+            cache.setWaypoints(new ArrayList<>(Arrays.asList(parking, stage)), false);
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+            cache.setWaypoints(new ArrayList<>(Collections.singletonList(stage)), false);
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+
+            final List<Waypoint> waypoints = DataStore.loadWaypoints(GEOCODE_CACHE);
+            assertThat(waypoints).hasSize(1);
+            assertThat(waypoints.get(0).getId()).isEqualTo(stage.getId());
+            assertThat(waypoints.get(0).getNote()).isEqualTo("changed");
+            assertThat(DataStore.loadWaypoint(parkingId)).isNull();
+
+            // coordinates survive the comparison with the stored values
+            stage.setCoords(new Geopoint(48.1234, 11.5678));
+            DataStore.saveCache(cache, EnumSet.of(SaveFlag.DB));
+            assertThat(DataStore.loadWaypoint(stage.getId()).getCoords()).isEqualTo(new Geopoint(48.1234, 11.5678));
+        } finally {
+            DataStore.removeCache(GEOCODE_CACHE, LoadFlags.REMOVE_ALL);
+        }
+    }
+
+    public static void testSaveAdditionalWaypoints() {
+        final String GEOCODE_CACHE = "TESTADDWAYPOINTS";
+
+        final Geocache cache = new Geocache();
+        cache.setGeocode(GEOCODE_CACHE);
+        cache.setDetailed(true);
+        final Waypoint parking = new Waypoint("parking", WaypointType.PARKING, false);
+        parking.setPrefix("PK");
+        final Waypoint own = new Waypoint("own", WaypointType.OWN, true);
+        cache.setWaypoints(new ArrayList<>(Arrays.asList(parking, own)), false);
+
+        try {
+            DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+            assertThat(DataStore.isCacheStored(GEOCODE_CACHE)).isTrue();
+
+            // an update of the parking and a new stage
+            final Waypoint newParking = new Waypoint("new parking", WaypointType.PARKING, false);
+            newParking.setPrefix("PK");
+            newParking.setCoords(new Geopoint(48.1234, 11.5678));
+            final Waypoint stage = new Waypoint("stage", WaypointType.STAGE, false);
+            stage.setPrefix("S1");
+            final Map<String, List<Waypoint>> waypointsByGeocode = new HashMap<>();
+            waypointsByGeocode.put(GEOCODE_CACHE, new ArrayList<>(Arrays.asList(newParking, stage)));
+            DataStore.saveAdditionalWaypoints(waypointsByGeocode);
+
+            final List<Waypoint> waypoints = DataStore.loadWaypoints(GEOCODE_CACHE);
+            assertThat(waypoints).hasSize(3);
+            assertThat(newParking.getId()).isEqualTo(parking.getId());
+            assertThat(DataStore.loadWaypoint(parking.getId()).getName()).isEqualTo("new parking");
+            assertThat(DataStore.loadWaypoint(own.getId())).isNotNull();
+            assertThat(stage.getId()).isGreaterThan(0);
+
+            // the cache in memory has the same waypoints, without loading it again
+            final Geocache cachedCache = DataStore.loadCache(GEOCODE_CACHE, LoadFlags.LOAD_CACHE_ONLY);
+            assertThat(cachedCache).isNotNull();
+            assertThat(cachedCache.getWaypoints()).hasSize(3);
+        } finally {
+            DataStore.removeCache(GEOCODE_CACHE, LoadFlags.REMOVE_ALL);
+        }
+        assertThat(DataStore.isCacheStored(GEOCODE_CACHE)).isFalse();
+    }
+
     // Check that loading a cache by case insensitive geo code works correctly (see #3139)
     public static void testGeocodeCaseInsensitive() {
 
@@ -174,6 +452,116 @@ public class DataStoreTest extends CGeoTestCase {
         assertThat(logs).as("Logs for empty geocode").isEmpty();
     }
 
+    // Saving logs again must keep unchanged logs and only write the differences
+    public static void testSaveLogsDifferentially() {
+        final String geocode = "TESTLOGS";
+        final LogEntry kept = new LogEntry.Builder().setAuthor("author 1").setDate(1000000L).setLogType(LogType.FOUND_IT).setLog("kept").build();
+        final LogEntry changed = new LogEntry.Builder().setAuthor("author 2").setDate(2000000L).setLogType(LogType.NOTE).setLog("original").build();
+        final LogEntry removed = new LogEntry.Builder().setAuthor("author 3").setDate(3000000L).setLogType(LogType.DIDNT_FIND_IT).setLog("removed").build();
+        final LogEntry added = new LogEntry.Builder().setAuthor("author 4").setDate(4000000L).setLogType(LogType.FOUND_IT).setLog("added").build();
+
+        try {
+            assertThat(DataStore.loadLogs(geocode)).isEmpty();
+            DataStore.saveLogs(geocode, Arrays.asList(kept, changed, removed));
+            final List<LogEntry> before = DataStore.loadLogs(geocode);
+            assertThat(before).hasSize(3);
+
+            DataStore.saveLogs(geocode, Arrays.asList(kept, changed.buildUpon().setLog("edited").build(), added));
+            final List<LogEntry> after = DataStore.loadLogs(geocode);
+            assertThat(after).hasSize(3);
+            // logs are sorted by descending date
+            assertThat(after.get(0).log).isEqualTo("added");
+            assertThat(after.get(1).log).isEqualTo("edited");
+            assertThat(after.get(1).id).isEqualTo(before.get(1).id);
+            assertThat(after.get(2).log).isEqualTo("kept");
+            assertThat(after.get(2).id).isEqualTo(before.get(2).id);
+        } finally {
+            DataStore.saveLogs(geocode, Collections.<LogEntry>emptyList());
+        }
+        assertThat(DataStore.loadLogs(geocode)).isEmpty();
+    }
+
+    // Batches sharing a date must not match the same stored log twice, and logs not saved again must be removed
+    public static void testLogBatchWriter() {
+        final String geocode = "TESTLOGBATCH";
+        final LogEntry first = new LogEntry.Builder().setAuthor("author").setDate(2000000L).setLogType(LogType.NOTE).setLog("first").build();
+        final LogEntry second = new LogEntry.Builder().setAuthor("author").setDate(2000000L).setLogType(LogType.NOTE).setLog("second").build();
+        final LogEntry removed = new LogEntry.Builder().setAuthor("author").setDate(1000000L).setLogType(LogType.NOTE).setLog("removed").build();
+
+        try {
+            DataStore.saveLogs(geocode, Arrays.asList(first, second, removed));
+            final List<LogEntry> before = DataStore.loadLogs(geocode);
+
+            final DataStore.LogBatchWriter writer = new DataStore.LogBatchWriter(geocode);
+            writer.save(Collections.singletonList(first));
+            writer.save(Collections.singletonList(second));
+            writer.removeObsoleteLogs();
+            final List<LogEntry> after = DataStore.loadLogs(geocode);
+            assertThat(after).hasSize(2);
+            assertThat(after.get(0).id).isEqualTo(before.get(0).id);
+            assertThat(after.get(1).id).isEqualTo(before.get(1).id);
+        } finally {
+            DataStore.saveLogs(geocode, Collections.<LogEntry>emptyList());
+        }
+    }
+
+    public static void testSaveLogsKeepsOrderOfDay() {
+        final String geocode = "TESTLOGORDER";
+        final LogEntry older = new LogEntry.Builder().setAuthor("older").setDate(2000000L).setLogType(LogType.NOTE).setLog("older").build();
+        final LogEntry newer = new LogEntry.Builder().setAuthor("newer").setDate(2000000L).setLogType(LogType.NOTE).setLog("newer").build();
+        final LogEntry newest = new LogEntry.Builder().setAuthor("newest").setDate(2000000L).setLogType(LogType.NOTE).setLog("newest").build();
+        final LogEntry previousDay = new LogEntry.Builder().setAuthor("older").setDate(1000000L).setLogType(LogType.NOTE).setLog("previous day").build();
+
+        try {
+            DataStore.saveLogs(geocode, Arrays.asList(newer, older, previousDay));
+            final long previousDayId = DataStore.loadLogs(geocode).get(2).id;
+
+            // a new log of the same day is listed first by the website
+            DataStore.saveLogs(geocode, Arrays.asList(newest, newer, older, previousDay));
+            final List<LogEntry> saved = DataStore.loadLogs(geocode);
+            assertThat(logTexts(saved)).containsExactly("newest", "newer", "older", "previous day");
+            // logs of other days are left as they are
+            assertThat(saved.get(3).id).isEqualTo(previousDayId);
+
+            final DataStore.LogBatchWriter writer = new DataStore.LogBatchWriter(geocode);
+            writer.save(Collections.singletonList(older));
+            writer.save(Arrays.asList(newer, newest, previousDay));
+            writer.removeObsoleteLogs();
+            assertThat(logTexts(DataStore.loadLogs(geocode))).containsExactly("older", "newer", "newest", "previous day");
+        } finally {
+            DataStore.saveLogs(geocode, Collections.<LogEntry>emptyList());
+        }
+    }
+
+    private static List<String> logTexts(final List<LogEntry> logs) {
+        final List<String> texts = new ArrayList<>();
+        for (final LogEntry log : logs) {
+            texts.add(log.log);
+        }
+        return texts;
+    }
+
+    public static void testLoadLogsOffline() {
+        final String geocode1 = "TESTOFFLINE1";
+        final String geocode2 = "TESTOFFLINE2";
+        try {
+            DataStore.saveLogOffline(geocode1, new Date(1000000L), LogType.NOTE, "first");
+            DataStore.saveLogOffline(geocode1, new Date(3000000L), LogType.FOUND_IT, "second");
+            DataStore.saveLogOffline(geocode2, new Date(2000000L), LogType.DIDNT_FIND_IT, "other");
+
+            final Map<String, LogEntry> logs = DataStore.loadLogsOffline(Arrays.asList(geocode1, geocode2, "TESTOFFLINE3"), Long.MIN_VALUE);
+            assertThat(logs).hasSize(2);
+            // same result as loading the logs one by one
+            assertThat(logs.get(geocode1).log).isEqualTo(DataStore.loadLogOffline(geocode1).log);
+            assertThat(logs.get(geocode2).log).isEqualTo("other");
+
+            assertThat(DataStore.loadLogsOffline(Arrays.asList(geocode1, geocode2), 2500000L).keySet()).containsOnly(geocode1);
+        } finally {
+            DataStore.clearLogOffline(geocode1);
+            DataStore.clearLogOffline(geocode2);
+        }
+    }
+
     public static void testLoadCacheHistory() {
         int sumCaches = 0;
         int allCaches = 0;
@@ -0,0 +1,103 @@
+package cgeo.geocaching.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cgeo.CGeoTestCase;
+import cgeo.geocaching.enumerations.LoadFlags;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class ImageStoreTest extends CGeoTestCase {
+
+    private static final String GEOCODE_1 = "GCZZIS1";
+    private static final String GEOCODE_2 = "GCZZIS2";
+    private static final String URL_1 = "http://www.example.com/image_store_test/banner.png";
+    private static final String URL_2 = "http://www.example.net/image_store_test/banner.png";
+
+    private static void save(final String geocode, final String nameOrUrl, final boolean isUrl, final String content) {
+        assertThat(ImageStore.save(geocode, nameOrUrl, isUrl, new ByteArrayInputStream(content.getBytes()))).isTrue();
+    }
+
+    private static void removeAll() {
+        final Set<String> geocodes = new HashSet<>();
+        Collections.addAll(geocodes, GEOCODE_1, GEOCODE_2);
+        DataStore.removeCaches(geocodes, LoadFlags.REMOVE_ALL);
+    }
+
+    public static void testSameContentIsStoredOnce() {
+        try {
+            save(GEOCODE_1, URL_1, true, "banner");
+            save(GEOCODE_2, URL_2, true, "banner");
+            final File file1 = ImageStore.getFile(GEOCODE_1, URL_1, true);
+            final File file2 = ImageStore.getFile(GEOCODE_2, URL_2, true);
+            assertThat(file1).isNotNull();
+            assertThat(file1).isEqualTo(file2);
+        } finally {
+            removeAll();
+        }
+    }
+
+    public static void testBlobIsDeletedWithLastReference() {
+        try {
+            save(GEOCODE_1, URL_1, true, "shared banner");
+            // the second cache uses the same url
+            final File file = ImageStore.getFile(GEOCODE_2, URL_1, true);
+            assertThat(file).isNotNull();
+
+            DataStore.removeCaches(Collections.singleton(GEOCODE_1), LoadFlags.REMOVE_ALL);
+            assertThat(file.exists()).isTrue();
+            assertThat(ImageStore.getFile(GEOCODE_2, URL_1, true)).isEqualTo(file);
+
+            DataStore.removeCaches(Collections.singleton(GEOCODE_2), LoadFlags.REMOVE_ALL);
+            StorageJanitor.processQueue();
+            assertThat(file.exists()).isFalse();
+            assertThat(ImageStore.getFile(GEOCODE_2, URL_1, true)).isNull();
+        } finally {
+            removeAll();
+        }
+    }
+
+    public static void testFileNamesArePerGeocode() {
+        try {
+            save(GEOCODE_1, "map_1", false, "map of first cache");
+            assertThat(ImageStore.getFile(GEOCODE_1, "map_1", false)).isNotNull();
+            assertThat(ImageStore.getFile(GEOCODE_2, "map_1", false)).isNull();
+
+            ImageStore.remove(GEOCODE_1, "map_1", false);
+            assertThat(ImageStore.getFile(GEOCODE_1, "map_1", false)).isNull();
+        } finally {
+            removeAll();
+        }
+    }
+
+    public static void testReplacedContentIsDeleted() {
+        try {
+            save(GEOCODE_1, URL_1, true, "old banner");
+            final File oldFile = ImageStore.getFile(GEOCODE_1, URL_1, true);
+            save(GEOCODE_1, URL_1, true, "new banner");
+            final File newFile = ImageStore.getFile(GEOCODE_1, URL_1, true);
+            assertThat(newFile).isNotEqualTo(oldFile);
+            assertThat(oldFile.exists()).isFalse();
+        } finally {
+            removeAll();
+        }
+    }
+
+    public static void testLegacyFileIsImported() {
+        try {
+            final File legacyFile = LocalStorage.getStorageFile(GEOCODE_1, URL_1, true, true);
+            assertThat(LocalStorage.saveToFile(new ByteArrayInputStream("legacy banner".getBytes()), legacyFile)).isTrue();
+
+            final File file = ImageStore.getFile(GEOCODE_1, URL_1, true);
+            assertThat(file).isNotNull();
+            assertThat(file.length()).isEqualTo("legacy banner".length());
+            assertThat(legacyFile.exists()).isFalse();
+        } finally {
+            removeAll();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cgeo.geocaching.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cgeo.CGeoTestCase;
+import cgeo.geocaching.enumerations.LoadFlags;
+import cgeo.geocaching.list.StoredList;
+import cgeo.geocaching.models.Geocache;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Collections;
+
+public class StorageJanitorTest extends CGeoTestCase {
+
+    private static final String GEOCODE = "GCZZSJ1";
+
+    private static File createCacheFile() {
+        final File file = LocalStorage.getStorageFile(GEOCODE, "janitor.txt", false, true);
+        assertThat(LocalStorage.saveToFile(new ByteArrayInputStream("janitor".getBytes()), file)).isTrue();
+        return file;
+    }
+
+    private static void storeCache() {
+        final Geocache cache = new Geocache();
+        cache.setGeocode(GEOCODE);
+        cache.setDetailed(true);
+        cache.getLists().add(StoredList.STANDARD_LIST_ID);
+        DataStore.saveCache(cache, LoadFlags.SAVE_ALL);
+    }
+
+    public static void testRemovedCacheDirectoryIsDeleted() {
+        try {
+            final File file = createCacheFile();
+            DataStore.removeCaches(Collections.singleton(GEOCODE), LoadFlags.REMOVE_ALL);
+            StorageJanitor.processQueue();
+            assertThat(file.exists()).isFalse();
+            assertThat(LocalStorage.getStorageDir(GEOCODE).exists()).isFalse();
+        } finally {
+            DataStore.removeCaches(Collections.singleton(GEOCODE), LoadFlags.REMOVE_ALL);
+            StorageJanitor.processQueue();
+        }
+    }
+
+    public static void testCacheStoredAgainKeepsDirectory() {
+        try {
+            DataStore.removeCaches(Collections.singleton(GEOCODE), LoadFlags.REMOVE_ALL);
+            // the cache is stored again before the janitor runs
+            storeCache();
+            final File file = createCacheFile();
+            StorageJanitor.processQueue();
+            assertThat(file.exists()).isTrue();
+            assertThat(DataStore.loadCleanupTasks(StorageJanitor.BATCH_SIZE)).isEmpty();
+        } finally {
+            DataStore.removeCaches(Collections.singleton(GEOCODE), LoadFlags.REMOVE_ALL);
+            StorageJanitor.processQueue();
+        }
+    }
+}
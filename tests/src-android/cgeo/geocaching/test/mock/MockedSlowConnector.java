@@ -0,0 +1,74 @@
+package cgeo.geocaching.test.mock;
+
+import cgeo.geocaching.SearchResult;
+import cgeo.geocaching.connector.AbstractConnector;
+import cgeo.geocaching.models.Geocache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.jdt.annotation.NonNull;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Active connector answering a search with a single geocode after a given delay.
+ */
+public class MockedSlowConnector extends AbstractConnector {
+
+    private final String geocode;
+    private final long delayMillis;
+
+    public MockedSlowConnector(final String geocode, final long delayMillis) {
+        this.geocode = geocode;
+        this.delayMillis = delayMillis;
+    }
+
+    public SearchResult search() {
+        try {
+            Thread.sleep(delayMillis);
+        } catch (final InterruptedException ignored) {
+            return null;
+        }
+        final SearchResult result = new SearchResult();
+        result.addGeocode(geocode);
+        return result;
+    }
+
+    @Override
+    public boolean isActive() {
+        return true;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return "Mocked " + geocode;
+    }
+
+    @Override
+    @Nullable
+    public String getCacheUrl(@NonNull final Geocache cache) {
+        return null;
+    }
+
+    @Override
+    @NonNull
+    public String getHost() {
+        return StringUtils.EMPTY;
+    }
+
+    @Override
+    public boolean isOwner(@NonNull final Geocache cache) {
+        return false;
+    }
+
+    @Override
+    public boolean canHandle(@NonNull final String geocode) {
+        return this.geocode.equals(geocode);
+    }
+
+    @Override
+    @NonNull
+    protected String getCacheUrlPrefix() {
+        return StringUtils.EMPTY;
+    }
+
+}
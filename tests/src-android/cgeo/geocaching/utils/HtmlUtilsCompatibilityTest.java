@@ -0,0 +1,49 @@
+package cgeo.geocaching.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cgeo.geocaching.test.AbstractResourceInstrumentationTestCase;
+import cgeo.geocaching.test.R;
+
+import org.apache.commons.lang3.StringEscapeUtils;
+
+import android.text.Html;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the text extraction of {@link HtmlUtils} with the one of {@link Html#fromHtml(String)}, which was used
+ * before, for the hints of the GPX test files.
+ */
+public class HtmlUtilsCompatibilityTest extends AbstractResourceInstrumentationTestCase {
+
+    private static final Pattern PATTERN_HINTS = Pattern.compile("<groundspeak:encoded_hints>(.*?)</groundspeak:encoded_hints>", Pattern.DOTALL);
+
+    public void testHintsLikeFromHtml() {
+        int hints = 0;
+        for (final int resourceId : new int[] { R.raw.challenge, R.raw.gctour_gpx, R.raw.renamed_waypoints, R.raw.gc31j2h, R.raw.tc2012 }) {
+            final Matcher matcher = PATTERN_HINTS.matcher(getFileContent(resourceId));
+            while (matcher.find()) {
+                // the XML parser of the GPX import normalizes the line ends
+                final String hint = StringEscapeUtils.unescapeXml(matcher.group(1)).replace("\r\n", "\n");
+                // fromHtml() keeps a replacement character for images, extractText() removes images
+                final String expected = Html.fromHtml(hint).toString().replace("\uFFFC", "").trim();
+                assertThat(HtmlUtils.extractText(hint)).as(hint).isEqualTo(expected);
+                hints++;
+            }
+        }
+        assertThat(hints).isGreaterThan(100);
+    }
+
+    public void testMarkupLikeFromHtml() {
+        for (final String html : new String[] { "<b>bold</b> text", "one<br>two<br/>three", "<p>one</p><p>two</p>", "<div>one</div>two",
+                "<h2>Title</h2>text", "a &amp; b &lt;c&gt; &#65; caf&eacute;", "  spaces \n\n between  words ", "<p>one<br></p>two" }) {
+            assertThat(HtmlUtils.extractText(html)).as(html).isEqualTo(Html.fromHtml(html).toString().trim());
+        }
+    }
+
+    public void testImagesRemoved() {
+        assertThat(HtmlUtils.extractText(Html.fromHtml("before<img src=\"a.png\">after"))).isEqualTo("beforeafter");
+    }
+}
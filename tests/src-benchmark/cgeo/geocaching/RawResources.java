@@ -0,0 +1,23 @@
+package cgeo.geocaching;
+
+import java.io.File;
+
+/**
+ * Access to the test files in tests/res/raw, which are Android resources of the tests project and therefore not on the
+ * class path of the benchmarks.
+ */
+public final class RawResources {
+
+    private RawResources() {
+        // utility class
+    }
+
+    /**
+     * @return the directory of the raw resources, relative to the main project directory in which the benchmarks run
+     *         or to the repository root
+     */
+    public static File getDirectory() {
+        final File raw = new File("../tests/res/raw");
+        return raw.isDirectory() ? raw : new File("tests/res/raw");
+    }
+}
@@ -0,0 +1,82 @@
+package cgeo.geocaching.connector.gc;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.location.Viewport;
+import cgeo.geocaching.test.mock.MockedCache;
+import cgeo.geocaching.utils.TextUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+
+/**
+ * Pattern matching done when parsing a cache details page, using the stored pages of the mocked caches, and the tile
+ * calculations done for every live map movement.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GCParserBenchmark {
+
+    @Param({ "GC1ZXX2", "GC2CJPF", "GC2JVEH", "GC3XX5J" })
+    public String geocode;
+
+    private String page;
+    private Geopoint origin = new Geopoint(49.7, 8.6);
+    private Viewport viewport = new Viewport(new Geopoint(49.6, 8.5), new Geopoint(49.8, 8.7));
+
+    @Setup
+    public void setUp() {
+        page = MockedCache.readCachePage(geocode);
+    }
+
+    @Benchmark
+    public String description() {
+        return TextUtils.getMatch(page, GCConstants.PATTERN_DESC, true, "");
+    }
+
+    @Benchmark
+    public void header(final Blackhole blackhole) {
+        blackhole.consume(TextUtils.getMatch(page, GCConstants.PATTERN_NAME, true, ""));
+        blackhole.consume(TextUtils.getMatch(page, GCConstants.PATTERN_LATLON, true, ""));
+        blackhole.consume(TextUtils.getMatch(page, GCConstants.PATTERN_SIZE, true, ""));
+        blackhole.consume(TextUtils.getMatch(page, GCConstants.PATTERN_TYPE, true, ""));
+        blackhole.consume(TextUtils.getMatch(page, GCConstants.PATTERN_HIDDEN, true, ""));
+        blackhole.consume(TextUtils.getMatch(page, GCConstants.PATTERN_FAVORITECOUNT, true, ""));
+    }
+
+    @Benchmark
+    public void attributes(final Blackhole blackhole) {
+        final String attributes = TextUtils.getMatch(page, GCConstants.PATTERN_ATTRIBUTES, true, "");
+        final Matcher matcher = GCConstants.PATTERN_ATTRIBUTESINSIDE.matcher(attributes);
+        while (matcher.find()) {
+            blackhole.consume(matcher.group(2));
+        }
+    }
+
+    @Benchmark
+    public Tile tile() {
+        return new Tile(origin, Tile.ZOOMLEVEL_MAX);
+    }
+
+    @Benchmark
+    public Set<Tile> tilesForViewport() {
+        return Tile.getTilesForViewport(viewport);
+    }
+}
@@ -0,0 +1,94 @@
+package cgeo.geocaching.connector.trackable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.parsers.SAXParserFactory;
+
+/**
+ * Parsing of 1000 GeoKrety in the format of the GeoKrety export, either as one large export or as many small responses
+ * like the ones of an inventory refresh. Creating a SAX parser for every response is included as baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeokretyParserBenchmark {
+
+    private static final int GEOKRETY = 1000;
+
+    private static final GeokretyParser.Texts TEXTS = new GeokretyParser.Texts("User Id: %s",
+            new String[] { "Traditional", "Book or electronic media", "Human", "Coin", "Mail" });
+
+    @Param({ "1", "25", "1000" })
+    public int documents;
+
+    private String[] responses;
+
+    @Setup
+    public void setUp() {
+        // fixed seed, so that all runs parse the same documents
+        final Random random = new Random(42);
+        responses = new String[documents];
+        final int perDocument = GEOKRETY / documents;
+        for (int d = 0; d < documents; d++) {
+            final StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\" ?>\n<gkxml version=\"1.0\" date=\"2015-03-31 00:53:46\"><geokrety>\n");
+            for (int i = 0; i < perDocument; i++) {
+                final int id = 40000 + d * perDocument + i;
+                xml.append(String.format(Locale.US, "  <geokret id=\"%d\">\n", id))
+                        .append(String.format(Locale.US, "    <name><![CDATA[GeoKret %d]]></name>\n", id))
+                        .append("    <description><![CDATA[Travels from cache to cache.<br />\nPlease move me along. <br />\n<br />\nThanks!]]></description>\n")
+                        .append(String.format(Locale.US, "    <owner id=\"%d\"><![CDATA[Owner %d]]></owner>\n", 10000 + random.nextInt(20000), random.nextInt(500)))
+                        .append(String.format(Locale.US, "    <datecreated>20%02d-%02d-%02d 12:%02d:%02d</datecreated>\n", 8 + random.nextInt(8), 1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(60), random.nextInt(60)))
+                        .append(String.format(Locale.US, "    <distancetravelled>%d</distancetravelled>\n", random.nextInt(10000)))
+                        .append(String.format(Locale.US, "    <state>%d</state>\n", random.nextInt(6)))
+                        .append(String.format(Locale.US, "    <missing>%d</missing>\n", random.nextInt(10) == 0 ? 1 : 0))
+                        .append(String.format(Locale.US, "    <position latitude=\"%.5f\" longitude=\"%.5f\"/>\n", 40 + random.nextDouble() * 20, random.nextDouble() * 20))
+                        .append(String.format(Locale.US, "    <waypoints>\n      <waypoint>GC%X</waypoint>\n    </waypoints>\n", 0x10000 + random.nextInt(0xFFFFF)))
+                        .append(String.format(Locale.US, "    <type id=\"%d\">Traditional</type>\n", random.nextInt(5)))
+                        .append(String.format(Locale.US, "    <image>%dabcde.png</image>\n", id))
+                        .append("  </geokret>\n");
+            }
+            responses[d] = xml.append("</geokrety><history/></gkxml>").toString();
+        }
+    }
+
+    @Benchmark
+    public void parse(final Blackhole blackhole) {
+        for (final String response : responses) {
+            blackhole.consume(GeokretyParser.parse(new InputSource(new StringReader(response)), TEXTS));
+        }
+    }
+
+    @Benchmark
+    public void parseNewParserBaseline(final Blackhole blackhole) throws Exception {
+        for (final String response : responses) {
+            final SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            final XMLReader reader = factory.newSAXParser().getXMLReader();
+            final GeokretyParser.GeokretyHandler handler = new GeokretyParser.GeokretyHandler(TEXTS);
+            reader.setContentHandler(handler);
+            reader.parse(new InputSource(new StringReader(response)));
+            blackhole.consume(handler.getTrackables());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package cgeo.geocaching.files;
+
+import cgeo.geocaching.utils.DateCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Date parsing for the logs of a GPX file with 1000 logs, with several parser threads running in parallel (like
+ * imports of several files). The former implementation with shared synchronized formats is included as baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class GpxDateBenchmark {
+
+    private static final int LOGS = 1000;
+
+    private final SimpleDateFormat sharedFormatZ = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+    private final SimpleDateFormat sharedFormatTimezone = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ", Locale.US);
+
+    private final String[] gpxDates = new String[LOGS];
+    private final String[] gcDates = new String[LOGS];
+
+    @Setup
+    public void setUp() {
+        // fixed seed, so that all runs parse the same dates
+        final Random random = new Random(42);
+        for (int i = 0; i < LOGS; i++) {
+            final int year = 2005 + random.nextInt(11);
+            final int month = 1 + random.nextInt(12);
+            final int day = 1 + random.nextInt(28);
+            // the dates of geocaching.com pocket queries, and some of other tools with fractions or time zones
+            switch (i % 10) {
+                case 8:
+                    gpxDates[i] = String.format(Locale.US, "%04d-%02d-%02dT%02d:%02d:%02d.%03dZ", year, month, day, random.nextInt(24), random.nextInt(60), random.nextInt(60), random.nextInt(1000));
+                    break;
+                case 9:
+                    gpxDates[i] = String.format(Locale.US, "%04d-%02d-%02dT%02d:%02d:%02d-07:00", year, month, day, random.nextInt(24), random.nextInt(60), random.nextInt(60));
+                    break;
+                default:
+                    gpxDates[i] = String.format(Locale.US, "%04d-%02d-%02dT19:00:00Z", year, month, day);
+                    break;
+            }
+            gcDates[i] = String.format(Locale.US, "%02d/%02d/%04d", month, day, year);
+        }
+    }
+
+    @Benchmark
+    public void gpxDates(final Blackhole blackhole) throws ParseException {
+        for (final String date : gpxDates) {
+            blackhole.consume(GPXParser.parseDate(date));
+        }
+    }
+
+    @Benchmark
+    public void gpxDatesSynchronizedBaseline(final Blackhole blackhole) throws ParseException {
+        for (final String date : gpxDates) {
+            final String input = date.replaceFirst("\\.\\d{3,7}", "");
+            if (input.contains("Z")) {
+                synchronized (sharedFormatZ) {
+                    blackhole.consume(sharedFormatZ.parse(input));
+                }
+            } else {
+                final String removeColon = input.substring(0, input.length() - 3) + input.substring(input.length() - 2);
+                synchronized (sharedFormatTimezone) {
+                    blackhole.consume(sharedFormatTimezone.parse(removeColon));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void gcCustomDates(final Blackhole blackhole) throws ParseException {
+        for (final String date : gcDates) {
+            blackhole.consume(DateCodec.parse(date, "MM/dd/yyyy", Locale.ENGLISH));
+        }
+    }
+
+    @Benchmark
+    public void gcCustomDatesNewFormatBaseline(final Blackhole blackhole) throws ParseException {
+        for (final String date : gcDates) {
+            blackhole.consume(new SimpleDateFormat("MM/dd/yyyy", Locale.ENGLISH).parse(date));
+        }
+    }
+}
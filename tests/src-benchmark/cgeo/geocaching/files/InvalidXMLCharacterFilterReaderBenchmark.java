@@ -0,0 +1,83 @@
+package cgeo.geocaching.files;
+
+import cgeo.geocaching.RawResources;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.util.Enumeration;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Throughput of the character filter of the GPX import, reading the GPX files of the pocket query archives in
+ * tests/res/raw. Reading the same files without filter is included as baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvalidXMLCharacterFilterReaderBenchmark {
+
+    @Param({ "pq7545915.zip", "pq_entities.zip", "pq_cp437.zip" })
+    public String archive;
+
+    private String gpx;
+
+    private final char[] buffer = new char[8192];
+
+    @Setup
+    public void setUp() throws IOException {
+        final StringBuilder content = new StringBuilder();
+        // pq_cp437.zip has entry names which are not UTF-8, only the extension of the names is used here
+        final ZipFile zip = new ZipFile(new File(RawResources.getDirectory(), archive), Charset.forName("IBM437"));
+        try {
+            for (final Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+                final ZipEntry entry = entries.nextElement();
+                if (entry.getName().endsWith(".gpx")) {
+                    content.append(IOUtils.toString(zip.getInputStream(entry), "UTF-8"));
+                }
+            }
+        } finally {
+            zip.close();
+        }
+        gpx = content.toString();
+    }
+
+    private int readAll(final Reader reader) throws IOException {
+        int characters = 0;
+        int read;
+        while ((read = reader.read(buffer, 0, buffer.length)) != -1) {
+            characters += read;
+        }
+        return characters;
+    }
+
+    @Benchmark
+    public int filter() throws IOException {
+        return readAll(new InvalidXMLCharacterFilterReader(new StringReader(gpx)));
+    }
+
+    @Benchmark
+    public int unfilteredBaseline() throws IOException {
+        return readAll(new StringReader(gpx));
+    }
+}
@@ -0,0 +1,73 @@
+package cgeo.geocaching.location;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geographic calculations done for every cache when sorting lists or drawing maps, and coordinate parsing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeopointBenchmark {
+
+    // not final, to avoid constant folding
+    private Geopoint from = new Geopoint(49.7, 8.6);
+    private Geopoint to = new Geopoint(52.35, 9.74);
+    private Viewport viewport = new Viewport(new Geopoint(49.0, 8.0), new Geopoint(50.0, 9.0));
+    private String minutes = "N 49° 44.000 E 8° 37.000";
+    private String decimal = "49.733333 8.616667";
+    private String seconds = "N 49° 44' 00.0\" E 8° 37' 00.0\"";
+
+    @Benchmark
+    public float distanceTo() {
+        return from.distanceTo(to);
+    }
+
+    @Benchmark
+    public float bearingTo() {
+        return from.bearingTo(to);
+    }
+
+    @Benchmark
+    public Geopoint project() {
+        return from.project(45, 10);
+    }
+
+    @Benchmark
+    public boolean viewportContains() {
+        return viewport.contains(from);
+    }
+
+    @Benchmark
+    public Geopoint parseMinutes() {
+        return GeopointParser.parse(minutes);
+    }
+
+    @Benchmark
+    public Geopoint parseDecimal() {
+        return GeopointParser.parse(decimal);
+    }
+
+    @Benchmark
+    public Geopoint parseSeconds() {
+        return GeopointParser.parse(seconds);
+    }
+
+    @Benchmark
+    public String format() {
+        return from.format(GeopointFormatter.Format.LAT_LON_DECMINUTE);
+    }
+}
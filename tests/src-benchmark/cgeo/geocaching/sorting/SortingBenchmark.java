@@ -0,0 +1,65 @@
+package cgeo.geocaching.sorting;
+
+import cgeo.geocaching.location.Geopoint;
+import cgeo.geocaching.models.Geocache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorting of a large cache list, as done by the cache list whenever the position changes or the user sorts it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SortingBenchmark {
+
+    private static final int CACHES = 1000;
+
+    private final List<Geocache> caches = new ArrayList<>(CACHES);
+    private Geopoint position = new Geopoint(49.7, 8.6);
+
+    @Setup
+    public void setUp() {
+        // fixed seed, so that all runs sort the same list
+        final Random random = new Random(42);
+        for (int i = 0; i < CACHES; i++) {
+            final Geocache cache = new Geocache();
+            cache.setGeocode("GCB" + i);
+            cache.setName("Cache " + random.nextInt(CACHES));
+            cache.setCoords(new Geopoint(49.0 + random.nextDouble(), 8.0 + random.nextDouble()));
+            caches.add(cache);
+        }
+    }
+
+    @Benchmark
+    public List<Geocache> sortByDistance() {
+        final List<Geocache> list = new ArrayList<>(caches);
+        Collections.sort(list, new DistanceComparator(position, list));
+        return list;
+    }
+
+    @Benchmark
+    public List<Geocache> sortByName() {
+        final List<Geocache> list = new ArrayList<>(caches);
+        Collections.sort(list, new NameComparator());
+        return list;
+    }
+}
@@ -0,0 +1,63 @@
+package cgeo.geocaching.utils;
+
+import cgeo.geocaching.RawResources;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Text extraction of the hints and descriptions of all GPX files in tests/res/raw, like done for every cache of a GPX
+ * import. HTML.fromHtml(...), which was used before, is not available without a device; its results are compared with
+ * the ones of the current implementation by HtmlUtilsCompatibilityTest.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HtmlUtilsBenchmark {
+
+    @Param({ "encoded_hints", "long_description" })
+    public String element;
+
+    private final List<String> texts = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws IOException {
+        final Pattern pattern = Pattern.compile("<groundspeak:" + element + "[^>]*>(.*?)</groundspeak:" + element + ">", Pattern.DOTALL);
+        for (final File gpx : FileUtils.listFiles(RawResources.getDirectory(), new String[] { "gpx" }, false)) {
+            final Matcher matcher = pattern.matcher(FileUtils.readFileToString(gpx, "UTF-8"));
+            while (matcher.find()) {
+                texts.add(StringEscapeUtils.unescapeXml(matcher.group(1)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void extractText(final Blackhole blackhole) {
+        for (final String text : texts) {
+            blackhole.consume(HtmlUtils.extractText(text));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package cgeo.geocaching.utils;
+
+import cgeo.geocaching.test.mock.MockedCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text helpers applied to complete downloaded pages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextUtilsBenchmark {
+
+    private String page;
+
+    @Setup
+    public void setUp() {
+        page = MockedCache.readCachePage("GC2CJPF");
+    }
+
+    @Benchmark
+    public String replaceWhitespace() {
+        return TextUtils.replaceWhitespace(page);
+    }
+
+    @Benchmark
+    public boolean containsHtml() {
+        return TextUtils.containsHtml(page);
+    }
+
+    @Benchmark
+    public long checksum() {
+        return TextUtils.checksum(page);
+    }
+
+    @Benchmark
+    public String removeControlCharacters() {
+        return TextUtils.removeControlCharacters(page);
+    }
+}
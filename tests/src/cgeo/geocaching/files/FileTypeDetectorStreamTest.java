@@ -0,0 +1,134 @@
+package cgeo.geocaching.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.commons.io.IOUtils;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Detection of file types from stream content. The detection from content URIs is tested by FileTypeDetectorTest.
+ */
+public class FileTypeDetectorStreamTest extends TestCase {
+
+    private static final String GPX_1_0 = "<?xml version=\"1.0\" encoding=\"utf-8\"?><gpx xmlns=\"http://www.topografix.com/GPX/1/0\" version=\"1.0\"><wpt lat=\"1\" lon=\"2\"/></gpx>";
+    private static final String GPX_1_1 = "<?xml version=\"1.0\" encoding=\"utf-8\"?>\n<gpx\n  version=\"1.1\"\n  xmlns=\"http://www.topografix.com/GPX/1/1\">\n</gpx>";
+    private static final String LOC = "<?xml version=\"1.0\" encoding=\"UTF-8\"?><loc version=\"1.0\" src=\"Groundspeak\"><waypoint/></loc>";
+
+    private static FileTypeDetector.Detection detect(final byte[] content) throws IOException {
+        return FileTypeDetector.detect(new ByteArrayInputStream(content));
+    }
+
+    private static FileTypeDetector.Detection detect(final String content) throws IOException {
+        return detect(content.getBytes("UTF-8"));
+    }
+
+    private static byte[] gzip(final String content) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+        gzip.write(content.getBytes("UTF-8"));
+        gzip.close();
+        return bytes.toByteArray();
+    }
+
+    public static void testGpxVersion() throws Exception {
+        assertThat(detect(GPX_1_0).type).isEqualTo(FileType.GPX);
+        assertThat(detect(GPX_1_0).gpxVersion).isEqualTo(GpxVersion.GPX_1_0);
+        assertThat(detect(GPX_1_1).type).isEqualTo(FileType.GPX);
+        assertThat(detect(GPX_1_1).gpxVersion).isEqualTo(GpxVersion.GPX_1_1);
+        assertThat(detect("<gpx version=\"1.1\"></gpx>").gpxVersion).isEqualTo(GpxVersion.UNKNOWN);
+    }
+
+    public static void testSchemaLocationOfOtherVersion() throws Exception {
+        final String gpx = "<gpx xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" version=\"1.1\""
+                + " xsi:schemaLocation=\"http://www.topografix.com/GPX/1/0 http://www.topografix.com/GPX/1/0/gpx.xsd\""
+                + " xmlns = 'http://www.topografix.com/GPX/1/1'></gpx>";
+        assertThat(detect(gpx).gpxVersion).isEqualTo(GpxVersion.GPX_1_1);
+        assertThat(detect("<gpx xmlns:gpx10=\"http://www.topografix.com/GPX/1/0\"></gpx>").gpxVersion).isEqualTo(GpxVersion.UNKNOWN);
+    }
+
+    public static void testNamespaceOutsideOfRoot() throws Exception {
+        final FileTypeDetector.Detection detection = detect("<gpx version=\"1.0\"><desc>http://www.topografix.com/GPX/1/1</desc></gpx>");
+        assertThat(detection.type).isEqualTo(FileType.GPX);
+        assertThat(detection.gpxVersion).isEqualTo(GpxVersion.UNKNOWN);
+    }
+
+    public static void testLoc() throws Exception {
+        assertThat(detect(LOC).type).isEqualTo(FileType.LOC);
+    }
+
+    public static void testElementNamePrefix() throws Exception {
+        assertThat(detect("<gpxx:WaypointExtension></gpxx:WaypointExtension>").type).isEqualTo(FileType.UNKNOWN);
+        assertThat(detect("<location>x</location>").type).isEqualTo(FileType.UNKNOWN);
+    }
+
+    public static void testUnknown() throws Exception {
+        assertThat(detect("<html><body>gpx loc</body></html>").type).isEqualTo(FileType.UNKNOWN);
+        assertThat(detect(new byte[0]).type).isEqualTo(FileType.UNKNOWN);
+    }
+
+    public static void testZip() throws Exception {
+        assertThat(detect(new byte[] { 'P', 'K', 3, 4, 20, 0 }).type).isEqualTo(FileType.ZIP);
+    }
+
+    public static void testByteOrderMark() throws Exception {
+        final byte[] utf8 = ("\uFEFF" + GPX_1_1).getBytes("UTF-8");
+        assertThat(detect(utf8).gpxVersion).isEqualTo(GpxVersion.GPX_1_1);
+        assertThat(detect(("\uFEFF" + LOC).getBytes("UTF-16LE")).type).isEqualTo(FileType.LOC);
+        final FileTypeDetector.Detection utf16 = detect(("\uFEFF" + GPX_1_0).getBytes("UTF-16BE"));
+        assertThat(utf16.type).isEqualTo(FileType.GPX);
+        assertThat(utf16.gpxVersion).isEqualTo(GpxVersion.GPX_1_0);
+    }
+
+    public static void testRootBeyondFirstLine() throws Exception {
+        final StringBuilder content = new StringBuilder("<?xml version=\"1.0\"?>\n<!-- ");
+        for (int i = 0; i < 100; i++) {
+            content.append("comment line\n");
+        }
+        content.append("-->").append(GPX_1_0.substring(GPX_1_0.indexOf("<gpx")));
+        assertThat(detect(content.toString()).gpxVersion).isEqualTo(GpxVersion.GPX_1_0);
+    }
+
+    public static void testRootBeyondPrefix() throws Exception {
+        final StringBuilder content = new StringBuilder("<?xml version=\"1.0\"?><!-- ");
+        while (content.length() < FileTypeDetector.PREFIX_LENGTH) {
+            content.append("comment ");
+        }
+        content.append("-->").append(LOC);
+        assertThat(detect(content.toString()).type).isEqualTo(FileType.UNKNOWN);
+    }
+
+    public static void testGzip() throws Exception {
+        final FileTypeDetector.Detection gpx = detect(gzip(GPX_1_1));
+        assertThat(gpx.type).isEqualTo(FileType.GPX);
+        assertThat(gpx.gpxVersion).isEqualTo(GpxVersion.GPX_1_1);
+        assertThat(gpx.gzip).isTrue();
+        assertThat(detect(gzip(LOC)).type).isEqualTo(FileType.LOC);
+        assertThat(detect(GPX_1_1).gzip).isFalse();
+    }
+
+    public static void testGzipLargerThanPrefix() throws Exception {
+        final StringBuilder content = new StringBuilder(GPX_1_0);
+        for (int i = 0; i < 10000; i++) {
+            content.append("<!-- ").append(i).append(" -->");
+        }
+        assertThat(detect(gzip(content.toString())).gpxVersion).isEqualTo(GpxVersion.GPX_1_0);
+    }
+
+    public static void testInvalidGzip() throws Exception {
+        assertThat(detect(new byte[] { (byte) 0x1f, (byte) 0x8b, 0, 0 }).type).isEqualTo(FileType.UNKNOWN);
+    }
+
+    public static void testDecompressIfNeeded() throws Exception {
+        final InputStream compressed = FileTypeDetector.decompressIfNeeded(new ByteArrayInputStream(gzip(LOC)));
+        assertThat(IOUtils.toString(compressed, "UTF-8")).isEqualTo(LOC);
+        final InputStream plain = FileTypeDetector.decompressIfNeeded(new ByteArrayInputStream(LOC.getBytes("UTF-8")));
+        assertThat(IOUtils.toString(plain, "UTF-8")).isEqualTo(LOC);
+    }
+}
@@ -0,0 +1,77 @@
+package cgeo.geocaching.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import cgeo.geocaching.models.ICoordinates;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+
+public class SpatialGridTest extends TestCase {
+
+    private static class Point implements ICoordinates {
+        private final Geopoint coords;
+
+        Point(final Geopoint coords) {
+            this.coords = coords;
+        }
+
+        @Override
+        public Geopoint getCoords() {
+            return coords;
+        }
+    }
+
+    private static final Point INSIDE = new Point(new Geopoint(49.5, 8.5));
+    private static final Point INSIDE_OTHER_CELL = new Point(new Geopoint(49.9, 8.1));
+    private static final Point OUTSIDE = new Point(new Geopoint(51.0, 8.5));
+    private static final Point NEGATIVE = new Point(new Geopoint(-0.05, -0.05));
+
+    private static SpatialGrid<Point> createGrid(final double cellSize) {
+        final SpatialGrid<Point> grid = new SpatialGrid<>(cellSize);
+        grid.add(INSIDE);
+        grid.add(INSIDE_OTHER_CELL);
+        grid.add(OUTSIDE);
+        grid.add(NEGATIVE);
+        grid.add(new Point(null));
+        return grid;
+    }
+
+    public static void testSizeIgnoresMissingCoordinates() {
+        assertThat(createGrid(0.1).size()).isEqualTo(4);
+    }
+
+    public static void testGetInViewport() {
+        final Viewport viewport = new Viewport(new Geopoint(49.0, 8.0), new Geopoint(50.0, 9.0));
+        // small cells: the cells of the viewport are scanned, large cells: all filled cells are scanned
+        for (final double cellSize : new double[] { 0.01, 0.1, 1.0, 10.0 }) {
+            final List<Point> result = createGrid(cellSize).getInViewport(viewport);
+            assertThat(result).containsOnly(INSIDE, INSIDE_OTHER_CELL);
+        }
+    }
+
+    public static void testNegativeCoordinates() {
+        final Viewport viewport = new Viewport(new Geopoint(-0.1, -0.1), new Geopoint(0.0, 0.0));
+        assertThat(createGrid(0.1).getInViewport(viewport)).containsOnly(NEGATIVE);
+    }
+
+    public static void testCells() {
+        final SpatialGrid<Point> grid = createGrid(1.0);
+        assertThat(grid.getCells()).hasSize(3);
+        int items = 0;
+        for (final List<Point> cell : grid.getCells()) {
+            items += cell.size();
+        }
+        assertThat(items).isEqualTo(4);
+    }
+
+    public static void testInvalidCellSize() {
+        try {
+            new SpatialGrid<Point>(0);
+            fail("cell size 0 must be rejected");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
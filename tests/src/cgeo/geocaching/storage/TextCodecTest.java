@@ -0,0 +1,47 @@
+package cgeo.geocaching.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import junit.framework.TestCase;
+
+import java.io.UnsupportedEncodingException;
+
+public class TextCodecTest extends TestCase {
+
+    private static String createDescription() {
+        final StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            description.append("<p>Stage ").append(i).append(": look for the tree with the bird house (Vogelhäuschen).</p>\n");
+        }
+        return description.toString();
+    }
+
+    public static void testRoundTrip() {
+        final String description = createDescription();
+        final byte[] compressed = TextCodec.compress(description);
+        assertThat(compressed).isNotNull();
+        assert compressed != null;
+        assertThat(TextCodec.isCompressed(compressed)).isTrue();
+        assertThat(TextCodec.decode(compressed)).isEqualTo(description);
+    }
+
+    public static void testCompressionRatio() throws UnsupportedEncodingException {
+        final String description = createDescription();
+        final byte[] compressed = TextCodec.compress(description);
+        assert compressed != null;
+        assertThat(compressed.length).isLessThan(description.getBytes("UTF-8").length / 4);
+    }
+
+    public static void testShortTextIsNotCompressed() {
+        assertThat(TextCodec.compress("short log")).isNull();
+        assertThat(TextCodec.compress(null)).isNull();
+    }
+
+    public static void testDecodePlainText() throws UnsupportedEncodingException {
+        assertThat(TextCodec.decode("plain text".getBytes("UTF-8"))).isEqualTo("plain text");
+        // text columns read as blob may contain the terminating zero byte
+        assertThat(TextCodec.decode("plain text\0".getBytes("UTF-8"))).isEqualTo("plain text");
+        assertThat(TextCodec.decode(new byte[0])).isEmpty();
+        assertThat(TextCodec.decode(null)).isNull();
+    }
+}
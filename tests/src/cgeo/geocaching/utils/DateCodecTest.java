@@ -0,0 +1,79 @@
+package cgeo.geocaching.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import junit.framework.TestCase;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public class DateCodecTest extends TestCase {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    private static final TimeZone BERLIN = TimeZone.getTimeZone("Europe/Berlin");
+
+    private static long parseReference(final String pattern, final TimeZone zone, final String input) throws ParseException {
+        final SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.US);
+        format.setTimeZone(zone);
+        return format.parse(input).getTime();
+    }
+
+    public static void testParseWithoutZone() throws ParseException {
+        assertThat(DateCodec.parseIsoDateTime("2010-04-20T07:00:00", BERLIN).getTime())
+                .isEqualTo(parseReference("yyyy-MM-dd'T'HH:mm:ss", BERLIN, "2010-04-20T07:00:00"));
+        assertThat(DateCodec.parseIsoDateTime("2010-01-20T07:00:00", UTC).getTime())
+                .isEqualTo(parseReference("yyyy-MM-dd'T'HH:mm:ss", UTC, "2010-01-20T07:00:00"));
+    }
+
+    public static void testParseWithZone() throws ParseException {
+        final long expected = parseReference("yyyy-MM-dd'T'HH:mm:ssZ", UTC, "2010-04-20T01:01:03-0400");
+        assertThat(DateCodec.parseIsoDateTime("2010-04-20T01:01:03-04:00", BERLIN).getTime()).isEqualTo(expected);
+        assertThat(DateCodec.parseIsoDateTime("2010-04-20T01:01:03-0400", BERLIN).getTime()).isEqualTo(expected);
+        assertThat(DateCodec.parseIsoDateTime("2010-04-20T01:01:03-04", BERLIN).getTime()).isEqualTo(expected);
+        assertThat(DateCodec.parseIsoDateTime("2010-04-20T05:01:03Z", BERLIN).getTime()).isEqualTo(expected);
+    }
+
+    public static void testParseIgnoresFraction() throws ParseException {
+        assertThat(DateCodec.parseIsoDateTime("2011-08-13T02:52:18.103Z", BERLIN))
+                .isEqualTo(DateCodec.parseIsoDateTime("2011-08-13T02:52:18Z", BERLIN));
+        assertThat(DateCodec.parseIsoDateTime("2011-11-07T00:00:00.0000000-07:00", BERLIN))
+                .isEqualTo(DateCodec.parseIsoDateTime("2011-11-07T07:00:00Z", BERLIN));
+    }
+
+    public static void testParseInvalid() {
+        assertInvalid("");
+        assertInvalid("2010-04-20");
+        assertInvalid("2010-04-20 07:00:00");
+        assertInvalid("2010-04-2xT07:00:00");
+        assertInvalid("2010-04-20T07:00:00+01:");
+        assertInvalid("2010-04-20T07:00:00 trailing");
+    }
+
+    private static void assertInvalid(final String input) {
+        try {
+            DateCodec.parseIsoDateTime(input, UTC);
+            fail("parsed invalid date " + input);
+        } catch (final ParseException expected) {
+            // expected
+        }
+    }
+
+    public static void testFormat() throws ParseException {
+        final Date date = DateCodec.parseIsoDateTime("2010-04-20T05:01:03Z", UTC);
+        assertThat(DateCodec.formatIsoDateTime(date, UTC)).isEqualTo("2010-04-20T05:01:03");
+        assertThat(DateCodec.formatIsoDateTime(date, BERLIN)).isEqualTo("2010-04-20T07:01:03");
+        assertThat(DateCodec.formatIsoDateTime(new Date(0), UTC)).isEqualTo("1970-01-01T00:00:00");
+    }
+
+    public static void testParseAndFormatWithPattern() throws ParseException {
+        final Date date = DateCodec.parse("07/23/2001", "MM/dd/yyyy", Locale.ENGLISH);
+        assertThat(date).isEqualTo(DateCodec.parse("23.07.2001", "dd.MM.yyyy", Locale.ENGLISH));
+        assertThat(DateCodec.format(date, "yyyy-MM-dd", Locale.ENGLISH)).isEqualTo("2001-07-23");
+        // the cached formats of the thread are independent of each other
+        assertThat(DateCodec.format(date, "MM/dd/yyyy", Locale.ENGLISH)).isEqualTo("07/23/2001");
+        assertThat(DateCodec.format(date, "dd MMM yyyy", Locale.ENGLISH)).isEqualTo("23 Jul 2001");
+    }
+}
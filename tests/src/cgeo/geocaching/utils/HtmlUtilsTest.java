@@ -15,6 +15,38 @@ public class HtmlUtilsTest extends TestCase {
         assertThat(HtmlUtils.extractText("<b>bold</b>")).isEqualTo("bold");
     }
 
+    public static void testExtractTextLineBreaks() {
+        assertThat(HtmlUtils.extractText("one<br>two<br />three")).isEqualTo("one\ntwo\nthree");
+        assertThat(HtmlUtils.extractText("<p>one</p><p>two</p>")).isEqualTo("one\n\ntwo");
+        assertThat(HtmlUtils.extractText("<div>one<div>two</div></div>three")).isEqualTo("one\n\ntwo\n\nthree");
+        assertThat(HtmlUtils.extractText("<h1>Title</h1>text")).isEqualTo("Title\n\ntext");
+    }
+
+    public static void testExtractTextWhitespace() {
+        assertThat(HtmlUtils.extractText("  many \n\n  spaces  ")).isEqualTo("many spaces");
+        assertThat(HtmlUtils.extractText("line<br>\n  next")).isEqualTo("line\nnext");
+    }
+
+    public static void testExtractTextEntities() {
+        assertThat(HtmlUtils.extractText("a &amp; b &lt;c&gt; &quot;d&quot;")).isEqualTo("a & b <c> \"d\"");
+        assertThat(HtmlUtils.extractText("&#65;&#x42;&#X43;")).isEqualTo("ABC");
+        assertThat(HtmlUtils.extractText("caf&eacute; &euro;")).isEqualTo("caf\u00e9 \u20ac");
+        assertThat(HtmlUtils.extractText("a&nbsp;b")).isEqualTo("a\u00a0b");
+        // unknown and unterminated entities are kept
+        assertThat(HtmlUtils.extractText("&unknown; & &amp")).isEqualTo("&unknown; & &amp");
+    }
+
+    public static void testExtractTextRemovedContent() {
+        assertThat(HtmlUtils.extractText("<img src=\"a>b.png\">text")).isEqualTo("text");
+        assertThat(HtmlUtils.extractText("<!-- hidden -->text")).isEqualTo("text");
+        assertThat(HtmlUtils.extractText("a<script>var p = '</p>';</script>b<style>p {}</style>c")).isEqualTo("abc");
+    }
+
+    public static void testExtractTextNoTag() {
+        assertThat(HtmlUtils.extractText("less than <3m")).isEqualTo("less than <3m");
+        assertThat(HtmlUtils.extractText("1 < 2")).isEqualTo("1 < 2");
+    }
+
     public static void testRemoveExtraParagraph() {
         assertThat(HtmlUtils.removeExtraTags("<p></p>")).isEmpty();
         assertThat(HtmlUtils.removeExtraTags("<p>Test</p>")).isEqualTo("Test");
@@ -0,0 +1,62 @@
+package cgeo.geocaching.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import junit.framework.TestCase;
+
+public class MetricsTest extends TestCase {
+
+    public static void testCounter() {
+        final Metrics.Counter counter = Metrics.counter("test.counter");
+        counter.reset();
+        counter.inc();
+        counter.add(41);
+        assertThat(counter.get()).isEqualTo(42);
+        assertThat(Metrics.counter("test.counter")).isSameAs(counter);
+    }
+
+    public static void testHistogram() {
+        final Metrics.Histogram histogram = Metrics.histogram("test.histogram", "bytes");
+        histogram.reset();
+        assertThat(histogram.getPercentile(50)).isEqualTo(0);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount()).isEqualTo(100);
+        assertThat(histogram.getMean()).isEqualTo(50);
+        assertThat(histogram.getMax()).isEqualTo(100);
+        // percentiles are upper bounds of the power of two buckets
+        assertThat(histogram.getPercentile(50)).isEqualTo(63);
+        assertThat(histogram.getPercentile(90)).isEqualTo(100);
+        assertThat(histogram.getPercentile(1)).isEqualTo(1);
+    }
+
+    public static void testTimer() {
+        final Metrics.Timer timer = Metrics.timer("test.timer");
+        timer.reset();
+        final long start = timer.start();
+        timer.stop(start - 5000000);
+        assertThat(timer.getCount()).isEqualTo(1);
+        assertThat(timer.getMax()).isGreaterThanOrEqualTo(5000);
+    }
+
+    public static void testNameClash() {
+        Metrics.counter("test.clash");
+        try {
+            Metrics.timer("test.clash");
+            fail("metric registered with two types");
+        } catch (final IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    public static void testJson() {
+        Metrics.counter("test.json").add(3);
+        final ObjectNode json = Metrics.toJson();
+        assertThat(json.get("metrics").get("test.json").get("type").asText()).isEqualTo("counter");
+        assertThat(json.get("metrics").get("test.json").get("value").asLong()).isGreaterThanOrEqualTo(3);
+        assertThat(Metrics.format()).contains("test.json: ");
+    }
+}
@@ -0,0 +1,35 @@
+package cgeo.geocaching.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import junit.framework.TestCase;
+
+public class XmlElementNamesTest extends TestCase {
+
+    private enum Element {
+        NAME, DATECREATED, OTHER
+    }
+
+    private static final XmlElementNames<Element> ELEMENTS = new XmlElementNames<>(Element.class, Element.OTHER);
+
+    public static void testKnownNames() {
+        assertThat(ELEMENTS.get("name")).isEqualTo(Element.NAME);
+        assertThat(ELEMENTS.get("datecreated")).isEqualTo(Element.DATECREATED);
+    }
+
+    public static void testCaseInsensitive() {
+        assertThat(ELEMENTS.get("NAME")).isEqualTo(Element.NAME);
+        assertThat(ELEMENTS.get("DateCreated")).isEqualTo(Element.DATECREATED);
+        // the cached spelling must give the same result
+        assertThat(ELEMENTS.get("NAME")).isEqualTo(Element.NAME);
+    }
+
+    public static void testUnknownNames() {
+        assertThat(ELEMENTS.get("geokret")).isEqualTo(Element.OTHER);
+        assertThat(ELEMENTS.get("")).isEqualTo(Element.OTHER);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(ELEMENTS.get("unknown" + i)).isEqualTo(Element.OTHER);
+        }
+        assertThat(ELEMENTS.get("name")).isEqualTo(Element.NAME);
+    }
+}